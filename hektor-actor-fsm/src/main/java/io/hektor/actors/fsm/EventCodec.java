@@ -0,0 +1,29 @@
+package io.hektor.actors.fsm;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes the events of an {@link FsmActor} so that they can be written to,
+ * and replayed from, a {@link Journal}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public interface EventCodec {
+
+    /**
+     * Write the event straight into the given buffer. If it doesn't fit, simply let the buffer
+     * throw {@link BufferOverflowException}, after which the encoding will be tried again once
+     * there is more room. As such, encoding must not have any side effects.
+     *
+     * @param event the event to encode.
+     * @param out the buffer to write to, starting at its current position.
+     */
+    void encode(Object event, ByteBuffer out) throws BufferOverflowException;
+
+    /**
+     * Decode an event from the given buffer, which contains exactly what was written by
+     * {@link #encode(Object, ByteBuffer)}, between its position and its limit.
+     */
+    Object decode(ByteBuffer in);
+}
@@ -4,18 +4,28 @@ import io.hektor.actors.SubscriptionManagementSupport;
 import io.hektor.core.ActorContext;
 import io.hektor.core.ActorPath;
 import io.hektor.core.ActorRef;
+import io.hektor.core.PassivationStore;
 import io.hektor.core.Props;
 import io.hektor.core.Scheduler;
 import io.hektor.core.TransactionalActor;
 import io.hektor.fsm.Context;
 import io.hektor.fsm.Data;
+import io.hektor.fsm.DataCodec;
 import io.hektor.fsm.Definition;
 import io.hektor.fsm.FSM;
+import io.hektor.fsm.FsmCodec;
+import io.hektor.fsm.FsmSnapshot;
+import io.hektor.fsm.TransitionListener;
 import io.snice.logging.Logging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -49,8 +59,45 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
     private final OnStartFunction<C, D> onStart;
     private final OnStopFunction<C, D> onStop;
 
+    /**
+     * Only there if the actor may be passivated, see {@link Builder#withPassivation(Duration, Function, Function)}.
+     */
+    private final Function<D, byte[]> dataEncoder;
+    private final Function<byte[], D> dataDecoder;
+
+    /**
+     * Only there if the actor is passivated into a byte array, see
+     * {@link Builder#withPassivation(Duration, DataCodec, PassivationStore)}.
+     */
+    private final DataCodec<D> dataCodec;
+
+    /**
+     * Only there if the FSM is journaled, see {@link Builder#withJournal(Journal, EventCodec)}.
+     */
+    private final Journal journal;
+    private final JournalMode journalMode;
+    private final EventCodec eventCodec;
+    private Journal.Writer journalWriter;
+
+    /**
+     * The event currently being processed, which is appended to the journal by the {@link TransitionListener}
+     * once the FSM accepts it. The listener is invoked before any of the actions, but appending only buffers
+     * the event in memory, so it is not on disk until the next commit, which may well be after its effects.
+     */
+    private Object pending;
+
+    /**
+     * True while the events in the journal are replayed, during which nothing is told to the subscribers.
+     */
+    private boolean replaying;
+
     private io.snice.logging.Context logCtx;
 
+    /**
+     * The scheduler handed to the FSM. Created once, the first time the FSM is invoked,
+     * since the scheduler of the actor never changes.
+     */
+    private FsmSchedulerAdaptor schedulerAdaptor;
 
 
     public static <S extends Enum<S>, C extends Context, D extends Data> Builder<S, C, D> of(final Definition<S, C, D> definition) {
@@ -62,13 +109,25 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
                      final Function<ActorRef, C> context,
                      final Supplier<D> data,
                      final OnStartFunction<C, D> onStart,
-                     final OnStopFunction<C, D> onStop) {
+                     final OnStopFunction<C, D> onStop,
+                     final Function<D, byte[]> dataEncoder,
+                     final Function<byte[], D> dataDecoder,
+                     final DataCodec<D> dataCodec,
+                     final Journal journal,
+                     final JournalMode journalMode,
+                     final EventCodec eventCodec) {
         super(false);
         this.definition = definition;
         this.contextSupplier = context;
         this.dataSupplier = data;
         this.onStart = onStart;
         this.onStop = onStop;
+        this.dataEncoder = dataEncoder;
+        this.dataDecoder = dataDecoder;
+        this.dataCodec = dataCodec;
+        this.journal = journal;
+        this.journalMode = journalMode;
+        this.eventCodec = eventCodec;
     }
 
     @Override
@@ -83,14 +142,180 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
         data = dataSupplier.get();
         onStart.start(ctx(), context, data);
 
-        fsm = definition.newInstance(myPath, context, data, this::unhandledEvent, null);
+        fsm = definition.newInstance(myPath, context, data, this::unhandledEvent, transitionListener());
+
+        if (journal != null) {
+            journalWriter = journal.writer(myPath);
+            if (recover()) {
+                return;
+            }
+        }
 
         invokeFsm((ignore) -> fsm.start(), null);
     }
 
+    /**
+     * Bring the FSM back from whatever is in the journal, if anything.
+     *
+     * @return true if the FSM was recovered, false if this is a brand new FSM.
+     */
+    private boolean recover() {
+        final List<Journal.Entry> entries = journal.recover(myPath);
+        if (entries.isEmpty()) {
+            return false;
+        }
+
+        logInfo(logCtx, "Recovering from {} journal entries", entries.size());
+        if (journalMode == JournalMode.TRANSITIONS) {
+            final S[] states = definition.initialState().getDeclaringClass().getEnumConstants();
+            final long[] entered = new long[(states.length + Long.SIZE - 1) / Long.SIZE];
+            S current = definition.initialState();
+            entered[current.ordinal() / Long.SIZE] |= 1L << current.ordinal();
+            for (final Journal.Entry entry : entries) {
+                if (entry.type() == Journal.TRANSITION) {
+                    current = states[entry.payload().getShort(0)];
+                    entered[current.ordinal() / Long.SIZE] |= 1L << current.ordinal();
+                }
+            }
+            fsm = definition.restore(new FsmSnapshot<>(current, entered), myPath, context, data,
+                    this::unhandledEvent, transitionListener());
+            return true;
+        }
+
+        replaying = true;
+        try {
+            invokeFsm((ignore) -> fsm.start(), null);
+            for (final Journal.Entry entry : entries) {
+                if (entry.type() == Journal.EVENT && !fsm.isTerminated()) {
+                    invokeFsm((o) -> fsm.onEvent(o), eventCodec.decode(entry.payload()));
+                }
+            }
+        } finally {
+            replaying = false;
+        }
+        return true;
+    }
+
+    private TransitionListener<S> transitionListener() {
+        if (journal == null) {
+            return null;
+        }
+
+        if (journalMode == JournalMode.EVENTS) {
+            return (from, to, event) -> {
+                // only once, the event may very well lead through a number of transient states.
+                if (pending != null) {
+                    journalWriter.event(eventCodec, pending);
+                    pending = null;
+                }
+            };
+        }
+
+        return (from, to, event) -> journalWriter.transition(to.ordinal());
+    }
+
+    /**
+     * All that is kept of a passivated FSM is where it was, its encoded {@link Data} and whoever subscribed
+     * to it. The {@link Context} is simply re-created when the actor is brought back.
+     */
+    @Override
+    public Object passivate() {
+        if ((dataEncoder == null && dataCodec == null) || fsm == null || fsm.isTerminated()) {
+            return null;
+        }
+
+        logInfo(logCtx, "Passivating");
+        if (dataCodec != null) {
+            return encodeSnapshot();
+        }
+
+        return new Passivated<>(fsm.snapshot(), dataEncoder.apply(data), subscribers());
+    }
+
+    /**
+     * Bring back the FSM exactly where it was, which means that neither the {@link OnStartFunction} nor
+     * any of the actions of the FSM are executed again.
+     */
+    @Override
+    public void activate(final Object snapshot) {
+        myPath = ctx().self().path();
+        logCtx = visitor -> visitor.accept("actor", myPath.name());
+
+        logInfo(logCtx, "Activating");
+        context = contextSupplier.apply(self());
+        if (journal != null) {
+            journalWriter = journal.writer(myPath);
+        }
+        if (snapshot instanceof byte[]) {
+            decodeSnapshot(ByteBuffer.wrap((byte[]) snapshot));
+            return;
+        }
+
+        final Passivated<S> passivated = (Passivated<S>) snapshot;
+        data = dataDecoder.apply(passivated.data());
+        restoreSubscribers(passivated.subscribers());
+        fsm = definition.restore(passivated.fsm(), myPath, context, data, this::unhandledEvent, transitionListener());
+    }
+
+    /**
+     * The FSM, as written by the {@link FsmCodec}, followed by the number of subscribers and
+     * then the path of every one of them.
+     */
+    private byte[] encodeSnapshot() {
+        final FsmCodec<S, C, D> codec = definition.codec(dataCodec);
+        final ActorRef[] subscribers = subscribers();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (true) {
+            try {
+                codec.write(fsm, buffer);
+                buffer.putShort((short) subscribers.length);
+                for (final ActorRef subscriber : subscribers) {
+                    final byte[] path = subscriber.path().toString().getBytes(StandardCharsets.UTF_8);
+                    buffer.putShort((short) path.length);
+                    buffer.put(path);
+                }
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (final BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * The subscribers that no longer exist, which may very well happen if the actor was brought
+     * back after a restart, are simply dropped.
+     */
+    private void decodeSnapshot(final ByteBuffer snapshot) {
+        // we need to hold on to the data as well, which only the codec gets to see.
+        final DataCodec<D> capturingCodec = new DataCodec<>() {
+            @Override
+            public void encode(final D data, final ByteBuffer out) {
+                dataCodec.encode(data, out);
+            }
+
+            @Override
+            public D decode(final ByteBuffer in) {
+                data = dataCodec.decode(in);
+                return data;
+            }
+        };
+        fsm = definition.codec(capturingCodec).read(snapshot, myPath, context, this::unhandledEvent, transitionListener());
+        final int count = snapshot.getShort();
+        final List<ActorRef> subscribers = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final byte[] path = new byte[snapshot.getShort()];
+            snapshot.get(path);
+            ctx().lookup(ActorPath.of(new String(path, StandardCharsets.UTF_8))).ifPresent(subscribers::add);
+        }
+        restoreSubscribers(subscribers.toArray(new ActorRef[0]));
+    }
+
     @Override
     public void stop() {
         logInfo(logCtx, "Stopping");
+        if (journalWriter != null) {
+            journalWriter.end();
+        }
         onStop.stop(ctx(), context, data);
     }
 
@@ -101,7 +326,17 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
 
     @Override
     protected void onEvent(final Object msg) {
-        invokeFsm((o) -> fsm.onEvent(o), msg);
+        if (eventCodec == null) {
+            invokeFsm((o) -> fsm.onEvent(o), msg);
+            return;
+        }
+
+        pending = msg;
+        try {
+            invokeFsm((o) -> fsm.onEvent(o), msg);
+        } finally {
+            pending = null;
+        }
     }
 
     public void unhandledEvent(final S state, final Object o) {
@@ -111,7 +346,9 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
     private void invokeFsm(final Consumer<Object> exec, final Object msg) {
         final var ctx = ctx();
         final var ctxAdaptor = new FsmActorContextAdaptorSupport(ctx);
-        final var schedulerAdaptor = new FsmSchedulerAdaptor(ctx().scheduler(), self());
+        if (schedulerAdaptor == null) {
+            schedulerAdaptor = new FsmSchedulerAdaptor(ctx.scheduler(), self());
+        }
         Context._scheduler.set(schedulerAdaptor);
         FsmActorContextSupport._ctx.set(ctxAdaptor); // only matters if the Context actually is implementing this support interface
         try {
@@ -131,6 +368,9 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
         return logger;
     }
 
+    private record Passivated<S extends Enum<S>>(FsmSnapshot<S> fsm, byte[] data, ActorRef[] subscribers) {
+    }
+
     public static class Builder<S extends Enum<S>, C extends Context, D extends Data> {
 
         private final Definition<S, C, D> definition;
@@ -141,6 +381,15 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
         private OnStartFunction<C, D> onStart;
         private OnStopFunction<C, D> onStop;
 
+        private Duration passivateAfter;
+        private Function<D, byte[]> dataEncoder;
+        private Function<byte[], D> dataDecoder;
+        private DataCodec<D> dataCodec;
+        private PassivationStore passivationStore;
+        private Journal journal;
+        private JournalMode journalMode;
+        private EventCodec eventCodec;
+
         private Builder(final Definition<S, C, D> definition) {
             this.definition = definition;
         }
@@ -188,11 +437,101 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
             return this;
         }
 
+        /**
+         * Passivate the FSM once it has been idle for the given amount of time, at which point the actor,
+         * along with the {@link Context} and {@link Data} of the FSM, is released and only the current
+         * state and the encoded data is kept around. The next message brings the FSM back, with a new
+         * {@link Context} from the context function and the data decoded again.
+         *
+         * @param idle the time the FSM must have been idle.
+         * @param encoder encodes the data of the FSM.
+         * @param decoder decodes the data again.
+         */
+        public Builder withPassivation(final Duration idle,
+                                       final Function<D, byte[]> encoder,
+                                       final Function<byte[], D> decoder) {
+            assertNotNull(idle, "The idle time cannot be null");
+            assertNotNull(encoder, "The data encoder cannot be null");
+            assertNotNull(decoder, "The data decoder cannot be null");
+            this.passivateAfter = idle;
+            this.dataEncoder = encoder;
+            this.dataDecoder = decoder;
+            this.dataCodec = null;
+            this.passivationStore = null;
+            return this;
+        }
+
+        /**
+         * Same as {@link #withPassivation(Duration, Function, Function)} but the FSM, along with its data,
+         * is passivated into a compact byte array through the {@link FsmCodec} of the definition.
+         */
+        public Builder withPassivation(final Duration idle, final DataCodec<D> codec) {
+            assertNotNull(idle, "The idle time cannot be null");
+            assertNotNull(codec, "The data codec cannot be null");
+            this.passivateAfter = idle;
+            this.dataCodec = codec;
+            this.dataEncoder = null;
+            this.dataDecoder = null;
+            return this;
+        }
+
+        /**
+         * Same as {@link #withPassivation(Duration, DataCodec)} but the passivated FSM is kept in the given
+         * store, which, if it is persistent, also means that the FSM will be brought back from the
+         * store if an actor is created under the same path after a restart.
+         */
+        public Builder withPassivation(final Duration idle, final DataCodec<D> codec, final PassivationStore store) {
+            assertNotNull(store, "The passivation store cannot be null");
+            withPassivation(idle, codec);
+            this.passivationStore = store;
+            return this;
+        }
+
+        /**
+         * Write every event accepted by the FSM to the given journal and, should the actor be created
+         * again under the same path after a restart, bring the FSM back by replaying those events.
+         * See {@link JournalMode#EVENTS}.
+         *
+         * @param journal the journal to write to.
+         * @param codec encodes the events of the FSM.
+         */
+        public Builder withJournal(final Journal journal, final EventCodec codec) {
+            assertNotNull(journal, "The journal cannot be null");
+            assertNotNull(codec, "The event codec cannot be null");
+            this.journal = journal;
+            this.journalMode = JournalMode.EVENTS;
+            this.eventCodec = codec;
+            return this;
+        }
+
+        /**
+         * Write every state the FSM transitions to to the given journal and, should the actor be created
+         * again under the same path after a restart, put the FSM straight back into the last one.
+         * See {@link JournalMode#TRANSITIONS}.
+         */
+        public Builder withJournal(final Journal journal) {
+            assertNotNull(journal, "The journal cannot be null");
+            this.journal = journal;
+            this.journalMode = JournalMode.TRANSITIONS;
+            this.eventCodec = null;
+            return this;
+        }
+
         public Props build() {
             ensureNotNull(context, "You must supply the Context");
             ensureNotNull(data, "You must supply the Data");
-            return Props.forActor(FsmActor.class, () ->
-                    new FsmActor(definition, context, data, ensureOnStart(), ensureOnStop()));
+            final Supplier<FsmActor> creator = () ->
+                    new FsmActor(definition, context, data, ensureOnStart(), ensureOnStop(),
+                            dataEncoder, dataDecoder, dataCodec, journal, journalMode, eventCodec);
+            if (passivateAfter == null) {
+                return Props.forActor(FsmActor.class, creator);
+            }
+
+            final Props.Builder<FsmActor> props = Props.forActor(FsmActor.class).withCreator(creator);
+            if (passivationStore != null) {
+                return props.withPassivation(passivateAfter, passivationStore).build();
+            }
+            return props.withPassivation(passivateAfter).build();
         }
 
         private OnStartFunction<C, D> ensureOnStart() {
@@ -295,6 +634,13 @@ public final class FsmActor<S extends Enum<S>, C extends Context, D extends Data
                 return;
             }
 
+            if (actor.replaying) {
+                // the subscribers were told all of this the first time around.
+                msg = null;
+                messages = null;
+                return;
+            }
+
             actor.tellSubscribers(msg);
             msg = null;
             if (messages != null) {
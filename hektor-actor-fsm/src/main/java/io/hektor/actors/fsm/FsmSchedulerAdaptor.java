@@ -3,10 +3,18 @@ package io.hektor.actors.fsm;
 import io.hektor.core.ActorRef;
 import io.hektor.fsm.Cancellable;
 import io.hektor.fsm.Scheduler;
+import io.hektor.fsm.Timer;
 
 import java.time.Duration;
 import java.util.function.Supplier;
 
+/**
+ * Adapts the {@link io.hektor.core.Scheduler} of the actor to the {@link Scheduler} of the FSM so
+ * that every scheduled event is delivered back to the very same actor.
+ *
+ * Note that cancelling a timer is as cheap as the underlying scheduler makes it and that any timer
+ * still pending when the actor stops is cancelled by the actor system.
+ */
 public class FsmSchedulerAdaptor implements Scheduler {
 
     private final io.hektor.core.Scheduler scheduler;
@@ -29,6 +37,15 @@ public class FsmSchedulerAdaptor implements Scheduler {
         return new CancellableTask<T>(timeout);
     }
 
+    /**
+     * The timer is backed by a re-usable timer of the actor system so re-arming it doesn't
+     * create anything new, other than what the wheel itself needs.
+     */
+    @Override
+    public Timer timer() {
+        return new FsmTimer(scheduler.timer(self, self));
+    }
+
     public static class CancellableTask<T> implements Cancellable {
 
         private final io.hektor.core.Cancellable actualCancellable;
@@ -43,4 +60,23 @@ public class FsmSchedulerAdaptor implements Scheduler {
         }
     }
 
+    private static class FsmTimer implements Timer {
+
+        private final io.hektor.core.Timer timer;
+
+        private FsmTimer(final io.hektor.core.Timer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public <T> void schedule(final T msg, final Duration delay) {
+            timer.schedule(msg, delay);
+        }
+
+        @Override
+        public boolean cancel() {
+            return timer.cancel();
+        }
+    }
+
 }
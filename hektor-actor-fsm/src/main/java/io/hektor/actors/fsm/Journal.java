@@ -0,0 +1,658 @@
+package io.hektor.actors.fsm;
+
+import io.hektor.core.ActorPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static io.snice.preconditions.PreConditions.assertArgument;
+import static io.snice.preconditions.PreConditions.assertNotNull;
+
+/**
+ * A local write-ahead journal for {@link FsmActor}s, which, depending on the {@link JournalMode},
+ * records either the events accepted by the FSM or the states it transitioned to, so that the
+ * FSM can be brought back where it was after a restart.
+ *
+ * Writing to the journal is cheap, the record is just appended to an in-memory buffer. All buffers
+ * are then written out and fsync:ed together, once every commit window, which means that a single
+ * fsync covers the records of every actor that did something during that window. The price is that
+ * whatever was written during the last commit window may be lost if the process dies, which is
+ * also the only thing that may be lost. Should the actors append faster than the disk can keep up
+ * with, the buffer of a stripe will eventually fill up, at which point whoever appended to it has
+ * to commit it right there and then, which is what keeps the buffers from growing forever.
+ *
+ * The journal is split into a number of stripes, each with its own file and buffer, in order to
+ * keep the actors from fighting over a single lock. The records of an actor always go to the same
+ * stripe, based on its path, so they stay in order no matter which thread the actor runs on.
+ *
+ * Every record looks like:
+ *
+ * <pre>
+ *     int   length of the entire record
+ *     int   crc32c of everything after the crc
+ *     byte  the type of the record, i.e., an event, a transition or the end of the actor
+ *     short length of the key
+ *     ...   the key, i.e., the actor path in UTF-8
+ *     ...   the encoded event or the ordinal of the state, as a short
+ * </pre>
+ *
+ * When the journal is opened, everything in it is read back and the records of every actor that
+ * wasn't stopped, i.e., that has no end record, are kept around until the actor is created again
+ * and asks for them. Those records are also copied over to a new generation of files and the old ones
+ * are deleted, which is what keeps the journal from growing forever across restarts. A generation only
+ * counts once it is complete, which is marked by an empty marker file written after the copy has made
+ * it to disk. Only the newest complete generation is ever read back, so a crash in the middle of
+ * switching generations, leaving both old and new files behind, doesn't bring anything back twice,
+ * nor does a copy that never was completed lose anything. A record that
+ * never was fully written, which is what a crash in the middle of a commit leaves behind, is
+ * detected by its checksum and skipped, after which the reading picks up again at the next intact
+ * record. A commit that fails is undone by cutting the file back to where the last successful
+ * commit ended, so the next commit doesn't end up after a partial record to begin with.
+ *
+ * Once the journal has been closed, whatever the actors try to write to it is dropped.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class Journal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Journal.class);
+
+    public static final Duration DEFAULT_COMMIT_WINDOW = Duration.ofMillis(10);
+
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    static final byte EVENT = 1;
+    static final byte TRANSITION = 2;
+    static final byte END = 3;
+
+    private static final String FILE_PREFIX = "journal-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final String MARKER_SUFFIX = ".complete";
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * length + crc + type + key length.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Byte.BYTES + Short.BYTES;
+    private static final int CRC_OFFSET = Integer.BYTES;
+    private static final int TYPE_OFFSET = CRC_OFFSET + Integer.BYTES;
+    private static final int KEY_LENGTH_OFFSET = TYPE_OFFSET + Byte.BYTES;
+
+    private final Path directory;
+    private final Duration commitWindow;
+    private final int maxBufferSize;
+    private final Stripe[] stripes;
+
+    /**
+     * The records of every actor that has yet to be recovered, keyed by the string version of its path.
+     */
+    private final Map<String, List<Entry>> recovered = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService committer;
+
+    private volatile boolean closed;
+
+    /**
+     * Only warn once about records being dropped after the journal was closed.
+     */
+    private volatile boolean droppedAfterClose;
+
+    public static Builder of(final Path directory) {
+        assertNotNull(directory, "The directory cannot be null");
+        return new Builder(directory);
+    }
+
+    private Journal(final Path directory, final Duration commitWindow, final int maxBufferSize, final int stripes) {
+        this.directory = directory;
+        this.commitWindow = commitWindow;
+        this.maxBufferSize = maxBufferSize;
+        this.stripes = new Stripe[stripes];
+    }
+
+    /**
+     * Get a writer for the actor with the given path. The writer is meant to be held on to by the
+     * actor so that the path doesn't have to be encoded over and over again.
+     */
+    public Writer writer(final ActorPath path) {
+        assertNotNull(path, "The actor path cannot be null");
+        final String key = path.toString();
+        final byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+        assertArgument(encoded.length <= Short.MAX_VALUE, "The actor path is too long");
+        return new Writer(stripe(key), encoded);
+    }
+
+    /**
+     * @return the path of every actor that has records in the journal that have yet to be
+     *         recovered, which are the actors to create again after a restart.
+     */
+    public List<ActorPath> recoverable() {
+        final List<ActorPath> paths = new ArrayList<>(recovered.size());
+        recovered.keySet().forEach(key -> paths.add(ActorPath.of(key)));
+        return paths;
+    }
+
+    /**
+     * Take the records of the given actor, if there were any when the journal was opened. The
+     * records are only handed out once.
+     */
+    List<Entry> recover(final ActorPath path) {
+        final List<Entry> entries = recovered.remove(path.toString());
+        return entries != null ? entries : Collections.emptyList();
+    }
+
+    /**
+     * Write out and fsync everything that has been appended so far, which otherwise is done once
+     * every commit window.
+     *
+     * @throws UncheckedIOException in case the journal couldn't be written to, in which case the
+     *         records that were about to be written are lost but everything committed before
+     *         them is still intact.
+     */
+    public void commit() throws UncheckedIOException {
+        for (final Stripe stripe : stripes) {
+            stripe.commit();
+        }
+    }
+
+    /**
+     * Commit whatever has been appended and close the journal.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        committer.shutdown();
+        try {
+            committer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            commit();
+        } finally {
+            for (final Stripe stripe : stripes) {
+                try {
+                    stripe.channel.close();
+                } catch (final IOException e) {
+                    logger.warn("Unable to close the journal file {} in {}", stripe.file.getFileName(), directory, e);
+                }
+            }
+        }
+    }
+
+    private Stripe stripe(final String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    /**
+     * The group commit done once every commit window, where a stripe that can't be written
+     * to doesn't keep the others from being committed.
+     */
+    private void commitQuietly() {
+        for (final Stripe stripe : stripes) {
+            try {
+                stripe.commit();
+            } catch (final UncheckedIOException e) {
+                logger.error("Unable to commit the journal file {} in {}, the records appended to it since "
+                        + "the last commit are lost", stripe.file.getFileName(), directory, e);
+            }
+        }
+    }
+
+    /**
+     * Read back everything in the newest complete generation of journal files, copy whatever
+     * still is needed over to a new generation of files and then get rid of the old ones.
+     */
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        final List<Path> files = new ArrayList<>();
+        final List<Path> markers = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.forEach(file -> {
+                if (isJournal(file)) {
+                    files.add(file);
+                } else if (isMarker(file)) {
+                    markers.add(file);
+                }
+            });
+        }
+        files.sort(null);
+
+        // anything older than the newest complete generation has already been copied over to it
+        // and anything newer is a copy that never was completed. Without any marker at all, as
+        // with a journal written before there were markers, every file counts.
+        long complete = -1;
+        for (final Path marker : markers) {
+            complete = Math.max(complete, generation(marker));
+        }
+
+        // preserve the order in which the actors were seen, purely to keep the new files
+        // in roughly the same order as the old ones.
+        final Map<String, List<Entry>> entries = new LinkedHashMap<>();
+        long generation = complete + 1;
+        for (final Path file : files) {
+            final long fileGeneration = generation(file);
+            generation = Math.max(generation, fileGeneration + 1);
+            if (complete < 0 || fileGeneration == complete) {
+                load(file, entries);
+            }
+        }
+
+        for (int i = 0; i < stripes.length; ++i) {
+            final Path file = directory.resolve(String.format("%s%016d-%04d%s", FILE_PREFIX, generation, i, FILE_SUFFIX));
+            stripes[i] = new Stripe(file, FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+        }
+
+        entries.forEach((key, list) -> {
+            final Stripe stripe = stripe(key);
+            list.forEach(entry -> stripe.append(entry.record));
+        });
+        commit();
+        for (final Stripe stripe : stripes) {
+            // the size of the files too, not only their content.
+            stripe.channel.force(true);
+        }
+
+        // only once the survivors are safely in the new files is the new generation complete,
+        // at which point the old files no longer count and can go.
+        final Path marker = directory.resolve(String.format("%s%016d%s", FILE_PREFIX, generation, MARKER_SUFFIX));
+        try (FileChannel channel = FileChannel.open(marker, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        syncDirectory();
+
+        for (final Path file : files) {
+            delete(file);
+        }
+        for (final Path old : markers) {
+            delete(old);
+        }
+
+        recovered.putAll(entries);
+        committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "hektor-journal-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long window = commitWindow.toNanos();
+        committer.scheduleAtFixedRate(this::commitQuietly, window, window, TimeUnit.NANOSECONDS);
+    }
+
+    private static void load(final Path file, final Map<String, List<Entry>> entries) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The journal file " + file + " is too large");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        final CRC32C crc = new CRC32C();
+        final int capacity = buffer.capacity();
+        int offset = 0;
+        while (offset + HEADER_SIZE <= capacity) {
+            final int size = buffer.getInt(offset);
+            if (!isRecord(buffer, offset, size, crc)) {
+                // a record that never was fully written, which the records committed after it
+                // may very well have ended up behind, so look for the next intact one.
+                ++offset;
+                continue;
+            }
+
+            final byte type = buffer.get(offset + TYPE_OFFSET);
+            final byte[] key = new byte[buffer.getShort(offset + KEY_LENGTH_OFFSET)];
+            buffer.get(offset + HEADER_SIZE, key);
+            final String path = new String(key, StandardCharsets.UTF_8);
+            if (type == END) {
+                entries.remove(path);
+            } else {
+                entries.computeIfAbsent(path, k -> new ArrayList<>()).add(new Entry(type, buffer.slice(offset, size)));
+            }
+            offset += size;
+        }
+    }
+
+    private static boolean isRecord(final ByteBuffer buffer, final int offset, final int size, final CRC32C crc) {
+        if (size < HEADER_SIZE || size > buffer.capacity() - offset) {
+            return false;
+        }
+
+        final short keyLength = buffer.getShort(offset + KEY_LENGTH_OFFSET);
+        if (keyLength < 0 || keyLength > size - HEADER_SIZE) {
+            return false;
+        }
+
+        crc.reset();
+        crc.update(buffer.slice(offset + TYPE_OFFSET, size - TYPE_OFFSET));
+        return (int) crc.getValue() == buffer.getInt(offset + CRC_OFFSET);
+    }
+
+    /**
+     * Make sure the new files, and the marker, are in the directory should the process die.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final IOException e) {
+            // not every platform allows for a directory to be synced.
+            logger.warn("Unable to sync the journal directory {}", directory, e);
+        }
+    }
+
+    /**
+     * A file of an old generation that can't be deleted is simply ignored the next time the
+     * journal is opened, at which point it is tried again.
+     */
+    private void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            logger.warn("Unable to delete the old journal file {}", file, e);
+        }
+    }
+
+    private static boolean isJournal(final Path file) {
+        final String name = file.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+    }
+
+    private static boolean isMarker(final Path file) {
+        final String name = file.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && name.endsWith(MARKER_SUFFIX);
+    }
+
+    /**
+     * @return the generation of a journal file, i.e., journal-[generation]-[stripe].log, or of a
+     *         marker, i.e., journal-[generation].complete.
+     */
+    private static long generation(final Path file) {
+        final String name = file.getFileName().toString();
+        int end = FILE_PREFIX.length();
+        while (end < name.length() && Character.isDigit(name.charAt(end))) {
+            ++end;
+        }
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), end));
+    }
+
+    /**
+     * A single record read back from the journal.
+     */
+    record Entry(byte type, ByteBuffer record) {
+
+        /**
+         * @return the encoded event or the ordinal of the state, depending on the type of the record.
+         */
+        ByteBuffer payload() {
+            final int keyLength = record.getShort(KEY_LENGTH_OFFSET);
+            return record.slice(HEADER_SIZE + keyLength, record.limit() - HEADER_SIZE - keyLength);
+        }
+    }
+
+    /**
+     * Appends the records of a single actor to the journal.
+     */
+    public final class Writer {
+
+        private final Stripe stripe;
+        private final byte[] key;
+
+        private Writer(final Stripe stripe, final byte[] key) {
+            this.stripe = stripe;
+            this.key = key;
+        }
+
+        /**
+         * Append an event, which will be encoded straight into the buffer of the journal.
+         */
+        public void event(final EventCodec codec, final Object event) {
+            append(EVENT, codec, event, 0);
+        }
+
+        /**
+         * Append the ordinal of the state the FSM just transitioned to.
+         */
+        public void transition(final int ordinal) {
+            append(TRANSITION, null, null, ordinal);
+        }
+
+        /**
+         * The actor has been stopped and should not be brought back again, at which point all
+         * its records can be dropped the next time the journal is opened. If the journal already
+         * has been closed, nothing is written and the actor will be brought back, which is what
+         * happens to the actors that are stopped because everything is shutting down.
+         */
+        public void end() {
+            append(END, null, null, 0);
+        }
+
+        private void append(final byte type, final EventCodec codec, final Object event, final int ordinal) {
+            if (stripe.append(type, key, codec, event, ordinal) >= maxBufferSize) {
+                stripe.commit();
+            }
+        }
+    }
+
+    private final class Stripe {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final CRC32C crc = new CRC32C();
+
+        /**
+         * Only one commit at a time, which is held while writing to the file, as opposed to the
+         * lock of the stripe itself, which is only held while appending or swapping buffers.
+         */
+        private final Object commitLock = new Object();
+
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        /**
+         * The buffer that was last written out, which is what the next commit will swap in.
+         */
+        private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        /**
+         * Where the file ends as of the last successful commit, guarded by the commit lock.
+         */
+        private long committed;
+
+        private Stripe(final Path file, final FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+
+        /**
+         * @return the number of bytes in the buffer once the record has been appended.
+         */
+        private synchronized int append(final byte type, final byte[] key, final EventCodec codec,
+                                        final Object event, final int ordinal) {
+            if (closed) {
+                // failing would only break the actor in the middle of a transition, and the
+                // actors still running when the journal is closed are the ones being shut down.
+                if (type != END && !droppedAfterClose) {
+                    droppedAfterClose = true;
+                    logger.warn("The journal in {} has been closed, dropping everything written to it from now on", directory);
+                }
+                return 0;
+            }
+
+            while (true) {
+                final int offset = buffer.position();
+                if (buffer.remaining() < HEADER_SIZE + key.length + Short.BYTES) {
+                    grow();
+                    continue;
+                }
+
+                try {
+                    buffer.position(offset + HEADER_SIZE);
+                    buffer.put(key);
+                    if (type == EVENT) {
+                        codec.encode(event, buffer);
+                    } else if (type == TRANSITION) {
+                        buffer.putShort((short) ordinal);
+                    }
+                } catch (final BufferOverflowException e) {
+                    buffer.position(offset);
+                    grow();
+                    continue;
+                } catch (final RuntimeException e) {
+                    buffer.position(offset);
+                    throw e;
+                }
+
+                final int size = buffer.position() - offset;
+                buffer.put(offset + TYPE_OFFSET, type);
+                buffer.putShort(offset + KEY_LENGTH_OFFSET, (short) key.length);
+                crc.reset();
+                crc.update(buffer.array(), offset + TYPE_OFFSET, size - TYPE_OFFSET);
+                buffer.putInt(offset + CRC_OFFSET, (int) crc.getValue());
+                buffer.putInt(offset, size);
+                return buffer.position();
+            }
+        }
+
+        /**
+         * Append a record exactly as it was read back from the journal.
+         */
+        private synchronized void append(final ByteBuffer record) {
+            while (buffer.remaining() < record.remaining()) {
+                grow();
+            }
+            buffer.put(record.duplicate());
+        }
+
+        /**
+         * Cut away whatever a failed commit managed to write, which otherwise is where the
+         * next commit would end up.
+         */
+        private void rollback() {
+            try {
+                channel.truncate(committed);
+                channel.position(committed);
+            } catch (final IOException e) {
+                // the partial record will be skipped when the journal is read back.
+                logger.warn("Unable to undo the failed commit of the journal file {} in {}",
+                        file.getFileName(), directory, e);
+            }
+        }
+
+        private void grow() {
+            final ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+
+        private void commit() {
+            synchronized (commitLock) {
+                final ByteBuffer full;
+                synchronized (this) {
+                    if (buffer.position() == 0) {
+                        return;
+                    }
+                    full = buffer;
+                    buffer = spare;
+                    spare = null;
+                }
+
+                full.flip();
+                try {
+                    while (full.hasRemaining()) {
+                        channel.write(full);
+                    }
+                    channel.force(false);
+                    committed = channel.position();
+                } catch (final IOException e) {
+                    rollback();
+                    throw new UncheckedIOException(e);
+                } finally {
+                    full.clear();
+                    synchronized (this) {
+                        spare = full;
+                    }
+                }
+            }
+        }
+    }
+
+    public static class Builder {
+
+        private final Path directory;
+        private Duration commitWindow = DEFAULT_COMMIT_WINDOW;
+        private int maxBufferSize = DEFAULT_MAX_BUFFER_SIZE;
+        private int stripes = Runtime.getRuntime().availableProcessors();
+
+        private Builder(final Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * How often everything that has been appended is written out and fsync:ed, which
+         * also is the most that may be lost in case the process dies.
+         */
+        public Builder withCommitWindow(final Duration window) {
+            assertNotNull(window, "The commit window cannot be null");
+            assertArgument(!window.isNegative() && !window.isZero(), "The commit window must be positive");
+            this.commitWindow = window;
+            return this;
+        }
+
+        /**
+         * How much may be appended to a single stripe before whoever is appending has to commit it,
+         * as opposed to waiting for the next commit window.
+         */
+        public Builder withMaxBufferSize(final int maxBufferSize) {
+            assertArgument(maxBufferSize > 0, "The max buffer size must be positive");
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
+        /**
+         * The number of files, and buffers, the journal is split into.
+         */
+        public Builder withStripes(final int stripes) {
+            assertArgument(stripes > 0, "The number of stripes must be positive");
+            this.stripes = stripes;
+            return this;
+        }
+
+        /**
+         * Create the journal and read back whatever already is in the directory.
+         *
+         * @throws IOException in case the existing journal couldn't be read or the new one
+         *         couldn't be created.
+         */
+        public Journal build() throws IOException {
+            final Journal journal = new Journal(directory, commitWindow, maxBufferSize, stripes);
+            journal.open();
+            return journal;
+        }
+    }
+}
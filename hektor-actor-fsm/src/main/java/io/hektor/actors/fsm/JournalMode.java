@@ -0,0 +1,24 @@
+package io.hektor.actors.fsm;
+
+/**
+ * What an {@link FsmActor} writes to its {@link Journal}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public enum JournalMode {
+
+    /**
+     * Every event accepted by the FSM, i.e., that caused a transition, is written to the journal and
+     * replayed through the FSM on recovery, which brings back both the state and the data of the FSM.
+     * Note that the actions of the FSM are executed again during the replay, although nothing is told
+     * to the subscribers of the actor.
+     */
+    EVENTS,
+
+    /**
+     * Only the state the FSM transitioned to is written to the journal and the FSM is put straight
+     * back into the last one on recovery, without executing any actions. The data of the FSM is not
+     * recovered, it is created anew, which is meant for FSMs whose data can be rebuilt from elsewhere.
+     */
+    TRANSITIONS
+}
@@ -17,7 +17,7 @@ import org.slf4j.LoggerFactory;
 
 public class ActorFsmTestBase {
 
-    private Hektor hektor;
+    protected Hektor hektor;
 
     @Before
     public void setup() {
@@ -7,11 +7,20 @@ import java.util.concurrent.CountDownLatch;
 public class DummyContext implements Context {
 
     private final CountDownLatch exitLatch = new CountDownLatch(1);
+    private final CountDownLatch exitFromBLatch = new CountDownLatch(1);
 
     public void doExit() {
         exitLatch.countDown();
     }
 
+    public void doExitFromB() {
+        exitFromBLatch.countDown();
+    }
+
+    public CountDownLatch exitFromBLatch() {
+        return exitFromBLatch;
+    }
+
     public CountDownLatch exitLatch() {
         return exitLatch;
     }
@@ -3,4 +3,23 @@ package io.hektor.actors.fsm;
 import io.hektor.fsm.Data;
 
 public class DummyData implements Data {
+
+    private volatile int stays;
+    private volatile boolean enteredB;
+
+    public void stay() {
+        ++stays;
+    }
+
+    public int stays() {
+        return stays;
+    }
+
+    public void enterB() {
+        enteredB = true;
+    }
+
+    public boolean enteredB() {
+        return enteredB;
+    }
 }
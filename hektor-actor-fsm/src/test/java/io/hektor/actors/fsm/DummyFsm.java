@@ -13,11 +13,15 @@ public class DummyFsm {
                 .withFriendlyName("dummy");
 
         final var a = builder.withInitialState(DummyState.A);
+        final var b = builder.withState(DummyState.B).withEnterAction((ctx, data) -> data.enterB());
         final var d = builder.withFinalState(DummyState.D);
 
-        a.transitionTo(DummyState.A).onEvent(String.class).withGuard("stay"::equals);
+        a.transitionTo(DummyState.A).onEvent(String.class).withGuard("stay"::equals).withAction((evt, ctx, data) -> data.stay());
+        a.transitionTo(DummyState.B).onEvent(String.class).withGuard("b"::equals);
         a.transitionTo(DummyState.D).onEvent(String.class).withGuard("exit"::equals).withAction((evt, ctx, data) -> ctx.doExit());
 
+        b.transitionTo(DummyState.D).onEvent(String.class).withGuard("exit"::equals).withAction((evt, ctx, data) -> ctx.doExitFromB());
+
         definition = builder.build();
     }
 }
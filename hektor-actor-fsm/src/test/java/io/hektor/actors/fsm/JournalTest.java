@@ -0,0 +1,338 @@
+package io.hektor.actors.fsm;
+
+import io.hektor.config.HektorConfigurator;
+import io.hektor.core.ActorPath;
+import io.hektor.core.ActorRef;
+import io.hektor.core.Hektor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class JournalTest extends ActorFsmTestBase {
+
+    private static final EventCodec STRING_CODEC = new EventCodec() {
+        @Override
+        public void encode(final Object event, final ByteBuffer out) {
+            out.put(((String) event).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Object decode(final ByteBuffer in) {
+            final byte[] bytes = new byte[in.remaining()];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(timeout = 5000)
+    public void testReopen() throws Exception {
+        final ActorPath alice = ActorPath.of("/alice");
+        final ActorPath bob = ActorPath.of("/bob");
+        try (Journal journal = open(2)) {
+            final Journal.Writer writer = journal.writer(alice);
+            writer.event(STRING_CODEC, "one");
+            writer.transition(2);
+            journal.writer(bob).event(STRING_CODEC, "two");
+        }
+
+        // a different number of stripes must not matter
+        try (Journal journal = open(3)) {
+            assertThat(journal.recoverable(), containsInAnyOrder(alice, bob));
+            final List<Journal.Entry> entries = journal.recover(alice);
+            assertThat(entries.size(), is(2));
+            assertThat(entries.get(0).type(), is(Journal.EVENT));
+            assertThat(STRING_CODEC.decode(entries.get(0).payload()), is("one"));
+            assertThat(entries.get(1).type(), is(Journal.TRANSITION));
+            assertThat(entries.get(1).payload().getShort(0), is((short) 2));
+
+            // only handed out once but still in the journal
+            assertThat(journal.recover(alice), is(empty()));
+        }
+
+        try (Journal journal = open(1)) {
+            assertThat(journal.recoverable(), containsInAnyOrder(alice, bob));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testEnd() throws Exception {
+        final ActorPath alice = ActorPath.of("/alice");
+        try (Journal journal = open(2)) {
+            final Journal.Writer writer = journal.writer(alice);
+            writer.event(STRING_CODEC, "one");
+            writer.end();
+            writer.event(STRING_CODEC, "two");
+        }
+
+        try (Journal journal = open(2)) {
+            final List<Journal.Entry> entries = journal.recover(alice);
+            assertThat(entries.size(), is(1));
+            assertThat(STRING_CODEC.decode(entries.get(0).payload()), is("two"));
+            journal.writer(alice).end();
+        }
+
+        try (Journal journal = open(2)) {
+            assertThat(journal.recoverable(), is(empty()));
+        }
+        assertThat(files().size(), is(2));
+    }
+
+    /**
+     * A large event must simply grow the buffer of the stripe.
+     */
+    @Test(timeout = 5000)
+    public void testLargeEvent() throws Exception {
+        final String large = "x".repeat(200 * 1024);
+        try (Journal journal = open(1)) {
+            journal.writer(ActorPath.of("/alice")).event(STRING_CODEC, large);
+        }
+
+        try (Journal journal = open(1)) {
+            assertThat(STRING_CODEC.decode(journal.recover(ActorPath.of("/alice")).get(0).payload()), is(large));
+        }
+    }
+
+    /**
+     * Whoever fills up the buffer of a stripe has to commit it, no matter the commit window.
+     */
+    @Test(timeout = 5000)
+    public void testFullBuffer() throws Exception {
+        try (Journal journal = Journal.of(folder.getRoot().toPath()).withStripes(1)
+                .withCommitWindow(Duration.ofHours(1)).withMaxBufferSize(1).build()) {
+            journal.writer(ActorPath.of("/alice")).event(STRING_CODEC, "one");
+            assertThat(Files.size(files().get(0)) > 0, is(true));
+        }
+    }
+
+    /**
+     * A record that never was fully written, as after a crash in the middle of a commit, is
+     * simply skipped.
+     */
+    @Test(timeout = 5000)
+    public void testTornRecord() throws Exception {
+        final ActorPath alice = ActorPath.of("/alice");
+        try (Journal journal = open(1)) {
+            final Journal.Writer writer = journal.writer(alice);
+            writer.event(STRING_CODEC, "one");
+            writer.event(STRING_CODEC, "two");
+        }
+
+        final Path file = files().get(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (Journal journal = open(1)) {
+            final List<Journal.Entry> entries = journal.recover(alice);
+            assertThat(entries.size(), is(1));
+            assertThat(STRING_CODEC.decode(entries.get(0).payload()), is("one"));
+        }
+    }
+
+    /**
+     * Whatever was committed after a record that never was fully written must not be lost.
+     */
+    @Test(timeout = 5000)
+    public void testRecordsAfterTornRecord() throws Exception {
+        final ActorPath alice = ActorPath.of("/alice");
+        try (Journal journal = open(1)) {
+            final Journal.Writer writer = journal.writer(alice);
+            writer.event(STRING_CODEC, "one");
+            writer.event(STRING_CODEC, "two");
+        }
+
+        // the first half of the second record ends up in front of the whole of it
+        final Path file = files().get(0);
+        final ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        final int first = bytes.getInt(0);
+        final int second = bytes.getInt(first);
+        final ByteBuffer torn = ByteBuffer.allocate(bytes.capacity() + second / 2);
+        torn.put(bytes.slice(0, first + second / 2));
+        torn.put(bytes.slice(first, second));
+        Files.write(file, torn.array());
+
+        try (Journal journal = open(1)) {
+            final List<Journal.Entry> entries = journal.recover(alice);
+            assertThat(entries.size(), is(2));
+            assertThat(STRING_CODEC.decode(entries.get(0).payload()), is("one"));
+            assertThat(STRING_CODEC.decode(entries.get(1).payload()), is("two"));
+        }
+    }
+
+    /**
+     * The actors that still are around when the journal is closed must be able to keep on
+     * going, whatever they write is simply dropped.
+     */
+    @Test(timeout = 5000)
+    public void testAppendAfterClose() throws Exception {
+        final ActorPath alice = ActorPath.of("/alice");
+        final Journal.Writer writer;
+        try (Journal journal = open(1)) {
+            writer = journal.writer(alice);
+            writer.event(STRING_CODEC, "one");
+        }
+
+        writer.event(STRING_CODEC, "two");
+        writer.transition(2);
+        writer.end();
+
+        try (Journal journal = open(1)) {
+            final List<Journal.Entry> entries = journal.recover(alice);
+            assertThat(entries.size(), is(1));
+            assertThat(STRING_CODEC.decode(entries.get(0).payload()), is("one"));
+        }
+    }
+
+    /**
+     * A crash after the new generation was completed but before all of the old files were
+     * deleted must not bring back the records of those files a second time.
+     */
+    @Test(timeout = 5000)
+    public void testLeftoverGeneration() throws Exception {
+        final ActorPath alice = ActorPath.of("/alice");
+        try (Journal journal = open(1)) {
+            final Journal.Writer writer = journal.writer(alice);
+            writer.event(STRING_CODEC, "one");
+            writer.event(STRING_CODEC, "two");
+        }
+
+        final Path old = files().get(0);
+        final byte[] bytes = Files.readAllBytes(old);
+        open(1).close();
+        Files.write(old, bytes);
+        assertThat(files().size(), is(2));
+
+        try (Journal journal = open(1)) {
+            final List<Journal.Entry> entries = journal.recover(alice);
+            assertThat(entries.size(), is(2));
+            assertThat(STRING_CODEC.decode(entries.get(0).payload()), is("one"));
+            assertThat(STRING_CODEC.decode(entries.get(1).payload()), is("two"));
+        }
+        assertThat(files().size(), is(1));
+    }
+
+    /**
+     * A crash in the middle of copying the records over to a new generation must leave the
+     * old one in charge.
+     */
+    @Test(timeout = 5000)
+    public void testIncompleteGeneration() throws Exception {
+        final ActorPath alice = ActorPath.of("/alice");
+        try (Journal journal = open(1)) {
+            journal.writer(alice).event(STRING_CODEC, "one");
+        }
+
+        final Path file = files().get(0);
+        final String incomplete = file.getFileName().toString().replace("journal-0000000000000000", "journal-0000000000000001");
+        Files.copy(file, file.resolveSibling(incomplete));
+
+        try (Journal journal = open(1)) {
+            final List<Journal.Entry> entries = journal.recover(alice);
+            assertThat(entries.size(), is(1));
+            assertThat(STRING_CODEC.decode(entries.get(0).payload()), is("one"));
+        }
+        assertThat(files().size(), is(1));
+    }
+
+    @Test(timeout = 5000)
+    public void testRecoverEvents() throws Exception {
+        final DummyData data = new DummyData();
+        final ActorPath path;
+        try (Journal journal = open(2)) {
+            final ActorRef ref = hektor.actorOf(props(new DummyContext(), data).withJournal(journal, STRING_CODEC).build(), "events");
+            ref.tellAnonymously("stay");
+            ref.tellAnonymously("hello"); // not accepted, never written.
+            ref.tellAnonymously("stay");
+            ref.tellAnonymously("b");
+            waitFor(data::enteredB);
+            path = ref.path();
+        }
+
+        try (Journal journal = open(2)) {
+            assertThat(journal.recoverable(), contains(path));
+        }
+
+        final Hektor restarted = HektorConfigurator.defaultHektor("UnitTest");
+        final DummyData recovered = new DummyData();
+        final DummyContext ctx = new DummyContext();
+        try (Journal journal = open(2)) {
+            final ActorRef ref = restarted.actorOf(props(ctx, recovered).withJournal(journal, STRING_CODEC).build(), "events");
+            ref.tellAnonymously("exit");
+
+            // the actions were executed again while replaying.
+            assertThat(ctx.exitFromBLatch().await(1, TimeUnit.SECONDS), is(true));
+            assertThat(recovered.stays(), is(2));
+            assertThat(recovered.enteredB(), is(true));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testRecoverTransitions() throws Exception {
+        final DummyData data = new DummyData();
+        try (Journal journal = open(2)) {
+            final ActorRef ref = hektor.actorOf(props(new DummyContext(), data).withJournal(journal).build(), "transitions");
+            ref.tellAnonymously("stay");
+            ref.tellAnonymously("b");
+            waitFor(data::enteredB);
+        }
+
+        final Hektor restarted = HektorConfigurator.defaultHektor("UnitTest");
+        final DummyData recovered = new DummyData();
+        final DummyContext ctx = new DummyContext();
+        try (Journal journal = open(2)) {
+            final ActorRef ref = restarted.actorOf(props(ctx, recovered).withJournal(journal).build(), "transitions");
+            ref.tellAnonymously("exit");
+
+            // straight back into B, without running any actions and without the data.
+            assertThat(ctx.exitFromBLatch().await(1, TimeUnit.SECONDS), is(true));
+            assertThat(recovered.stays(), is(0));
+            assertThat(recovered.enteredB(), is(false));
+        }
+    }
+
+    private static FsmActor.Builder<DummyState, DummyContext, DummyData> props(final DummyContext ctx, final DummyData data) {
+        return FsmActor.of(DummyFsm.definition).withContext(ctx).withData(data);
+    }
+
+    private Journal open(final int stripes) throws IOException {
+        return Journal.of(folder.getRoot().toPath()).withStripes(stripes).build();
+    }
+
+    /**
+     * @return the journal files, leaving out the markers of the complete generations.
+     */
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            return files.filter(file -> file.toString().endsWith(".log")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(5);
+        }
+    }
+}
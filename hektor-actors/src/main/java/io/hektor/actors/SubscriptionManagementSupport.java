@@ -43,6 +43,20 @@ public abstract class SubscriptionManagementSupport implements Actor, Logging {
         subscribers.forEach(s -> s.tell(msg, self()));
     }
 
+    /**
+     * The current subscribers, which sub-classes need to hold on to if they are e.g. passivated
+     * (see {@link Actor#passivate()}) and then put back through {@link #restoreSubscribers(ActorRef[])}.
+     */
+    protected ActorRef[] subscribers() {
+        return subscribers.toArray(new ActorRef[0]);
+    }
+
+    protected void restoreSubscribers(final ActorRef[] subscribers) {
+        for (final ActorRef subscriber : subscribers) {
+            this.subscribers.add(subscriber);
+        }
+    }
+
     private void subscribe(final ActorRef ref) {
         if (subscribers.add(ref)) {
             logInfo("Added {} as a subscriber", ref);
@@ -0,0 +1,106 @@
+package io.hektor.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * Configuration of the store that keeps track of every actor in the system.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@JsonDeserialize(builder = ActorStoreConfiguration.Builder.class)
+public class ActorStoreConfiguration {
+
+    /**
+     * A single concurrent map holding every actor. This is the default.
+     */
+    public static final String SIMPLE_ACTOR_STORE = "simple";
+
+    /**
+     * The actors are spread across a number of independent maps, where the shard of an actor
+     * is picked based on the hash of its own path, i.e., the children of a given parent are
+     * spread across the shards just like any other actors. Meant for systems with a large number
+     * of actors and a high rate of actors being created and stopped.
+     */
+    public static final String SHARDED_ACTOR_STORE = "sharded";
+
+    /**
+     * Valid values are:
+     * <ul>
+     *     <li>simple</li>
+     *     <li>sharded</li>
+     * </ul>
+     */
+    private final String type;
+    private final int shards;
+    private final int initialCapacity;
+
+    private ActorStoreConfiguration(final String type, final int shards, final int initialCapacity) {
+        this.type = type;
+        this.shards = shards;
+        this.initialCapacity = initialCapacity;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    /**
+     * The number of shards of the sharded store. Always a power of two.
+     */
+    public int shards() {
+        return shards;
+    }
+
+    /**
+     * The initial capacity of every shard (or of the one and only map of the simple store).
+     * Sizing this according to the expected number of actors avoids having the maps resize
+     * over and over again while the system is ramping up.
+     */
+    public int initialCapacity() {
+        return initialCapacity;
+    }
+
+    public static class Builder {
+
+        private String type = SIMPLE_ACTOR_STORE;
+        private int shards = Runtime.getRuntime().availableProcessors() * 4;
+        private int initialCapacity = 1024;
+
+        public Builder() {
+            // left empty intentionally.
+        }
+
+        public Builder withType(final String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder withShards(final int shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        public Builder withInitialCapacity(final int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+            return this;
+        }
+
+        public ActorStoreConfiguration build() {
+            if (!SIMPLE_ACTOR_STORE.equalsIgnoreCase(type) && !SHARDED_ACTOR_STORE.equalsIgnoreCase(type)) {
+                throw new IllegalArgumentException("Unknown actor store \"" + type + "\"");
+            }
+
+            if (shards <= 0) {
+                throw new IllegalArgumentException("The number of shards must be greater than zero");
+            }
+
+            if (initialCapacity <= 0) {
+                throw new IllegalArgumentException("The initial capacity must be greater than zero");
+            }
+
+            // round up to the nearest power of two so that picking a shard is a simple mask
+            final int powerOfTwo = Integer.highestOneBit(shards) == shards ? shards : Integer.highestOneBit(shards) << 1;
+            return new ActorStoreConfiguration(type, powerOfTwo, initialCapacity);
+        }
+    }
+}
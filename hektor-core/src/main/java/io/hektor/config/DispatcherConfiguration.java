@@ -2,6 +2,8 @@ package io.hektor.config;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -10,21 +12,126 @@ import java.util.Optional;
 @JsonDeserialize(builder = DispatcherConfiguration.Builder.class)
 public class DispatcherConfiguration {
 
+    /**
+     * The default executor where every message is wrapped in a task and scheduled
+     * on a worker thread.
+     */
+    public static final String WORKER_THREAD_EXECUTOR = "worker-thread-executor";
+
+    /**
+     * Every message is enqueued into the mailbox of the receiving actor and the actor
+     * itself is scheduled on a worker thread, which then drains up to
+     * {@link #throughput()} messages off of the mailbox. Uses the same worker thread
+     * configuration as the {@link #WORKER_THREAD_EXECUTOR}.
+     */
+    public static final String MAILBOX_EXECUTOR = "mailbox-executor";
+
+    /**
+     * Just like the {@link #MAILBOX_EXECUTOR} but the actors are scheduled onto a
+     * work-stealing pool instead of being pinned to a given worker thread. The number
+     * of threads is taken from the worker thread configuration, if present, otherwise
+     * it defaults to the number of available processors.
+     */
+    public static final String FORK_JOIN_EXECUTOR = "fork-join-executor";
+
+    /**
+     * Every drain of an actor's mailbox runs on a new virtual thread, which allows actors to
+     * block on e.g. I/O without stalling other actors. Requires JDK 21+.
+     */
+    public static final String VIRTUAL_THREAD_EXECUTOR = "virtual-thread-executor";
+
+    /**
+     * The default mailbox, which is a simple synchronized queue.
+     */
+    public static final String DEFAULT_MAILBOX = "default";
+
+    /**
+     * A lock-free multi-producer/single-consumer mailbox, which scales much better
+     * than the {@link #DEFAULT_MAILBOX} when many actors are sending to the same actor.
+     */
+    public static final String MPSC_MAILBOX = "mpsc";
+
+    /**
+     * The worker blocks on its queue until there is something to do. This is the default.
+     */
+    public static final String BLOCKING_IDLE_STRATEGY = "blocking";
+
+    /**
+     * The worker never gives up the CPU. Lowest latency but keeps a core busy at all times.
+     */
+    public static final String BUSY_SPIN_IDLE_STRATEGY = "busy-spin";
+
+    /**
+     * The worker spins for a while and then starts yielding the CPU between every attempt.
+     */
+    public static final String SPIN_YIELD_IDLE_STRATEGY = "spin-yield";
+
+    /**
+     * The worker spins, then yields and then parks for an increasing amount of time.
+     */
+    public static final String BACKOFF_IDLE_STRATEGY = "backoff";
+
     /**
      * Valid values are:
      * <ul>
      *     <li>worker-thread-executor</li>
+     *     <li>mailbox-executor</li>
+     *     <li>fork-join-executor</li>
+     *     <li>virtual-thread-executor</li>
      * </ul>
      */
     private final String executor;
+
+    /**
+     * Zero if not configured, see {@link #isThroughputConfigured()}.
+     */
     private final int throughput;
+
+    /**
+     * Valid values are:
+     * <ul>
+     *     <li>default</li>
+     *     <li>mpsc</li>
+     * </ul>
+     */
+    private final String mailBox;
+    private final boolean priorityLanes;
+    private final int starvationLimit;
+    private final OverflowPolicy overflowPolicy;
+    private final long overflowTimeout;
+    private final List<String> paths;
+
+    /**
+     * Valid values are:
+     * <ul>
+     *     <li>blocking</li>
+     *     <li>busy-spin</li>
+     *     <li>spin-yield</li>
+     *     <li>backoff</li>
+     * </ul>
+     */
+    private final String idleStrategy;
     private final WorkerThreadExecutorConfig workerThreadExecutorConfig;
 
     private DispatcherConfiguration(final String executor,
                                     final int throughput,
+                                    final String mailBox,
+                                    final boolean priorityLanes,
+                                    final int starvationLimit,
+                                    final OverflowPolicy overflowPolicy,
+                                    final long overflowTimeout,
+                                    final List<String> paths,
+                                    final String idleStrategy,
                                     final WorkerThreadExecutorConfig workerThreadExecutorConfig) {
         this.executor = executor;
         this.throughput = throughput;
+        this.mailBox = mailBox;
+        this.priorityLanes = priorityLanes;
+        this.starvationLimit = starvationLimit;
+        this.overflowPolicy = overflowPolicy;
+        this.overflowTimeout = overflowTimeout;
+        this.paths = paths;
+        this.idleStrategy = idleStrategy;
         this.workerThreadExecutorConfig = workerThreadExecutorConfig;
     }
 
@@ -42,8 +149,88 @@ public class DispatcherConfiguration {
         return executor;
     }
 
+    /**
+     * For the mailbox based executors, the max number of messages an actor will process
+     * before yielding to other actors. For the worker-thread-executor, the max number of
+     * messages a worker will process in one batch once it has found work to do.
+     */
     public int throughput() {
-        return throughput;
+        return throughput > 0 ? throughput : 1;
+    }
+
+    /**
+     * Whether the throughput was explicitly configured, which matters to the worker-thread-executor
+     * since its batch size, when not configured, is kept at what it always has been.
+     */
+    public boolean isThroughputConfigured() {
+        return throughput > 0;
+    }
+
+    /**
+     * The type of mailbox every actor will be given. Only applicable to those
+     * executors that are mailbox based.
+     */
+    public String mailBox() {
+        return mailBox;
+    }
+
+    /**
+     * Whether the mailbox of every actor should have a separate lane per
+     * {@link io.hektor.core.internal.Priority} so that e.g. a stop message overtakes the regular
+     * traffic already waiting in the mailbox. Only applicable to those executors that are mailbox
+     * based. The worker-thread-executor always lets high priority messages jump the queue.
+     */
+    public boolean priorityLanes() {
+        return priorityLanes;
+    }
+
+    /**
+     * The max number of higher priority messages an actor will process in a row before a waiting
+     * low priority message is let through, which guards the low priority messages against
+     * starvation. Only applicable if the {@link #priorityLanes()} are in use.
+     */
+    public int starvationLimit() {
+        return starvationLimit;
+    }
+
+    /**
+     * What to do when a worker queue is full. Only applicable to the
+     * worker-thread-executor, whose worker queues are bounded by
+     * {@link WorkerThreadExecutorConfig#getQueueCapacity()}.
+     */
+    public OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * The max time, in milliseconds, to block the sender when the
+     * {@link OverflowPolicy#BLOCK} policy is in use.
+     */
+    public long overflowTimeout() {
+        return overflowTimeout;
+    }
+
+    /**
+     * The path patterns of all actors that should run on this dispatcher, unless the
+     * actor explicitly asked for a dispatcher through its {@link io.hektor.core.Props}.
+     * The patterns are relative to the root of the actor system where "*" matches any characters
+     * within a single segment of the path and "**" matches any number of segments. E.g.
+     * "signalling/**" would match the actor "signalling" and all of its descendants.
+     *
+     * If an actor matches the patterns of several dispatchers, the pattern with the most
+     * segments wins.
+     */
+    public List<String> paths() {
+        return paths;
+    }
+
+    /**
+     * How the worker threads are waiting for work when they are idle. Only applicable
+     * to those executors that are driven by the worker threads, i.e., the worker-thread-executor
+     * and the mailbox-executor.
+     */
+    public String idleStrategy() {
+        return idleStrategy;
     }
 
     public static class Builder {
@@ -52,11 +239,28 @@ public class DispatcherConfiguration {
          * Valid values are:
          * <ul>
          *     <li>worker-thread-executor</li>
+         *     <li>mailbox-executor</li>
+         *     <li>fork-join-executor</li>
+         *     <li>virtual-thread-executor</li>
          * </ul>
          */
-        private String executor = "worker-thread-executor";
+        private String executor = WORKER_THREAD_EXECUTOR;
+
+        private int throughput;
+
+        private String mailBox = DEFAULT_MAILBOX;
+
+        private boolean priorityLanes = true;
+
+        private int starvationLimit = 32;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
 
-        private int throughput = 1;
+        private long overflowTimeout = 100;
+
+        private List<String> paths = Collections.emptyList();
+
+        private String idleStrategy = BLOCKING_IDLE_STRATEGY;
 
         private WorkerThreadExecutorConfig workerThreadExecutorConfig;
 
@@ -75,19 +279,67 @@ public class DispatcherConfiguration {
             return this;
         }
 
+        public Builder withMailBox(final String mailBox) {
+            this.mailBox = mailBox;
+            return this;
+        }
+
+        public Builder withPriorityLanes(final boolean priorityLanes) {
+            this.priorityLanes = priorityLanes;
+            return this;
+        }
+
+        public Builder withStarvationLimit(final int starvationLimit) {
+            this.starvationLimit = starvationLimit > 0 ? starvationLimit : 1;
+            return this;
+        }
+
+        public Builder withOverflowPolicy(final String policy) {
+            this.overflowPolicy = OverflowPolicy.of(policy);
+            return this;
+        }
+
+        public Builder withOverflowTimeout(final long timeout) {
+            this.overflowTimeout = timeout > 0 ? timeout : 0;
+            return this;
+        }
+
+        public Builder withPaths(final List<String> paths) {
+            this.paths = paths == null ? Collections.emptyList() : List.copyOf(paths);
+            return this;
+        }
+
+        public Builder withIdleStrategy(final String idleStrategy) {
+            this.idleStrategy = idleStrategy;
+            return this;
+        }
+
         public Builder withWorkerThreadExecutor(final WorkerThreadExecutorConfig config) {
             workerThreadExecutorConfig = config;
             return this;
         }
 
         public DispatcherConfiguration build() {
-            if ("worker-thread-executor".equalsIgnoreCase(executor)) {
+            if (!WORKER_THREAD_EXECUTOR.equalsIgnoreCase(executor)
+                    && !MAILBOX_EXECUTOR.equalsIgnoreCase(executor)
+                    && !FORK_JOIN_EXECUTOR.equalsIgnoreCase(executor)
+                    && !VIRTUAL_THREAD_EXECUTOR.equalsIgnoreCase(executor)) {
+                throw new IllegalArgumentException("Unknown executor \"" + executor + "\"");
+            }
 
+            if (!DEFAULT_MAILBOX.equalsIgnoreCase(mailBox) && !MPSC_MAILBOX.equalsIgnoreCase(mailBox)) {
+                throw new IllegalArgumentException("Unknown mailbox \"" + mailBox + "\"");
+            }
 
-            } else {
-                throw new IllegalArgumentException("Unknown executor \"" + executor + "\"");
+            if (!BLOCKING_IDLE_STRATEGY.equalsIgnoreCase(idleStrategy)
+                    && !BUSY_SPIN_IDLE_STRATEGY.equalsIgnoreCase(idleStrategy)
+                    && !SPIN_YIELD_IDLE_STRATEGY.equalsIgnoreCase(idleStrategy)
+                    && !BACKOFF_IDLE_STRATEGY.equalsIgnoreCase(idleStrategy)) {
+                throw new IllegalArgumentException("Unknown idle strategy \"" + idleStrategy + "\"");
             }
-            return new DispatcherConfiguration(executor, throughput, workerThreadExecutorConfig);
+
+            return new DispatcherConfiguration(executor, throughput, mailBox, priorityLanes, starvationLimit, overflowPolicy, overflowTimeout, paths,
+                    idleStrategy, workerThreadExecutorConfig);
         }
 
     }
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * The main class for all Hektor related configuration.
@@ -22,6 +23,20 @@ public class HektorConfiguration {
     @JsonProperty
     private Map<String, DispatcherConfiguration> dispatchers = new HashMap<>();
 
+    /**
+     * The configuration of the actor store. If not configured, the
+     * {@link ActorStoreConfiguration#SIMPLE_ACTOR_STORE} is used.
+     */
+    @JsonProperty
+    private ActorStoreConfiguration actorStore;
+
+    /**
+     * The configuration of the scheduler. If not configured, a single timer wheel
+     * with the defaults of the {@link SchedulerConfiguration} is used.
+     */
+    @JsonProperty
+    private SchedulerConfiguration scheduler;
+
     public Map<String, DispatcherConfiguration> dispatchers() {
         return Collections.unmodifiableMap(dispatchers);
     }
@@ -29,4 +44,20 @@ public class HektorConfiguration {
     public void dispatchers(Map<String, DispatcherConfiguration> dispatchers) {
         this.dispatchers = Collections.unmodifiableMap(dispatchers);
     }
+
+    public Optional<ActorStoreConfiguration> actorStore() {
+        return Optional.ofNullable(actorStore);
+    }
+
+    public void actorStore(final ActorStoreConfiguration actorStore) {
+        this.actorStore = actorStore;
+    }
+
+    public Optional<SchedulerConfiguration> scheduler() {
+        return Optional.ofNullable(scheduler);
+    }
+
+    public void scheduler(final SchedulerConfiguration scheduler) {
+        this.scheduler = scheduler;
+    }
 }
@@ -0,0 +1,69 @@
+package io.hektor.config;
+
+import static io.snice.preconditions.PreConditions.assertNotEmpty;
+
+/**
+ * Specifies what a dispatcher should do when the queue of a worker is full
+ * and it can't accept any more messages.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The message is dropped and the dead-letter metric of the dispatcher
+     * is incremented. This is the default policy.
+     */
+    DROP("drop"),
+
+    /**
+     * The queues of the workers are unbounded, i.e., messages will never be dropped
+     * but the system may eventually run out of memory if the actors can't keep up.
+     */
+    UNBOUNDED("unbounded"),
+
+    /**
+     * The sender is blocked for at most {@link DispatcherConfiguration#overflowTimeout()}
+     * milliseconds while waiting for space to become available in the queue. If it
+     * still is full the message is dropped just like {@link #DROP}.
+     *
+     * Note that only non-actor callers are ever blocked. If the message is dispatched from a
+     * thread owned by a dispatcher we will not block since that could easily end up in a
+     * deadlock, in which case the message is dropped straight away. The same goes for the
+     * message of a timer, since blocking the scheduler would hold up every other timer.
+     */
+    BLOCK("block"),
+
+    /**
+     * The message is dropped and the sender is notified about it through a
+     * {@link io.hektor.core.MailBoxFull} message. If the message was an "ask",
+     * the future is completed with the {@link io.hektor.core.MailBoxFull} message.
+     */
+    SIGNAL("signal");
+
+    private final String value;
+
+    OverflowPolicy(final String value) {
+        this.value = value;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    /**
+     * Convert the configured value into an {@link OverflowPolicy}.
+     *
+     * @throws IllegalArgumentException in case the value isn't a known policy.
+     */
+    public static OverflowPolicy of(final String value) throws IllegalArgumentException {
+        assertNotEmpty(value, "The overflow policy cannot be null or the empty string");
+        for (final OverflowPolicy policy : values()) {
+            if (policy.value.equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown overflow policy \"" + value + "\"");
+    }
+}
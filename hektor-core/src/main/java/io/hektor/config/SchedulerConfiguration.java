@@ -0,0 +1,92 @@
+package io.hektor.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * Configuration of the scheduler that is used for delivering messages after a given delay,
+ * which is a hashed timer wheel (or several of them).
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@JsonDeserialize(builder = SchedulerConfiguration.Builder.class)
+public class SchedulerConfiguration {
+
+    private final long tickDuration;
+    private final int ticksPerWheel;
+    private final int shards;
+
+    private SchedulerConfiguration(final long tickDuration, final int ticksPerWheel, final int shards) {
+        this.tickDuration = tickDuration;
+        this.ticksPerWheel = ticksPerWheel;
+        this.shards = shards;
+    }
+
+    /**
+     * The duration, in milliseconds, of a single tick of the wheel, which is the resolution of
+     * the scheduler. A timer may fire up to one tick late but never early.
+     */
+    public long tickDuration() {
+        return tickDuration;
+    }
+
+    /**
+     * The number of buckets of the wheel. A timer that is further away than
+     * <code>tickDuration * ticksPerWheel</code> will be looked at every time the wheel has
+     * gone a full round, so the wheel should cover the most common delays.
+     */
+    public int ticksPerWheel() {
+        return ticksPerWheel;
+    }
+
+    /**
+     * The number of independent wheels, each with its own thread. The timers of any given
+     * actor always end up on the same wheel, which is picked the same way as the worker
+     * of the actor is picked. Configuring as many shards as there are workers will therefore give
+     * every worker its own timer thread.
+     */
+    public int shards() {
+        return shards;
+    }
+
+    public static class Builder {
+
+        private long tickDuration = 10;
+        private int ticksPerWheel = 512;
+        private int shards = 1;
+
+        public Builder() {
+            // left empty intentionally.
+        }
+
+        public Builder withTickDuration(final long tickDuration) {
+            this.tickDuration = tickDuration;
+            return this;
+        }
+
+        public Builder withTicksPerWheel(final int ticksPerWheel) {
+            this.ticksPerWheel = ticksPerWheel;
+            return this;
+        }
+
+        public Builder withShards(final int shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        public SchedulerConfiguration build() {
+            if (tickDuration <= 0) {
+                throw new IllegalArgumentException("The tick duration must be greater than zero");
+            }
+
+            if (ticksPerWheel <= 0) {
+                throw new IllegalArgumentException("The number of ticks per wheel must be greater than zero");
+            }
+
+            if (shards <= 0) {
+                throw new IllegalArgumentException("The number of shards must be greater than zero");
+            }
+
+            return new SchedulerConfiguration(tickDuration, ticksPerWheel, shards);
+        }
+    }
+}
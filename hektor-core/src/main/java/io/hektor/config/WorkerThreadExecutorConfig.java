@@ -12,10 +12,12 @@ import java.util.concurrent.Executors;
 public class WorkerThreadExecutorConfig {
 
     private final int noOfWorkers;
+    private final int queueCapacity;
     private final ExecutorService executorService;
 
-    private WorkerThreadExecutorConfig(final int workers, final ExecutorService executor) {
+    private WorkerThreadExecutorConfig(final int workers, final int queueCapacity, final ExecutorService executor) {
         noOfWorkers = workers;
+        this.queueCapacity = queueCapacity;
         executorService = executor;
     }
 
@@ -23,6 +25,15 @@ public class WorkerThreadExecutorConfig {
         return noOfWorkers;
     }
 
+    /**
+     * The max number of messages that can be waiting in the queue of a single worker.
+     * What happens when the queue is full is decided by the {@link OverflowPolicy} of
+     * the dispatcher.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
     public ExecutorService getExecutorService() {
         return executorService;
     }
@@ -31,6 +42,8 @@ public class WorkerThreadExecutorConfig {
 
         private int noOfWorkers;
 
+        private int queueCapacity = 100;
+
         public Builder() {
             // left empty intentionally.
         }
@@ -40,9 +53,14 @@ public class WorkerThreadExecutorConfig {
             return this;
         }
 
+        public Builder withQueueCapacity(final int capacity) {
+            queueCapacity = capacity > 0 ? capacity : 1;
+            return this;
+        }
+
         public WorkerThreadExecutorConfig build() {
             final ExecutorService service = Executors.newFixedThreadPool(noOfWorkers);
-            return new WorkerThreadExecutorConfig(noOfWorkers, service);
+            return new WorkerThreadExecutorConfig(noOfWorkers, queueCapacity, service);
         }
 
     }
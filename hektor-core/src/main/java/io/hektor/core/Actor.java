@@ -78,6 +78,33 @@ public interface Actor {
      */
     void onReceive(Object msg);
 
+    /**
+     * Called when an actor that may be passivated (see {@link Props.Builder#withPassivation(java.time.Duration)})
+     * has been idle for long enough. The actor should return a compact snapshot of its state, from which
+     * a brand new instance of the actor will be brought back, through {@link #activate(Object)}, as soon as
+     * the next message arrives. This instance will then be thrown away.
+     *
+     * An actor that can't be passivated right now, or ever, returns null, which is also what the default
+     * implementation does, in which case the actor will be asked again after another idle period.
+     *
+     * @return the snapshot or null if the actor shouldn't be passivated.
+     */
+    default Object passivate() {
+        return null;
+    }
+
+    /**
+     * Called on a new instance of a passivated actor, instead of {@link #start()}, right before
+     * it is handed the message that caused it to be brought back. This is also what happens,
+     * again instead of {@link #start()}, to an actor that is created under a path for which its
+     * {@link PassivationStore} already has a snapshot, such as after a restart.
+     *
+     * @param snapshot the snapshot as returned by {@link #passivate()}.
+     */
+    default void activate(final Object snapshot) {
+        // left empty intentionally
+    }
+
     default boolean hasTransactionalSupport() {
         return false;
     }
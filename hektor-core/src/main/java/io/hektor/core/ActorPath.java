@@ -23,6 +23,14 @@ public interface ActorPath {
 
     String name();
 
+    /**
+     * The number of ancestors of this path, i.e., the root has a depth of zero,
+     * the children of the root a depth of one and so on.
+     */
+    default int depth() {
+        return parent().map(p -> p.depth() + 1).orElse(0);
+    }
+
     default boolean isRoot() {
         return !parent().isPresent();
     }
@@ -3,6 +3,7 @@ package io.hektor.core;
 import io.hektor.core.internal.Priority;
 import io.snice.protocol.Request;
 
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
@@ -68,6 +69,31 @@ public interface ActorRef {
      */
     void tellAnonymously(Object msg);
 
+    /**
+     * Send all the messages, in order, to the actor. This is the same as calling
+     * {@link #tell(Object, ActorRef)} for every message but meant for those that produce
+     * messages in bulk, since the messages are handed off to the dispatcher as a single
+     * batch instead of one by one.
+     *
+     * @param msgs the messages to send. Any null message is ignored.
+     * @param sender the sender of the messages.
+     */
+    default void tellAll(final Collection<?> msgs, final ActorRef sender) {
+        for (final Object msg : msgs) {
+            if (msg != null) {
+                tell(msg, sender);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #tellAll(Collection, ActorRef)} but without specifying a sender,
+     * just like {@link #tellAnonymously(Object)}.
+     */
+    default void tellAll(final Collection<?> msgs) {
+        tellAll(msgs, None());
+    }
+
     /**
      * Monitor a particular {@link Actor}, meaning to get all the lifecycle events
      * from the actor. If the {@link Actor}, as represented by the given {@link ActorRef} does not
@@ -7,4 +7,12 @@ public interface Cancellable {
 
     boolean cancel();
 
+    /**
+     * Whether the task is still waiting to be executed, i.e., it has neither been executed
+     * nor cancelled. Implementations that cannot tell should always return true.
+     */
+    default boolean isPending() {
+        return true;
+    }
+
 }
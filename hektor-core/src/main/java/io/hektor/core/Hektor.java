@@ -1,16 +1,23 @@
 package io.hektor.core;
 
 import com.codahale.metrics.MetricRegistry;
+import io.hektor.config.ActorStoreConfiguration;
 import io.hektor.config.DispatcherConfiguration;
 import io.hektor.config.HektorConfiguration;
+import io.hektor.config.SchedulerConfiguration;
+import io.hektor.core.internal.ActorPathPattern;
 import io.hektor.core.internal.ActorStore;
 import io.hektor.core.internal.DefaultActorPath;
 import io.hektor.core.internal.DefaultHektor;
 import io.hektor.core.internal.HashWheelScheduler;
 import io.hektor.core.internal.InternalDispatcher;
 import io.hektor.core.internal.InternalHektor;
+import io.hektor.core.internal.ShardedActorStore;
 import io.hektor.core.internal.SimpleActorStore;
 import io.hektor.core.internal.workerexecutor.DefaultDispatcher;
+import io.hektor.core.internal.workerexecutor.ForkJoinDispatcher;
+import io.hektor.core.internal.workerexecutor.MailBoxDispatcher;
+import io.hektor.core.internal.workerexecutor.VirtualThreadDispatcher;
 
 import java.util.Map;
 import java.util.Optional;
@@ -98,6 +105,13 @@ public interface Hektor {
 
     class Builder {
 
+        /**
+         * When more than one dispatcher has been configured, the one with this name
+         * will be the default dispatcher, i.e., the dispatcher for all actors that
+         * haven't asked for a specific one.
+         */
+        public static final String DEFAULT_DISPATCHER = "default";
+
         private final String name;
 
         private HektorConfiguration config;
@@ -137,19 +151,35 @@ public interface Hektor {
             final MetricRegistry registry = metricRegistry != null ? metricRegistry : new MetricRegistry();
             final Map<String, DispatcherConfiguration> dispatcherConfigs = config.dispatchers();
             if (actorStore == null) {
-                actorStore = new SimpleActorStore();
+                actorStore = createActorStore(config.actorStore(), registry);
             }
             final ActorPath root = new DefaultActorPath(null, name);
             // TODO: the dispatcher doesn't need to know the root
             // it really should only be used for scheduling actors to run
             // and nothing else. No lookup an actor etc.
-            final Scheduler scheduler = this.scheduler != null ? this.scheduler : new HashWheelScheduler();
+            final Scheduler scheduler = this.scheduler != null ? this.scheduler : createScheduler(config.scheduler());
             final DefaultHektor hektor = new DefaultHektor(root, scheduler, actorStore, registry);
             final InternalDispatcher defaultDispatcher = createDefaultDispatcher(root, hektor, actorStore, dispatcherConfigs, registry);
             hektor.setDefaultDispatcher(defaultDispatcher);
             return hektor;
         }
 
+        private ActorStore createActorStore(final Optional<ActorStoreConfiguration> config, final MetricRegistry registry) {
+            if (!config.isPresent()) {
+                return new SimpleActorStore();
+            }
+
+            if (ActorStoreConfiguration.SHARDED_ACTOR_STORE.equalsIgnoreCase(config.get().type())) {
+                return new ShardedActorStore(name, config.get(), registry);
+            }
+
+            return new SimpleActorStore(config.get().initialCapacity());
+        }
+
+        private Scheduler createScheduler(final Optional<SchedulerConfiguration> config) {
+            return new HashWheelScheduler(name, config.orElseGet(() -> new SchedulerConfiguration.Builder().build()));
+        }
+
         private HektorConfiguration ensureConfiguration() {
             if (config != null) {
                 return config;
@@ -159,22 +189,51 @@ public interface Hektor {
         }
 
         /**
-         * If no dispatcher configuration has been specified we will
-         * generate a default dispatcher.
+         * Create all the configured dispatchers and return the default one, which is the
+         * only one if just a single dispatcher has been configured or the one named
+         * {@link #DEFAULT_DISPATCHER} if there are many. All dispatchers are registered
+         * with Hektor so that actors can select them by name through their {@link Props}
+         * or be bound to them through the {@link DispatcherConfiguration#paths()} patterns.
          *
          * @return
          */
         private InternalDispatcher createDefaultDispatcher(final ActorPath rootPath,
-                                                           final InternalHektor hektor,
+                                                           final DefaultHektor hektor,
                                                            final ActorStore actorStore,
                                                            final Map<String, DispatcherConfiguration> configs,
                                                            final MetricRegistry registry) {
-            if (configs.size() == 1) {
-                final Map.Entry<String, DispatcherConfiguration> entry = configs.entrySet().iterator().next();
-                return new DefaultDispatcher(entry.getKey(), rootPath, hektor, actorStore, registry, entry.getValue());
+            if (configs.isEmpty()) {
+                throw new IllegalArgumentException("Missing configuration");
             }
 
-            throw new IllegalArgumentException("Missing configuration");
+            for (final Map.Entry<String, DispatcherConfiguration> entry : configs.entrySet()) {
+                final InternalDispatcher dispatcher = createDispatcher(entry.getKey(), entry.getValue(), rootPath, hektor, actorStore, registry);
+                hektor.addDispatcher(entry.getKey(), dispatcher);
+                entry.getValue().paths().forEach(path -> hektor.bindPath(ActorPathPattern.compile(path), dispatcher));
+            }
+
+            final String defaultName = configs.size() == 1 ? configs.keySet().iterator().next() : DEFAULT_DISPATCHER;
+            return hektor.dispatcher(defaultName).orElseThrow(() ->
+                    new IllegalArgumentException("When configuring more than one dispatcher, one of them must be named \""
+                            + DEFAULT_DISPATCHER + "\""));
+        }
+
+        private InternalDispatcher createDispatcher(final String name,
+                                                    final DispatcherConfiguration config,
+                                                    final ActorPath rootPath,
+                                                    final InternalHektor hektor,
+                                                    final ActorStore actorStore,
+                                                    final MetricRegistry registry) {
+            if (DispatcherConfiguration.MAILBOX_EXECUTOR.equalsIgnoreCase(config.executor())) {
+                return new MailBoxDispatcher(name, hektor, actorStore, registry, config);
+            }
+            if (DispatcherConfiguration.FORK_JOIN_EXECUTOR.equalsIgnoreCase(config.executor())) {
+                return new ForkJoinDispatcher(name, hektor, actorStore, registry, config);
+            }
+            if (DispatcherConfiguration.VIRTUAL_THREAD_EXECUTOR.equalsIgnoreCase(config.executor())) {
+                return new VirtualThreadDispatcher(name, hektor, actorStore, registry, config);
+            }
+            return new DefaultDispatcher(name, rootPath, hektor, actorStore, registry, config);
         }
 
     }
@@ -0,0 +1,48 @@
+package io.hektor.core;
+
+import io.hektor.config.OverflowPolicy;
+
+import static io.snice.preconditions.PreConditions.assertNotNull;
+
+/**
+ * If the dispatcher has been configured with the {@link OverflowPolicy#SIGNAL} policy, this
+ * message is sent back to the sender of a message that couldn't be delivered because the
+ * dispatcher was overloaded. If the message was an "ask", the future is completed with this
+ * message instead.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class MailBoxFull {
+
+    private final ActorRef receiver;
+    private final Object message;
+
+    public static MailBoxFull of(final ActorRef receiver, final Object message) {
+        assertNotNull(receiver, "The receiver cannot be null");
+        return new MailBoxFull(receiver, message);
+    }
+
+    private MailBoxFull(final ActorRef receiver, final Object message) {
+        this.receiver = receiver;
+        this.message = message;
+    }
+
+    /**
+     * The actor to which the message couldn't be delivered.
+     */
+    public ActorRef receiver() {
+        return receiver;
+    }
+
+    /**
+     * The message that couldn't be delivered.
+     */
+    public Object message() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{receiver: %s, message: %s}", MailBoxFull.class.getSimpleName(), receiver, message);
+    }
+}
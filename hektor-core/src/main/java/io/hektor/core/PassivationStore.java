@@ -0,0 +1,98 @@
+package io.hektor.core;
+
+import io.hektor.core.internal.MappedPassivationStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the snapshots of passivated actors (see {@link Actor#passivate()}) outside of the heap, keyed
+ * by the path of the actor, which is what allows a very large number of mostly idle actors to be
+ * around without them having to fit in memory, and, if the store is persistent, to survive a restart.
+ *
+ * Only snapshots that are byte arrays can be kept in a store, any other snapshot simply stays
+ * on the heap. See {@link Props.Builder#withPassivation(java.time.Duration, PassivationStore)}.
+ *
+ * A snapshot is only in the store while the actor is passivated. Once the actor is brought back, the
+ * snapshot is removed, which also means that if an actor is created under a path that already
+ * has a snapshot in the store, such as after a restart, the actor will be brought back from it
+ * (see {@link Actor#activate(Object)}) as opposed to being started.
+ *
+ * A store is shared by all the actors using it and as such, must be thread safe.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public interface PassivationStore extends AutoCloseable {
+
+    /**
+     * A persistent store backed by memory mapped files in the given directory, which will be
+     * created if it doesn't exist. Whatever is already in the directory is loaded when the store is built.
+     */
+    static MappedBuilder mapped(final Path directory) {
+        return MappedPassivationStore.of(directory);
+    }
+
+    /**
+     * Store the snapshot of the actor, replacing any existing one.
+     *
+     * @throws UncheckedIOException in case the snapshot couldn't be stored.
+     */
+    void put(ActorPath path, byte[] snapshot) throws UncheckedIOException;
+
+    /**
+     * @return a read only view of the snapshot or null if there is none. The view will not reflect
+     * any later changes to the store.
+     */
+    ByteBuffer get(ActorPath path);
+
+    boolean contains(ActorPath path);
+
+    /**
+     * @return true if there was a snapshot to remove.
+     * @throws UncheckedIOException in case the removal couldn't be stored.
+     */
+    boolean remove(ActorPath path) throws UncheckedIOException;
+
+    int size();
+
+    /**
+     * Go through every snapshot in the store, e.g. to re-create all the actors after a restart.
+     * The store must not be modified while doing so.
+     */
+    void forEach(BiConsumer<ActorPath, ByteBuffer> consumer);
+
+    /**
+     * Make sure everything stored so far has made it to disk, if the store is persistent.
+     */
+    void flush();
+
+    /**
+     * Closing the store also invalidates every view handed out by {@link #get(ActorPath)}
+     * and {@link #forEach(BiConsumer)}.
+     */
+    @Override
+    void close();
+
+    interface MappedBuilder {
+
+        /**
+         * The size of every segment file, which is also the max size of a single snapshot.
+         */
+        MappedBuilder withSegmentSize(int segmentSize);
+
+        /**
+         * How much of a segment, between 0 and 1, that has to be garbage before it is compacted.
+         */
+        MappedBuilder withCompactionThreshold(double threshold);
+
+        /**
+         * Create the store and load whatever already is in the directory.
+         *
+         * @throws IOException in case the segments couldn't be loaded.
+         */
+        PassivationStore build() throws IOException;
+    }
+}
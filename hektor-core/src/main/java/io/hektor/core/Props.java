@@ -1,8 +1,10 @@
 package io.hektor.core;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import static io.snice.preconditions.PreConditions.assertArgument;
 import static io.snice.preconditions.PreConditions.assertNotNull;
 
 /**
@@ -27,7 +29,7 @@ public interface Props<T extends Actor> {
     static <T extends Actor> Props<T> forActor(final Class<T> clazz, final Supplier<T> creator) {
         assertNotNull(clazz, "The class cannot be null");
         assertNotNull(creator, "The creator cannot be null");
-        return new Builder.DefaultProps<>(clazz, creator, null);
+        return new Builder.DefaultProps<>(clazz, creator, null, null, null, null);
     }
 
     Class<T> clazz();
@@ -41,6 +43,30 @@ public interface Props<T extends Actor> {
 
     Optional<Router> router();
 
+    /**
+     * The name of the dispatcher the actor should run on. If not specified, the
+     * actor will run on the default dispatcher.
+     *
+     * @return
+     */
+    default Optional<String> dispatcher() {
+        return Optional.empty();
+    }
+
+    /**
+     * The time an actor must have been idle before it is passivated, if ever. See {@link Actor#passivate()}.
+     */
+    default Optional<Duration> passivateAfter() {
+        return Optional.empty();
+    }
+
+    /**
+     * Where the snapshots of passivated actors are kept, if not on the heap.
+     */
+    default Optional<PassivationStore> passivationStore() {
+        return Optional.empty();
+    }
+
     interface CreatorStep<T extends Actor> {
         Builder<T> withCreator(Supplier<T> creator);
     }
@@ -51,6 +77,12 @@ public interface Props<T extends Actor> {
 
         private Router router;
 
+        private String dispatcher;
+
+        private Duration passivateAfter;
+
+        private PassivationStore passivationStore;
+
         private final Class<T> clazz;
         private final Supplier<T> creator;
 
@@ -64,8 +96,40 @@ public interface Props<T extends Actor> {
             return this;
         }
 
+        /**
+         * Run the actor on the dispatcher with the given name, which must have been configured
+         * through the {@link io.hektor.config.HektorConfiguration}.
+         */
+        public Builder withDispatcher(final String dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+
+        /**
+         * Passivate the actor once it has been idle for the given amount of time, i.e., has not
+         * received any messages. A passivated actor is brought back as soon as a new message arrives.
+         * See {@link Actor#passivate()}.
+         */
+        public Builder withPassivation(final Duration idle) {
+            assertNotNull(idle, "The idle time cannot be null");
+            assertArgument(!idle.isNegative() && !idle.isZero(), "The idle time must be greater than zero");
+            this.passivateAfter = idle;
+            return this;
+        }
+
+        /**
+         * Same as {@link #withPassivation(Duration)} but the snapshot of the actor, if it is a byte array,
+         * is kept in the given store while the actor is passivated. See {@link PassivationStore}.
+         */
+        public Builder withPassivation(final Duration idle, final PassivationStore store) {
+            assertNotNull(store, "The passivation store cannot be null");
+            withPassivation(idle);
+            this.passivationStore = store;
+            return this;
+        }
+
         public Props build() throws NoSuchConstructorException {
-            return new DefaultProps(clazz, creator, router);
+            return new DefaultProps(clazz, creator, router, dispatcher, passivateAfter, passivationStore);
         }
 
         private static class DefaultProps<T extends Actor> implements Props<T> {
@@ -73,13 +137,22 @@ public interface Props<T extends Actor> {
             private final Class<T> clazz;
             private final Supplier<T> creator;
             private final Optional<Router> router;
+            private final Optional<String> dispatcher;
+            private final Optional<Duration> passivateAfter;
+            private final Optional<PassivationStore> passivationStore;
 
             private DefaultProps(final Class<T> clazz,
                                  final Supplier<T> creator,
-                                 final Router router) {
+                                 final Router router,
+                                 final String dispatcher,
+                                 final Duration passivateAfter,
+                                 final PassivationStore passivationStore) {
                 this.clazz = clazz;
                 this.creator = creator;
                 this.router = Optional.ofNullable(router);
+                this.dispatcher = Optional.ofNullable(dispatcher);
+                this.passivateAfter = Optional.ofNullable(passivateAfter);
+                this.passivationStore = Optional.ofNullable(passivationStore);
             }
 
             @Override
@@ -96,6 +169,21 @@ public interface Props<T extends Actor> {
             public Optional<Router> router() {
                 return router;
             }
+
+            @Override
+            public Optional<String> dispatcher() {
+                return dispatcher;
+            }
+
+            @Override
+            public Optional<Duration> passivateAfter() {
+                return passivateAfter;
+            }
+
+            @Override
+            public Optional<PassivationStore> passivationStore() {
+                return passivationStore;
+            }
         }
     }
 }
@@ -33,4 +33,52 @@ public interface Scheduler {
      * @return a {@link Cancellable} representing this outstanding task.
      */
     <T> Cancellable schedule(Supplier<T> producer, ActorRef receiver, ActorRef sender, Duration delay);
+
+    /**
+     * Create a new {@link Timer} that delivers its messages to the given receiver. The timer
+     * isn't armed until {@link Timer#schedule(Object, Duration)} is called.
+     *
+     * @param receiver the receiving actor of every message scheduled through the timer.
+     * @param sender the sending actor of every message scheduled through the timer.
+     */
+    default Timer timer(final ActorRef receiver, final ActorRef sender) {
+        return new DefaultTimer(this, receiver, sender);
+    }
+
+    /**
+     * A {@link Timer} for those schedulers that have no better way of re-arming a timer
+     * than to schedule a brand new message every time.
+     */
+    class DefaultTimer implements Timer {
+
+        private final Scheduler scheduler;
+        private final ActorRef receiver;
+        private final ActorRef sender;
+        private Cancellable current;
+
+        private DefaultTimer(final Scheduler scheduler, final ActorRef receiver, final ActorRef sender) {
+            this.scheduler = scheduler;
+            this.receiver = receiver;
+            this.sender = sender;
+        }
+
+        @Override
+        public void schedule(final Object msg, final Duration delay) {
+            cancel();
+            current = scheduler.schedule(msg, receiver, sender, delay);
+        }
+
+        @Override
+        public boolean cancel() {
+            final Cancellable previous = current;
+            current = null;
+            return previous != null && previous.cancel();
+        }
+
+        @Override
+        public boolean isPending() {
+            final Cancellable previous = current;
+            return previous != null && previous.isPending();
+        }
+    }
 }
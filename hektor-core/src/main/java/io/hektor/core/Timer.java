@@ -0,0 +1,27 @@
+package io.hektor.core;
+
+import java.time.Duration;
+
+/**
+ * A timer that can be armed over and over again, as opposed to the {@link Cancellable}s
+ * returned by {@link Scheduler#schedule(Object, ActorRef, ActorRef, Duration)}, which are
+ * good for a single scheduled message only. Meant for the timers that are armed, cancelled and
+ * then armed again over and over, such as re-transmission timers, where creating a new
+ * timer every single time would be a waste.
+ *
+ * A timer is always delivering its messages to the same receiver and is not thread safe, i.e.,
+ * it should only be used by the actor owning it.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public interface Timer extends Cancellable {
+
+    /**
+     * Arm the timer so that the given message is delivered after the given delay. If the
+     * timer already was armed, the previous message is cancelled and will never be delivered.
+     *
+     * @param msg the message to deliver to the receiver of this timer.
+     * @param delay the delay before delivering the message.
+     */
+    void schedule(Object msg, Duration delay);
+}
@@ -2,21 +2,31 @@ package io.hektor.core.internal;
 
 import io.hektor.core.Actor;
 import io.hektor.core.ActorRef;
+import io.hektor.core.PassivationStore;
+import io.hektor.core.Scheduler;
 import io.hektor.core.internal.messages.Stop;
 import io.snice.protocol.Request;
 
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * @author jonas@jonasborjesson.com
  */
 public class ActorBox {
 
-    private final Actor actor;
+    /**
+     * The actor, which is null while the actor is passivated.
+     */
+    private Actor actor;
 
     private final ActorRef ref;
 
@@ -28,8 +38,31 @@ public class ActorBox {
      */
     private boolean isStopped = false;
 
+    /**
+     * Once the actor has been stopped and all its children are gone, the actor
+     * is purged from the system and must never be invoked again, even if there
+     * are still messages left in its mailbox.
+     *
+     * Volatile since it is also what tells the {@link InternalActorRef}s bound to
+     * this box, which may be used from any thread, that the box is no longer valid.
+     */
+    private volatile boolean isPurged = false;
+
+    /**
+     * Volatile since the parent checks it, from its own thread, when stopping its children.
+     */
+    private volatile boolean isStarted = false;
+
     private final MailBox mailBox;
 
+    /**
+     * Whether or not this actor is currently scheduled for execution, i.e., it has
+     * been handed off to a worker that will drain its mailbox. An actor is only
+     * ever scheduled once, which is what guarantees that an actor is only
+     * processed by a single thread at any given point in time.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
     /**
      * A map of all the children that has belongs to this actor.
      * Remember, it is guaranteed that the ActorBox is only
@@ -47,6 +80,23 @@ public class ActorBox {
      */
     private Set<ActorRef> watchers;
 
+    /**
+     * Keeps track of all the timers scheduled by this actor. Created the
+     * first time the actor asks for the scheduler.
+     */
+    private ActorScheduler scheduler;
+
+    /**
+     * Only there for the actors that may be passivated when idle.
+     */
+    private Passivation passivation;
+
+    /**
+     * The context handed to the actor whenever it is invoked, which is only valid while it is.
+     * Created the first time the actor is invoked.
+     */
+    private DefaultActorContext ctx;
+
     private ActorBox(final MailBox mailBox, final Actor actor, final ActorRef ref) {
         this.mailBox = mailBox;
         this.actor = actor;
@@ -57,6 +107,14 @@ public class ActorBox {
         return new ActorBox(mailBox, actor, ref);
     }
 
+    DefaultActorContext context() {
+        return ctx;
+    }
+
+    void context(final DefaultActorContext ctx) {
+        this.ctx = ctx;
+    }
+
     public void storeRequest(final Request request) {
         ensureTransactionMap();
         transactions.add(request);
@@ -89,14 +147,29 @@ public class ActorBox {
     }
 
     /**
-     * Send a stop message to all our children (if any)
+     * Send a stop message to all our children (if any). A child that has been started is asked
+     * to stop with {@link Priority#HIGH} while a child that has yet to process its start message
+     * is asked in order, or the stop message would overtake the start message.
      */
     public void stopChildren() {
         children.values().forEach(child -> {
-            child.tell(Stop.MSG, ref);
+            final ActorBox box = child instanceof InternalActorRef ? ((InternalActorRef) child).actorBox() : null;
+            final Priority priority = box != null && box.isStarted() ? Priority.HIGH : Priority.NORMAL;
+            child.tell(priority, Stop.MSG, ref);
         });
     }
 
+    /**
+     * Whether the actor has processed its start message (or been activated in its place).
+     */
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    public void started() {
+        isStarted = true;
+    }
+
     public void addChild(final String name, final ActorRef ref) {
         children.put(name, ref);
     }
@@ -124,6 +197,116 @@ public class ActorBox {
         watchers.add(watcher);
     }
 
+    /**
+     * The scheduler as seen by this actor.
+     *
+     * @param scheduler the scheduler of the actor system.
+     */
+    public ActorScheduler scheduler(final Scheduler scheduler) {
+        if (this.scheduler == null) {
+            this.scheduler = new ActorScheduler(scheduler, ref);
+        }
+        return this.scheduler;
+    }
+
+    /**
+     * Cancel every timer this actor scheduled to itself that hasn't fired yet.
+     */
+    public void cancelTimers() {
+        if (scheduler != null) {
+            scheduler.cancelAll();
+        }
+    }
+
+    /**
+     * Allow the actor to be passivated once it has been idle for the given amount of time.
+     * Must be done before the actor processes its very first message.
+     *
+     * @param creator the function for creating a new instance of the actor when it is activated again.
+     * @param store where to keep the snapshot of the actor while passivated. May be null.
+     */
+    public void enablePassivation(final Supplier<? extends Actor> creator, final Duration idle,
+                                  final PassivationStore store) {
+        passivation = new Passivation(creator, idle, store);
+    }
+
+    /**
+     * @return the passivation of this actor or null if the actor is never passivated.
+     */
+    public Passivation passivation() {
+        return passivation;
+    }
+
+    /**
+     * Release the actor and keep the snapshot of it around until the actor is activated again,
+     * in the store, if there is one and the snapshot can be kept there.
+     */
+    public void passivate(final Object snapshot) {
+        final PassivationStore store = passivation.store();
+        if (store != null && snapshot instanceof byte[]) {
+            store.put(ref.path(), (byte[]) snapshot);
+            passivation.passivated(Passivation.STORED);
+        } else {
+            passivation.passivated(snapshot);
+        }
+        actor = null;
+    }
+
+    /**
+     * Bring back a passivated actor by creating a new instance of it and handing it the
+     * snapshot it was passivated into. Must be called with the context of the actor in place
+     * since the actor may very well need it.
+     *
+     * The snapshot is only let go of once the actor is back. If creating or activating the
+     * actor blows up, the actor is still passivated and the snapshot is still where it was.
+     */
+    public void activate() {
+        final Object snapshot = passivation.snapshot();
+        final Actor activated = passivation.creator().get();
+        activated.activate(snapshot == Passivation.STORED ? readStored() : snapshot);
+
+        actor = activated;
+        passivation.activated();
+        if (snapshot == Passivation.STORED) {
+            removeStored();
+        }
+    }
+
+    /**
+     * If the store already has a snapshot for this actor, such as after a restart, the actor
+     * is brought back from it as opposed to being started. Must be called with the context
+     * of the actor in place.
+     *
+     * @return true if the actor was activated, false if it has to be started.
+     */
+    public boolean activateStored() {
+        final PassivationStore store = passivation != null ? passivation.store() : null;
+        if (store == null || !store.contains(ref.path())) {
+            return false;
+        }
+
+        actor.activate(readStored());
+        removeStored();
+        return true;
+    }
+
+    private byte[] readStored() {
+        final ByteBuffer stored = passivation.store().get(ref.path());
+        final byte[] snapshot = new byte[stored.remaining()];
+        stored.get(snapshot);
+        return snapshot;
+    }
+
+    private void removeStored() {
+        try {
+            passivation.store().remove(ref.path());
+        } catch (final UncheckedIOException e) {
+            // the stale snapshot will be replaced the next time the actor is passivated,
+            // no reason not to bring the actor back.
+            e.printStackTrace();
+        }
+    }
+
     public boolean hasNoChildren() {
         return children.isEmpty();
     }
@@ -139,6 +322,37 @@ public class ActorBox {
         return isStopped;
     }
 
+    /**
+     * Mark this actor as purged, which is the very last thing that happens
+     * to an actor. Once purged, no more messages will be processed.
+     */
+    public void purge() {
+        isPurged = true;
+    }
+
+    public boolean isPurged() {
+        return isPurged;
+    }
+
+    /**
+     * Try to mark this actor as scheduled for execution.
+     *
+     * @return true if the actor went from idle to scheduled, in which case the caller
+     * is responsible for actually handing the actor off to a worker. False if the actor
+     * already was scheduled.
+     */
+    public boolean schedule() {
+        return !scheduled.get() && scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Release this actor so that it can be scheduled again. Must only be called by the
+     * worker currently processing the actor.
+     */
+    public void unschedule() {
+        scheduled.set(false);
+    }
+
     public ActorRef ref() {
         return ref;
     }
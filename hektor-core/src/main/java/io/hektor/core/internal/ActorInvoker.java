@@ -0,0 +1,470 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.Actor;
+import io.hektor.core.ActorPath;
+import io.hektor.core.ActorRef;
+import io.hektor.core.LifecycleEvent;
+import io.hektor.core.Timer;
+import io.hektor.core.internal.messages.Passivate;
+import io.hektor.core.internal.messages.Start;
+import io.hektor.core.internal.messages.Stop;
+import io.hektor.core.internal.messages.Watch;
+import io.snice.protocol.Request;
+import io.snice.protocol.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.snice.preconditions.PreConditions.assertNotNull;
+
+/**
+ * Every message that is being passed to an actor ends up going through the
+ * {@link ActorInvoker}. It's job is to invoke the onReceive method,
+ * deal with any new messages that are being sent from the actor as a result of
+ * this invocation and also potentially deal with any exceptions that is being thrown.
+ *
+ * The {@link ActorInvoker} can be shared between threads, it is up to the dispatcher to
+ * guarantee that a given {@link ActorBox} is only ever processed by a single thread at any
+ * given point in time. In order to not create any garbage on the hot path, every actor re-uses
+ * its own {@link DefaultActorContext}, which is invalidated as soon as the invocation is over,
+ * and the list buffering the messages sent by the actor is re-used by every thread. As such, an
+ * actor holding on to its context, e.g. in a callback, can never see the state of whatever actor
+ * the thread runs next and any use of it outside of an invocation fails straight away.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class ActorInvoker {
+
+    private final InternalHektor hektor;
+
+    /**
+     * The buffer of the thread, which is taken out while an invocation is using it and put back
+     * once it is over, so a nested invocation on the same thread simply gets a buffer of its own.
+     */
+    private final ThreadLocal<List<Envelope>> buffers = new ThreadLocal<>();
+
+    public ActorInvoker(final InternalHektor hektor) {
+        assertNotNull(hektor);
+        this.hektor = hektor;
+    }
+
+    private DefaultActorContext context(final ActorBox box, final ActorRef sender) {
+        List<Envelope> buffer = buffers.get();
+        if (buffer == null) {
+            buffer = new ArrayList<>(3);
+        } else {
+            buffers.set(null);
+        }
+
+        DefaultActorContext ctx = box.context();
+        if (ctx == null) {
+            ctx = new DefaultActorContext(hektor, box);
+            box.context(ctx);
+        } else if (ctx.isOpen()) {
+            // should never happen but if the actor ever were to be invoked from within
+            // its own invocation, the outer invocation must keep its context.
+            return new DefaultActorContext(hektor, box, sender, buffer);
+        }
+
+        ctx.open(sender, buffer);
+        return ctx;
+    }
+
+    /**
+     * The invocation is over, which is where the context becomes invalid.
+     */
+    private void release(final DefaultActorContext ctx) {
+        final List<Envelope> buffer = ctx.bufferedMessages();
+        ctx.invalidate();
+        buffer.clear();
+        buffers.set(buffer);
+    }
+
+    /**
+     * Process at most <code>throughput</code> number of messages off of the mailbox belonging to
+     * the given actor. Once done, the actor is released so that it can be scheduled again.
+     *
+     * @param box the actor whose mailbox we will drain.
+     * @param throughput the max number of messages to process before yielding to other actors.
+     * @return true if there are still messages left in the mailbox and the actor has been marked as
+     * scheduled again, in which case the caller MUST schedule the actor for execution. False otherwise.
+     */
+    public boolean drain(final ActorBox box, final int throughput) {
+        final MailBox mailBox = box.mailBox();
+        for (int i = 0; i < throughput && !box.isPurged(); ++i) {
+            final Envelope envelope = mailBox.poll();
+            if (envelope == null) {
+                break;
+            }
+
+            try {
+                invoke(box, envelope.sender(), envelope.payload(), envelope.askFuture());
+            } catch (final Throwable t) {
+                // must not escape or else the actor would never be released
+                t.printStackTrace();
+            }
+        }
+
+        box.unschedule();
+
+        // a message may have been added to the mailbox after we stopped
+        // draining it but before we released the actor, in which case the
+        // producer didn't schedule it so we have to.
+        return !box.isPurged() && !mailBox.isEmpty() && box.schedule();
+    }
+
+    /**
+     * Invoke the actor with the given message.
+     *
+     * @param box the actor to invoke.
+     * @param sender the sender of the message.
+     * @param msg the actual message
+     * @param askFuture if the message is an "ask", the future to complete. May be null.
+     */
+    public void invoke(final ActorBox box, final ActorRef sender, final Object msg, final CompletableFuture<Object> askFuture) {
+        final boolean isStopping = box.isStopped();
+
+        final Passivation passivation = box.passivation();
+        if (passivation != null && msg != Passivate.MSG) {
+            passivation.touch();
+            if (passivation.isPassivated() && !isStopping && !activateActor(box, sender)) {
+                // the actor couldn't be brought back so it is stopped, just as if it had asked
+                // to be stopped. Its snapshot is left where it was.
+                box.stop();
+            }
+        }
+
+        if (box.actor() == null) {
+            // the actor failed to be activated, now or earlier, so there is no one to hand
+            // the message to. Just like a message the actor blew up on, it is lost but the
+            // bookkeeping still has to happen or the actor would never be purged.
+            if (msg == Watch.MSG) {
+                box.watch(sender);
+            } else if (msg instanceof Terminated) {
+                processStoppedChild(box, (Terminated) msg);
+            } else if (askFuture != null) {
+                askFuture.complete(null);
+            }
+        } else if (msg == Stop.MSG) {
+            box.stop();
+        } else if (msg == Watch.MSG) {
+            box.watch(sender);
+        } else if (msg == Passivate.MSG) {
+            passivateActor(box, passivation, sender);
+        } else {
+            final Object actualMsg;
+            if (msg instanceof Terminated) {
+                // the Terminated event is an internal event. We'll convert it
+                // to the public {@link LifecycleEvent} before handing it off
+                // to the actor. The reason is we want ot rely on the fact that
+                // no one else can send us the Terminated event.
+                final Terminated term = (Terminated)msg;
+                actualMsg = LifecycleEvent.terminated(term.actor());
+                processStoppedChild(box, term);
+            } else {
+                actualMsg = msg;
+            }
+
+            final DefaultActorContext ctx = invokeActor(box, sender, actualMsg);
+
+            if (askFuture != null && ctx == null) {
+                askFuture.complete(null);
+            }
+
+            processActorContext(box, sender, askFuture, ctx);
+        }
+
+        // only call stop on the actor once
+        if (isStopping ^ box.isStopped()) {
+            final DefaultActorContext ctx = initiateStoppingOfActor(box, sender);
+            processActorContext(box, sender, askFuture, ctx);
+        } else if ((isStopping || box.isStopped()) && box.hasNoChildren()) {
+            purgeActor(box);
+        }
+
+        if (passivation != null && !passivation.isArmed() && !passivation.isPassivated() && !box.isStopped()) {
+            armPassivation(box, passivation, passivation.idleNanos());
+        }
+    }
+
+    /**
+     * Bring back an actor that has been passivated, which has to happen before the actor can
+     * process whatever message woke it up.
+     *
+     * @return false if the actor blew up while being brought back, in which case it is still
+     * passivated and the snapshot is still there.
+     */
+    private boolean activateActor(final ActorBox box, final ActorRef sender) {
+        final DefaultActorContext ctx = context(box, sender);
+        try {
+            Actor._ctx.set(ctx);
+            box.activate();
+        } catch (final Throwable t) {
+            // same as for an actor that blows up while processing a message,
+            // whatever it sent before blowing up is dropped.
+            t.printStackTrace();
+            release(ctx);
+            return false;
+        } finally {
+            Actor._ctx.remove();
+        }
+
+        processActorContext(box, sender, null, ctx);
+        return true;
+    }
+
+    /**
+     * The passivation timer fired but the actor may have been busy since the timer was armed,
+     * in which case we'll just check again once the actor could have been idle for long enough.
+     * Otherwise, the actor is asked to passivate itself, which it is free to refuse.
+     */
+    private void passivateActor(final ActorBox box, final Passivation passivation, final ActorRef sender) {
+        passivation.armed(false);
+        if (box.isStopped() || passivation.isPassivated()) {
+            return;
+        }
+
+        final long remaining = passivation.remaining();
+        if (remaining > 0) {
+            armPassivation(box, passivation, remaining);
+            return;
+        }
+
+        final DefaultActorContext ctx = context(box, sender);
+        final Object snapshot;
+        try {
+            Actor._ctx.set(ctx);
+            snapshot = box.actor().passivate();
+        } catch (final Throwable t) {
+            t.printStackTrace();
+            release(ctx);
+            return;
+        } finally {
+            Actor._ctx.remove();
+        }
+
+        processActorContext(box, sender, null, ctx);
+
+        // an actor that stopped itself is not passivated, it has to go through
+        // the regular stopping sequence, which needs the actor.
+        if (snapshot != null && !box.isStopped()) {
+            try {
+                box.passivate(snapshot);
+            } catch (final Throwable t) {
+                // e.g. the store failing, in which case the actor simply stays around.
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The same re-usable timer is used for the lifetime of the actor and it is tracked
+     * by the {@link ActorScheduler} of the actor so it is cancelled when the actor is purged.
+     */
+    private void armPassivation(final ActorBox box, final Passivation passivation, final long nanos) {
+        Timer timer = passivation.timer();
+        if (timer == null) {
+            timer = box.scheduler(hektor.scheduler()).timer(box.ref(), box.ref());
+            passivation.timer(timer);
+        }
+
+        timer.schedule(Passivate.MSG, Duration.ofNanos(nanos));
+        passivation.armed(true);
+    }
+
+    /**
+     * @return the context of the invocation or null if the actor blew up.
+     */
+    private DefaultActorContext invokeActor(final ActorBox box, final ActorRef sender, final Object msg) {
+        final DefaultActorContext ctx = context(box, sender);
+        try {
+            Actor._ctx.set(ctx);
+            if (msg == Start.MSG) {
+                if (!box.activateStored()) {
+                    box.actor().start();
+                }
+                box.started();
+            } else if (Request.class.isInstance(msg)) {
+                // TODO: we know this when we create the InvokeActorTask so let's
+                // pass that info along instead of "figuring" it out again. Will do that
+                // later if I even like this request/response stuff...
+                processRequest(box, (Request)msg);
+            } else if (Response.class.isInstance(msg)) {
+                processResponse(box, (Response)msg);
+            } else {
+                box.actor().onReceive(msg);
+            }
+
+            return ctx;
+        } catch (final Throwable t) {
+            t.printStackTrace();
+            release(ctx);
+        } finally {
+            Actor._ctx.remove();
+        }
+
+        return null;
+    }
+
+    private void processRequest(final ActorBox box, final Request req) {
+        final Actor actor = box.actor();
+        if (!actor.hasTransactionalSupport()) {
+            // What should we do? I guess it is a transaction so we can
+            // send back a TransactionNotSupportedResponse back to the
+            // requester... TODO
+            return;
+        }
+
+        box.storeRequest(req);
+        box.actor().toTransactionalActor().onRequest(req);
+    }
+
+    private void processResponse(final ActorBox box, final Response response) {
+        final Actor actor = box.actor();
+        if (!actor.hasTransactionalSupport()) {
+            // Same as with the processRequest but this shouldn't really be able to
+            // happen unless someone faked the Response class...
+            return;
+        }
+
+        box.actor().toTransactionalActor().onResponse(response);
+
+    }
+
+    /**
+     * For whatever reason the actor has been asked to stop so we will initiate the stopping
+     * sequence by first letting the user know that the actor is being stopped and then
+     * start stopping all the children, if any, of this actor.
+     *
+     * @param box
+     */
+    private DefaultActorContext initiateStoppingOfActor(final ActorBox box, final ActorRef sender) {
+        final DefaultActorContext ctx = context(box, sender);
+        try {
+            Actor._ctx.set(ctx);
+            final Actor actor = box.actor();
+            if (actor != null) {
+                actor.stop();
+            }
+
+            if (box.hasNoChildren()) {
+                purgeActor(box);
+            } else {
+                box.stopChildren();
+            }
+
+            return ctx;
+        } catch (final Throwable t) {
+            t.printStackTrace();
+            release(ctx);
+        } finally {
+            Actor._ctx.remove();
+        }
+
+        return null;
+    }
+
+    /**
+     * Once a child has been fully stopped we will remove it from the context
+     * of this parent actor. If there are no more children of this actor
+     * then we will also be purged.
+     *
+     * @param box
+     * @param child
+     */
+    private void processStoppedChild(final ActorBox box, final Terminated child) {
+        box.removeChild(child.actor().name());
+    }
+
+    /**
+     * Once all the children of this actor has been called and there is nothing
+     * else to do then finally completely remove this actor from the system.
+     *
+     * @param box
+     */
+    private void purgeActor(final ActorBox box) {
+        final ActorRef receiver = box.ref();
+        box.purge();
+        box.cancelTimers();
+        hektor.removeActor(receiver);
+        final Actor actor = box.actor();
+        if (actor != null) {
+            actor.postStop();
+        }
+        final ActorPath me = receiver.path();
+        me.parent().ifPresent(parentPath -> {
+            final Terminated terminated = Terminated.of(me);
+            hektor.lookup(parentPath).ifPresent(parent -> parent.tell(terminated, receiver));
+        });
+
+        box.tellWatchers(LifecycleEvent.terminated(me));
+    }
+
+    private void processActorContext(final ActorBox box,
+                                      final ActorRef sender,
+                                      final CompletableFuture<Object> askFuture,
+                                      final DefaultActorContext ctx) {
+        if (ctx == null) {
+            return;
+        }
+
+        // plain indexed loops, no need to create an iterator for every invocation.
+        // The answer to an "ask" is completed right here and everything else is
+        // compacted to the front of the list so it can be dispatched in batches.
+        try {
+            dispatchBufferedMessages(sender, askFuture, ctx.bufferedMessages());
+        } finally {
+            release(ctx);
+        }
+
+        if (ctx.isStopped()) {
+            box.stop();
+        }
+    }
+
+    private void dispatchBufferedMessages(final ActorRef sender,
+                                          final CompletableFuture<Object> askFuture,
+                                          final List<Envelope> messages) {
+        int count = 0;
+        for (int i = 0; i < messages.size(); ++i) {
+            final Envelope e = messages.get(i);
+            if (askFuture != null && e.receiver().equals(sender)) {
+                askFuture.complete(e.message());
+            } else {
+                messages.set(count++, e);
+            }
+        }
+
+        // hand off every run of envelopes destined for the same dispatcher in one go,
+        // which keeps the order of the messages as they were sent by the actor.
+        int start = 0;
+        while (start < count) {
+            final Envelope first = messages.get(start);
+            final InternalDispatcher dispatcher = dispatcher(first);
+            if (dispatcher == null) {
+                ((InternalActorRef) first.receiver()).dispatch(first);
+                ++start;
+                continue;
+            }
+
+            int end = start + 1;
+            while (end < count && dispatcher(messages.get(end)) == dispatcher) {
+                ++end;
+            }
+
+            if (end - start == 1) {
+                dispatcher.dispatch(first);
+            } else {
+                dispatcher.dispatchAll(messages, start, end);
+            }
+            start = end;
+        }
+    }
+
+    private static InternalDispatcher dispatcher(final Envelope envelope) {
+        final ActorRef receiver = envelope.receiver();
+        return receiver instanceof InternalActorRef ? ((InternalActorRef) receiver).dispatcher() : null;
+    }
+}
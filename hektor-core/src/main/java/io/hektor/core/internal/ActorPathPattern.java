@@ -0,0 +1,126 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.ActorPath;
+
+import java.util.regex.Pattern;
+
+import static io.snice.preconditions.PreConditions.assertNotEmpty;
+
+/**
+ * A simple glob-like pattern for matching {@link ActorPath}s, which is e.g. used to
+ * bind actors to a given dispatcher through configuration.
+ *
+ * The pattern is always relative to the root of the actor system (which is named
+ * after the Hektor instance) and consists of a number of segments separated by '/'.
+ * Each segment matches exactly one segment of the actor path and may contain any number of
+ * '*', which matches any number of characters within that segment. A segment of just "**"
+ * matches zero or more segments. Any leading "/" or "./" is ignored. E.g.
+ *
+ * <ul>
+ *     <li>"signalling/*" matches every direct child of the top-level actor "signalling".</li>
+ *     <li>"signalling/**" matches "signalling" itself and all of its descendants.</li>
+ *     <li>"**&#47;reporter-*" matches every actor, anywhere, whose name starts with "reporter-".</li>
+ * </ul>
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class ActorPathPattern {
+
+    private static final String ANY_SEGMENTS = "**";
+
+    private final String pattern;
+
+    /**
+     * For every segment of the pattern, the compiled regular expression or null
+     * if the segment is "**".
+     */
+    private final Pattern[] segments;
+
+    public static ActorPathPattern compile(final String pattern) throws IllegalArgumentException {
+        assertNotEmpty(pattern, "The pattern cannot be null or the empty string");
+        String p = pattern.trim();
+        if (p.startsWith("./")) {
+            p = p.substring(2);
+        } else if (p.startsWith("/")) {
+            p = p.substring(1);
+        }
+
+        final String[] parts = p.split("/");
+        final Pattern[] segments = new Pattern[parts.length];
+        for (int i = 0; i < parts.length; ++i) {
+            if (parts[i].isEmpty()) {
+                throw new IllegalArgumentException("Empty segment in actor path pattern \"" + pattern + "\"");
+            }
+            segments[i] = ANY_SEGMENTS.equals(parts[i]) ? null : compileSegment(parts[i]);
+        }
+
+        return new ActorPathPattern(pattern, segments);
+    }
+
+    private static Pattern compileSegment(final String segment) {
+        final StringBuilder regex = new StringBuilder();
+        int start = 0;
+        int index;
+        while ((index = segment.indexOf('*', start)) != -1) {
+            if (index > start) {
+                regex.append(Pattern.quote(segment.substring(start, index)));
+            }
+            regex.append(".*");
+            start = index + 1;
+        }
+
+        if (start < segment.length()) {
+            regex.append(Pattern.quote(segment.substring(start)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private ActorPathPattern(final String pattern, final Pattern[] segments) {
+        this.pattern = pattern;
+        this.segments = segments;
+    }
+
+    /**
+     * The number of segments of this pattern. A pattern with more segments is considered
+     * more specific than one with fewer.
+     */
+    public int specificity() {
+        return segments.length;
+    }
+
+    public boolean matches(final ActorPath path) {
+        // the root itself is not part of the pattern
+        final String[] names = new String[path.depth()];
+        ActorPath current = path;
+        for (int i = names.length - 1; i >= 0; --i) {
+            names[i] = current.name();
+            current = current.parent().get();
+        }
+        return matches(0, names, 0);
+    }
+
+    private boolean matches(final int segment, final String[] names, final int name) {
+        if (segment == segments.length) {
+            return name == names.length;
+        }
+
+        if (segments[segment] == null) {
+            // "**" swallows zero or more of the names
+            for (int i = name; i <= names.length; ++i) {
+                if (matches(segment + 1, names, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return name < names.length
+                && segments[segment].matcher(names[name]).matches()
+                && matches(segment + 1, names, name + 1);
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
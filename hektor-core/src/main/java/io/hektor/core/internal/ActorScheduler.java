@@ -0,0 +1,106 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.ActorRef;
+import io.hektor.core.Cancellable;
+import io.hektor.core.Scheduler;
+import io.hektor.core.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The {@link Scheduler} as seen by a single actor, which keeps track of every timer the actor
+ * has scheduled to itself so that all of them can be cancelled when the actor stops. Otherwise
+ * such a timer could outlive the actor and end up being delivered to a brand new actor that
+ * happens to have been created under the same path. A timer addressed to any other actor, such
+ * as a timeout on behalf of a peer, is none of our business and is left to fire as scheduled.
+ *
+ * Just like the rest of the {@link ActorBox}, this is only ever accessed by the actor itself
+ * and as such, no synchronization is needed. The timers that have either fired or been cancelled
+ * are pruned every time the number of tracked timers has doubled.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class ActorScheduler implements Scheduler {
+
+    private static final int INITIAL_PRUNE_LIMIT = 16;
+
+    private final Scheduler scheduler;
+
+    /**
+     * The actor this scheduler belongs to.
+     */
+    private final ActorRef self;
+
+    private final List<Cancellable> timers = new ArrayList<>();
+
+    /**
+     * The re-usable timers are kept for as long as the actor lives since
+     * they may be armed again at any point.
+     */
+    private List<Timer> reusableTimers;
+
+    private int pruneLimit = INITIAL_PRUNE_LIMIT;
+
+    public ActorScheduler(final Scheduler scheduler, final ActorRef self) {
+        this.scheduler = scheduler;
+        this.self = self;
+    }
+
+    @Override
+    public Cancellable schedule(final Object msg, final ActorRef receiver, final ActorRef sender, final Duration delay) {
+        final Cancellable timer = scheduler.schedule(msg, receiver, sender, delay);
+        return isSelf(receiver) ? track(timer) : timer;
+    }
+
+    @Override
+    public <T> Cancellable schedule(final Supplier<T> producer, final ActorRef receiver, final ActorRef sender, final Duration delay) {
+        final Cancellable timer = scheduler.schedule(producer, receiver, sender, delay);
+        return isSelf(receiver) ? track(timer) : timer;
+    }
+
+    @Override
+    public Timer timer(final ActorRef receiver, final ActorRef sender) {
+        final Timer timer = scheduler.timer(receiver, sender);
+        if (!isSelf(receiver)) {
+            return timer;
+        }
+
+        if (reusableTimers == null) {
+            reusableTimers = new ArrayList<>(2);
+        }
+        reusableTimers.add(timer);
+        return timer;
+    }
+
+    private boolean isSelf(final ActorRef receiver) {
+        return receiver == self || receiver != null && self.path().equals(receiver.path());
+    }
+
+    private <T extends Cancellable> T track(final T timer) {
+        if (timers.size() >= pruneLimit) {
+            timers.removeIf(t -> !t.isPending());
+            pruneLimit = Math.max(INITIAL_PRUNE_LIMIT, timers.size() * 2);
+        }
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Cancel every timer addressed to the actor itself that is still pending.
+     */
+    public void cancelAll() {
+        for (int i = 0; i < timers.size(); ++i) {
+            timers.get(i).cancel();
+        }
+        timers.clear();
+
+        if (reusableTimers != null) {
+            for (int i = 0; i < reusableTimers.size(); ++i) {
+                reusableTimers.get(i).cancel();
+            }
+        }
+    }
+}
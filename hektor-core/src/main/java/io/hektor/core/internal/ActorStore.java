@@ -17,7 +17,33 @@ public interface ActorStore {
 
     Optional<ActorBox> lookup(ActorPath path);
 
-    void store(ActorRef ref, Actor actor);
+    /**
+     * Same as {@link #lookup(ActorRef)} but returns null if the actor doesn't exist
+     * as opposed to wrapping it in an {@link Optional}. Meant to be used on the hot
+     * path of dispatching messages where we don't want to allocate anything.
+     *
+     * Implementations should first check whether the reference is bound directly to
+     * its {@link ActorBox} (see {@link InternalActorRef#actorBox()}) and only fall back
+     * to the actual lookup if it is not.
+     *
+     * @return the {@link ActorBox} or null if it doesn't exist.
+     */
+    default ActorBox find(final ActorRef ref) {
+        return lookup(ref).orElse(null);
+    }
+
+    /**
+     * Store the actor using the {@link DefaultMailBox}.
+     */
+    default void store(final ActorRef ref, final Actor actor) {
+        store(ref, actor, new DefaultMailBox());
+    }
+
+    /**
+     * Store the actor along with the {@link MailBox} that will be used for
+     * all messages destined for the actor.
+     */
+    void store(ActorRef ref, Actor actor, MailBox mailBox);
 
     Optional<ActorBox> remove(ActorRef ref);
 }
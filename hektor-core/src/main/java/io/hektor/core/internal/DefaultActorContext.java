@@ -17,51 +17,119 @@ import java.util.concurrent.CompletionStage;
 import static io.snice.preconditions.PreConditions.assertNotNull;
 
 /**
+ * The context of an actor, which is only valid while the actor is being invoked. Once the
+ * invocation is over, the context is invalidated and any attempt to use it, e.g. from a callback
+ * the actor left behind, fails with an {@link IllegalStateException}. A context always belongs
+ * to the very same actor, it is only ever re-opened for the next invocation of that actor.
+ *
  * @author jonas@jonasborjesson.com
  */
 public class DefaultActorContext implements ActorContext {
 
     private final ActorBox self;
 
-    private final ActorRef sender;
+    private ActorRef sender;
 
     private final InternalHektor hektor;
 
     private boolean stop;
 
-    private final List<Envelope> bufferedMessages = new ArrayList<>(3);
+    /**
+     * Where the messages sent by the actor are buffered until the invocation is over. The list
+     * itself is shared by all the invocations on the same thread, which is fine since the
+     * context lets go of it once it has been invalidated. Null while the context is invalid.
+     */
+    private List<Envelope> bufferedMessages;
 
     public DefaultActorContext(final InternalHektor hektor, final ActorBox self, final ActorRef sender) {
+        this(hektor, self, sender, new ArrayList<>(3));
+    }
+
+    DefaultActorContext(final InternalHektor hektor, final ActorBox self, final ActorRef sender,
+                        final List<Envelope> bufferedMessages) {
         assertNotNull(sender);
         this.hektor = hektor;
         this.self = self;
         this.sender = sender;
+        this.bufferedMessages = bufferedMessages;
+    }
+
+    /**
+     * A context for an actor that has yet to be invoked.
+     */
+    DefaultActorContext(final InternalHektor hektor, final ActorBox self) {
+        this.hektor = hektor;
+        this.self = self;
+    }
+
+    /**
+     * Make the context valid for another invocation of the actor.
+     */
+    void open(final ActorRef sender, final List<Envelope> bufferedMessages) {
+        assertNotNull(sender);
+        this.sender = sender;
+        this.bufferedMessages = bufferedMessages;
+        stop = false;
+    }
+
+    boolean isOpen() {
+        return bufferedMessages != null;
+    }
+
+    /**
+     * The invocation is over and whatever was buffered has been processed. The context must not
+     * be used until it is opened again.
+     */
+    void invalidate() {
+        sender = null;
+        bufferedMessages = null;
+    }
+
+    private List<Envelope> buffer() {
+        final List<Envelope> buffer = bufferedMessages;
+        if (buffer == null) {
+            throw new IllegalStateException("The actor context is only valid during the invocation of the actor");
+        }
+        return buffer;
+    }
+
+    private ActorBox box() {
+        if (bufferedMessages == null) {
+            throw new IllegalStateException("The actor context is only valid during the invocation of the actor");
+        }
+        return self;
     }
 
     public void buffer(final Object msg, final ActorRef receiver, final ActorRef sender) {
         final Envelope envelope = new Envelope(sender, receiver, msg);
-        bufferedMessages.add(envelope);
+        buffer().add(envelope);
+    }
+
+    public void buffer(final Priority priority, final Object msg, final ActorRef receiver, final ActorRef sender) {
+        final Envelope envelope = new Envelope(priority, sender, receiver, msg);
+        buffer().add(envelope);
     }
 
     public void buffer(final ActorRef receiver, final ActorRef sender, final Request<ActorRef, ?> request) {
         final Envelope envelope = new Envelope(sender, receiver, request);
-        bufferedMessages.add(envelope);
+        buffer().add(envelope);
     }
 
     public void buffer(final ActorRef receiver, final ActorRef sender, final Response<ActorRef, ?> response) {
         final Envelope envelope = new Envelope(sender, receiver, response);
-        bufferedMessages.add(envelope);
+        buffer().add(envelope);
     }
 
     public CompletionStage<Object> ask(final Object msg, final ActorRef receiver) {
+        final List<Envelope> buffer = buffer();
         final CompletableFuture<Object> future = new CompletableFuture<>();
         final Envelope envelope = new Envelope(Priority.NORMAL, ActorRef.None(), receiver, msg, future, null, null);
-        bufferedMessages.add(envelope);
+        buffer.add(envelope);
         return future;
     }
 
     public List<Envelope> bufferedMessages() {
-        return bufferedMessages;
+        return buffer();
     }
 
     protected boolean isStopped() {
@@ -80,6 +148,7 @@ public class DefaultActorContext implements ActorContext {
 
     @Override
     public ActorRef actorOf(final String name, final Props props) {
+        final ActorBox self = box();
         final ActorRef child = hektor.actorOf(self.ref().path(), name, props);
         self.addChild(name, child);
         return child;
@@ -87,7 +156,7 @@ public class DefaultActorContext implements ActorContext {
 
     @Override
     public Optional<ActorRef> lookup(final String path) {
-        final ActorPath actorPath = DefaultActorPath.create(self.ref().path(), path);
+        final ActorPath actorPath = DefaultActorPath.create(box().ref().path(), path);
         return lookup(actorPath);
     }
 
@@ -98,26 +167,28 @@ public class DefaultActorContext implements ActorContext {
 
     @Override
     public Scheduler scheduler() {
-        return hektor.scheduler();
+        return box().scheduler(hektor.scheduler());
     }
 
     @Override
     public Optional<ActorRef> child(final String child) {
-        return self.getChild(child);
+        return box().getChild(child);
     }
 
     @Override
     public ActorRef sender() {
+        box();
         return sender;
     }
 
     @Override
     public ActorRef self() {
-        return self.ref();
+        return box().ref();
     }
 
     @Override
     public void stop() {
+        box();
         stop = true;
     }
 }
@@ -1,31 +1,105 @@
 package io.hektor.core.internal;
 
 import io.hektor.core.ActorPath;
-import io.snice.preconditions.PreConditions;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.snice.preconditions.PreConditions.assertNotEmpty;
 
 /**
+ * The default {@link ActorPath}.
+ *
+ * Paths are interned per tree, i.e., per root, which in practice means per actor system.
+ * Every path keeps a table of its children and asking a path for a child, through
+ * {@link #createChild(String)} or by parsing a string through {@link #create(ActorPath, String)},
+ * will return the very same instance as long as that instance is still in use by someone.
+ * The table is only holding on to the children weakly so a path that no one is referring to
+ * anymore, e.g. the path of an actor that has been stopped, will be garbage collected as usual
+ * and will not grow the table forever.
+ *
+ * As a result, two interned paths belonging to the same root are equal if and only if they are
+ * the same instance, which makes e.g. the lookup of an actor in the {@link ActorStore} a matter
+ * of a reference compare. Paths from different roots, or paths created through the public
+ * constructor, are compared by their name and parents, just as before.
+ *
  * @author jonas@jonasborjesson.com
  */
 public class DefaultActorPath implements ActorPath {
 
-    public static final ActorPath NoPath = new DefaultActorPath(null, "none");
-
     private final static int prime = 31;
 
+    private static final AtomicLong ids = new AtomicLong();
+
+    public static final ActorPath NoPath = new DefaultActorPath(null, "none");
+
     private final Optional<ActorPath> parent;
     private final String name;
     private final int hashCode;
+    private final int depth;
+    private final long id;
+
+    /**
+     * The root of the tree this path belongs to. Is this path itself if it is the root.
+     */
+    private final DefaultActorPath root;
+
+    /**
+     * Whether or not this path is the one and only instance of this path within its tree.
+     * Only then can we rely on a reference compare.
+     */
+    private final boolean interned;
 
+    /**
+     * The queue where cleared references to children of any path within this tree end up.
+     * Only used by the root.
+     */
+    private final ReferenceQueue<DefaultActorPath> queue;
+
+    /**
+     * Lazily created since the vast majority of paths are leafs and will never have any children.
+     */
+    private volatile ConcurrentHashMap<String, ChildReference> children;
+
+    /**
+     * Lazily built, and cached, string representation of this path. It doesn't matter if
+     * two threads race to create it since they will both end up with an equal string.
+     */
+    private String string;
+
+    /**
+     * Create a new path that is NOT interned. Unless you are creating a new root, you
+     * should be using {@link #createChild(String)} instead.
+     */
     public DefaultActorPath(final ActorPath parent, final String name) {
+        this(parent, name, parent == null);
+    }
+
+    private DefaultActorPath(final ActorPath parent, final String name, final boolean interned) {
         this.parent = Optional.ofNullable(parent);
         this.name = name;
+        this.id = ids.incrementAndGet();
+        this.interned = interned;
         hashCode = this.parent.isPresent() ?
                 (prime + parent.hashCode()) * prime + name.hashCode() :
                 prime + name.hashCode();
+
+        if (parent == null) {
+            root = this;
+            depth = 0;
+            queue = new ReferenceQueue<>();
+        } else if (parent instanceof DefaultActorPath) {
+            root = ((DefaultActorPath) parent).root;
+            depth = ((DefaultActorPath) parent).depth + 1;
+            queue = null;
+        } else {
+            root = null;
+            depth = parent.depth() + 1;
+            queue = null;
+        }
     }
 
     @Override
@@ -89,28 +163,100 @@ public class DefaultActorPath implements ActorPath {
     }
 
     /**
-     * {@inheritDoc}
+     * Obtain the interned child with the given name, creating it if it doesn't exist.
      */
     @Override
-    public boolean equals(final Object obj) {
-        try {
-            if (this == obj) {
-                return true;
+    public ActorPath createChild(final String name) {
+        if (root == null) {
+            return new DefaultActorPath(this, name, false);
+        }
+
+        expungeStaleChildren();
+        final ConcurrentHashMap<String, ChildReference> table = children();
+        final ChildReference existing = table.get(name);
+        if (existing != null) {
+            final DefaultActorPath child = existing.get();
+            if (child != null) {
+                return child;
+            }
+        }
+
+        final DefaultActorPath child = new DefaultActorPath(this, name, interned);
+        final ChildReference reference = new ChildReference(child, table, root.queue);
+        while (true) {
+            final ChildReference current = table.putIfAbsent(name, reference);
+            if (current == null) {
+                return child;
+            }
+
+            final DefaultActorPath other = current.get();
+            if (other != null) {
+                return other;
             }
 
-            final DefaultActorPath other = (DefaultActorPath) obj;
-            if (!name.equals(other.name)) {
-                return false;
+            if (table.replace(name, current, reference)) {
+                return child;
             }
+        }
+    }
 
-            if (parent.isPresent() && other.parent.isPresent()) {
-                return parent.get().equals(other.parent.get());
+    private ConcurrentHashMap<String, ChildReference> children() {
+        ConcurrentHashMap<String, ChildReference> table = children;
+        if (table == null) {
+            synchronized (this) {
+                table = children;
+                if (table == null) {
+                    table = new ConcurrentHashMap<>(4);
+                    children = table;
+                }
             }
+        }
+        return table;
+    }
 
-            return parent.isPresent() == other.parent.isPresent();
-        } catch (final ClassCastException e) {
+    /**
+     * Remove all the children, anywhere in this tree, that have been garbage collected.
+     */
+    private void expungeStaleChildren() {
+        ChildReference reference;
+        while ((reference = (ChildReference) root.queue.poll()) != null) {
+            reference.table.remove(reference.name, reference);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof DefaultActorPath)) {
+            return false;
+        }
+
+        final DefaultActorPath other = (DefaultActorPath) obj;
+        if (hashCode != other.hashCode || depth != other.depth) {
+            return false;
+        }
+
+        // there is only ever one instance of an interned path within
+        // the same tree so if they are not the same, they are not equal.
+        if (interned && other.interned && root == other.root) {
+            return false;
+        }
+
+        if (!name.equals(other.name)) {
             return false;
         }
+
+        if (parent.isPresent() && other.parent.isPresent()) {
+            return parent.get().equals(other.parent.get());
+        }
+
+        return parent.isPresent() == other.parent.isPresent();
     }
 
     @Override
@@ -123,7 +269,45 @@ public class DefaultActorPath implements ActorPath {
         return name;
     }
 
+    @Override
+    public int depth() {
+        return depth;
+    }
+
+    @Override
+    public ActorPath getRoot() {
+        return root != null ? root : ActorPath.super.getRoot();
+    }
+
+    /**
+     * A unique id of this particular instance. Since paths are interned, two paths
+     * within the same actor system that have the same id are the same path.
+     */
+    public long id() {
+        return id;
+    }
+
+    @Override
     public String toString() {
-        return (parent.isPresent() ? parent.get().toString() + "/" : "/" ) + name;
+        String s = string;
+        if (s == null) {
+            s = (parent.isPresent() ? parent.get().toString() + "/" : "/" ) + name;
+            string = s;
+        }
+        return s;
+    }
+
+    private static class ChildReference extends WeakReference<DefaultActorPath> {
+
+        private final String name;
+        private final ConcurrentHashMap<String, ChildReference> table;
+
+        private ChildReference(final DefaultActorPath child,
+                               final ConcurrentHashMap<String, ChildReference> table,
+                               final ReferenceQueue<DefaultActorPath> queue) {
+            super(child, queue);
+            this.name = child.name;
+            this.table = table;
+        }
     }
 }
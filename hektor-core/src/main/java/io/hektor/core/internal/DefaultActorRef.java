@@ -10,6 +10,9 @@ import io.snice.protocol.Request;
 import io.snice.protocol.RequestSupport;
 import io.snice.protocol.Response;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -24,6 +27,12 @@ public class DefaultActorRef implements InternalActorRef {
 
     private final Dispatcher dispatcher;
 
+    /**
+     * The actor this reference was created alongside with. Only set for references to
+     * local actors and only ever valid for as long as that actor is alive.
+     */
+    private volatile ActorBox box;
+
     public DefaultActorRef(final ActorPath path, final Dispatcher dispatcher) {
         this.path = path;
         this.dispatcher = dispatcher;
@@ -34,6 +43,17 @@ public class DefaultActorRef implements InternalActorRef {
         return path;
     }
 
+    @Override
+    public void bind(final ActorBox box) {
+        this.box = box;
+    }
+
+    @Override
+    public ActorBox actorBox() {
+        final ActorBox current = box;
+        return current != null && !current.isPurged() ? current : null;
+    }
+
     @Override
     public void tell(final Object msg, final ActorRef sender) {
         processMessage(msg, sender, null, null);
@@ -89,6 +109,19 @@ public class DefaultActorRef implements InternalActorRef {
         dispatcher.dispatch(sender, this, msg);
     }
 
+    @Override
+    public void dispatch(final Envelope envelope) {
+        if (dispatcher instanceof InternalDispatcher) {
+            ((InternalDispatcher) dispatcher).dispatch(envelope);
+        } else if (envelope.isRequest()) {
+            dispatcher.dispatch(envelope.sender(), this, envelope.getRequest());
+        } else if (envelope.isResponse()) {
+            dispatcher.dispatch(envelope.sender(), this, envelope.getResponse());
+        } else {
+            dispatcher.dispatch(envelope.sender(), this, envelope.message());
+        }
+    }
+
     @Override
     public void dispatch(final Request request, final ActorRef sender) {
         dispatcher.dispatch(sender, this, request);
@@ -128,7 +161,46 @@ public class DefaultActorRef implements InternalActorRef {
 
     @Override
     public void tell(final Priority priority, final Object msg, final ActorRef sender) {
-        tell(msg, sender);
+        if (msg == null) {
+            return;
+        }
+
+        final ActorContext ctx = Actor._ctx.get();
+        if (ctx instanceof DefaultActorContext) {
+            ((DefaultActorContext) ctx).buffer(priority, msg, this, sender);
+        } else if (dispatcher instanceof InternalDispatcher) {
+            ((InternalDispatcher) dispatcher).dispatch(new Envelope(priority, sender, this, msg));
+        } else {
+            dispatcher.dispatch(sender, this, msg);
+        }
+    }
+
+    @Override
+    public void tellAll(final Collection<?> msgs, final ActorRef sender) {
+        // within an actor, the messages are buffered and batched as part of the invocation
+        // of that actor anyway, and if the dispatcher doesn't support batches, there is
+        // nothing we can do but to send them one by one.
+        if (Actor._ctx.get() != null || !(dispatcher instanceof InternalDispatcher)) {
+            for (final Object msg : msgs) {
+                if (msg != null) {
+                    tell(msg, sender);
+                }
+            }
+            return;
+        }
+
+        final List<Envelope> envelopes = new ArrayList<>(msgs.size());
+        for (final Object msg : msgs) {
+            if (msg != null) {
+                envelopes.add(new Envelope(Priority.NORMAL, sender, this, msg, null, null, null));
+            }
+        }
+        ((InternalDispatcher) dispatcher).dispatchAll(envelopes, 0, envelopes.size());
+    }
+
+    @Override
+    public InternalDispatcher dispatcher() {
+        return dispatcher instanceof InternalDispatcher ? (InternalDispatcher) dispatcher : null;
     }
 
     @Override
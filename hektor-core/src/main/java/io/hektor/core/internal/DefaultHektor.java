@@ -13,7 +13,9 @@ import io.hektor.core.internal.messages.Watch;
 import io.snice.protocol.Request;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -27,6 +29,17 @@ public final class DefaultHektor implements InternalHektor {
 
     private InternalDispatcher defaultDispatcher;
 
+    /**
+     * All the configured dispatchers, including the default one, by name.
+     */
+    private final Map<String, InternalDispatcher> dispatchers = new HashMap<>();
+
+    /**
+     * Actors matching any of these patterns will run on the given dispatcher. Kept sorted
+     * with the most specific pattern first.
+     */
+    private final List<PathBinding> pathBindings = new ArrayList<>();
+
     private final ActorPath root;
 
     private final MetricRegistry metricRegistry;
@@ -46,6 +59,22 @@ public final class DefaultHektor implements InternalHektor {
         defaultDispatcher = dispatcher;
     }
 
+    public void addDispatcher(final String name, final InternalDispatcher dispatcher) {
+        dispatchers.put(name, dispatcher);
+    }
+
+    /**
+     * Bind all actors whose path matches the given pattern to the given dispatcher.
+     */
+    public void bindPath(final ActorPathPattern pattern, final InternalDispatcher dispatcher) {
+        pathBindings.add(new PathBinding(pattern, dispatcher));
+        pathBindings.sort((a, b) -> Integer.compare(b.pattern.specificity(), a.pattern.specificity()));
+    }
+
+    public Optional<InternalDispatcher> dispatcher(final String name) {
+        return Optional.ofNullable(dispatchers.get(name));
+    }
+
     @Override
     public ActorRef actorOf(final String name, final Props props) {
         return actorOf(root, name, props);
@@ -68,6 +97,10 @@ public final class DefaultHektor implements InternalHektor {
             Actor._ctx.set(ctx);
             final Actor actor = ReflectionHelper.constructActor(props);
             dispatcher.register(ref, actor);
+            final Props<?> typedProps = props;
+            typedProps.passivateAfter().ifPresent(idle ->
+                    lookupActorBox(ref).ifPresent(box -> box.enablePassivation(typedProps.creator(), idle,
+                            typedProps.passivationStore().orElse(null))));
         } finally {
             Actor._ctx.set(oldCtx);
         }
@@ -78,7 +111,7 @@ public final class DefaultHektor implements InternalHektor {
 
     @Override
     public Optional<ActorBox> lookupActorBox(final ActorRef ref) {
-        return actorStore.lookup(ref);
+        return Optional.ofNullable(actorStore.find(ref));
     }
 
     @Override
@@ -124,7 +157,21 @@ public final class DefaultHektor implements InternalHektor {
 
     @Override
     public CompletionStage<Void> terminate() {
-        return defaultDispatcher.shutdown();
+        if (dispatchers.isEmpty()) {
+            return defaultDispatcher.shutdown().thenRun(this::stopScheduler);
+        }
+
+        final CompletableFuture[] futures = dispatchers.values().stream()
+                .map(InternalDispatcher::shutdown)
+                .map(CompletionStage::toCompletableFuture)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).thenRun(this::stopScheduler);
+    }
+
+    private void stopScheduler() {
+        if (scheduler instanceof HashWheelScheduler) {
+            ((HashWheelScheduler) scheduler).stop();
+        }
     }
 
     /**
@@ -135,9 +182,34 @@ public final class DefaultHektor implements InternalHektor {
      * @return
      */
     private InternalDispatcher findDispatcher(final ActorPath path, final Props props) {
+        if (props.dispatcher().isPresent()) {
+            final String name = (String) props.dispatcher().get();
+            final InternalDispatcher dispatcher = dispatchers.get(name);
+            if (dispatcher == null) {
+                throw new IllegalArgumentException("No dispatcher named \"" + name + "\" has been configured");
+            }
+            return dispatcher;
+        }
+
+        for (final PathBinding binding : pathBindings) {
+            if (binding.pattern.matches(path)) {
+                return binding.dispatcher;
+            }
+        }
+
         return defaultDispatcher;
     }
 
+    private static class PathBinding {
+        private final ActorPathPattern pattern;
+        private final InternalDispatcher dispatcher;
+
+        private PathBinding(final ActorPathPattern pattern, final InternalDispatcher dispatcher) {
+            this.pattern = pattern;
+            this.dispatcher = dispatcher;
+        }
+    }
+
     static class Builder implements RouterBuilder {
 
         private String name;
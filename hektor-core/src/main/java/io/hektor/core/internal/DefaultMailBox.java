@@ -1,6 +1,7 @@
 package io.hektor.core.internal;
 
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 
 /**
@@ -21,9 +22,21 @@ public class DefaultMailBox implements MailBox {
 
     @Override
     public synchronized void offer(final Envelope envelope) {
-        if (envelope.isAsk()) {
-            System.err.println("=====================");
-        }
         messages.offer(envelope);
     }
+
+    /**
+     * The whole batch is added while holding the lock only once.
+     */
+    @Override
+    public synchronized void offerAll(final List<Envelope> envelopes, final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            messages.offer(envelopes.get(i));
+        }
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return messages.isEmpty();
+    }
 }
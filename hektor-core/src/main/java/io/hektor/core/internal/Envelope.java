@@ -23,6 +23,12 @@ public class Envelope {
      */
     private final CompletableFuture<Object> askFuture;
 
+    /**
+     * Intrusive link used by the {@link MpscMailBox} so that enqueuing a message
+     * doesn't require allocating a separate queue node.
+     */
+    volatile Envelope next;
+
     public Envelope(final ActorRef sender, final ActorRef receiver, final Object msg) {
         this(Priority.NORMAL, sender, receiver, msg);
     }
@@ -36,7 +42,7 @@ public class Envelope {
     }
 
     public Envelope(final Priority priority, final ActorRef sender, final ActorRef receiver, final Object msg) {
-        this(Priority.NORMAL, sender, receiver, msg, null, null, null);
+        this(priority, sender, receiver, msg, null, null, null);
     }
 
     public Envelope(final Priority priority, final ActorRef sender, final ActorRef receiver, final Object msg,
@@ -45,7 +51,7 @@ public class Envelope {
         this.sender = sender;
         this.receiver = receiver;
         this.msg = msg;
-        this.priority = priority;
+        this.priority = Priority.of(priority, msg);
         this.askFuture = askFuture;
         this.request = request;
         this.response = response;
@@ -87,6 +93,19 @@ public class Envelope {
         return msg;
     }
 
+    /**
+     * The object that should be handed to the receiving actor, which is the
+     * {@link Request} or {@link Response} itself if this is a request/response and
+     * the plain message otherwise.
+     */
+    public Object payload() {
+        if (request != null) {
+            return request;
+        }
+
+        return response != null ? response : msg;
+    }
+
     public Priority priority() {
         return priority;
     }
@@ -1,75 +1,279 @@
 package io.hektor.core.internal;
 
+import io.hektor.config.SchedulerConfiguration;
 import io.hektor.core.ActorRef;
 import io.hektor.core.Cancellable;
 import io.hektor.core.Scheduler;
+import io.hektor.core.internal.workerexecutor.WorkerThreads;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
- * Simple wrapper around the netty HashWheelScheduler.
+ * A {@link Scheduler} based on the netty {@link HashedWheelTimer}, where the resolution and the
+ * size of the wheel are configurable through the {@link SchedulerConfiguration}.
+ *
+ * The timers can be spread across several wheels, each with its own thread, which is picked based
+ * on the receiving actor. When a timer fires, the message is handed straight to the dispatcher
+ * of the actor as an {@link Envelope}, i.e., it ends up directly in the mailbox of the actor without
+ * going through the regular {@link ActorRef#tell(Object, ActorRef)} path.
+ *
+ * Cancelling a timer that is due within one round of the wheel doesn't touch the wheel, the
+ * timer is only marked as cancelled and simply dropped when it expires. Since most timers are
+ * cancelled long before they would fire, this saves a lot of work for the wheel.
  *
  * @author jonas@jonasborjesson.com
  */
 public class HashWheelScheduler implements Scheduler {
 
-    private final HashedWheelTimer timer;
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final HashedWheelTimer[] wheels;
+
+    /**
+     * The time, in nanoseconds, of one full round of the wheel.
+     */
+    private final long lazyCancelLimit;
 
     public HashWheelScheduler() {
-        timer = new HashedWheelTimer();
+        this("hektor", new SchedulerConfiguration.Builder().build());
+    }
+
+    /**
+     * @param name the name of the actor system, which is used for naming the timer threads.
+     * @param config the configuration of the wheels.
+     */
+    public HashWheelScheduler(final String name, final SchedulerConfiguration config) {
+        lazyCancelLimit = TimeUnit.MILLISECONDS.toNanos(config.tickDuration() * config.ticksPerWheel());
+        wheels = new HashedWheelTimer[config.shards()];
+        for (int i = 0; i < wheels.length; ++i) {
+            wheels[i] = new HashedWheelTimer(threadFactory(name + "-scheduler-" + i),
+                    config.tickDuration(), TimeUnit.MILLISECONDS, config.ticksPerWheel());
+        }
+    }
+
+    private static ThreadFactory threadFactory(final String name) {
+        return runnable -> {
+            final Thread thread = new Thread(() -> {
+                // the wheel must never be stuck waiting for room in a full worker queue.
+                WorkerThreads.markCurrentThread();
+                runnable.run();
+            }, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private HashedWheelTimer wheel(final ActorRef receiver) {
+        if (wheels.length == 1) {
+            return wheels[0];
+        }
+        return wheels[Math.floorMod(receiver.path().hashCode(), wheels.length)];
+    }
+
+    /**
+     * A timer that is due within one round of the wheel is cancelled lazily, i.e., it is only
+     * marked as cancelled and is then dropped once it expires, which saves the wheel from having
+     * to find and remove it. Timers further into the future are removed from the wheel right away
+     * so that they don't stick around for a long time.
+     */
+    private boolean isLazy(final Duration delay) {
+        return delay.toNanos() <= lazyCancelLimit;
     }
 
     @Override
     public Cancellable schedule(final Object msg, final ActorRef receiver, final ActorRef sender, final Duration delay) {
-        return schedule(() -> msg, receiver, sender, delay);
+        return schedule(new Task(msg, null, receiver, sender, isLazy(delay)), delay);
     }
 
     @Override
     public <T> Cancellable schedule(final Supplier<T> producer, final ActorRef receiver, final ActorRef sender, final Duration delay) {
-        final Task task = new Task(producer, receiver, sender);
-        final Timeout timeout = timer.newTimeout(task, delay.toMillis(), TimeUnit.MILLISECONDS);
-        return new CancellableTask(timeout);
+        return schedule(new Task(null, producer, receiver, sender, isLazy(delay)), delay);
+    }
+
+    private Cancellable schedule(final Task task, final Duration delay) {
+        task.timeout = wheel(task.receiver).newTimeout(task, delay.toMillis(), TimeUnit.MILLISECONDS);
+        return task;
+    }
+
+    @Override
+    public io.hektor.core.Timer timer(final ActorRef receiver, final ActorRef sender) {
+        return new WheelTimer(receiver, sender);
+    }
+
+    /**
+     * Stop all the wheels. Any outstanding timers will never fire. This is done as part of
+     * terminating the actor system the scheduler belongs to.
+     */
+    public void stop() {
+        for (final HashedWheelTimer wheel : wheels) {
+            wheel.stop();
+        }
+    }
+
+    private static void deliver(final ActorRef receiver, final ActorRef sender, final Object msg) {
+        if (msg == null) {
+            return;
+        }
+
+        if (receiver instanceof InternalActorRef) {
+            ((InternalActorRef) receiver).dispatch(new Envelope(sender, receiver, msg));
+        } else {
+            receiver.tell(msg, sender);
+        }
     }
 
-    private static class CancellableTask implements Cancellable {
-        private final Timeout timeout;
+    /**
+     * The task is also the {@link Cancellable} handed back to the user so that
+     * scheduling a timer doesn't need a separate object for it.
+     */
+    private static class Task implements TimerTask, Cancellable {
 
-        public CancellableTask(final Timeout timeout) {
-            this.timeout = timeout;
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Task.class, "state", int.class);
+            } catch (final ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Object msg;
+        private final Supplier<?> supplier;
+        private final ActorRef receiver;
+        private final ActorRef sender;
+        private final boolean lazy;
+        private Timeout timeout;
+        private volatile int state = PENDING;
+
+        private Task(final Object msg, final Supplier<?> supplier, final ActorRef receiver, final ActorRef sender,
+                     final boolean lazy) {
+            this.msg = msg;
+            this.supplier = supplier;
+            this.receiver = receiver;
+            this.sender = sender;
+            this.lazy = lazy;
         }
 
         @Override
         public boolean cancel() {
-            return timeout.cancel();
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+
+            if (!lazy) {
+                timeout.cancel();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isPending() {
+            return state == PENDING;
+        }
+
+        @Override
+        public void run(final Timeout timeout) {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return;
+            }
+
+            // TODO: what to do if the supplier throws an exception?
+            deliver(receiver, sender, supplier != null ? supplier.get() : msg);
         }
     }
 
-    private static class Task<T> implements TimerTask {
+    /**
+     * A re-usable timer. Every time the timer is armed, the previous timeout (if any) is simply
+     * forgotten about, which is what makes it a lazy cancellation, and when a timeout expires
+     * it is only acted upon if it still is the current one.
+     *
+     * Even though a timer should only be used by a single actor, the timeout expires on the thread
+     * of the wheel, hence the (uncontended, for the most part) lock.
+     */
+    private final class WheelTimer implements TimerTask, io.hektor.core.Timer {
 
-        private final Supplier<T> supplier;
         private final ActorRef receiver;
         private final ActorRef sender;
+        private final HashedWheelTimer wheel;
 
-        public Task(final Supplier<T> supplier, final ActorRef receiver, final ActorRef sender) {
-            this.supplier = supplier;
+        private Timeout timeout;
+        private Object msg;
+        private boolean lazy;
+
+        private WheelTimer(final ActorRef receiver, final ActorRef sender) {
             this.receiver = receiver;
             this.sender = sender;
+            this.wheel = wheel(receiver);
         }
 
         @Override
-        public void run(final Timeout timeout) throws Exception {
-            try {
-                receiver.tell(supplier.get(), sender);
-            } catch (final Exception e) {
-                // TODO: what to do if the supplier throws an exception?
-                throw e;
+        public void schedule(final Object msg, final Duration delay) {
+            final Timeout previous;
+            final boolean previousLazy;
+            synchronized (this) {
+                previous = timeout;
+                previousLazy = lazy;
+                this.msg = msg;
+                lazy = isLazy(delay);
+                timeout = wheel.newTimeout(this, delay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+
+            if (previous != null && !previousLazy) {
+                previous.cancel();
             }
         }
+
+        @Override
+        public boolean cancel() {
+            final Timeout previous;
+            final boolean previousLazy;
+            synchronized (this) {
+                previous = timeout;
+                previousLazy = lazy;
+                timeout = null;
+                msg = null;
+            }
+
+            if (previous == null) {
+                return false;
+            }
+
+            if (!previousLazy) {
+                previous.cancel();
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isPending() {
+            return timeout != null;
+        }
+
+        @Override
+        public void run(final Timeout expired) {
+            final Object current;
+            synchronized (this) {
+                if (expired != timeout) {
+                    return;
+                }
+                current = msg;
+                timeout = null;
+                msg = null;
+            }
+
+            deliver(receiver, sender, current);
+        }
     }
 
 }
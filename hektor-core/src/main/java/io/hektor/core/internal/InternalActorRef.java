@@ -11,4 +11,41 @@ public interface InternalActorRef extends ActorRef {
     void dispatch(Request request, ActorRef sender);
 
     void dispatch(Response response, ActorRef sender);
+
+    /**
+     * Dispatch the envelope, which must be addressed to this actor, as is.
+     */
+    void dispatch(Envelope envelope);
+
+    /**
+     * The dispatcher the actor this reference is referring to is running on.
+     *
+     * @return the dispatcher or null if it isn't an {@link InternalDispatcher}, in which case
+     * messages can only be dispatched one by one through the reference itself.
+     */
+    default InternalDispatcher dispatcher() {
+        return null;
+    }
+
+    /**
+     * Bind this reference directly to the {@link ActorBox} of the actor it is referring to,
+     * which allows the dispatchers to find the actor without going through the {@link ActorStore}.
+     * Called by the {@link ActorStore} when the actor is stored and again, with null, when
+     * the actor is removed so that a reference that is kept around doesn't keep the dead actor,
+     * its mailbox and its children from being garbage collected.
+     */
+    default void bind(final ActorBox box) {
+        // left empty intentionally
+    }
+
+    /**
+     * The {@link ActorBox} this reference is bound to, as long as that actor is still alive.
+     *
+     * @return the {@link ActorBox} or null if this reference isn't bound or if the actor
+     * it was bound to has been purged, in which case the caller has to fall back to
+     * looking up the actor by its path.
+     */
+    default ActorBox actorBox() {
+        return null;
+    }
 }
@@ -4,6 +4,7 @@ import io.hektor.core.Actor;
 import io.hektor.core.ActorRef;
 import io.hektor.core.Dispatcher;
 
+import java.util.List;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -22,5 +23,36 @@ public interface InternalDispatcher extends Dispatcher {
 
     void unregister(ActorRef ref);
 
+    /**
+     * Dispatch an already existing {@link Envelope}, such as the ones buffered by the
+     * {@link DefaultActorContext} during an actor invocation. Dispatchers that can
+     * deliver the envelope as is, without copying it into a new one, should override this.
+     */
+    default void dispatch(final Envelope envelope) {
+        if (envelope.isRequest()) {
+            dispatch(envelope.sender(), envelope.receiver(), envelope.getRequest());
+        } else if (envelope.isResponse()) {
+            dispatch(envelope.sender(), envelope.receiver(), envelope.getResponse());
+        } else {
+            dispatch(envelope.sender(), envelope.receiver(), envelope.message());
+        }
+    }
+
+    /**
+     * Dispatch a batch of already existing {@link Envelope}s, all of which are addressed to
+     * actors running on this dispatcher. The envelopes must be delivered in the given order,
+     * at least as far as any given receiver is concerned, but the dispatcher is free to hand them
+     * off to the workers in as few operations as it can.
+     *
+     * @param envelopes the list of envelopes.
+     * @param from the index of the first envelope to dispatch (inclusive).
+     * @param to the index of the last envelope to dispatch (exclusive).
+     */
+    default void dispatchAll(final List<Envelope> envelopes, final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            dispatch(envelopes.get(i));
+        }
+    }
+
     CompletionStage<Void> shutdown();
 }
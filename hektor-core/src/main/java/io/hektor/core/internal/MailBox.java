@@ -1,5 +1,7 @@
 package io.hektor.core.internal;
 
+import java.util.List;
+
 /**
  * @author jonas@jonasborjesson.com
  */
@@ -9,4 +11,20 @@ public interface MailBox {
 
     void offer(Envelope envelope);
 
+    /**
+     * Offer a batch of envelopes, in order, to this mailbox. Implementations should
+     * override this if they can enqueue the whole batch cheaper than one by one.
+     *
+     * @param envelopes the list of envelopes.
+     * @param from the index of the first envelope to offer (inclusive).
+     * @param to the index of the last envelope to offer (exclusive).
+     */
+    default void offerAll(final List<Envelope> envelopes, final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            offer(envelopes.get(i));
+        }
+    }
+
+    boolean isEmpty();
+
 }
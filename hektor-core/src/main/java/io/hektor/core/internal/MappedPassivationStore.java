@@ -0,0 +1,485 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.ActorPath;
+import io.hektor.core.PassivationStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static io.snice.preconditions.PreConditions.assertArgument;
+import static io.snice.preconditions.PreConditions.assertNotNull;
+
+/**
+ * A {@link PassivationStore} where every snapshot is appended to a memory mapped segment file and
+ * only the location of the latest snapshot of every actor is kept in memory. Once a segment is
+ * full a new one is started and once enough of a segment is garbage, i.e., snapshots that have been
+ * replaced or removed since, whatever is still live is copied over to the newest segment and the
+ * old segment is deleted.
+ *
+ * Every record in a segment looks like:
+ *
+ * <pre>
+ *     int   length of the entire record, written last so that a record that never was
+ *           fully written reads as the end of the segment
+ *     int   crc32c of everything after the crc
+ *     short length of the key
+ *     int   length of the snapshot, -1 if the record is a removal
+ *     ...   the key, i.e., the actor path in UTF-8
+ *     ...   the snapshot
+ * </pre>
+ *
+ * Loading the store is just a matter of mapping the segments, oldest first, and walking the
+ * record headers to rebuild the index, nothing is copied onto the heap but the keys.
+ *
+ * A removal has to be kept around for as long as there may be an older snapshot of the same actor
+ * in an older segment or else that snapshot would be brought back when the store is loaded again.
+ * Hence, removals are only treated as garbage in the oldest segment.
+ *
+ * All access is synchronized, which is fine since actors are only passivated and activated
+ * once they have been idle for a while.
+ *
+ * The segments are unmapped when the store is closed, so none of the views handed out by
+ * {@link #get(ActorPath)} or {@link #forEach(BiConsumer)} may be used after that.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class MappedPassivationStore implements PassivationStore {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * length + crc + key length + snapshot length.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Short.BYTES + Integer.BYTES;
+    private static final int CRC_OFFSET = Integer.BYTES;
+    private static final int KEY_LENGTH_OFFSET = CRC_OFFSET + Integer.BYTES;
+    private static final int VALUE_LENGTH_OFFSET = KEY_LENGTH_OFFSET + Short.BYTES;
+
+    private static final int TOMBSTONE = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+
+    /**
+     * All segments, oldest first. The last one is the one being written to.
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    /**
+     * Where the latest snapshot of every actor is, keyed by the string version of its path.
+     */
+    private final Map<String, Location> index = new HashMap<>();
+
+    private final CRC32C crc = new CRC32C();
+
+    private Segment active;
+
+    private boolean closed;
+
+    public static Builder of(final Path directory) {
+        assertNotNull(directory, "The directory cannot be null");
+        return new Builder(directory);
+    }
+
+    private MappedPassivationStore(final Path directory, final int segmentSize, final double compactionThreshold) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public synchronized void put(final ActorPath path, final byte[] snapshot) throws UncheckedIOException {
+        assertNotNull(snapshot, "The snapshot cannot be null");
+        ensureOpen();
+        final String key = path.toString();
+        final Location location = append(key.getBytes(StandardCharsets.UTF_8), ByteBuffer.wrap(snapshot));
+        location.segment.live += location.size;
+        release(index.put(key, location));
+    }
+
+    @Override
+    public synchronized ByteBuffer get(final ActorPath path) {
+        ensureOpen();
+        final Location location = index.get(path.toString());
+        return location != null ? location.segment.value(location.offset) : null;
+    }
+
+    @Override
+    public synchronized boolean contains(final ActorPath path) {
+        ensureOpen();
+        return index.containsKey(path.toString());
+    }
+
+    @Override
+    public synchronized boolean remove(final ActorPath path) throws UncheckedIOException {
+        ensureOpen();
+        final String key = path.toString();
+        final Location existing = index.remove(key);
+        if (existing == null) {
+            return false;
+        }
+
+        final Location tombstone = append(key.getBytes(StandardCharsets.UTF_8), null);
+        tombstone.segment.tombstones += tombstone.size;
+        release(existing);
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void forEach(final BiConsumer<ActorPath, ByteBuffer> consumer) {
+        ensureOpen();
+        index.forEach((key, location) -> consumer.accept(ActorPath.of(key), location.segment.value(location.offset)));
+    }
+
+    @Override
+    public synchronized void flush() {
+        ensureOpen();
+        active.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        active.buffer.force();
+        segments.values().forEach(segment -> unmap(segment.buffer));
+        segments.clear();
+        index.clear();
+    }
+
+    /**
+     * @return the number of segment files currently in use.
+     */
+    synchronized int segments() {
+        return segments.size();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The store has been closed");
+        }
+    }
+
+    /**
+     * Append a new record to the active segment, rolling over to a new segment if it doesn't fit.
+     *
+     * @param value the snapshot or null for a removal.
+     */
+    private Location append(final byte[] key, final ByteBuffer value) {
+        assertArgument(key.length <= Short.MAX_VALUE, "The actor path is too long");
+        final int valueLength = value != null ? value.remaining() : 0;
+        final int size = HEADER_SIZE + key.length + valueLength;
+        assertArgument(size <= segmentSize, "The snapshot does not fit in a segment");
+
+        if (active.written + size > segmentSize) {
+            active.buffer.force();
+            active = newSegment(active.id + 1);
+        }
+
+        final Segment segment = active;
+        final MappedByteBuffer buffer = segment.buffer;
+        final int offset = segment.written;
+        buffer.putShort(offset + KEY_LENGTH_OFFSET, (short) key.length);
+        buffer.putInt(offset + VALUE_LENGTH_OFFSET, value != null ? valueLength : TOMBSTONE);
+        buffer.put(offset + HEADER_SIZE, key);
+        if (value != null) {
+            buffer.put(offset + HEADER_SIZE + key.length, value, value.position(), valueLength);
+        }
+        buffer.putInt(offset + CRC_OFFSET, checksum(buffer, offset, size));
+
+        // only now is the record complete
+        buffer.putInt(offset, size);
+        segment.written += size;
+        return new Location(segment, offset, size);
+    }
+
+    private int checksum(final ByteBuffer buffer, final int offset, final int size) {
+        crc.reset();
+        crc.update(buffer.slice(offset + KEY_LENGTH_OFFSET, size - KEY_LENGTH_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The snapshot at the given location is no longer live, which may be what makes its
+     * segment worth compacting.
+     */
+    private void release(final Location location) {
+        if (location == null) {
+            return;
+        }
+
+        location.segment.live -= location.size;
+        maybeCompact(location.segment);
+    }
+
+    private void maybeCompact(final Segment segment) {
+        if (segment == active || segment.written == 0) {
+            return;
+        }
+
+        final boolean oldest = segments.firstEntry().getValue() == segment;
+        final long garbage = segment.written - segment.live - (oldest ? 0 : segment.tombstones);
+        if (garbage < compactionThreshold * segment.written) {
+            return;
+        }
+
+        compact(segment, oldest);
+
+        // the removals in what now is the oldest segment may have just become garbage
+        if (oldest && segments.size() > 1) {
+            maybeCompact(segments.firstEntry().getValue());
+        }
+    }
+
+    /**
+     * Copy everything that is still live in the given segment over to the active segment
+     * and then get rid of it.
+     */
+    private void compact(final Segment segment, final boolean oldest) {
+        final MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset < segment.written) {
+            final int size = buffer.getInt(offset);
+            final String key = segment.key(offset);
+            final int valueLength = buffer.getInt(offset + VALUE_LENGTH_OFFSET);
+            if (valueLength != TOMBSTONE) {
+                final Location current = index.get(key);
+                if (current != null && current.segment == segment && current.offset == offset) {
+                    final Location moved = append(key.getBytes(StandardCharsets.UTF_8), segment.value(offset));
+                    moved.segment.live += moved.size;
+                    index.put(key, moved);
+                }
+            } else if (!oldest && !index.containsKey(key)) {
+                // if the actor has a newer snapshot the removal is no longer needed.
+                final Location moved = append(key.getBytes(StandardCharsets.UTF_8), null);
+                moved.segment.tombstones += moved.size;
+            }
+            offset += size;
+        }
+
+        // whatever was just copied over must be on disk before the only other copy is gone
+        active.buffer.force();
+        segments.remove(segment.id);
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment newSegment(final long id) {
+        try {
+            final Segment segment = mapSegment(id, directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)));
+            segments.put(id, segment);
+            return segment;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment mapSegment(final long id, final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = Math.max(segmentSize, channel.size());
+            return new Segment(id, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    /**
+     * Map every existing segment, oldest first, and rebuild the index from the record headers.
+     */
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        final List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(MappedPassivationStore::isSegment).forEach(files::add);
+        }
+        files.sort(null);
+
+        for (final Path file : files) {
+            final String name = file.getFileName().toString();
+            final long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            final Segment segment = mapSegment(id, file);
+            segments.put(id, segment);
+            load(segment);
+        }
+
+        if (segments.isEmpty()) {
+            active = newSegment(0);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+
+        for (final Segment segment : new ArrayList<>(segments.values())) {
+            if (segments.containsKey(segment.id)) {
+                maybeCompact(segment);
+            }
+        }
+    }
+
+    private void load(final Segment segment) {
+        final MappedByteBuffer buffer = segment.buffer;
+        final int capacity = buffer.capacity();
+        int offset = 0;
+        while (offset + HEADER_SIZE <= capacity) {
+            final int size = buffer.getInt(offset);
+            if (size < HEADER_SIZE || offset + size > capacity
+                    || checksum(buffer, offset, size) != buffer.getInt(offset + CRC_OFFSET)) {
+                // the end of the segment or a record that never was fully written, in which case
+                // the rest of the segment is garbage too.
+                break;
+            }
+
+            final String key = segment.key(offset);
+            if (buffer.getInt(offset + VALUE_LENGTH_OFFSET) == TOMBSTONE) {
+                segment.tombstones += size;
+                final Location existing = index.remove(key);
+                if (existing != null) {
+                    existing.segment.live -= existing.size;
+                }
+            } else {
+                segment.live += size;
+                final Location existing = index.put(key, new Location(segment, offset, size));
+                if (existing != null) {
+                    existing.segment.live -= existing.size;
+                }
+            }
+            offset += size;
+        }
+
+        segment.written = offset;
+    }
+
+    /**
+     * A mapping is otherwise only released once the buffer has been garbage collected, which
+     * may be never for a long lived store, all the while keeping the file open, so the mapping
+     * is released straight away if the JVM allows for it.
+     */
+    private static void unmap(final MappedByteBuffer buffer) {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(field.get(null), buffer);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            // nothing more to do, the mapping will be released once the buffer is garbage collected.
+            e.printStackTrace();
+        }
+    }
+
+    private static boolean isSegment(final Path file) {
+        final String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+
+        private int written;
+
+        /**
+         * The number of bytes taken up by snapshots that are still live.
+         */
+        private long live;
+
+        /**
+         * The number of bytes taken up by removals.
+         */
+        private long tombstones;
+
+        private Segment(final long id, final Path file, final MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private String key(final int offset) {
+            final int length = buffer.getShort(offset + KEY_LENGTH_OFFSET);
+            final byte[] key = new byte[length];
+            buffer.get(offset + HEADER_SIZE, key);
+            return new String(key, StandardCharsets.UTF_8);
+        }
+
+        private ByteBuffer value(final int offset) {
+            final int keyLength = buffer.getShort(offset + KEY_LENGTH_OFFSET);
+            final int valueLength = buffer.getInt(offset + VALUE_LENGTH_OFFSET);
+            return buffer.slice(offset + HEADER_SIZE + keyLength, valueLength).asReadOnlyBuffer();
+        }
+    }
+
+    private static final class Location {
+        private final Segment segment;
+        private final int offset;
+        private final int size;
+
+        private Location(final Segment segment, final int offset, final int size) {
+            this.segment = segment;
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+
+    public static class Builder implements PassivationStore.MappedBuilder {
+
+        private final Path directory;
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+        private double compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+        private Builder(final Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public Builder withSegmentSize(final int segmentSize) {
+            assertArgument(segmentSize > HEADER_SIZE, "The segment size is too small");
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        @Override
+        public Builder withCompactionThreshold(final double threshold) {
+            assertArgument(threshold > 0 && threshold <= 1, "The compaction threshold must be between 0 and 1");
+            this.compactionThreshold = threshold;
+            return this;
+        }
+
+        @Override
+        public MappedPassivationStore build() throws IOException {
+            final MappedPassivationStore store = new MappedPassivationStore(directory, segmentSize, compactionThreshold);
+            store.load();
+            return store;
+        }
+    }
+}
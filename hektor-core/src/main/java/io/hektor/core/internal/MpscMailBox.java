@@ -0,0 +1,113 @@
+package io.hektor.core.internal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+/**
+ * A lock-free multi-producer/single-consumer {@link MailBox}. Any number of threads
+ * may offer messages concurrently but only one thread at a time may poll, which is
+ * exactly what the mailbox based dispatchers guarantee since an actor is only ever
+ * processed by a single thread.
+ *
+ * The queue is intrusive, i.e., the {@link Envelope}s themselves are linked together
+ * so that enqueuing a message does not allocate anything and a producer only ever has to
+ * do a single atomic swap. The consumer always keeps hold of the last message it
+ * polled (or the initial stub), which acts as the "dummy" node of the queue.
+ *
+ * Note that since the envelope is linked into the queue, the very same {@link Envelope}
+ * can only be offered to a single mailbox and only once.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class MpscMailBox implements MailBox {
+
+    private static final VarHandle PRODUCER_NODE;
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PRODUCER_NODE = lookup.findVarHandle(MpscMailBox.class, "producerNode", Envelope.class);
+            NEXT = lookup.findVarHandle(Envelope.class, "next", Envelope.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The last envelope that was added to the queue. All producers will
+     * swap themselves in here.
+     */
+    private volatile Envelope producerNode;
+
+    /**
+     * The last envelope that was consumed. Only ever touched by the consumer.
+     */
+    private Envelope consumerNode;
+
+    public MpscMailBox() {
+        final Envelope stub = new Envelope(null, null, (Object) null);
+        consumerNode = stub;
+        producerNode = stub;
+    }
+
+    @Override
+    public void offer(final Envelope envelope) {
+        NEXT.set(envelope, null);
+        final Envelope previous = (Envelope) PRODUCER_NODE.getAndSet(this, envelope);
+        NEXT.setRelease(previous, envelope);
+    }
+
+    /**
+     * The envelopes are linked together first and the whole chain is then
+     * swapped in with a single atomic operation.
+     */
+    @Override
+    public void offerAll(final List<Envelope> envelopes, final int from, final int to) {
+        if (from >= to) {
+            return;
+        }
+
+        final Envelope first = envelopes.get(from);
+        Envelope last = first;
+        for (int i = from + 1; i < to; ++i) {
+            final Envelope envelope = envelopes.get(i);
+            NEXT.set(last, envelope);
+            last = envelope;
+        }
+        NEXT.set(last, null);
+
+        final Envelope previous = (Envelope) PRODUCER_NODE.getAndSet(this, last);
+        NEXT.setRelease(previous, first);
+    }
+
+    @Override
+    public Envelope poll() {
+        final Envelope current = consumerNode;
+        Envelope next = (Envelope) NEXT.getAcquire(current);
+        if (next == null) {
+            if (current == producerNode) {
+                return null;
+            }
+
+            // a producer has swapped itself in as the producer node but has not
+            // yet linked the previous node to it. It is about to so just wait for it.
+            do {
+                Thread.onSpinWait();
+                next = (Envelope) NEXT.getAcquire(current);
+            } while (next == null);
+        }
+
+        // unlink the old consumer node so that it doesn't keep the
+        // rest of the queue reachable once it is garbage.
+        NEXT.set(current, null);
+        consumerNode = next;
+        return next;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerNode == producerNode;
+    }
+}
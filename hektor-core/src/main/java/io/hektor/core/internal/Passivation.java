@@ -0,0 +1,127 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.Actor;
+import io.hektor.core.PassivationStore;
+import io.hektor.core.Timer;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Everything needed for passivating an actor, and for bringing it back again, which is
+ * only kept for those actors that actually have asked for it (see
+ * {@link io.hektor.core.Props.Builder#withPassivation(Duration)}) so that all
+ * other actors don't have to pay for it.
+ *
+ * Just like the rest of the {@link ActorBox}, this is only ever accessed by the actor itself
+ * and as such, no synchronization is needed.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class Passivation {
+
+    /**
+     * The snapshot of an actor whose snapshot is kept in the store.
+     */
+    static final Object STORED = new Object();
+
+    private final Supplier<? extends Actor> creator;
+    private final long idleNanos;
+
+    /**
+     * May be null, in which case the snapshot is kept right here.
+     */
+    private final PassivationStore store;
+
+    private long lastActivity;
+
+    /**
+     * The timer that periodically checks whether the actor has been idle for long enough,
+     * which is created the first time it is needed.
+     */
+    private Timer timer;
+    private boolean armed;
+
+    /**
+     * The snapshot of the actor while it is passivated, null otherwise.
+     */
+    private Object snapshot;
+
+    /**
+     * @param creator the function for creating a new instance of the actor when it is activated again.
+     * @param idle the time the actor must have been idle before it is passivated.
+     * @param store where to keep the snapshot. May be null.
+     */
+    Passivation(final Supplier<? extends Actor> creator, final Duration idle, final PassivationStore store) {
+        this.creator = creator;
+        this.idleNanos = idle.toNanos();
+        this.store = store;
+        this.lastActivity = System.nanoTime();
+    }
+
+    /**
+     * Mark the actor as active right now.
+     */
+    void touch() {
+        lastActivity = System.nanoTime();
+    }
+
+    /**
+     * How much longer the actor has to stay idle before it should be passivated.
+     *
+     * @return the remaining time, in nanoseconds, or zero (or less) if it is time to passivate the actor.
+     */
+    long remaining() {
+        return idleNanos - (System.nanoTime() - lastActivity);
+    }
+
+    long idleNanos() {
+        return idleNanos;
+    }
+
+    Supplier<? extends Actor> creator() {
+        return creator;
+    }
+
+    PassivationStore store() {
+        return store;
+    }
+
+    Timer timer() {
+        return timer;
+    }
+
+    void timer(final Timer timer) {
+        this.timer = timer;
+    }
+
+    boolean isArmed() {
+        return armed;
+    }
+
+    void armed(final boolean armed) {
+        this.armed = armed;
+    }
+
+    boolean isPassivated() {
+        return snapshot != null;
+    }
+
+    void passivated(final Object snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * @return the snapshot of the actor, or null if it isn't passivated.
+     */
+    Object snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * The actor is back, after which the snapshot is forgotten about.
+     */
+    void activated() {
+        snapshot = null;
+    }
+}
@@ -1,8 +1,33 @@
 package io.hektor.core.internal;
 
+import io.hektor.core.internal.messages.Stop;
+import io.hektor.core.internal.messages.Watch;
+
 /**
  * @author jonas@jonasborjesson.com
  */
 public enum Priority {
     LOW, NORMAL, HIGH;
+
+    /**
+     * The priority a given message should be delivered with. The internal {@link Watch} message
+     * always goes {@link #HIGH} no matter what the sender asked for so that it overtakes any
+     * regular traffic already sitting in the mailbox.
+     *
+     * Other system messages are deliberately left alone. A {@link Terminated} must stay in order
+     * with the regular traffic or it would overtake the last messages the dying child sent to
+     * its parent, and a {@link Stop} is only sent as {@link #HIGH} once the actor has processed
+     * its start message (see {@link ActorBox#stopChildren()}).
+     *
+     * @param priority the priority as requested by the sender. May be null, in which case
+     *                 {@link #NORMAL} is assumed.
+     * @param msg the message being sent.
+     */
+    public static Priority of(final Priority priority, final Object msg) {
+        if (msg == Watch.MSG) {
+            return HIGH;
+        }
+
+        return priority == null ? NORMAL : priority;
+    }
 }
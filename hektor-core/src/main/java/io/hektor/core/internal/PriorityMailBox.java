@@ -0,0 +1,114 @@
+package io.hektor.core.internal;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A {@link MailBox} with one lane per {@link Priority}, where every lane is a regular
+ * {@link MailBox} of its own. The {@link Priority#HIGH} lane is always drained first, then the
+ * {@link Priority#NORMAL} lane and finally the {@link Priority#LOW} lane, which means that
+ * control messages (such as a stop or a timeout) overtake any bulk traffic sitting in the
+ * mailbox, which is what allows an overloaded system to shed load.
+ *
+ * In order to not starve the low priority lane completely, a low priority message is let
+ * through every time {@link #starvationLimit} messages in a row have been taken off of the
+ * other lanes while there was something waiting in the low priority lane.
+ *
+ * Just like any other mailbox, the order is kept per priority, i.e., two messages sent with the
+ * same priority are delivered in the order they were sent but a {@link Priority#HIGH} message
+ * may overtake a {@link Priority#NORMAL} message sent before it.
+ *
+ * Note that the lanes themselves are responsible for the thread safety of {@link #offer(Envelope)}
+ * and that {@link #poll()} must only be called by a single thread at a time, which is exactly
+ * what the mailbox based dispatchers guarantee.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class PriorityMailBox implements MailBox {
+
+    private final MailBox high;
+    private final MailBox normal;
+    private final MailBox low;
+
+    private final int starvationLimit;
+
+    /**
+     * The number of messages that have been taken off of the high and normal
+     * lanes in a row while the low lane had something in it. Only ever touched by the consumer.
+     */
+    private int skipped;
+
+    /**
+     * @param lanes the factory for every lane of this mailbox.
+     * @param starvationLimit the max number of higher priority messages to deliver in a row
+     *                        before letting a low priority message through.
+     */
+    public PriorityMailBox(final Supplier<MailBox> lanes, final int starvationLimit) {
+        this.high = lanes.get();
+        this.normal = lanes.get();
+        this.low = lanes.get();
+        this.starvationLimit = starvationLimit > 0 ? starvationLimit : 1;
+    }
+
+    private MailBox lane(final Priority priority) {
+        switch (priority) {
+            case HIGH:
+                return high;
+            case LOW:
+                return low;
+            default:
+                return normal;
+        }
+    }
+
+    @Override
+    public Envelope poll() {
+        if (low.isEmpty()) {
+            skipped = 0;
+            final Envelope envelope = high.poll();
+            return envelope != null ? envelope : normal.poll();
+        }
+
+        if (skipped < starvationLimit) {
+            Envelope envelope = high.poll();
+            if (envelope == null) {
+                envelope = normal.poll();
+            }
+
+            if (envelope != null) {
+                ++skipped;
+                return envelope;
+            }
+        }
+
+        skipped = 0;
+        return low.poll();
+    }
+
+    @Override
+    public void offer(final Envelope envelope) {
+        lane(envelope.priority()).offer(envelope);
+    }
+
+    /**
+     * Every run of envelopes with the same priority is offered to its lane as a single batch.
+     */
+    @Override
+    public void offerAll(final List<Envelope> envelopes, final int from, final int to) {
+        int start = from;
+        while (start < to) {
+            final Priority priority = envelopes.get(start).priority();
+            int end = start + 1;
+            while (end < to && envelopes.get(end).priority() == priority) {
+                ++end;
+            }
+            lane(priority).offerAll(envelopes, start, end);
+            start = end;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return high.isEmpty() && normal.isEmpty() && low.isEmpty();
+    }
+}
@@ -0,0 +1,210 @@
+package io.hektor.core.internal;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import io.hektor.config.ActorStoreConfiguration;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorPath;
+import io.hektor.core.ActorRef;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link ActorStore} where the actors are spread across a number of independent
+ * concurrent maps, which is meant for systems that have a very large number of actors
+ * and where actors are created and stopped at a high rate (e.g. one actor per transaction).
+ *
+ * Spreading the actors across many smaller maps means that concurrent inserts and removes
+ * are mostly hitting different maps and a map that needs to grow only has to move a fraction
+ * of all the actors, as opposed to every single actor in the system, which is what would
+ * happen with the {@link SimpleActorStore}.
+ *
+ * The following metrics are reported, all named after this class and the name of the
+ * actor system and shared by all the actor systems with that name in the same registry:
+ * <ul>
+ *     <li>size - the total number of actors in the store.</li>
+ *     <li>stored - the rate at which actors are stored.</li>
+ *     <li>removed - the rate at which actors are removed.</li>
+ *     <li>resizes - the number of times a shard has had to grow. The maps don't expose
+ *     when they actually resize so this is estimated based on the number of actors in
+ *     the shard and the load factor of the map.</li>
+ * </ul>
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class ShardedActorStore implements ActorStore {
+
+    /**
+     * The load factor of the {@link ConcurrentHashMap}, which can't be changed.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Shard[] shards;
+    private final int mask;
+
+    private final LongAdder size = new LongAdder();
+    private final Meter stored;
+    private final Meter removed;
+    private final Counter resizes;
+
+    public ShardedActorStore(final String name, final ActorStoreConfiguration config, final MetricRegistry metricRegistry) {
+        final int count = config.shards();
+        if (Integer.bitCount(count) != 1) {
+            throw new IllegalArgumentException("The number of shards must be a power of two");
+        }
+
+        shards = new Shard[count];
+        for (int i = 0; i < count; ++i) {
+            shards[i] = new Shard(config.initialCapacity());
+        }
+        mask = count - 1;
+
+        stored = metricRegistry.meter(MetricRegistry.name(ShardedActorStore.class, name, "stored"));
+        removed = metricRegistry.meter(MetricRegistry.name(ShardedActorStore.class, name, "removed"));
+        resizes = metricRegistry.counter(MetricRegistry.name(ShardedActorStore.class, name, "resizes"));
+        sizeGauge(metricRegistry, MetricRegistry.name(ShardedActorStore.class, name, "size")).sizes.add(size);
+    }
+
+    private static SizeGauge sizeGauge(final MetricRegistry metricRegistry, final String name) {
+        try {
+            return metricRegistry.register(name, new SizeGauge());
+        } catch (final IllegalArgumentException e) {
+            final Metric existing = metricRegistry.getMetrics().get(name);
+            if (existing instanceof SizeGauge) {
+                return (SizeGauge) existing;
+            }
+            throw e;
+        }
+    }
+
+    private Shard shard(final ActorPath path) {
+        final int h = path.hashCode();
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+
+    @Override
+    public Optional<ActorBox> lookup(final ActorRef ref) {
+        return Optional.ofNullable(find(ref));
+    }
+
+    @Override
+    public ActorBox find(final ActorRef ref) {
+        if (ref instanceof InternalActorRef) {
+            final ActorBox box = ((InternalActorRef) ref).actorBox();
+            if (box != null) {
+                return box;
+            }
+        }
+        final ActorPath path = ref.path();
+        return shard(path).actors.get(path);
+    }
+
+    @Override
+    public Optional<ActorBox> lookup(final ActorPath path) {
+        return Optional.ofNullable(shard(path).actors.get(path));
+    }
+
+    @Override
+    public void store(final ActorRef ref, final Actor actor, final MailBox mailBox) {
+        final ActorPath path = ref.path();
+        final Shard shard = shard(path);
+        final ActorBox box = ActorBox.create(mailBox, actor, ref);
+        if (shard.actors.put(path, box) == null) {
+            size.increment();
+            if (shard.grow()) {
+                resizes.inc();
+            }
+        }
+        stored.mark();
+
+        if (ref instanceof InternalActorRef) {
+            ((InternalActorRef) ref).bind(box);
+        }
+    }
+
+    @Override
+    public Optional<ActorBox> remove(final ActorRef ref) {
+        final Shard shard = shard(ref.path());
+        final ActorBox box = shard.actors.remove(ref.path());
+        if (box != null) {
+            size.decrement();
+            shard.count.decrementAndGet();
+            removed.mark();
+            if (box.ref() instanceof InternalActorRef) {
+                ((InternalActorRef) box.ref()).bind(null);
+            }
+        }
+        return Optional.ofNullable(box);
+    }
+
+    /**
+     * The total number of actors in the store.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Just like the meters, the gauge is shared by every store of an actor system with the
+     * same name in the same registry, as opposed to failing to register a second gauge.
+     */
+    private static class SizeGauge implements Gauge<Long> {
+        private final List<LongAdder> sizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Long getValue() {
+            long total = 0;
+            for (final LongAdder size : sizes) {
+                total += size.sum();
+            }
+            return total;
+        }
+    }
+
+    private static class Shard {
+        private final ConcurrentHashMap<ActorPath, ActorBox> actors;
+
+        /**
+         * The number of actors in this shard. Only used for estimating when the
+         * map resizes since {@link ConcurrentHashMap#size()} isn't free.
+         */
+        private final AtomicInteger count = new AtomicInteger();
+
+        /**
+         * The number of actors at which we estimate that the map will resize next.
+         */
+        private final AtomicInteger threshold;
+
+        private Shard(final int initialCapacity) {
+            actors = new ConcurrentHashMap<>(initialCapacity);
+
+            // same sizing as the ConcurrentHashMap itself does
+            final int tableSize = tableSizeFor((int) (1.0 + initialCapacity / LOAD_FACTOR));
+            threshold = new AtomicInteger((int) (tableSize * LOAD_FACTOR));
+        }
+
+        /**
+         * Account for a new actor in this shard.
+         *
+         * @return true if we estimate that the map resized as a result of it.
+         */
+        private boolean grow() {
+            final int current = count.incrementAndGet();
+            final int limit = threshold.get();
+            return current > limit && threshold.compareAndSet(limit, limit * 2);
+        }
+
+        private static int tableSizeFor(final int capacity) {
+            final int n = -1 >>> Integer.numberOfLeadingZeros(capacity - 1);
+            return n < 0 ? 1 : n + 1;
+        }
+    }
+}
@@ -20,26 +20,53 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class SimpleActorStore implements ActorStore {
 
-    private final Map<ActorPath, ActorBox> actors = new ConcurrentHashMap<>(100);
+    private final Map<ActorPath, ActorBox> actors;
+
+    public SimpleActorStore() {
+        this(100);
+    }
+
+    public SimpleActorStore(final int initialCapacity) {
+        actors = new ConcurrentHashMap<>(initialCapacity);
+    }
 
     @Override
     public Optional<ActorBox> lookup(final ActorRef ref) {
         return lookup(ref.path());
     }
 
+    @Override
+    public ActorBox find(final ActorRef ref) {
+        if (ref instanceof InternalActorRef) {
+            final ActorBox box = ((InternalActorRef) ref).actorBox();
+            if (box != null) {
+                return box;
+            }
+        }
+        return actors.get(ref.path());
+    }
+
     @Override
     public Optional<ActorBox> lookup(final ActorPath path) {
         return Optional.ofNullable(actors.get(path));
     }
 
     @Override
-    public void store(final ActorRef ref, final Actor actor) {
-        actors.put(ref.path(), ActorBox.create(new DefaultMailBox(), actor, ref));
+    public void store(final ActorRef ref, final Actor actor, final MailBox mailBox) {
+        final ActorBox box = ActorBox.create(mailBox, actor, ref);
+        actors.put(ref.path(), box);
+        if (ref instanceof InternalActorRef) {
+            ((InternalActorRef) ref).bind(box);
+        }
     }
 
     @Override
     public Optional<ActorBox> remove(final ActorRef ref) {
-        return Optional.ofNullable(actors.remove(ref.path()));
+        final ActorBox box = actors.remove(ref.path());
+        if (box != null && box.ref() instanceof InternalActorRef) {
+            ((InternalActorRef) box.ref()).bind(null);
+        }
+        return Optional.ofNullable(box);
     }
 
 }
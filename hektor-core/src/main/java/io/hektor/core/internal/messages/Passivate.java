@@ -0,0 +1,14 @@
+package io.hektor.core.internal.messages;
+
+/**
+ * Internal message, sent by the passivation timer of an actor, to indicate that
+ * the actor should be passivated if it has been idle for long enough.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class Passivate {
+
+    public static final Passivate MSG = new Passivate();
+
+    private Passivate() {}
+}
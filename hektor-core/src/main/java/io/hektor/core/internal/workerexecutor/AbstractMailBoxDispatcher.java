@@ -0,0 +1,158 @@
+package io.hektor.core.internal.workerexecutor;
+
+import io.hektor.config.DispatcherConfiguration;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorRef;
+import io.hektor.core.internal.ActorBox;
+import io.hektor.core.internal.ActorStore;
+import io.hektor.core.internal.DefaultMailBox;
+import io.hektor.core.internal.Envelope;
+import io.hektor.core.internal.InternalDispatcher;
+import io.hektor.core.internal.MailBox;
+import io.hektor.core.internal.MpscMailBox;
+import io.hektor.core.internal.Priority;
+import io.hektor.core.internal.PriorityMailBox;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static io.snice.preconditions.PreConditions.assertNotNull;
+
+/**
+ * Base class for all dispatchers where every message is enqueued into the mailbox of
+ * the receiving actor and the actor itself, as opposed to every single message, is what's
+ * being scheduled for execution.
+ *
+ * An actor is only scheduled when its mailbox goes from empty to non-empty, which is what
+ * guarantees that an actor is only ever processed by a single thread at any given point in time.
+ * How and where the actor is then executed is up to the sub-classes.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public abstract class AbstractMailBoxDispatcher implements InternalDispatcher {
+
+    /**
+     * This is the name of the dispatcher as configured
+     * by the user. Mainly used for logging.
+     */
+    protected final String name;
+
+    /**
+     * The max number of messages to process for a given actor before
+     * yielding to other actors.
+     */
+    protected final int throughput;
+
+    private final Supplier<MailBox> mailBoxFactory;
+    private final ActorStore actorStore;
+
+    protected AbstractMailBoxDispatcher(final String name,
+                                        final ActorStore actorStore,
+                                        final DispatcherConfiguration config) {
+        this.name = name;
+        this.actorStore = actorStore;
+        this.throughput = config.throughput();
+        this.mailBoxFactory = mailBoxFactory(config);
+    }
+
+    private static Supplier<MailBox> mailBoxFactory(final DispatcherConfiguration config) {
+        final Supplier<MailBox> lanes = DispatcherConfiguration.MPSC_MAILBOX.equalsIgnoreCase(config.mailBox())
+                ? MpscMailBox::new
+                : DefaultMailBox::new;
+
+        if (config.priorityLanes()) {
+            final int starvationLimit = config.starvationLimit();
+            return () -> new PriorityMailBox(lanes, starvationLimit);
+        }
+
+        return lanes;
+    }
+
+    /**
+     * Schedule the actor for execution. The actor has already been marked as scheduled
+     * and it is guaranteed that the actor will not be scheduled again until the current
+     * execution of it has drained its mailbox.
+     */
+    protected abstract void schedule(ActorBox box);
+
+    @Override
+    public void register(final ActorRef ref, final Actor actor) {
+        actorStore.store(ref, actor, mailBoxFactory.get());
+    }
+
+    @Override
+    public void unregister(final ActorRef ref) {
+        actorStore.remove(ref);
+    }
+
+    @Override
+    public void dispatch(final ActorRef sender, final ActorRef receiver, final Object msg) {
+        if (msg == null) {
+            return;
+        }
+        internalDispatch(sender, receiver, msg, null);
+    }
+
+    @Override
+    public CompletableFuture<Object> ask(final ActorRef sender, final ActorRef receiver, final Object msg) {
+        assertNotNull(msg, "If you are asking something you cannot pass in an empty message");
+        final CompletableFuture<Object> askFuture = new CompletableFuture<>();
+        internalDispatch(sender, receiver, msg, askFuture);
+        return askFuture;
+    }
+
+    /**
+     * The envelope is enqueued as is, which means that a message sent from within an actor
+     * only ever results in a single {@link Envelope} being created.
+     */
+    @Override
+    public void dispatch(final Envelope envelope) {
+        final ActorBox box = actorStore.find(envelope.receiver());
+        if (box != null) {
+            enqueue(box, envelope);
+        }
+    }
+
+    /**
+     * Every run of envelopes destined for the same actor is offered to its mailbox as a single
+     * batch and the actor is then scheduled (if needed) only once for the entire batch.
+     */
+    @Override
+    public void dispatchAll(final List<Envelope> envelopes, final int from, final int to) {
+        int start = from;
+        while (start < to) {
+            final ActorRef receiver = envelopes.get(start).receiver();
+            int end = start + 1;
+            while (end < to && envelopes.get(end).receiver() == receiver) {
+                ++end;
+            }
+
+            final ActorBox box = actorStore.find(receiver);
+            if (box != null) {
+                box.mailBox().offerAll(envelopes, start, end);
+                if (box.schedule()) {
+                    schedule(box);
+                }
+            }
+            start = end;
+        }
+    }
+
+    private void internalDispatch(final ActorRef sender, final ActorRef receiver, final Object msg, final CompletableFuture<Object> askFuture) {
+        final ActorBox box = actorStore.find(receiver);
+        if (box != null) {
+            enqueue(box, new Envelope(Priority.NORMAL, sender, receiver, msg, askFuture, null, null));
+        }
+    }
+
+    private void enqueue(final ActorBox box, final Envelope envelope) {
+        box.mailBox().offer(envelope);
+
+        // only the one that takes the mailbox from empty to non-empty will
+        // get to schedule the actor.
+        if (box.schedule()) {
+            schedule(box);
+        }
+    }
+}
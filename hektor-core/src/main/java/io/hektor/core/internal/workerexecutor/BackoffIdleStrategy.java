@@ -0,0 +1,54 @@
+package io.hektor.core.internal.workerexecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spin, then yield and then park the worker for an exponentially increasing amount of time
+ * (up to {@link #MAX_PARK_NS}) until something shows up on the queue. As long as there is
+ * work to do this strategy has the same latency as the {@link SpinYieldIdleStrategy}
+ * but once the worker has been idle for a while, it backs off and only burns a
+ * little CPU.
+ *
+ * Note that a parked worker is never woken up by the producer so the worst case wake-up
+ * latency is {@link #MAX_PARK_NS}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class BackoffIdleStrategy implements IdleStrategy {
+
+    private static final int MAX_SPINS = 100;
+    private static final int MAX_YIELDS = MAX_SPINS + 10;
+    private static final long MIN_PARK_NS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private int attempts;
+    private long parkNs = MIN_PARK_NS;
+
+    @Override
+    public <T> T poll(final BlockingQueue<T> queue) throws InterruptedException {
+        final T element = queue.poll();
+        if (element != null) {
+            attempts = 0;
+            parkNs = MIN_PARK_NS;
+            return element;
+        }
+
+        if (attempts < MAX_SPINS) {
+            ++attempts;
+            Thread.onSpinWait();
+        } else if (attempts < MAX_YIELDS) {
+            ++attempts;
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(parkNs);
+            parkNs = Math.min(parkNs << 1, MAX_PARK_NS);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package io.hektor.core.internal.workerexecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Park the worker on the queue until something arrives. This is the default and
+ * the most CPU friendly strategy.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class BlockingIdleStrategy implements IdleStrategy {
+
+    /**
+     * The max time to block before returning, which is how often the worker
+     * gets to check whether it has been asked to shut down.
+     */
+    private static final long MAX_BLOCK_MS = 500;
+
+    @Override
+    public <T> T poll(final BlockingQueue<T> queue) throws InterruptedException {
+        return queue.poll(MAX_BLOCK_MS, TimeUnit.MILLISECONDS);
+    }
+}
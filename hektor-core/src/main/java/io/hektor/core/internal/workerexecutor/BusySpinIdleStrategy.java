@@ -0,0 +1,22 @@
+package io.hektor.core.internal.workerexecutor;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Never give up the CPU, which gives the lowest possible latency but will
+ * also keep a core 100% busy at all times so should only be used when the workers
+ * have been given dedicated cores.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class BusySpinIdleStrategy implements IdleStrategy {
+
+    @Override
+    public <T> T poll(final BlockingQueue<T> queue) {
+        final T element = queue.poll();
+        if (element == null) {
+            Thread.onSpinWait();
+        }
+        return element;
+    }
+}
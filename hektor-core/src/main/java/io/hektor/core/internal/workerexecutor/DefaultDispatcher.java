@@ -1,26 +1,35 @@
 package io.hektor.core.internal.workerexecutor;
 
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import io.hektor.config.DispatcherConfiguration;
+import io.hektor.config.OverflowPolicy;
 import io.hektor.config.WorkerThreadExecutorConfig;
 import io.hektor.core.Actor;
 import io.hektor.core.ActorPath;
 import io.hektor.core.ActorRef;
+import io.hektor.core.MailBoxFull;
+import io.hektor.core.internal.ActorBox;
+import io.hektor.core.internal.ActorInvoker;
 import io.hektor.core.internal.ActorStore;
+import io.hektor.core.internal.Envelope;
 import io.hektor.core.internal.InternalDispatcher;
 import io.hektor.core.internal.InternalHektor;
-import io.hektor.core.internal.InvokeActorTask;
+import io.hektor.core.internal.Priority;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
@@ -28,10 +37,35 @@ import java.util.stream.Collectors;
 import static io.snice.preconditions.PreConditions.assertNotNull;
 
 /**
+ * Every message is handed to the worker the receiving actor is pinned to as an {@link Envelope},
+ * which the worker itself turns into an invocation of the actor. As such, a message that already
+ * is an {@link Envelope}, such as the ones sent by an actor, is queued as is without creating a
+ * task object on top of it.
+ *
+ * Every worker also has an unbounded "urgent" lane for {@link Priority#HIGH} messages, such as
+ * the internal stop message, which the worker checks before every message it processes, also
+ * within a batch. A high priority message is therefore never dropped because the worker queue
+ * is full and it overtakes whatever is already sitting in the queue. There is no separate lane for {@link Priority#LOW} messages,
+ * they are treated as {@link Priority#NORMAL}.
+ *
  * @author jonas@jonasborjesson.com
  */
 public class DefaultDispatcher implements InternalDispatcher {
 
+    /**
+     * Offered to the queue of a worker that is blocked waiting for work when a message has been
+     * added to its urgent lane, which is the only way to wake up a worker blocked on its queue.
+     * A worker that is busy will find the message anyway so it is never offered to a queue
+     * that has messages waiting in it and there is at most one per worker at any given time.
+     */
+    private static final Runnable WAKE_UP = () -> { };
+
+    /**
+     * The number of jobs a worker processes in one go, unless the throughput of the dispatcher has been
+     * configured, i.e., the job the worker woke up for plus another five drained off of the queue.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 6;
+
     /**
      * This is the name of the dispatcher as configured
      * by the user. Mainly used for logging.
@@ -46,13 +80,23 @@ public class DefaultDispatcher implements InternalDispatcher {
     private final ActorPath root;
 
     private final ExecutorService executorService;
-    private final BlockingQueue<Runnable>[] workerQueue;
-    // private final BlockingDeque<Runnable>[] workerQueue;
+    /**
+     * Holds {@link Envelope}s and the occasional {@link Runnable}, such as a {@link BatchTask}.
+     */
+    private final BlockingQueue<Object>[] workerQueue;
     private final Worker[] workers;
     private final int noOfWorkers;
     private final ActorStore actorStore;
     private final MetricRegistry metricRegistry;
     private final InternalHektor hektor;
+    private final ActorInvoker invoker;
+    private final OverflowPolicy overflowPolicy;
+    private final long overflowTimeout;
+
+    /**
+     * Marks every message that was not delivered because the worker queue was full.
+     */
+    private final Meter deadLetters;
 
     private final CompletableFuture<Void> shutdownFuture = new CompletableFuture<>();
 
@@ -73,7 +117,11 @@ public class DefaultDispatcher implements InternalDispatcher {
         this.root = root;
         this.actorStore = actorStore;
         this.hektor = hektor;
+        this.invoker = new ActorInvoker(hektor);
         this.metricRegistry = metricRegistry;
+        this.overflowPolicy = config.overflowPolicy();
+        this.overflowTimeout = config.overflowTimeout();
+        this.deadLetters = metricRegistry.meter(MetricRegistry.name(DefaultDispatcher.class, name, "dead-letters"));
 
         final Optional<WorkerThreadExecutorConfig> optional = config.workerThreadExecutorConfig();
         if (!optional.isPresent()) {
@@ -88,15 +136,24 @@ public class DefaultDispatcher implements InternalDispatcher {
         workers = new Worker[noOfWorkers];
         inQueueLatency = new Timer[noOfWorkers];
         for (int i = 0; i < noOfWorkers; ++i) {
-            final String timerName = MetricRegistry.name(Worker.class, "worker", Integer.toString(i), "latency");
+            final String timerName = MetricRegistry.name(Worker.class, name, "worker", Integer.toString(i), "latency");
             inQueueLatency[i] = metricRegistry.timer(timerName);
 
-            final String jobTimerName = MetricRegistry.name(Worker.class, "worker", Integer.toString(i), "job");
+            final String jobTimerName = MetricRegistry.name(Worker.class, name, "worker", Integer.toString(i), "job");
             final Timer jobTimer = metricRegistry.timer(jobTimerName);
 
-            workerQueue[i] = new ArrayBlockingQueue<Runnable>(100);
+            // Deprecated: the names from before the name of the dispatcher was part of them, which are
+            // shared by all dispatchers. Kept around so that existing dashboards and alerts keep working.
+            metricRegistry.timer(MetricRegistry.name(Worker.class, "worker", Integer.toString(i), "latency"));
+            final Timer legacyJobTimer = metricRegistry.timer(MetricRegistry.name(Worker.class, "worker", Integer.toString(i), "job"));
+
+            workerQueue[i] = overflowPolicy == OverflowPolicy.UNBOUNDED
+                    ? new LinkedBlockingQueue<>()
+                    : new ArrayBlockingQueue<>(c.getQueueCapacity());
             // workerQueue[i] = new LinkedBlockingDeque<>(100);
-            workers[i] = new Worker(i, workerQueue[i], inQueueLatency[i], jobTimer);
+            final int batchSize = config.isThroughputConfigured() ? config.throughput() : DEFAULT_BATCH_SIZE;
+            workers[i] = new Worker(i, this, workerQueue[i], IdleStrategy.create(config), batchSize,
+                    inQueueLatency[i], jobTimer, legacyJobTimer);
             // final Thread t = new Thread(workers[i]);
             // t.start();
             executorService.submit(workers[i]);
@@ -140,12 +197,140 @@ public class DefaultDispatcher implements InternalDispatcher {
     }
 
     public void internalDispatch(final ActorRef sender, final ActorRef receiver, final Object msg, final CompletableFuture<Object> askFuture) {
+        internalDispatch(Priority.of(Priority.NORMAL, msg), sender, receiver, msg, askFuture);
+    }
+
+    private void internalDispatch(final Priority priority, final ActorRef sender, final ActorRef receiver, final Object msg, final CompletableFuture<Object> askFuture) {
+        assertNotNull(sender);
+        assertNotNull(receiver);
+        dispatch(new Envelope(priority, sender, receiver, msg, askFuture, null, null));
+    }
 
-        final BlockingQueue<Runnable> queue = workerQueue[Math.abs(receiver.path().hashCode()) % noOfWorkers];
-        // final BlockingDeque<Runnable> queue = workerQueue[Math.abs(receiver.path().hashCode()) % noOfWorkers];
-        final InvokeActorTask task = InvokeActorTask.create(hektor, sender, receiver, msg, askFuture);
-        if (!queue.offer(task)) {
-            System.err.println("oh man, queue is full");
+    /**
+     * The envelope is queued as is and its priority is kept, which is lost if the
+     * envelope is dispatched as a plain message.
+     */
+    @Override
+    public void dispatch(final Envelope envelope) {
+        final int worker = worker(envelope.receiver());
+        if (envelope.priority() == Priority.HIGH) {
+            urgent(worker, envelope);
+            return;
+        }
+
+        final BlockingQueue<Object> queue = workerQueue[worker];
+        if (!queue.offer(envelope) && !offerOnOverflow(queue, envelope)) {
+            drop(envelope.sender(), envelope.receiver(), envelope.payload(), envelope.askFuture());
+        }
+    }
+
+    /**
+     * Invoke the receiver of the envelope, unless it no longer exists. Only ever called
+     * by the worker the receiver is pinned to.
+     */
+    private void invoke(final Envelope envelope) {
+        final ActorBox box = actorStore.find(envelope.receiver());
+        if (box != null) {
+            invoker.invoke(box, envelope.sender(), envelope.payload(), envelope.askFuture());
+        }
+    }
+
+    /**
+     * Hand the envelope to the urgent lane of the given worker, which is checked before every
+     * job the worker runs.
+     */
+    private void urgent(final int worker, final Envelope envelope) {
+        final Worker w = workers[worker];
+        w.urgent.offer(envelope);
+        if (w.idle && workerQueue[worker].isEmpty() && w.wakeUpPending.compareAndSet(false, true)
+                && !workerQueue[worker].offer(WAKE_UP)) {
+            // the queue filled up in the meantime so the worker is about to wake up anyway.
+            w.wakeUpPending.set(false);
+        }
+    }
+
+    /**
+     * The envelopes are grouped by the worker they belong to and every worker is then handed
+     * its share of the batch as a single task, i.e., with a single offer to its queue. Since a given
+     * actor always runs on the same worker, the order of the messages to any given actor is kept.
+     *
+     * Note that a batch only occupies a single slot in the worker queue.
+     */
+    @Override
+    public void dispatchAll(final List<Envelope> envelopes, final int from, final int to) {
+        final List<Envelope>[] batches = new List[noOfWorkers];
+        for (int i = from; i < to; ++i) {
+            final Envelope envelope = envelopes.get(i);
+            final int worker = worker(envelope.receiver());
+            if (envelope.priority() == Priority.HIGH) {
+                urgent(worker, envelope);
+                continue;
+            }
+
+            if (batches[worker] == null) {
+                batches[worker] = new ArrayList<>(to - i);
+            }
+            batches[worker].add(envelope);
+        }
+
+        for (int i = 0; i < noOfWorkers; ++i) {
+            final List<Envelope> batch = batches[i];
+            if (batch == null) {
+                continue;
+            }
+
+            final Object job = batch.size() == 1 ? batch.get(0) : new BatchTask(batch, workers[i]);
+            if (!workerQueue[i].offer(job) && !offerOnOverflow(workerQueue[i], job)) {
+                for (int j = 0; j < batch.size(); ++j) {
+                    final Envelope envelope = batch.get(j);
+                    drop(envelope.sender(), envelope.receiver(), envelope.payload(), envelope.askFuture());
+                }
+            }
+        }
+    }
+
+    private int worker(final ActorRef receiver) {
+        return Math.floorMod(receiver.path().hashCode(), noOfWorkers);
+    }
+
+    /**
+     * The worker queue is full so it is up to the configured {@link OverflowPolicy}
+     * to decide whether we should wait for room in the queue.
+     *
+     * @return true if the job eventually made it into the queue.
+     */
+    private boolean offerOnOverflow(final BlockingQueue<Object> queue, final Object job) {
+        if (overflowPolicy == OverflowPolicy.BLOCK && !WorkerThreads.isWorkerThread()) {
+            try {
+                return queue.offer(job, overflowTimeout, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The message could not be delivered because the worker queue was full and it is up
+     * to the configured {@link OverflowPolicy} to decide what to do about it.
+     */
+    private void drop(final ActorRef sender,
+                      final ActorRef receiver,
+                      final Object msg,
+                      final CompletableFuture<Object> askFuture) {
+        deadLetters.mark();
+
+        // never signal that a MailBoxFull couldn't be delivered or two
+        // overloaded actors could end up bouncing them back and forth.
+        if (overflowPolicy != OverflowPolicy.SIGNAL || msg instanceof MailBoxFull) {
+            return;
+        }
+
+        final MailBoxFull full = MailBoxFull.of(receiver, msg);
+        if (askFuture != null) {
+            askFuture.complete(full);
+        } else if (sender != null && sender != ActorRef.None()) {
+            sender.tell(full, receiver);
         }
     }
 
@@ -159,6 +344,34 @@ public class DefaultDispatcher implements InternalDispatcher {
 
 
 
+    /**
+     * A batch of messages that are all destined for actors running on the same worker.
+     */
+    private static class BatchTask implements Runnable {
+
+        private final List<Envelope> envelopes;
+        private final Worker worker;
+
+        private BatchTask(final List<Envelope> envelopes, final Worker worker) {
+            this.envelopes = envelopes;
+            this.worker = worker;
+        }
+
+        /**
+         * The urgent lane of the worker is checked before every message of the batch, just like
+         * it is before every message in the queue of the worker.
+         */
+        @Override
+        public void run() {
+            for (int i = 0; i < envelopes.size(); ++i) {
+                if (i > 0) {
+                    worker.runUrgent();
+                }
+                worker.dispatcher.invoke(envelopes.get(i));
+            }
+        }
+    }
+
     private static class Worker implements Runnable {
 
         /**
@@ -167,7 +380,32 @@ public class DefaultDispatcher implements InternalDispatcher {
          */
         private final int id;
 
-        private final BlockingQueue<Runnable> queue;
+        private final DefaultDispatcher dispatcher;
+
+        private final BlockingQueue<Object> queue;
+
+        /**
+         * The {@link Priority#HIGH} messages, which are processed before anything
+         * in the regular queue.
+         */
+        private final Queue<Envelope> urgent = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Whether the worker is, or is about to be, blocked waiting for its queue.
+         */
+        private volatile boolean idle;
+
+        /**
+         * Whether there is a {@link #WAKE_UP} in the queue of the worker.
+         */
+        private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+
+        private final IdleStrategy idleStrategy;
+
+        /**
+         * The max number of jobs to process in one go once the worker has woken up.
+         */
+        private final int throughput;
 
         private final Timer queueLatencyTimer;
 
@@ -176,6 +414,11 @@ public class DefaultDispatcher implements InternalDispatcher {
          */
         private final Timer jobTimer;
 
+        /**
+         * The same as the {@link #jobTimer} but under its old, deprecated, name.
+         */
+        private final Timer legacyJobTimer;
+
         private final AtomicBoolean isDone = new AtomicBoolean(false);
 
         private final CompletableFuture<Worker> shutdownFuture = new CompletableFuture<>();
@@ -183,11 +426,22 @@ public class DefaultDispatcher implements InternalDispatcher {
         /**
          *
          */
-        public Worker(final int id, final BlockingQueue<Runnable> queue, final Timer queueLatencyTimer, final Timer jobtimer) {
+        public Worker(final int id,
+                      final DefaultDispatcher dispatcher,
+                      final BlockingQueue<Object> queue,
+                      final IdleStrategy idleStrategy,
+                      final int throughput,
+                      final Timer queueLatencyTimer,
+                      final Timer jobtimer,
+                      final Timer legacyJobTimer) {
             this.id = id;
+            this.dispatcher = dispatcher;
             this.queue = queue;
+            this.idleStrategy = idleStrategy;
+            this.throughput = throughput;
             this.queueLatencyTimer = queueLatencyTimer;
             this.jobTimer = jobtimer;
+            this.legacyJobTimer = legacyJobTimer;
         }
 
         public CompletionStage<Worker> shutdown() {
@@ -197,24 +451,24 @@ public class DefaultDispatcher implements InternalDispatcher {
 
         @Override
         public void run() {
-            final int drain = 5;
-            final List<Runnable> jobs = new ArrayList<>(drain);
+            WorkerThreads.markCurrentThread();
+            final int drain = throughput - 1;
+            final List<Object> jobs = new ArrayList<>(drain);
             while (!isDone.get()) {
                 Timer.Context timerContext = null;
                 try {
-                    // use take as
-                    final Runnable event = queue.poll(500, TimeUnit.MILLISECONDS);
+                    final Object event = poll();
                     if (event == null) {
+                        runUrgent();
                         continue;
                     }
 
                     timerContext = jobTimer.time();
-                    event.run();
+                    run(event);
 
-                    final int noOfJobs = this.queue.drainTo(jobs, drain);
+                    final int noOfJobs = drain > 0 ? this.queue.drainTo(jobs, drain) : 0;
                     for (int i = 0; i < noOfJobs; ++i) {
-                        final Runnable job = jobs.get(i);
-                        job.run();
+                        run(jobs.get(i));
                     }
                     jobs.clear();
                 } catch (final Throwable t) {
@@ -222,7 +476,7 @@ public class DefaultDispatcher implements InternalDispatcher {
                     t.printStackTrace();
                 } finally {
                     if (timerContext != null) {
-                        timerContext.stop();
+                        legacyJobTimer.update(timerContext.stop(), TimeUnit.NANOSECONDS);
                     }
                 }
             }
@@ -230,5 +484,46 @@ public class DefaultDispatcher implements InternalDispatcher {
             shutdownFuture.complete(this);
         }
 
+        /**
+         * The urgent lane is checked after the worker has announced that it is idle so that a
+         * producer either finds the worker idle, and wakes it up, or the worker finds the message.
+         *
+         * @return the next job or null if there wasn't one, or if the urgent lane must be processed.
+         */
+        private Object poll() throws InterruptedException {
+            idle = true;
+            try {
+                return urgent.isEmpty() ? idleStrategy.poll(queue) : null;
+            } finally {
+                idle = false;
+            }
+        }
+
+        private void run(final Object job) {
+            if (job == WAKE_UP) {
+                // cleared before checking the urgent lane or a message that arrived
+                // in between would not be followed by another wake-up.
+                wakeUpPending.set(false);
+            }
+            runUrgent();
+
+            if (job instanceof Envelope) {
+                dispatcher.invoke((Envelope) job);
+            } else {
+                ((Runnable) job).run();
+            }
+        }
+
+        private void runUrgent() {
+            Envelope envelope;
+            while ((envelope = urgent.poll()) != null) {
+                try {
+                    dispatcher.invoke(envelope);
+                } catch (final Throwable t) {
+                    t.printStackTrace();
+                }
+            }
+        }
+
     }
 }
@@ -8,6 +8,7 @@ import io.hektor.core.Actor;
 import io.hektor.core.ActorPath;
 import io.hektor.core.ActorRef;
 import io.hektor.core.internal.ActorBox;
+import io.hektor.core.internal.ActorInvoker;
 import io.hektor.core.internal.ActorStore;
 import io.hektor.core.internal.InternalDispatcher;
 import io.hektor.core.internal.InternalHektor;
@@ -48,6 +49,7 @@ public class DefaultDispatcher2 implements InternalDispatcher {
     private final ActorStore actorStore;
     private final MetricRegistry metricRegistry;
     private final InternalHektor hektor;
+    private final ActorInvoker invoker;
 
     /**
      * A metric timer for keeping track of the time a task stays in the
@@ -66,6 +68,7 @@ public class DefaultDispatcher2 implements InternalDispatcher {
         this.root = root;
         this.actorStore = actorStore;
         this.hektor = hektor;
+        this.invoker = new ActorInvoker(hektor);
         this.metricRegistry = metricRegistry;
 
         final Optional<WorkerThreadExecutorConfig> optional = config.workerThreadExecutorConfig();
@@ -125,9 +128,9 @@ public class DefaultDispatcher2 implements InternalDispatcher {
         });
         */
 
-        final BlockingQueue<Runnable> queue = workerQueue[Math.abs(receiver.path().hashCode()) % noOfWorkers];
+        final BlockingQueue<Runnable> queue = workerQueue[Math.floorMod(receiver.path().hashCode(), noOfWorkers)];
         // final BlockingDeque<Runnable> queue = workerQueue[Math.abs(receiver.path().hashCode()) % noOfWorkers];
-        final InvokeActorTask task = InvokeActorTask.create(hektor, sender, receiver, msg, null);
+        final InvokeActorTask task = InvokeActorTask.create(hektor, invoker, sender, receiver, msg, null);
         if (!queue.offer(task)) {
             System.err.println("oh man, queue is full");
         }
@@ -0,0 +1,104 @@
+package io.hektor.core.internal.workerexecutor;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.hektor.config.DispatcherConfiguration;
+import io.hektor.core.internal.ActorBox;
+import io.hektor.core.internal.ActorInvoker;
+import io.hektor.core.internal.ActorStore;
+import io.hektor.core.internal.InternalHektor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A mailbox based dispatcher where the actors are scheduled onto a work-stealing
+ * {@link ForkJoinPool} as opposed to the {@link MailBoxDispatcher}, which pins every
+ * actor to a given worker. An idle thread will steal actors from the busy ones so a
+ * few hot actors, or an unlucky spread of actors across the workers, won't leave the
+ * other cores idle.
+ *
+ * Just as with the other mailbox based dispatchers, an actor is only scheduled when its
+ * mailbox goes from empty to non-empty so any one actor is still only ever processed
+ * by a single thread at a time.
+ *
+ * The number of threads is taken from {@link io.hektor.config.WorkerThreadExecutorConfig#getNoOfWorkers()}
+ * if configured, otherwise it defaults to the number of available processors.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class ForkJoinDispatcher extends AbstractMailBoxDispatcher {
+
+    private final ForkJoinPool pool;
+    private final ActorInvoker invoker;
+    private final Timer jobTimer;
+
+    public ForkJoinDispatcher(final String name,
+                              final InternalHektor hektor,
+                              final ActorStore actorStore,
+                              final MetricRegistry metricRegistry,
+                              final DispatcherConfiguration config) {
+        super(name, actorStore, config);
+        this.invoker = new ActorInvoker(hektor);
+        this.jobTimer = metricRegistry.timer(MetricRegistry.name(ForkJoinDispatcher.class, name, "job"));
+
+        final int parallelism = config.workerThreadExecutorConfig()
+                .map(c -> c.getNoOfWorkers())
+                .filter(workers -> workers > 0)
+                .orElse(Runtime.getRuntime().availableProcessors());
+
+        // async mode since actors are never joined, they are just
+        // fire and forget, in which case FIFO is the better choice.
+        pool = new ForkJoinPool(parallelism, WorkerThread::new, null, true);
+    }
+
+    @Override
+    protected void schedule(final ActorBox box) {
+        pool.execute(() -> run(box));
+    }
+
+    private void run(final ActorBox box) {
+        final Timer.Context timerContext = jobTimer.time();
+        try {
+            if (invoker.drain(box, throughput)) {
+                // more messages in the mailbox, re-schedule the actor to give others
+                // a chance to run. If we are on a pool thread this will end up in the
+                // local queue of this thread, where other threads may steal it.
+                schedule(box);
+            }
+        } finally {
+            timerContext.stop();
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> shutdown() {
+        pool.shutdown();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    pool.shutdownNow();
+                }
+            } catch (final InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static class WorkerThread extends ForkJoinWorkerThread {
+
+        private WorkerThread(final ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            WorkerThreads.markCurrentThread();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.hektor.core.internal.workerexecutor;
+
+import io.hektor.config.DispatcherConfiguration;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Decides how a worker is waiting for new work to arrive on its queue. It is all a trade-off
+ * between CPU usage and latency where e.g. the {@link BusySpinIdleStrategy} will never give
+ * up the CPU, and as such has the lowest possible wake-up latency, while the
+ * {@link BlockingIdleStrategy} parks the thread until there is something to do, which is
+ * gentle on the CPU but means the worker has to be woken up every time the queue goes from
+ * empty to non-empty.
+ *
+ * An {@link IdleStrategy} may keep state (such as how long it has been idle) and
+ * as such, every worker must have its own instance.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public interface IdleStrategy {
+
+    /**
+     * Create a new {@link IdleStrategy} as configured by the given dispatcher configuration.
+     */
+    static IdleStrategy create(final DispatcherConfiguration config) {
+        final String strategy = config.idleStrategy();
+        if (DispatcherConfiguration.BUSY_SPIN_IDLE_STRATEGY.equalsIgnoreCase(strategy)) {
+            return new BusySpinIdleStrategy();
+        }
+        if (DispatcherConfiguration.SPIN_YIELD_IDLE_STRATEGY.equalsIgnoreCase(strategy)) {
+            return new SpinYieldIdleStrategy();
+        }
+        if (DispatcherConfiguration.BACKOFF_IDLE_STRATEGY.equalsIgnoreCase(strategy)) {
+            return new BackoffIdleStrategy();
+        }
+
+        return new BlockingIdleStrategy();
+    }
+
+    /**
+     * Try to retrieve the next element off of the queue, idling according to the strategy
+     * if there is nothing there. Note that this method may return null even though the
+     * queue isn't empty, which just means that the worker should check whether it has been
+     * asked to stop and then simply try again.
+     *
+     * @param queue the queue to poll.
+     * @return the next element or null if there was nothing available this time around.
+     * @throws InterruptedException in case the worker thread was interrupted while waiting.
+     */
+    <T> T poll(BlockingQueue<T> queue) throws InterruptedException;
+}
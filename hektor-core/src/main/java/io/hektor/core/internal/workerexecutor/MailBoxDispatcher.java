@@ -0,0 +1,169 @@
+package io.hektor.core.internal.workerexecutor;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.hektor.config.DispatcherConfiguration;
+import io.hektor.config.WorkerThreadExecutorConfig;
+import io.hektor.core.internal.ActorBox;
+import io.hektor.core.internal.ActorInvoker;
+import io.hektor.core.internal.ActorStore;
+import io.hektor.core.internal.InternalHektor;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A dispatcher where every message is enqueued into the mailbox of the receiving actor
+ * as opposed to the {@link DefaultDispatcher}, which creates a new task for every message.
+ *
+ * An actor is only scheduled onto a worker when its mailbox goes from empty to non-empty and
+ * the worker will then drain up to {@link DispatcherConfiguration#throughput()} messages before
+ * yielding to other actors (run-to-completion). A busy actor will therefore get to process
+ * its messages in batches.
+ *
+ * Just as with the {@link DefaultDispatcher}, a given actor is always scheduled on the same
+ * worker, which is selected based on the path of the actor.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class MailBoxDispatcher extends AbstractMailBoxDispatcher {
+
+    private final ExecutorService executorService;
+
+    /**
+     * The queue of actors that are scheduled to run on each worker. Note that an
+     * actor is only ever present once in these queues so they are naturally bounded
+     * by the number of actors in the system.
+     */
+    private final BlockingQueue<ActorBox>[] runQueues;
+    private final Worker[] workers;
+    private final int noOfWorkers;
+
+    public MailBoxDispatcher(final String name,
+                             final InternalHektor hektor,
+                             final ActorStore actorStore,
+                             final MetricRegistry metricRegistry,
+                             final DispatcherConfiguration config) {
+        super(name, actorStore, config);
+
+        final Optional<WorkerThreadExecutorConfig> optional = config.workerThreadExecutorConfig();
+        if (!optional.isPresent()) {
+            throw new IllegalArgumentException("The " + DispatcherConfiguration.MAILBOX_EXECUTOR
+                    + " needs the worker thread executor configuration");
+        }
+
+        final WorkerThreadExecutorConfig c = optional.get();
+        executorService = c.getExecutorService();
+        noOfWorkers = c.getNoOfWorkers();
+        runQueues = new BlockingQueue[noOfWorkers];
+        workers = new Worker[noOfWorkers];
+        for (int i = 0; i < noOfWorkers; ++i) {
+            final String jobTimerName = MetricRegistry.name(MailBoxDispatcher.class, name, "worker", Integer.toString(i), "job");
+            final Timer jobTimer = metricRegistry.timer(jobTimerName);
+
+            runQueues[i] = new LinkedBlockingQueue<>();
+            workers[i] = new Worker(i, runQueues[i], IdleStrategy.create(config), new ActorInvoker(hektor), throughput, jobTimer);
+            executorService.submit(workers[i]);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> shutdown() {
+        final CompletableFuture<Worker>[] workerFutures = new CompletableFuture[noOfWorkers];
+        for (int i = 0; i < noOfWorkers; ++i) {
+            workerFutures[i] = workers[i].shutdown().toCompletableFuture();
+        }
+
+        return CompletableFuture.allOf(workerFutures)
+                .thenAccept(Void -> {
+                    executorService.shutdown();
+                })
+                .exceptionally(error -> {
+                    error.printStackTrace();
+                    executorService.shutdownNow();
+                    return null;
+                });
+    }
+
+    @Override
+    protected void schedule(final ActorBox box) {
+        runQueues[Math.floorMod(box.ref().path().hashCode(), noOfWorkers)].offer(box);
+    }
+
+    private static class Worker implements Runnable {
+
+        /**
+         * Just a simple id of the worker. Mainly used for logging/debugging
+         * purposes.
+         */
+        private final int id;
+
+        private final BlockingQueue<ActorBox> queue;
+
+        private final IdleStrategy idleStrategy;
+
+        private final ActorInvoker invoker;
+
+        private final int throughput;
+
+        private final Timer jobTimer;
+
+        private final AtomicBoolean isDone = new AtomicBoolean(false);
+
+        private final CompletableFuture<Worker> shutdownFuture = new CompletableFuture<>();
+
+        private Worker(final int id,
+                       final BlockingQueue<ActorBox> queue,
+                       final IdleStrategy idleStrategy,
+                       final ActorInvoker invoker,
+                       final int throughput,
+                       final Timer jobTimer) {
+            this.id = id;
+            this.queue = queue;
+            this.idleStrategy = idleStrategy;
+            this.invoker = invoker;
+            this.throughput = throughput;
+            this.jobTimer = jobTimer;
+        }
+
+        public CompletionStage<Worker> shutdown() {
+            isDone.set(true);
+            return shutdownFuture;
+        }
+
+        @Override
+        public void run() {
+            WorkerThreads.markCurrentThread();
+            while (!isDone.get()) {
+                Timer.Context timerContext = null;
+                try {
+                    final ActorBox box = idleStrategy.poll(queue);
+                    if (box == null) {
+                        continue;
+                    }
+
+                    timerContext = jobTimer.time();
+                    if (invoker.drain(box, throughput)) {
+                        // still more messages in the mailbox so put the actor
+                        // at the back of the queue to give others a chance to run.
+                        queue.offer(box);
+                    }
+                } catch (final Throwable t) {
+                    // do something cool
+                    t.printStackTrace();
+                } finally {
+                    if (timerContext != null) {
+                        timerContext.stop();
+                    }
+                }
+            }
+
+            shutdownFuture.complete(this);
+        }
+    }
+}
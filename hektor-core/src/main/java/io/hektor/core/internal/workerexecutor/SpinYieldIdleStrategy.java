@@ -0,0 +1,35 @@
+package io.hektor.core.internal.workerexecutor;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Spin for a while and if there still isn't anything to do, start yielding the CPU
+ * to other threads between every attempt. Never parks the worker so still pretty CPU
+ * hungry but plays a little nicer with other threads than the {@link BusySpinIdleStrategy}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class SpinYieldIdleStrategy implements IdleStrategy {
+
+    private static final int MAX_SPINS = 100;
+
+    private int spins;
+
+    @Override
+    public <T> T poll(final BlockingQueue<T> queue) {
+        final T element = queue.poll();
+        if (element != null) {
+            spins = 0;
+            return element;
+        }
+
+        if (spins < MAX_SPINS) {
+            ++spins;
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package io.hektor.core.internal.workerexecutor;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.hektor.config.DispatcherConfiguration;
+import io.hektor.core.internal.ActorBox;
+import io.hektor.core.internal.ActorInvoker;
+import io.hektor.core.internal.ActorStore;
+import io.hektor.core.internal.InternalHektor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A mailbox based dispatcher where every drain of an actor's mailbox is running on its
+ * own virtual thread. Since blocking a virtual thread only parks the virtual thread and not
+ * the underlying carrier thread, an actor running on this dispatcher is free to block
+ * on e.g. I/O without stalling any other actors.
+ *
+ * Virtual threads are only available on JDK 21+ and since Hektor is still built
+ * for Java 17, the executor is obtained through reflection. Trying to create this dispatcher
+ * on an older JDK will result in an {@link IllegalArgumentException}.
+ *
+ * Just as with the other mailbox based dispatchers, an actor is only scheduled when its
+ * mailbox goes from empty to non-empty so any one actor is still only ever processed
+ * by a single (virtual) thread at a time.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class VirtualThreadDispatcher extends AbstractMailBoxDispatcher {
+
+    private final ExecutorService executorService;
+    private final ActorInvoker invoker;
+    private final Timer jobTimer;
+
+    public VirtualThreadDispatcher(final String name,
+                                   final InternalHektor hektor,
+                                   final ActorStore actorStore,
+                                   final MetricRegistry metricRegistry,
+                                   final DispatcherConfiguration config) {
+        super(name, actorStore, config);
+        this.invoker = new ActorInvoker(hektor);
+        this.jobTimer = metricRegistry.timer(MetricRegistry.name(VirtualThreadDispatcher.class, name, "job"));
+        this.executorService = newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Check whether the JVM we are running on supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new IllegalArgumentException("The " + DispatcherConfiguration.VIRTUAL_THREAD_EXECUTOR
+                    + " requires JDK 21 or later. Running on " + Runtime.version());
+        }
+
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unable to create the virtual thread executor", e);
+        }
+    }
+
+    @Override
+    protected void schedule(final ActorBox box) {
+        executorService.execute(() -> run(box));
+    }
+
+    private void run(final ActorBox box) {
+        final Timer.Context timerContext = jobTimer.time();
+        try {
+            if (invoker.drain(box, throughput)) {
+                // virtual threads are cheap so just start a new one, which
+                // gives other virtual threads a chance to get onto a carrier.
+                schedule(box);
+            }
+        } finally {
+            timerContext.stop();
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> shutdown() {
+        executorService.shutdown();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executorService.shutdownNow();
+                }
+            } catch (final InterruptedException e) {
+                executorService.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package io.hektor.core.internal.workerexecutor;
+
+/**
+ * Keeps track of whether the current thread is one of the threads driving a dispatcher,
+ * i.e., a thread executing actors. Those threads must never be blocked waiting for
+ * another actor since that could easily end up in a deadlock.
+ *
+ * The same goes for the threads of the scheduler, which hand the messages of expired timers
+ * straight to the dispatchers. Blocking one of them on a single full worker queue would hold
+ * up every other timer on the same wheel, so they are marked as well.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class WorkerThreads {
+
+    private static final ThreadLocal<Boolean> isWorker = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private WorkerThreads() {
+        // left empty intentionally
+    }
+
+    /**
+     * Mark the current thread as a worker thread. Must be called by every worker
+     * before it starts processing any actors.
+     */
+    public static void markCurrentThread() {
+        isWorker.set(Boolean.TRUE);
+    }
+
+    static boolean isWorkerThread() {
+        return isWorker.get();
+    }
+}
@@ -36,9 +36,24 @@ public class DispatcherConfigurationTest {
         final DispatcherConfiguration dispatcher = config.dispatchers().get("my-dispatcher");
         assertThat(dispatcher.executor(), is("worker-thread-executor"));
         assertThat(dispatcher.throughput(), is(75));
+        assertThat(dispatcher.isThroughputConfigured(), is(true));
         assertThat(dispatcher.workerThreadExecutorConfig().isPresent(), is(true));
 
         final WorkerThreadExecutorConfig executorConfig = dispatcher.workerThreadExecutorConfig().get();
         assertThat(executorConfig.getNoOfWorkers(), is(4));
+
+        // the defaults
+        assertThat(dispatcher.overflowPolicy(), is(OverflowPolicy.DROP));
+        assertThat(executorConfig.getQueueCapacity(), is(100));
+        assertThat(dispatcher.idleStrategy(), is(DispatcherConfiguration.BLOCKING_IDLE_STRATEGY));
+        assertThat(dispatcher.priorityLanes(), is(true));
+        assertThat(dispatcher.starvationLimit(), is(32));
+    }
+
+    @Test
+    public void testThroughputNotConfigured() throws Exception {
+        final DispatcherConfiguration dispatcher = new DispatcherConfiguration.Builder().build();
+        assertThat(dispatcher.throughput(), is(1));
+        assertThat(dispatcher.isThroughputConfigured(), is(false));
     }
 }
\ No newline at end of file
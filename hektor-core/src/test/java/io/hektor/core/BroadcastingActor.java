@@ -0,0 +1,34 @@
+package io.hektor.core;
+
+import java.util.List;
+
+/**
+ * Actor that sends every message it receives, a given number of times, to all of its
+ * targets. The messages are interleaved, i.e., every target gets the first copy before
+ * any target gets the second one.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class BroadcastingActor implements Actor {
+
+    private final List<ActorRef> targets;
+    private final int copies;
+
+    public static Props props(final List<ActorRef> targets, final int copies) {
+        return Props.forActor(BroadcastingActor.class, () -> new BroadcastingActor(targets, copies));
+    }
+
+    public BroadcastingActor(final List<ActorRef> targets, final int copies) {
+        this.targets = targets;
+        this.copies = copies;
+    }
+
+    @Override
+    public void onReceive(final Object msg) {
+        for (int i = 0; i < copies; ++i) {
+            for (final ActorRef target : targets) {
+                target.tell(msg + "-" + i, self());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.hektor.core;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Simple actor that collects every message it receives into a list.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class CollectingActor implements Actor {
+
+    private final List<Object> messages;
+    private final CountDownLatch latch;
+
+    public static Props props(final List<Object> messages, final CountDownLatch latch) {
+        return Props.forActor(CollectingActor.class, () -> new CollectingActor(messages, latch));
+    }
+
+    public CollectingActor(final List<Object> messages, final CountDownLatch latch) {
+        this.messages = messages;
+        this.latch = latch;
+    }
+
+    @Override
+    public void onReceive(final Object msg) {
+        if (msg instanceof Block) {
+            ((Block) msg).block();
+            return;
+        }
+
+        messages.add(msg);
+        latch.countDown();
+    }
+
+    /**
+     * Blocks the actor until the gate is opened, which allows a test to pile up
+     * messages in the mailbox of the actor. The message itself is not collected.
+     */
+    public static class Block {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        private void block() {
+            blocked.countDown();
+            try {
+                gate.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Wait until the actor is blocked.
+         */
+        public void awaitBlocked() throws InterruptedException {
+            blocked.await();
+        }
+
+        public void open() {
+            gate.countDown();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.hektor.core;
+
+import io.hektor.config.HektorConfiguration;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for selecting which dispatcher an actor should run on when
+ * more than one dispatcher has been configured.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class DispatcherSelectionTest extends HektorTestBase {
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_multiple_dispatchers_config.yaml";
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        defaultHektor.terminate().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The one and only worker of the default dispatcher is blocked but an actor running
+     * on another dispatcher must still be able to process its messages.
+     */
+    @Test(timeout = 5000)
+    public void testActorOnOtherDispatcherIsIsolated() throws Exception {
+        final ActorRef blocking = defaultHektor.actorOf("blocking", Props.forActor(BlockingActor.class,
+                () -> new BlockingActor(blocked, release)));
+        blocking.tellAnonymously("block");
+        blocked.await();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Props props = Props.forActor(DummyActor.class)
+                .withCreator(() -> new DummyActor(latch))
+                .withDispatcher("isolated")
+                .build();
+        final ActorRef isolated = defaultHektor.actorOf("isolated", props);
+        isolated.tellAnonymously("hello");
+
+        assertThat(latch.await(2, TimeUnit.SECONDS), is(true));
+    }
+
+    /**
+     * The "isolated" dispatcher is configured to run everything under "signalling"
+     * so those actors must not be affected by the default dispatcher being blocked.
+     */
+    @Test(timeout = 5000)
+    public void testActorBoundByPath() throws Exception {
+        final ActorRef blocking = defaultHektor.actorOf("blocking", Props.forActor(BlockingActor.class,
+                () -> new BlockingActor(blocked, release)));
+        blocking.tellAnonymously("block");
+        blocked.await();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ActorRef signalling = defaultHektor.actorOf("signalling", DummyActor.props(latch));
+        signalling.tellAnonymously("hello");
+
+        assertThat(latch.await(2, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDispatcher() throws Exception {
+        final Props props = Props.forActor(DummyActor.class)
+                .withCreator(DummyActor::new)
+                .withDispatcher("nope")
+                .build();
+        defaultHektor.actorOf("dummy", props);
+    }
+
+    /**
+     * If there are more than one dispatcher, one of them must be the default one.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoDefaultDispatcher() throws Exception {
+        final HektorConfiguration config = loadConfig(configResourceName());
+        final Map<String, io.hektor.config.DispatcherConfiguration> dispatchers = new HashMap<>(config.dispatchers());
+        dispatchers.put("another", dispatchers.remove("default"));
+        config.dispatchers(dispatchers);
+        Hektor.withName("hello").withConfiguration(config).build();
+    }
+
+    private static class BlockingActor implements Actor {
+
+        private final CountDownLatch blocked;
+        private final CountDownLatch release;
+
+        private BlockingActor(final CountDownLatch blocked, final CountDownLatch release) {
+            this.blocked = blocked;
+            this.release = release;
+        }
+
+        @Override
+        public void onReceive(final Object msg) {
+            if ("block".equals(msg)) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
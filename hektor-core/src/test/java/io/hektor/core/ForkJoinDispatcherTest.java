@@ -0,0 +1,16 @@
+package io.hektor.core;
+
+import io.hektor.core.internal.workerexecutor.ForkJoinDispatcher;
+
+/**
+ * Run all the basic {@link HektorTest}s but with the {@link ForkJoinDispatcher}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class ForkJoinDispatcherTest extends HektorTest {
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_fork_join_config.yaml";
+    }
+}
@@ -0,0 +1,155 @@
+package io.hektor.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for passivating idle actors and bringing them back once there is more work for them.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class HektorPassivationTest extends HektorTestBase {
+
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(timeout = 2000)
+    public void testPassivateAndActivate() throws Exception {
+        final ActorRef ref = defaultHektor.actorOf(PassivatingActor.props(events, Duration.ofMillis(50), true), "passivating");
+        ref.tellAnonymously("hello");
+        ref.tellAnonymously("world");
+        assertEvents("start", "count 1", "count 2", "passivate 2");
+
+        // the actor is brought back, with its state intact, by the next message.
+        ref.tellAnonymously("again");
+        assertEvents("activate 2", "count 3", "passivate 3");
+        assertThat(defaultHektor.lookup(ref.path()).isPresent(), is(true));
+    }
+
+    /**
+     * An actor that is busy must not be passivated even though the idle timer was
+     * armed long before it went idle.
+     */
+    @Test(timeout = 2000)
+    public void testNoPassivationWhileBusy() throws Exception {
+        final ActorRef ref = defaultHektor.actorOf(PassivatingActor.props(events, Duration.ofMillis(100), true), "busy");
+        assertEvents("start");
+        for (int i = 1; i <= 5; ++i) {
+            ref.tellAnonymously("msg");
+            assertEvents("count " + i);
+            Thread.sleep(40);
+        }
+        assertThat(events.isEmpty(), is(true));
+        assertEvents("passivate 5");
+    }
+
+    /**
+     * An actor that refuses to be passivated simply keeps on going and is asked again later.
+     */
+    @Test(timeout = 2000)
+    public void testRefusePassivation() throws Exception {
+        final ActorRef ref = defaultHektor.actorOf(PassivatingActor.props(events, Duration.ofMillis(50), false), "refusing");
+        ref.tellAnonymously("hello");
+        assertEvents("start", "count 1", "passivate 1", "passivate 1");
+
+        ref.tellAnonymously("world");
+        assertEvents("count 2");
+    }
+
+    /**
+     * A passivated actor must be brought back before it can be stopped.
+     */
+    @Test(timeout = 2000)
+    public void testStopPassivatedActor() throws Exception {
+        final ActorRef ref = defaultHektor.actorOf(PassivatingActor.props(events, Duration.ofMillis(50), true), "stopping");
+        ref.tellAnonymously("hello");
+        assertEvents("start", "count 1", "passivate 1");
+
+        ref.tellAnonymously(PassivatingActor.STOP);
+        assertEvents("activate 1", "postStop 1");
+        assertThat(defaultHektor.lookup(ref.path()).isPresent(), is(false));
+    }
+
+    /**
+     * The snapshot of a passivated actor is kept in the store, where it is picked up again
+     * by the same actor, or by an actor created under the same path after a restart.
+     */
+    @Test(timeout = 5000)
+    public void testPassivationStore() throws Exception {
+        try (PassivationStore store = PassivationStore.mapped(folder.getRoot().toPath()).build()) {
+            final ActorRef ref = defaultHektor.actorOf(PassivatingActor.props(events, Duration.ofMillis(50), store), "stored");
+            ref.tellAnonymously("hello");
+            assertEvents("start", "count 1", "passivate 1");
+            waitFor(() -> store.contains(ref.path()));
+
+            ref.tellAnonymously("world");
+            assertEvents("activate 1", "count 2");
+            assertThat(store.contains(ref.path()), is(false));
+            assertEvents("passivate 2");
+            waitFor(() -> store.contains(ref.path()));
+        }
+
+        // a new system, as after a restart, picks up where the old one left off.
+        final Hektor restarted = initHektor(configResourceName());
+        try (PassivationStore store = PassivationStore.mapped(folder.getRoot().toPath()).build()) {
+            assertThat(store.size(), is(1));
+            final ActorRef ref = restarted.actorOf(PassivatingActor.props(events, Duration.ofSeconds(10), store), "stored");
+            ref.tellAnonymously("again");
+            assertEvents("activate 2", "count 3");
+            assertThat(store.size(), is(0));
+        }
+    }
+
+    /**
+     * An actor that can't be brought back is stopped but its snapshot must not be lost, the
+     * next actor created under the same path must still be able to pick it up.
+     */
+    @Test(timeout = 5000)
+    public void testFailedActivation() throws Exception {
+        final AtomicBoolean fail = new AtomicBoolean();
+        try (PassivationStore store = PassivationStore.mapped(folder.getRoot().toPath()).build()) {
+            final ActorRef ref = defaultHektor.actorOf(PassivatingActor.props(events, Duration.ofMillis(50), store, fail::get), "failing");
+            ref.tellAnonymously("hello");
+            assertEvents("start", "count 1", "passivate 1");
+            waitFor(() -> store.contains(ref.path()));
+
+            fail.set(true);
+            ref.tellAnonymously("world");
+            assertEvents("activate failed");
+            waitFor(() -> !defaultHektor.lookup(ref.path()).isPresent());
+            assertThat(store.contains(ref.path()), is(true));
+            assertThat(events.isEmpty(), is(true));
+
+            fail.set(false);
+            final ActorRef again = defaultHektor.actorOf(PassivatingActor.props(events, Duration.ofSeconds(10), store, fail::get), "failing");
+            again.tellAnonymously("again");
+            assertEvents("activate 1", "count 2");
+            assertThat(store.contains(ref.path()), is(false));
+        }
+    }
+
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void assertEvents(final String... expected) throws InterruptedException {
+        for (final String event : expected) {
+            assertThat(events.poll(1, TimeUnit.SECONDS), is(event));
+        }
+    }
+}
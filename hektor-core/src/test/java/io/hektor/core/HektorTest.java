@@ -4,9 +4,12 @@ import io.hektor.core.ParentActor.CancelScheduledTask;
 import io.hektor.core.ParentActor.CreateChildMessage;
 import io.hektor.core.ParentActor.DummyMessage;
 import io.hektor.core.ParentActor.TimedMessage;
+import io.hektor.core.internal.Priority;
 import org.junit.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
@@ -37,6 +40,83 @@ public class HektorTest extends HektorTestBase {
         defaultLatch1.await();
     }
 
+    /**
+     * All messages sent through tellAll must be delivered and in the order they were given.
+     */
+    @Test(timeout = 2000)
+    public void testTellAll() throws Exception {
+        final int count = 100;
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(count);
+        final ActorRef ref = defaultHektor.actorOf(CollectingActor.props(received, latch), "collector");
+
+        final List<Integer> messages = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            messages.add(i);
+        }
+        ref.tellAll(messages);
+
+        latch.await();
+        assertThat(received, is(messages));
+    }
+
+    /**
+     * An actor sending many messages, to many actors, will have them dispatched
+     * in batches but every actor must still see them in the order they were sent.
+     */
+    @Test(timeout = 2000)
+    public void testBroadcastKeepsOrder() throws Exception {
+        final int targets = 5;
+        final int copies = 10;
+        final CountDownLatch latch = new CountDownLatch(targets * copies);
+        final List<List<Object>> received = new ArrayList<>();
+        final List<ActorRef> refs = new ArrayList<>();
+        for (int i = 0; i < targets; ++i) {
+            final List<Object> messages = Collections.synchronizedList(new ArrayList<>());
+            received.add(messages);
+            refs.add(defaultHektor.actorOf(CollectingActor.props(messages, latch), "target-" + i));
+        }
+
+        final ActorRef broadcaster = defaultHektor.actorOf(BroadcastingActor.props(refs, copies), "broadcaster");
+        broadcaster.tellAnonymously("hello");
+        latch.await();
+
+        final List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < copies; ++i) {
+            expected.add("hello-" + i);
+        }
+        for (final List<Object> messages : received) {
+            assertThat(messages, is(expected));
+        }
+    }
+
+    /**
+     * A high priority message must overtake the normal traffic already waiting for the actor.
+     */
+    @Test(timeout = 2000)
+    public void testHighPriorityOvertakes() throws Exception {
+        final int count = 10;
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(count + 1);
+        final ActorRef ref = defaultHektor.actorOf(CollectingActor.props(received, latch), "prioritized");
+
+        final CollectingActor.Block block = new CollectingActor.Block();
+        ref.tellAnonymously(block);
+        block.awaitBlocked();
+
+        final List<Object> expected = new ArrayList<>();
+        expected.add("urgent");
+        for (int i = 0; i < count; ++i) {
+            ref.tell(i, ActorRef.None());
+            expected.add(i);
+        }
+        ref.tell(Priority.HIGH, "urgent", ActorRef.None());
+
+        block.open();
+        latch.await();
+        assertThat(received, is(expected));
+    }
+
     @Test(timeout = 500)
     public void testSimpleReplyToMessage() throws Exception {
         final ActorRef ref1 = defaultHektor.actorOf(DummyActor.props(defaultLatch1, false), "first");
@@ -53,7 +53,7 @@ public class HektorTestBase {
 
     @Before
     public void setUp() throws Exception {
-        defaultHektor = initHektor("hektor_config.yaml");
+        defaultHektor = initHektor(configResourceName());
         defaultLatch1 = new CountDownLatch(1);
         defaultStopLatch1 = new CountDownLatch(1);
         defaultPostStopLatch1 = new CountDownLatch(1);
@@ -63,6 +63,15 @@ public class HektorTestBase {
         defaultLatch3 = new CountDownLatch(1);
     }
 
+    /**
+     * The name of the configuration resource used to create the default {@link Hektor} instance.
+     * Sub-classes can override this to run the same set of tests against a different configuration,
+     * such as a different dispatcher.
+     */
+    protected String configResourceName() {
+        return "hektor_config.yaml";
+    }
+
     protected Hektor initHektor(final String configResourceName) throws IOException {
         final HektorConfiguration config = loadConfig(configResourceName);
         final Hektor hektor = Hektor.withName("hello").withConfiguration(config).build();
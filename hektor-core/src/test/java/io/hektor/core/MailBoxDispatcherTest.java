@@ -0,0 +1,16 @@
+package io.hektor.core;
+
+import io.hektor.core.internal.workerexecutor.MailBoxDispatcher;
+
+/**
+ * Run all the basic {@link HektorTest}s but with the {@link MailBoxDispatcher}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class MailBoxDispatcherTest extends HektorTest {
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_mailbox_config.yaml";
+    }
+}
@@ -0,0 +1,18 @@
+package io.hektor.core;
+
+import io.hektor.core.internal.MpscMailBox;
+import io.hektor.core.internal.workerexecutor.MailBoxDispatcher;
+
+/**
+ * Run all the basic {@link HektorTest}s with the {@link MailBoxDispatcher}
+ * configured to use the {@link MpscMailBox}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class MpscMailBoxDispatcherTest extends HektorTest {
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_mpsc_mailbox_config.yaml";
+    }
+}
@@ -0,0 +1,128 @@
+package io.hektor.core;
+
+import io.hektor.config.OverflowPolicy;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for what happens when the worker queues are full and the dispatcher is
+ * configured with the {@link OverflowPolicy#SIGNAL} or {@link OverflowPolicy#BLOCK} policy.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class OverflowPolicyTest extends HektorTestBase {
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_overflow_config.yaml";
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+    }
+
+    @Test(timeout = 5000)
+    public void testSignalMailBoxFull() throws Exception {
+        final ActorRef ref = defaultHektor.actorOf(Props.forActor(BlockingActor.class,
+                () -> new BlockingActor(blocked, release)), "blocking");
+
+        // the one and only worker is now stuck in the actor...
+        ref.tellAnonymously("block");
+        blocked.await();
+
+        // ... so these two will fill up the queue (capacity is 2)...
+        ref.tellAnonymously("one");
+        ref.tellAnonymously("two");
+
+        // ... and this one has nowhere to go.
+        final CompletableFuture<Object> future = ref.ask("three", ActorRef.None()).toCompletableFuture();
+        final Object reply = future.get(1, TimeUnit.SECONDS);
+        assertThat(reply, instanceOf(MailBoxFull.class));
+
+        final MailBoxFull full = (MailBoxFull) reply;
+        assertThat(full.receiver(), is(ref));
+        assertThat(full.message(), is("three"));
+    }
+
+    /**
+     * A timer to an actor whose worker queue is full must not hold up the timers of
+     * other actors, even though the dispatcher is configured to block.
+     */
+    @Test(timeout = 5000)
+    public void testBlockDoesNotStallTimers() throws Exception {
+        final Hektor hektor = initHektor("hektor_overflow_block_config.yaml");
+        try {
+            final ActorRef ref = hektor.actorOf(Props.forActor(BlockingActor.class,
+                    () -> new BlockingActor(blocked, release)), "blocking");
+
+            // an actor that runs on the other worker, whose queue is empty.
+            final CountDownLatch fired = new CountDownLatch(1);
+            ActorRef other;
+            int i = 0;
+            do {
+                other = hektor.actorOf(Props.forActor(BlockingActor.class,
+                        () -> new BlockingActor(fired, release)), "other-" + i++);
+            } while (Math.floorMod(other.path().hashCode(), 2) == Math.floorMod(ref.path().hashCode(), 2));
+
+            ref.tellAnonymously("block");
+            blocked.await();
+            ref.tellAnonymously("one"); // the queue is now full
+
+            hektor.scheduler().schedule("timer", ref, ActorRef.None(), Duration.ofMillis(10));
+            hektor.scheduler().schedule("block", other, ActorRef.None(), Duration.ofMillis(50));
+            assertThat(fired.await(1, TimeUnit.SECONDS), is(true));
+        } finally {
+            release.countDown();
+            hektor.terminate();
+        }
+    }
+
+    @Test
+    public void testOverflowPolicyValues() {
+        assertThat(OverflowPolicy.of("drop"), is(OverflowPolicy.DROP));
+        assertThat(OverflowPolicy.of("Unbounded"), is(OverflowPolicy.UNBOUNDED));
+        assertThat(OverflowPolicy.of("BLOCK"), is(OverflowPolicy.BLOCK));
+        assertThat(OverflowPolicy.of("signal"), is(OverflowPolicy.SIGNAL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOverflowPolicy() {
+        OverflowPolicy.of("whatever");
+    }
+
+    private static class BlockingActor implements Actor {
+
+        private final CountDownLatch blocked;
+        private final CountDownLatch release;
+
+        private BlockingActor(final CountDownLatch blocked, final CountDownLatch release) {
+            this.blocked = blocked;
+            this.release = release;
+        }
+
+        @Override
+        public void onReceive(final Object msg) {
+            if ("block".equals(msg)) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.hektor.core;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Simple counting actor that will report everything that happens to it to the given queue
+ * and that only agrees to be passivated if asked to.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class PassivatingActor implements Actor {
+
+    public static Props props(final BlockingQueue<String> events, final Duration idle, final boolean agree) {
+        return Props.forActor(PassivatingActor.class)
+                .withCreator(() -> new PassivatingActor(events, agree))
+                .withPassivation(idle)
+                .build();
+    }
+
+    /**
+     * Same as {@link #props(BlockingQueue, Duration, boolean)} but the actor always agrees to be
+     * passivated and its snapshot is a byte array, which is kept in the given store.
+     */
+    public static Props props(final BlockingQueue<String> events, final Duration idle, final PassivationStore store) {
+        return props(events, idle, store, () -> false);
+    }
+
+    /**
+     * Same as {@link #props(BlockingQueue, Duration, PassivationStore)} but the actor blows up
+     * when being activated for as long as the given supplier says so.
+     */
+    public static Props props(final BlockingQueue<String> events, final Duration idle, final PassivationStore store,
+                              final BooleanSupplier failActivation) {
+        return Props.forActor(PassivatingActor.class)
+                .withCreator(() -> new PassivatingActor(events, true, failActivation))
+                .withPassivation(idle, store)
+                .build();
+    }
+
+    public static final String STOP = "stop";
+
+    private final BlockingQueue<String> events;
+    private final boolean agree;
+    private final BooleanSupplier failActivation;
+    private int count;
+
+    private PassivatingActor(final BlockingQueue<String> events, final boolean agree) {
+        this(events, agree, () -> false);
+    }
+
+    private PassivatingActor(final BlockingQueue<String> events, final boolean agree, final BooleanSupplier failActivation) {
+        this.events = events;
+        this.agree = agree;
+        this.failActivation = failActivation;
+    }
+
+    @Override
+    public void start() {
+        events.add("start");
+    }
+
+    @Override
+    public void onReceive(final Object msg) {
+        if (STOP.equals(msg)) {
+            ctx().stop();
+            return;
+        }
+
+        ++count;
+        events.add("count " + count);
+    }
+
+    @Override
+    public Object passivate() {
+        events.add("passivate " + count);
+        return agree ? ByteBuffer.allocate(Integer.BYTES).putInt(count).array() : null;
+    }
+
+    @Override
+    public void activate(final Object snapshot) {
+        if (failActivation.getAsBoolean()) {
+            events.add("activate failed");
+            throw new IllegalStateException("Unable to activate the actor");
+        }
+        count = ByteBuffer.wrap((byte[]) snapshot).getInt();
+        events.add("activate " + count);
+    }
+
+    @Override
+    public void postStop() {
+        events.add("postStop " + count);
+    }
+}
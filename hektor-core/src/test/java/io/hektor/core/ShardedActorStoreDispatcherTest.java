@@ -0,0 +1,16 @@
+package io.hektor.core;
+
+import io.hektor.core.internal.ShardedActorStore;
+
+/**
+ * Run all the basic {@link HektorTest}s with the {@link ShardedActorStore}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class ShardedActorStoreDispatcherTest extends HektorTest {
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_sharded_store_config.yaml";
+    }
+}
@@ -0,0 +1,172 @@
+package io.hektor.core;
+
+import io.hektor.config.HektorConfiguration;
+import io.hektor.config.SchedulerConfiguration;
+import io.hektor.core.internal.DefaultActorPath;
+import io.hektor.core.internal.DefaultActorRef;
+import io.hektor.core.internal.HashWheelScheduler;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Run all the basic {@link HektorTest}s with a {@link HashWheelScheduler} that has
+ * a high resolution and is spread across several wheels.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class ShardedSchedulerTest extends HektorTest {
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_sharded_scheduler_config.yaml";
+    }
+
+    @Test
+    public void testLoadConfiguration() throws Exception {
+        final HektorConfiguration config = loadConfig(configResourceName());
+        final SchedulerConfiguration scheduler = config.scheduler().get();
+        assertThat(scheduler.tickDuration(), is(1L));
+        assertThat(scheduler.ticksPerWheel(), is(1024));
+        assertThat(scheduler.shards(), is(4));
+    }
+
+    /**
+     * Timers for many different actors, which therefore end up on different wheels,
+     * must all fire and the timers of any given actor must fire in order.
+     */
+    @Test(timeout = 2000)
+    public void testTimersAcrossShards() throws Exception {
+        final int actors = 8;
+        final int timers = 5;
+        final CountDownLatch latch = new CountDownLatch(actors * timers);
+        final List<List<Object>> received = new ArrayList<>();
+        final Scheduler scheduler = defaultHektor.scheduler();
+        for (int i = 0; i < actors; ++i) {
+            final List<Object> messages = Collections.synchronizedList(new ArrayList<>());
+            received.add(messages);
+            final ActorRef ref = defaultHektor.actorOf(CollectingActor.props(messages, latch), "timed-" + i);
+            for (int j = 0; j < timers; ++j) {
+                scheduler.schedule(j, ref, ActorRef.None(), Duration.ofMillis(10 + j * 10));
+            }
+        }
+
+        latch.await();
+        final List<Object> expected = List.of(0, 1, 2, 3, 4);
+        for (final List<Object> messages : received) {
+            assertThat(messages, is(expected));
+        }
+    }
+
+    /**
+     * A path whose hash code is {@link Integer#MIN_VALUE}, for which {@link Math#abs(int)}
+     * is still negative, must still end up on one of the wheels. Only ever an issue when the
+     * number of wheels isn't a power of two.
+     */
+    @Test
+    public void testMinValueHashCode() {
+        final ActorPath path = new DefaultActorPath(null, "skiqyzb");
+        assertThat(path.hashCode(), is(Integer.MIN_VALUE));
+
+        final ActorRef ref = new DefaultActorRef(path, null);
+        final HashWheelScheduler scheduler = new HashWheelScheduler("unit-test", new SchedulerConfiguration.Builder().withShards(3).build());
+        try {
+            final Cancellable timer = scheduler.schedule("hello", ref, ActorRef.None(), Duration.ofSeconds(10));
+            assertThat(timer.cancel(), is(true));
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    /**
+     * Re-arming a timer replaces whatever was scheduled before.
+     */
+    @Test(timeout = 2000)
+    public void testTimerReArm() throws Exception {
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ActorRef ref = defaultHektor.actorOf(CollectingActor.props(received, latch), "rearmed");
+
+        final Timer timer = defaultHektor.scheduler().timer(ref, ActorRef.None());
+        assertThat(timer.isPending(), is(false));
+        timer.schedule("one", Duration.ofMillis(50));
+        timer.schedule("two", Duration.ofMillis(10));
+        assertThat(timer.isPending(), is(true));
+
+        latch.await();
+        Thread.sleep(100);
+        assertThat(received, is(List.of("two")));
+        assertThat(timer.isPending(), is(false));
+
+        // and it can be armed again once it has fired
+        timer.schedule("three", Duration.ofMillis(10));
+        assertThat(timer.cancel(), is(true));
+        assertThat(timer.cancel(), is(false));
+        Thread.sleep(50);
+        assertThat(received, is(List.of("two")));
+    }
+
+    /**
+     * A cancelled timer is never delivered, even though it is cancelled lazily.
+     */
+    @Test(timeout = 2000)
+    public void testCancel() throws Exception {
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final ActorRef ref = defaultHektor.actorOf(CollectingActor.props(received, new CountDownLatch(1)), "cancelled");
+
+        final Cancellable timer = defaultHektor.scheduler().schedule("hello", ref, ActorRef.None(), Duration.ofMillis(10));
+        assertThat(timer.isPending(), is(true));
+        assertThat(timer.cancel(), is(true));
+        assertThat(timer.isPending(), is(false));
+        assertThat(timer.cancel(), is(false));
+
+        Thread.sleep(100);
+        assertThat(received.isEmpty(), is(true));
+    }
+
+    /**
+     * Every timer an actor scheduled to itself is cancelled once that actor stops, or it would
+     * be delivered to the new actor created under the same path.
+     */
+    @Test(timeout = 2000)
+    public void testTimersCancelledWhenActorStops() throws Exception {
+        final ActorRef parent = createParentActor();
+
+        // note that the parent schedules the timer with the receiver and sender swapped
+        parent.tellAnonymously(new ParentActor.TimedMessage("too late", ActorRef.None(), parent, Duration.ofMillis(100)));
+        parent.tellAnonymously(new ParentActor.StopYourselfMessage());
+        defaultPostStopLatch1.await();
+
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        defaultHektor.actorOf(CollectingActor.props(received, new CountDownLatch(1)), "parent");
+
+        Thread.sleep(200);
+        assertThat(received.isEmpty(), is(true));
+    }
+
+    /**
+     * A timer an actor scheduled for another actor, such as a timeout on behalf of a peer,
+     * still fires after the actor that scheduled it has stopped.
+     */
+    @Test(timeout = 2000)
+    public void testTimerToOtherActorFiresWhenActorStops() throws Exception {
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(1);
+        final ActorRef collector = defaultHektor.actorOf(CollectingActor.props(received, latch), "collector");
+
+        final ActorRef parent = createParentActor();
+        parent.tellAnonymously(new ParentActor.TimedMessage("timeout", parent, collector, Duration.ofMillis(100)));
+        parent.tellAnonymously(new ParentActor.StopYourselfMessage());
+        defaultPostStopLatch1.await();
+
+        latch.await();
+        assertThat(received, is(List.of("timeout")));
+    }
+}
@@ -0,0 +1,27 @@
+package io.hektor.core;
+
+import io.hektor.core.internal.workerexecutor.VirtualThreadDispatcher;
+import org.junit.Before;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Run all the basic {@link HektorTest}s but with the {@link VirtualThreadDispatcher}, which
+ * is only possible on JDK 21+ so on older JDKs all tests are skipped.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class VirtualThreadDispatcherTest extends HektorTest {
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        assumeTrue("Virtual threads require JDK 21+", VirtualThreadDispatcher.isSupported());
+        super.setUp();
+    }
+
+    @Override
+    protected String configResourceName() {
+        return "hektor_virtual_thread_config.yaml";
+    }
+}
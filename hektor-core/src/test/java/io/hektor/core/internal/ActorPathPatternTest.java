@@ -0,0 +1,63 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.ActorPath;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class ActorPathPatternTest {
+
+    private final ActorPath root = new DefaultActorPath(null, "hektor");
+
+    @Test
+    public void testExactMatch() {
+        assertMatch("signalling", "signalling", true);
+        assertMatch("/signalling", "signalling", true);
+        assertMatch("./signalling", "signalling", true);
+        assertMatch("signalling", "signalling/sip", false);
+        assertMatch("signalling/sip", "signalling", false);
+        assertMatch("signalling", "reporting", false);
+    }
+
+    @Test
+    public void testWildcardSegment() {
+        assertMatch("signalling/*", "signalling/sip", true);
+        assertMatch("signalling/*", "signalling", false);
+        assertMatch("signalling/*", "signalling/sip/transaction", false);
+        assertMatch("signalling/sip-*", "signalling/sip-1", true);
+        assertMatch("signalling/sip-*", "signalling/diameter-1", false);
+        assertMatch("*/sip", "signalling/sip", true);
+    }
+
+    @Test
+    public void testAnySegments() {
+        assertMatch("signalling/**", "signalling", true);
+        assertMatch("signalling/**", "signalling/sip", true);
+        assertMatch("signalling/**", "signalling/sip/transaction", true);
+        assertMatch("signalling/**", "reporting/sip", false);
+        assertMatch("**/reporter-*", "reporter-1", true);
+        assertMatch("**/reporter-*", "a/b/c/reporter-1", true);
+        assertMatch("**/reporter-*", "a/b/c/reporter", false);
+        assertMatch("**", "a/b/c", true);
+    }
+
+    @Test
+    public void testSpecificity() {
+        assertThat(ActorPathPattern.compile("signalling/**").specificity(), is(2));
+        assertThat(ActorPathPattern.compile("signalling/sip/*").specificity(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptySegment() {
+        ActorPathPattern.compile("signalling//sip");
+    }
+
+    private void assertMatch(final String pattern, final String path, final boolean expected) {
+        final ActorPath actorPath = DefaultActorPath.create(root, path);
+        assertThat(pattern + " vs " + path, ActorPathPattern.compile(pattern).matches(actorPath), is(expected));
+    }
+}
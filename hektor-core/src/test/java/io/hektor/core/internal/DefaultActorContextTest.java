@@ -0,0 +1,67 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.Actor;
+import io.hektor.core.ActorRef;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class DefaultActorContextTest {
+
+    @Mock
+    private InternalHektor hektor;
+
+    @Mock
+    private Actor defaultActor;
+
+    @Mock
+    private ActorRef defaultActorRef;
+
+    private ActorBox defaultActorBox;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        defaultActorBox = ActorBox.create(new DefaultMailBox(), defaultActor, defaultActorRef);
+    }
+
+    @Test
+    public void testBuffer() throws Exception {
+        final DefaultActorContext ctx = new DefaultActorContext(hektor, defaultActorBox, ActorRef.None());
+        ctx.buffer("hello", defaultActorRef, ActorRef.None());
+        assertThat(ctx.bufferedMessages().size(), is(1));
+        assertThat(ctx.self(), is(defaultActorRef));
+    }
+
+    /**
+     * A context that an actor held on to after the invocation was over must not be usable.
+     */
+    @Test
+    public void testInvalidated() throws Exception {
+        final DefaultActorContext ctx = new DefaultActorContext(hektor, defaultActorBox, ActorRef.None());
+        ctx.invalidate();
+
+        assertInvalid(() -> ctx.buffer("hello", defaultActorRef, ActorRef.None()));
+        assertInvalid(ctx::self);
+        assertInvalid(ctx::sender);
+        assertInvalid(ctx::stop);
+        assertInvalid(() -> ctx.child("child"));
+    }
+
+    private static void assertInvalid(final Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (final IllegalStateException e) {
+            return;
+        }
+        throw new AssertionError("Expected the context to be invalid");
+    }
+
+}
@@ -47,6 +47,39 @@ public class DefaultActorPathTest {
         assertPath(child1, grandChild1, false);
     }
 
+    /**
+     * Paths within the same tree are interned so asking for the same child,
+     * either directly or by parsing a string, must give back the same instance.
+     */
+    @Test
+    public void testInterned() {
+        final ActorPath root = new DefaultActorPath(null, "root");
+        final ActorPath child = root.createChild("child");
+        final ActorPath grandChild = child.createChild("grand-child");
+
+        assertThat(root.createChild("child") == child, is(true));
+        assertThat(DefaultActorPath.create(root, "child/grand-child") == grandChild, is(true));
+        assertThat(DefaultActorPath.create(root, "./child/grand-child/../grand-child") == grandChild, is(true));
+        assertThat(((DefaultActorPath) DefaultActorPath.create(root, "child")).id(), is(((DefaultActorPath) child).id()));
+
+        assertPath(grandChild, child.createChild("another"), false);
+
+        // same path but from another tree must still be equal
+        final ActorPath other = DefaultActorPath.create(null, "/root/child/grand-child");
+        assertThat(other == grandChild, is(false));
+        assertPath(other, grandChild, true);
+        assertPath(new DefaultActorPath(child, "grand-child"), grandChild, true);
+    }
+
+    @Test
+    public void testDepth() {
+        final ActorPath root = new DefaultActorPath(null, "root");
+        assertThat(root.depth(), is(0));
+        assertThat(root.createChild("child").depth(), is(1));
+        assertThat(DefaultActorPath.create(root, "a/b/c").depth(), is(3));
+        assertThat(DefaultActorPath.create(null, "/a/b/c").depth(), is(2));
+    }
+
     @Test
     public void testGetRoot() throws Exception {
         final ActorPath path = DefaultActorPath.create(null, "/one/two/three");
@@ -0,0 +1,237 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.ActorPath;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class MappedPassivationStoreTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private ActorPath root;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+        root = new DefaultActorPath(null, "hektor");
+    }
+
+    private MappedPassivationStore open() throws IOException {
+        return MappedPassivationStore.of(directory).withSegmentSize(1024).build();
+    }
+
+    private ActorPath path(final String name) {
+        return root.createChild(name);
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        try (MappedPassivationStore store = open()) {
+            assertThat(store.get(path("a")), nullValue());
+            assertThat(store.remove(path("a")), is(false));
+
+            store.put(path("a"), bytes("one"));
+            store.put(path("b"), bytes("two"));
+            store.put(path("a"), bytes("three"));
+            assertThat(string(store.get(path("a"))), is("three"));
+            assertThat(string(store.get(path("b"))), is("two"));
+            assertThat(store.size(), is(2));
+
+            assertThat(store.remove(path("a")), is(true));
+            assertThat(store.contains(path("a")), is(false));
+            assertThat(store.size(), is(1));
+        }
+    }
+
+    /**
+     * The whole point of the store is that it survives a restart.
+     */
+    @Test
+    public void testReload() throws Exception {
+        try (MappedPassivationStore store = open()) {
+            store.put(path("a"), bytes("one"));
+            store.put(path("b"), bytes("two"));
+            store.put(path("c"), bytes("three"));
+            store.put(path("b"), bytes("four"));
+            store.remove(path("c"));
+        }
+
+        try (MappedPassivationStore store = open()) {
+            assertThat(contents(store), is(Map.of("/hektor/a", "one", "/hektor/b", "four")));
+
+            // and we must be able to keep going where we left off
+            store.put(path("c"), bytes("five"));
+        }
+
+        try (MappedPassivationStore store = open()) {
+            assertThat(contents(store), is(Map.of("/hektor/a", "one", "/hektor/b", "four", "/hektor/c", "five")));
+        }
+    }
+
+    /**
+     * Overwriting the same snapshots over and over again must not keep growing the store.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        try (MappedPassivationStore store = open()) {
+            for (int i = 0; i < 1000; ++i) {
+                store.put(path("actor-" + (i % 5)), bytes("snapshot " + i));
+            }
+            assertThat(store.segments() <= 3, is(true));
+            assertThat(segmentFiles().size(), is(store.segments()));
+        }
+
+        try (MappedPassivationStore store = open()) {
+            assertThat(store.size(), is(5));
+            for (int i = 0; i < 5; ++i) {
+                assertThat(string(store.get(path("actor-" + i))), is("snapshot " + (995 + i)));
+            }
+        }
+    }
+
+    /**
+     * A removal must not be lost when its segment is compacted as long as the removed
+     * snapshot is still in an older segment, or it would come back to life after a restart.
+     */
+    @Test
+    public void testRemovalSurvivesCompaction() throws Exception {
+        try (MappedPassivationStore store = open()) {
+            store.put(path("removed"), bytes("gone"));
+
+            // keep the oldest segment from being compacted...
+            for (int i = 0; store.segments() == 1; ++i) {
+                store.put(path("live-" + i), bytes("live"));
+            }
+
+            // ... while the segment with the removal is compacted
+            store.remove(path("removed"));
+            for (int i = 0; i < 200; ++i) {
+                store.put(path("churn"), bytes("churn " + i));
+            }
+            assertThat(store.contains(path("removed")), is(false));
+
+            final List<String> names = segmentFiles().stream()
+                    .map(file -> file.getFileName().toString()).collect(Collectors.toList());
+            assertThat(names.get(0), is("segment-0000000000000000.seg"));
+            assertThat(names.contains("segment-0000000000000001.seg"), is(false));
+        }
+
+        try (MappedPassivationStore store = open()) {
+            assertThat(store.contains(path("removed")), is(false));
+            assertThat(store.contains(path("live-0")), is(true));
+        }
+    }
+
+    /**
+     * A record that never was fully written, e.g. because the process was killed or the
+     * machine lost power, is ignored when the store is loaded again.
+     */
+    @Test
+    public void testTornRecord() throws Exception {
+        try (MappedPassivationStore store = open()) {
+            store.put(path("a"), bytes("one"));
+            store.put(path("b"), bytes("two"));
+        }
+
+        // flip the last byte of the last record
+        final Path segment = segmentFiles().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            final long last = indexOf(Files.readAllBytes(segment), bytes("two"));
+            file.seek(last + 2);
+            file.write('X');
+        }
+
+        try (MappedPassivationStore store = open()) {
+            assertThat(contents(store), is(Map.of("/hektor/a", "one")));
+            store.put(path("c"), bytes("three"));
+        }
+
+        try (MappedPassivationStore store = open()) {
+            assertThat(contents(store), is(Map.of("/hektor/a", "one", "/hektor/c", "three")));
+        }
+    }
+
+    /**
+     * Closing the store must release the mappings straight away rather than whenever the
+     * buffers happen to be garbage collected.
+     */
+    @Test
+    public void testUnmappedOnClose() throws Exception {
+        final Path maps = Paths.get("/proc/self/maps");
+        assumeTrue(Files.isReadable(maps));
+
+        try (MappedPassivationStore store = open()) {
+            store.put(path("a"), bytes("one"));
+            assertThat(Files.readString(maps).contains(directory.toString()), is(true));
+        }
+
+        assertThat(Files.readString(maps).contains(directory.toString()), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSnapshotTooLarge() throws Exception {
+        try (MappedPassivationStore store = open()) {
+            store.put(path("a"), new byte[1024]);
+        }
+    }
+
+    private static long indexOf(final byte[] haystack, final byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; ++i) {
+            for (int j = 0; j < needle.length; ++j) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static Map<String, String> contents(final MappedPassivationStore store) {
+        final Map<String, String> contents = new HashMap<>();
+        store.forEach((path, snapshot) -> contents.put(path.toString(), string(snapshot)));
+        return contents;
+    }
+}
@@ -0,0 +1,112 @@
+package io.hektor.core.internal;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class MpscMailBoxTest {
+
+    @Test
+    public void testOfferPoll() {
+        final MailBox mailBox = new MpscMailBox();
+        assertThat(mailBox.isEmpty(), is(true));
+        assertThat(mailBox.poll(), nullValue());
+
+        mailBox.offer(envelope("one"));
+        mailBox.offer(envelope("two"));
+        assertThat(mailBox.isEmpty(), is(false));
+
+        assertThat(mailBox.poll().message(), is("one"));
+        assertThat(mailBox.isEmpty(), is(false));
+        assertThat(mailBox.poll().message(), is("two"));
+        assertThat(mailBox.isEmpty(), is(true));
+        assertThat(mailBox.poll(), nullValue());
+
+        mailBox.offer(envelope("three"));
+        assertThat(mailBox.poll().message(), is("three"));
+        assertThat(mailBox.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testOfferAll() {
+        final MailBox mailBox = new MpscMailBox();
+        mailBox.offer(envelope("zero"));
+
+        final List<Envelope> batch = Arrays.asList(envelope("skip"), envelope("one"), envelope("two"), envelope("three"));
+        mailBox.offerAll(batch, 1, 4);
+        mailBox.offer(envelope("four"));
+
+        assertThat(mailBox.poll().message(), is("zero"));
+        assertThat(mailBox.poll().message(), is("one"));
+        assertThat(mailBox.poll().message(), is("two"));
+        assertThat(mailBox.poll().message(), is("three"));
+        assertThat(mailBox.poll().message(), is("four"));
+        assertThat(mailBox.isEmpty(), is(true));
+        assertThat(mailBox.poll(), nullValue());
+    }
+
+    /**
+     * Many producers hammering the same mailbox while a single consumer
+     * drains it. Every message must be received exactly once and the
+     * messages from a given producer must be received in the order they were sent.
+     */
+    @Test(timeout = 10000)
+    public void testMultipleProducers() throws Exception {
+        final int producers = 4;
+        final int count = 100000;
+        final MailBox mailBox = new MpscMailBox();
+        final ExecutorService executor = Executors.newFixedThreadPool(producers);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            for (int i = 0; i < producers; ++i) {
+                final int producer = i;
+                executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < count; ++j) {
+                        mailBox.offer(envelope(new int[]{producer, j}));
+                    }
+                    return null;
+                });
+            }
+
+            start.countDown();
+
+            final int[] expected = new int[producers];
+            int received = 0;
+            while (received < producers * count) {
+                final Envelope envelope = mailBox.poll();
+                if (envelope == null) {
+                    continue;
+                }
+
+                final int[] msg = (int[]) envelope.message();
+                assertThat(msg[1], is(expected[msg[0]]));
+                ++expected[msg[0]];
+                ++received;
+            }
+
+            assertThat(mailBox.isEmpty(), is(true));
+            assertThat(mailBox.poll(), nullValue());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Envelope envelope(final Object msg) {
+        return new Envelope(null, null, msg);
+    }
+}
@@ -0,0 +1,113 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.internal.messages.Stop;
+import io.hektor.core.internal.messages.Watch;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class PriorityMailBoxTest {
+
+    @Test
+    public void testHighFirst() {
+        final MailBox mailBox = new PriorityMailBox(MpscMailBox::new, 10);
+        assertThat(mailBox.isEmpty(), is(true));
+
+        mailBox.offer(envelope(Priority.LOW, "low"));
+        mailBox.offer(envelope(Priority.NORMAL, "one"));
+        mailBox.offer(envelope(Priority.NORMAL, "two"));
+        mailBox.offer(envelope(Priority.HIGH, "high"));
+        assertThat(mailBox.isEmpty(), is(false));
+
+        assertThat(mailBox.poll().message(), is("high"));
+        assertThat(mailBox.poll().message(), is("one"));
+        assertThat(mailBox.poll().message(), is("two"));
+        assertThat(mailBox.poll().message(), is("low"));
+        assertThat(mailBox.isEmpty(), is(true));
+        assertThat(mailBox.poll(), nullValue());
+    }
+
+    /**
+     * The watch message always goes in the high priority lane, no matter
+     * what the sender asked for.
+     */
+    @Test
+    public void testSystemMessagesAreHigh() {
+        final MailBox mailBox = new PriorityMailBox(DefaultMailBox::new, 10);
+        mailBox.offer(envelope(Priority.NORMAL, "hello"));
+        mailBox.offer(envelope(Priority.LOW, Watch.MSG));
+
+        assertThat(mailBox.poll().message(), sameInstance(Watch.MSG));
+        assertThat(mailBox.poll().message(), is("hello"));
+    }
+
+    /**
+     * A child that is terminated must not overtake the messages the child sent before
+     * it was stopped and the stop message itself goes with whatever priority it was sent.
+     */
+    @Test
+    public void testTerminatedAndStopInOrder() {
+        final MailBox mailBox = new PriorityMailBox(DefaultMailBox::new, 10);
+        final Terminated terminated = Terminated.of(DefaultActorPath.create(null, "/hektor/child"));
+        mailBox.offer(envelope(Priority.NORMAL, "last words"));
+        mailBox.offer(envelope(Priority.NORMAL, terminated));
+        mailBox.offer(envelope(Priority.NORMAL, Stop.MSG));
+
+        assertThat(mailBox.poll().message(), is("last words"));
+        assertThat(mailBox.poll().message(), sameInstance(terminated));
+        assertThat(mailBox.poll().message(), sameInstance(Stop.MSG));
+    }
+
+    /**
+     * Once the starvation limit has been reached a waiting low priority message is let through.
+     */
+    @Test
+    public void testLowIsNotStarved() {
+        final MailBox mailBox = new PriorityMailBox(MpscMailBox::new, 2);
+        mailBox.offer(envelope(Priority.LOW, "low-1"));
+        mailBox.offer(envelope(Priority.LOW, "low-2"));
+        for (int i = 0; i < 5; ++i) {
+            mailBox.offer(envelope(Priority.NORMAL, i));
+        }
+
+        assertThat(mailBox.poll().message(), is(0));
+        assertThat(mailBox.poll().message(), is(1));
+        assertThat(mailBox.poll().message(), is("low-1"));
+        assertThat(mailBox.poll().message(), is(2));
+        assertThat(mailBox.poll().message(), is(3));
+        assertThat(mailBox.poll().message(), is("low-2"));
+        assertThat(mailBox.poll().message(), is(4));
+        assertThat(mailBox.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testOfferAll() {
+        final MailBox mailBox = new PriorityMailBox(MpscMailBox::new, 10);
+        final List<Envelope> batch = Arrays.asList(
+                envelope(Priority.NORMAL, "skip"),
+                envelope(Priority.NORMAL, "one"),
+                envelope(Priority.NORMAL, "two"),
+                envelope(Priority.HIGH, "high"),
+                envelope(Priority.NORMAL, "three"));
+        mailBox.offerAll(batch, 1, 5);
+
+        assertThat(mailBox.poll().message(), is("high"));
+        assertThat(mailBox.poll().message(), is("one"));
+        assertThat(mailBox.poll().message(), is("two"));
+        assertThat(mailBox.poll().message(), is("three"));
+        assertThat(mailBox.isEmpty(), is(true));
+    }
+
+    private static Envelope envelope(final Priority priority, final Object msg) {
+        return new Envelope(priority, null, null, msg);
+    }
+}
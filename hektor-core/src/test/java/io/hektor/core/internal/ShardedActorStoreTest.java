@@ -0,0 +1,119 @@
+package io.hektor.core.internal;
+
+import com.codahale.metrics.MetricRegistry;
+import io.hektor.config.ActorStoreConfiguration;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorPath;
+import io.hektor.core.ActorRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class ShardedActorStoreTest {
+
+    private final Actor actor = msg -> { };
+    private MetricRegistry registry;
+    private ShardedActorStore store;
+    private ActorPath root;
+
+    @Before
+    public void setUp() {
+        registry = new MetricRegistry();
+        final ActorStoreConfiguration config = new ActorStoreConfiguration.Builder()
+                .withType(ActorStoreConfiguration.SHARDED_ACTOR_STORE)
+                .withShards(4)
+                .withInitialCapacity(2)
+                .build();
+        store = new ShardedActorStore("unit-test", config, registry);
+        root = new DefaultActorPath(null, "unit-test");
+    }
+
+    @Test
+    public void testStoreLookupRemove() {
+        final List<ActorRef> refs = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            final ActorRef ref = new DefaultActorRef(root.createChild("actor-" + i), null);
+            store.store(ref, actor);
+            refs.add(ref);
+        }
+
+        assertThat(store.size(), is(100L));
+        for (final ActorRef ref : refs) {
+            final ActorBox box = store.find(ref);
+            assertThat(box.ref(), sameInstance(ref));
+            assertThat(store.lookup(ref.path()).get(), sameInstance(box));
+
+            // a path equal to, but not the same as, the one the actor was stored under
+            final ActorPath path = DefaultActorPath.create(null, ref.path().toString());
+            assertThat(store.lookup(path).get(), sameInstance(box));
+        }
+
+        for (final ActorRef ref : refs) {
+            assertThat(store.remove(ref).isPresent(), is(true));
+            assertThat(((InternalActorRef) ref).actorBox(), nullValue());
+            assertThat(store.remove(ref).isPresent(), is(false));
+            assertThat(store.lookup(ref.path()).isPresent(), is(false));
+        }
+        assertThat(store.size(), is(0L));
+        assertThat(store.find(new DefaultActorRef(root.createChild("actor-0"), null)), nullValue());
+    }
+
+    @Test
+    public void testMetrics() {
+        for (int i = 0; i < 100; ++i) {
+            final ActorRef ref = new DefaultActorRef(root.createChild("actor-" + i), null);
+            store.store(ref, actor);
+            if (i % 2 == 0) {
+                store.remove(ref);
+            }
+        }
+
+        final String prefix = ShardedActorStore.class.getName() + ".unit-test.";
+        assertThat(registry.getGauges().get(prefix + "size").getValue(), is(50L));
+        assertThat(registry.meter(prefix + "stored").getCount(), is(100L));
+        assertThat(registry.meter(prefix + "removed").getCount(), is(50L));
+
+        // with an initial capacity of 2 and 4 shards, the shards have to grow
+        assertThat(registry.counter(prefix + "resizes").getCount(), greaterThan(0L));
+    }
+
+    /**
+     * Two actor systems with the same name may very well share a registry.
+     */
+    @Test
+    public void testMetricsSharedRegistry() {
+        final ActorStoreConfiguration config = new ActorStoreConfiguration.Builder()
+                .withType(ActorStoreConfiguration.SHARDED_ACTOR_STORE)
+                .build();
+        final ShardedActorStore other = new ShardedActorStore("unit-test", config, registry);
+        store.store(new DefaultActorRef(root.createChild("actor-1"), null), actor);
+        other.store(new DefaultActorRef(root.createChild("actor-2"), null), actor);
+
+        final String prefix = ShardedActorStore.class.getName() + ".unit-test.";
+        assertThat(registry.getGauges().get(prefix + "size").getValue(), is(2L));
+        assertThat(store.size(), is(1L));
+    }
+
+    @Test
+    public void testShardsRoundedUpToPowerOfTwo() {
+        final ActorStoreConfiguration config = new ActorStoreConfiguration.Builder().withShards(5).build();
+        assertThat(config.shards(), is(8));
+        assertThat(config.type(), is(ActorStoreConfiguration.SIMPLE_ACTOR_STORE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownType() {
+        new ActorStoreConfiguration.Builder().withType("nope").build();
+    }
+}
@@ -0,0 +1,90 @@
+package io.hektor.core.internal;
+
+import io.hektor.core.Actor;
+import io.hektor.core.ActorPath;
+import io.hektor.core.ActorRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class SimpleActorStoreTest {
+
+    private final Actor actor = msg -> { };
+    private ActorStore store;
+    private ActorPath path;
+
+    @Before
+    public void setUp() {
+        store = new SimpleActorStore();
+        path = new DefaultActorPath(null, "hektor").createChild("actor");
+    }
+
+    /**
+     * A reference stored in the store is bound directly to its box.
+     */
+    @Test
+    public void testBind() {
+        final InternalActorRef ref = new DefaultActorRef(path, null);
+        assertThat(ref.actorBox(), nullValue());
+
+        store.store(ref, actor);
+        final ActorBox box = store.lookup(path).get();
+        assertThat(ref.actorBox(), sameInstance(box));
+        assertThat(store.find(ref), sameInstance(box));
+    }
+
+    /**
+     * Once the actor has been purged the reference must no longer use its bound box
+     * but fall back to the store, which may contain a new actor under the same path.
+     */
+    @Test
+    public void testStaleReference() {
+        final InternalActorRef ref = new DefaultActorRef(path, null);
+        store.store(ref, actor);
+        final ActorBox box = store.find(ref);
+
+        box.purge();
+        store.remove(ref);
+        assertThat(ref.actorBox(), nullValue());
+        assertThat(store.find(ref), nullValue());
+
+        final ActorRef newRef = new DefaultActorRef(path, null);
+        store.store(newRef, actor);
+        final ActorBox newBox = store.find(newRef);
+        assertThat(newBox == box, is(false));
+        assertThat(store.find(ref), sameInstance(newBox));
+    }
+
+    /**
+     * A removed actor must not be reachable through a reference that is kept around.
+     */
+    @Test
+    public void testUnbindOnRemove() {
+        final InternalActorRef ref = new DefaultActorRef(path, null);
+        store.store(ref, actor);
+
+        store.remove(ref);
+        assertThat(ref.actorBox(), nullValue());
+        assertThat(store.find(ref), nullValue());
+    }
+
+    /**
+     * A reference created from a path only, i.e., not the one the actor was stored with,
+     * is still found through the store.
+     */
+    @Test
+    public void testUnboundReference() {
+        final InternalActorRef ref = new DefaultActorRef(path, null);
+        store.store(ref, actor);
+
+        final ActorRef other = new DefaultActorRef(DefaultActorPath.create(null, "/hektor/actor"), null);
+        assertThat(store.find(other), sameInstance(ref.actorBox()));
+    }
+}
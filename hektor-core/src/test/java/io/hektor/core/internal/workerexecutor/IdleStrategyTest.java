@@ -0,0 +1,69 @@
+package io.hektor.core.internal.workerexecutor;
+
+import io.hektor.config.DispatcherConfiguration;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class IdleStrategyTest {
+
+    @Test
+    public void testCreate() {
+        assertThat(create(DispatcherConfiguration.BLOCKING_IDLE_STRATEGY), instanceOf(BlockingIdleStrategy.class));
+        assertThat(create(DispatcherConfiguration.BUSY_SPIN_IDLE_STRATEGY), instanceOf(BusySpinIdleStrategy.class));
+        assertThat(create(DispatcherConfiguration.SPIN_YIELD_IDLE_STRATEGY), instanceOf(SpinYieldIdleStrategy.class));
+        assertThat(create(DispatcherConfiguration.BACKOFF_IDLE_STRATEGY), instanceOf(BackoffIdleStrategy.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIdleStrategy() {
+        create("whatever");
+    }
+
+    @Test
+    public void testBusySpin() throws Exception {
+        ensurePoll(new BusySpinIdleStrategy(), 10);
+    }
+
+    @Test
+    public void testSpinYield() throws Exception {
+        // make sure we go through both the spinning and the yielding
+        ensurePoll(new SpinYieldIdleStrategy(), 1000);
+    }
+
+    @Test
+    public void testBackoff() throws Exception {
+        // make sure we go all the way to parking
+        ensurePoll(new BackoffIdleStrategy(), 1000);
+    }
+
+    /**
+     * Poll an empty queue a number of times, which should return null every time,
+     * and then ensure that the strategy picks up elements as soon as they are there.
+     */
+    private static void ensurePoll(final IdleStrategy strategy, final int idleCount) throws Exception {
+        final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        for (int i = 0; i < idleCount; ++i) {
+            assertThat(strategy.poll(queue), nullValue());
+        }
+
+        queue.offer("one");
+        queue.offer("two");
+        assertThat(strategy.poll(queue), is("one"));
+        assertThat(strategy.poll(queue), is("two"));
+        assertThat(strategy.poll(queue), nullValue());
+    }
+
+    private static IdleStrategy create(final String strategy) {
+        return IdleStrategy.create(new DispatcherConfiguration.Builder().withIdleStrategy(strategy).build());
+    }
+}
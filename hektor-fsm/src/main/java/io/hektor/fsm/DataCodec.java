@@ -0,0 +1,38 @@
+package io.hektor.fsm;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes the {@link Data} of an {@link FSM}, which is the only part of an FSM whose
+ * format isn't known to hektor. See {@link FsmCodec}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public interface DataCodec<D extends Data> {
+
+    /**
+     * Write the data straight into the given buffer. If it doesn't fit, simply let the buffer
+     * throw {@link BufferOverflowException}, after which the encoding will be tried again once
+     * there is more room. As such, encoding must not have any side effects.
+     *
+     * An FSM without any data at all is written without any bytes for its data, which is how it
+     * is told apart when read back, so a codec must write at least one byte for any actual data.
+     *
+     * @param data the data to encode, which is never null.
+     * @param out the buffer to write to, starting at its current position.
+     * @throws BufferOverflowException in case the data doesn't fit.
+     */
+    void encode(D data, ByteBuffer out) throws BufferOverflowException;
+
+    /**
+     * Decode the data from the given buffer, which contains exactly what was written by
+     * {@link #encode(Data, ByteBuffer)}, between its position and its limit. The buffer is a view
+     * of the original buffer, nothing has been copied, so anything the data wants to keep a hold of
+     * it has to copy or it may not survive once the original buffer is re-used.
+     *
+     * @param in the encoded data.
+     * @return the data, which cannot be null.
+     */
+    D decode(ByteBuffer in);
+}
@@ -2,7 +2,12 @@ package io.hektor.fsm;
 
 import io.hektor.fsm.visitor.FsmVisitor;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static io.snice.preconditions.PreConditions.assertArgument;
 
 public interface Definition<S extends Enum<S>, C extends Context, D extends Data> {
 
@@ -32,5 +37,107 @@ public interface Definition<S extends Enum<S>, C extends Context, D extends Data
      */
     FSM newInstance(Object uuid, C context, D data);
 
+    /**
+     * Create a new {@link FSM} that doesn't keep a uuid of its own. This is meant for when there are
+     * a lot of FSMs around and the uuid is already part of the context anyway, in which case it
+     * can be extracted from there (only when needed, which is for logging) by configuring the
+     * definition through {@link io.hektor.fsm.builder.FSMBuilder#withUuidFromContext(Function)}.
+     */
+    default FSM newInstance(final C context, final D data) {
+        return newInstance(null, context, data);
+    }
+
+    /**
+     * Same as {@link #newInstance(Object, Context, Data, BiConsumer, TransitionListener)} but without a uuid,
+     * see {@link #newInstance(Context, Data)}.
+     */
+    default FSM newInstance(final C context, final D data, final BiConsumer<S, Object> onUnhandledEvent,
+                            final TransitionListener<S> transitionListener) {
+        return newInstance(null, context, data, onUnhandledEvent, transitionListener);
+    }
+
+    /**
+     * Bring back an {@link FSM} exactly where it was when the snapshot was taken, see {@link FSM#snapshot()}.
+     * Unlike {@link FSM#reStartAndEnter(Enum)}, no actions whatsoever are executed since, as far as the
+     * FSM is concerned, it never went anywhere.
+     *
+     * @param snapshot the snapshot of the FSM.
+     * @param uuid the uuid of the FSM. May be null, see {@link #newInstance(Context, Data)}.
+     * @param context the context, which has to be re-created by the application.
+     * @param data the data, which has to be restored by the application.
+     * @param onUnhandledEvent may be null.
+     * @param transitionListener may be null.
+     * @throws IllegalArgumentException in case the snapshot is null.
+     */
+    FSM restore(FsmSnapshot<S> snapshot, Object uuid, C context, D data,
+                BiConsumer<S, Object> onUnhandledEvent, TransitionListener<S> transitionListener)
+            throws IllegalArgumentException;
+
+    /**
+     * The state every FSM of this definition starts out in.
+     */
+    S initialState();
+
+    /**
+     * Create a new {@link FsmCodec} for checkpointing the FSMs of this definition.
+     *
+     * @param dataCodec the codec for the {@link Data} of the FSMs.
+     * @throws IllegalArgumentException in case the data codec is null.
+     */
+    FsmCodec<S, C, D> codec(DataCodec<D> dataCodec) throws IllegalArgumentException;
+
+    /**
+     * Deliver the same event to all the given FSMs, which must all be instances of this definition
+     * (any that aren't will still get the event but through the regular {@link FSM#onEvent(Object)}).
+     * This is e.g. useful for broadcasting a signal, such as "network down", to a large number of FSMs.
+     *
+     * Just like {@link FSM#onEvent(Object)}, this is executed on the calling thread and the caller
+     * must guarantee that none of the FSMs are accessed by anyone else while this is going on.
+     * The FSMs may not be processed in the order they are given.
+     *
+     * @param fsms the FSMs.
+     * @param event the event to deliver to every one of them.
+     */
+    default void onEvent(final List<? extends FSM> fsms, final Object event) {
+        for (int i = 0; i < fsms.size(); ++i) {
+            fsms.get(i).onEvent(event);
+        }
+    }
+
+    /**
+     * Same as {@link #onEvent(List, Object)} but the batch is split across the given pool,
+     * if it is large enough to be worth it. Any given FSM will only ever be accessed by a single thread.
+     * This method does not return until every FSM has processed the event.
+     */
+    default void onEvent(final List<? extends FSM> fsms, final Object event, final ForkJoinPool pool) {
+        onEvent(fsms, event);
+    }
+
+    /**
+     * Deliver a batch of events where the event at a given index is delivered to the FSM at the
+     * same index. The same FSM may show up more than once in the batch, in which case its events
+     * are processed in the order they appear in the batch. See {@link #onEvent(List, Object)} for
+     * the rest.
+     *
+     * @param fsms the FSMs.
+     * @param events the events, which must be exactly as many as there are FSMs.
+     * @throws IllegalArgumentException in case the number of events and FSMs don't match.
+     */
+    default void onEvents(final List<? extends FSM> fsms, final List<?> events) throws IllegalArgumentException {
+        assertArgument(fsms.size() == events.size(), "The number of events must match the number of FSMs");
+        for (int i = 0; i < fsms.size(); ++i) {
+            fsms.get(i).onEvent(events.get(i));
+        }
+    }
+
+    /**
+     * Same as {@link #onEvents(List, List)} but the batch is split across the given pool, see
+     * {@link #onEvent(List, Object, ForkJoinPool)}.
+     */
+    default void onEvents(final List<? extends FSM> fsms, final List<?> events, final ForkJoinPool pool)
+            throws IllegalArgumentException {
+        onEvents(fsms, events);
+    }
+
     void acceptVisitor(FsmVisitor<S, C, D> visitor);
 }
@@ -34,13 +34,23 @@ public interface FSM<S extends Enum<S>, C extends Context, D extends Data> {
      * with this state will be executed. This is useful if your FSM throw an
      * exception and you want to control how to deal with that (and potentially let the
      * FSM start over) or if you have suspended/resumed the FSM (e.g. my serializing it
-     * to another JVM) and you want to continue were you left off.
+     * to another JVM) and you want to continue were you left off. Note that if you want to continue
+     * exactly where you left off, without re-running the entry actions, use {@link FsmCodec} or
+     * {@link #snapshot()} instead.
      *
      * @param state
      * @throws IllegalArgumentException in case the state is null
      */
     void reStartAndEnter(S state) throws IllegalArgumentException;
 
+    /**
+     * Capture where this FSM currently is so that it later on can be brought back, through
+     * {@link Definition#restore(FsmSnapshot, Object, Context, Data, java.util.function.BiConsumer, TransitionListener)},
+     * without having to re-run any of the actions of the current state, as opposed to
+     * {@link #reStartAndEnter(Enum)}. This is useful when e.g. releasing idle FSMs from memory.
+     */
+    FsmSnapshot<S> snapshot();
+
     /**
      * Deliver an event to this {@link FSM}.
      *
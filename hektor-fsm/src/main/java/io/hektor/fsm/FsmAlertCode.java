@@ -13,7 +13,14 @@ public enum FsmAlertCode implements Alert {
      * is a bug and should be addressed asap.
      *
      */
-    UNHANDLED_FSM_EVENT(1000, "Unhandled event");
+    UNHANDLED_FSM_EVENT(1000, "Unhandled event"),
+
+    /**
+     * The last transitions of the {@link FSM}, which are logged after an unhandled event or
+     * if a transition fails, but only if the {@link Definition} keeps a history of the transitions.
+     * See {@link io.hektor.fsm.builder.FSMBuilder#withTransitionHistory(int)}.
+     */
+    FSM_TRANSITION_HISTORY(1001, "Last {} transitions: {}");
 
     private final int code;
     private final String msg;
@@ -0,0 +1,74 @@
+package io.hektor.fsm;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A compact binary format for checkpointing running {@link FSM}s, e.g. in order to move them to
+ * another JVM, and to bring them back exactly where they were, without executing any actions,
+ * just like {@link Definition#restore(FsmSnapshot, Object, Context, Data, BiConsumer, TransitionListener)}.
+ *
+ * Every FSM is written as a single record:
+ *
+ * <pre>
+ *     int   length of the rest of the record
+ *     short ordinal of the current state, -1 if the FSM hadn't been started
+ *     short number of words of entered states (see {@link FsmSnapshot#enteredStates()})
+ *     long  the entered states, one per word
+ *     ...   the data, as encoded by the {@link DataCodec}, which takes up the rest of the record
+ * </pre>
+ *
+ * The {@link Context} of the FSM is not part of the record, it has to be re-created by the application.
+ * Note that the states are identified by their ordinal so a record can only be read by the same
+ * version of the {@link Definition} that wrote it.
+ *
+ * Obtained through {@link Definition#codec(DataCodec)}. A codec is not thread safe, create one per thread.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public interface FsmCodec<S extends Enum<S>, C extends Context, D extends Data> {
+
+    /**
+     * Write the FSM into the given buffer, starting at its current position.
+     *
+     * @param fsm the FSM, which must be an instance of the definition of this codec.
+     * @param out the buffer.
+     * @throws BufferOverflowException in case the FSM doesn't fit, in which case the position of the buffer
+     *         is left untouched.
+     * @throws IllegalArgumentException in case the FSM isn't an instance of the definition of this codec.
+     */
+    void write(FSM<S, C, D> fsm, ByteBuffer out) throws BufferOverflowException, IllegalArgumentException;
+
+    /**
+     * Stream all the FSMs to the given channel, one record after another, through a buffer that is
+     * re-used between calls (and grown as needed) so that a large number of FSMs can be written
+     * without having to hold all of them in memory at once.
+     *
+     * @param fsms the FSMs, all of which must be instances of the definition of this codec.
+     * @param channel the channel to write to.
+     * @throws IOException in case the channel fails.
+     */
+    void write(List<? extends FSM<S, C, D>> fsms, WritableByteChannel channel) throws IOException;
+
+    /**
+     * Read the next FSM from the given buffer, which is left positioned right after the record.
+     * Nothing is copied, the data is decoded from a view of the buffer, see {@link DataCodec#decode(ByteBuffer)}.
+     *
+     * @param in the buffer.
+     * @param uuid the uuid of the FSM. May be null, see {@link Definition#newInstance(Context, Data)}.
+     * @param context the context of the FSM.
+     * @param onUnhandledEvent may be null.
+     * @param transitionListener may be null.
+     * @throws IllegalArgumentException in case the record doesn't belong to the definition of this codec.
+     */
+    FSM<S, C, D> read(ByteBuffer in, Object uuid, C context, BiConsumer<S, Object> onUnhandledEvent,
+                      TransitionListener<S> transitionListener) throws IllegalArgumentException;
+
+    default FSM<S, C, D> read(final ByteBuffer in, final C context) throws IllegalArgumentException {
+        return read(in, null, context, null, null);
+    }
+}
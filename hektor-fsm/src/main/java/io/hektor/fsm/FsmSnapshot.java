@@ -0,0 +1,26 @@
+package io.hektor.fsm;
+
+/**
+ * The bare minimum needed to bring back an {@link FSM} exactly where it left off, minus its
+ * {@link Context} and {@link Data}, which are owned by the application and as such, it is up to the
+ * application to save and restore those. See {@link FSM#snapshot()} and
+ * {@link Definition#restore(FsmSnapshot, Object, Context, Data, java.util.function.BiConsumer, TransitionListener)}.
+ *
+ * @param state the state the FSM was in, which is null if the FSM had not been started.
+ * @param enteredStates one bit per state (by ordinal), indicating whether the FSM ever has entered
+ *                      that state, which is what decides whether the initial enter action of a state
+ *                      is to be executed or not.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public record FsmSnapshot<S extends Enum<S>>(S state, long[] enteredStates) {
+
+    /**
+     * @return true if the FSM had ever entered the given state.
+     */
+    public boolean hasEntered(final S state) {
+        final int ordinal = state.ordinal();
+        final int index = ordinal / Long.SIZE;
+        return index < enteredStates.length && (enteredStates[index] & (1L << ordinal)) != 0;
+    }
+}
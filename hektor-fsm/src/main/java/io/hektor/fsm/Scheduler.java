@@ -35,4 +35,31 @@ public interface Scheduler {
     <T> Cancellable schedule(Supplier<T> producer, Duration delay);
 
     <T> Cancellable schedule(T msg, Duration delay);
+
+    /**
+     * Create a new re-usable {@link Timer}. The timer isn't armed until
+     * {@link Timer#schedule(Object, Duration)} is called.
+     *
+     * Runtime environments should override this if they can re-arm a timer cheaper than
+     * scheduling a brand new event every time, which is what the default implementation does.
+     */
+    default Timer timer() {
+        final Scheduler scheduler = this;
+        return new Timer() {
+            private Cancellable current;
+
+            @Override
+            public <T> void schedule(final T msg, final Duration delay) {
+                cancel();
+                current = scheduler.schedule(msg, delay);
+            }
+
+            @Override
+            public boolean cancel() {
+                final Cancellable previous = current;
+                current = null;
+                return previous != null && previous.cancel();
+            }
+        };
+    }
 }
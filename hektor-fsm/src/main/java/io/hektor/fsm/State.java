@@ -56,6 +56,15 @@ public interface State<S extends Enum<S>, C extends Context, D extends Data> {
      */
     Optional<Transition<? extends Object, S, C, D>> accept(Object event, C ctx, D data);
 
+    /**
+     * Same as {@link #accept(Object, Context, Data)} but returns null instead of an empty
+     * {@link Optional} if the event isn't accepted, which is what the FSM itself is using since
+     * it is called for every single event.
+     */
+    default Transition<? extends Object, S, C, D> find(final Object event, final C ctx, final D data) {
+        return accept(event, ctx, data).orElse(null);
+    }
+
     Optional<BiConsumer<C, D>> getInitialEnterAction();
 
     Optional<Label> getInitialEnterActionLabel();
@@ -72,4 +81,44 @@ public interface State<S extends Enum<S>, C extends Context, D extends Data> {
 
     Optional<Label> getExitActionLabel();
 
+    /**
+     * Execute the initial enter action, if any.
+     *
+     * The FSM calls the <code>onXXX</code> methods as part of every transition, as opposed to
+     * the {@link Optional}s above, so that an implementation can execute them without
+     * allocating anything.
+     */
+    default void onInitialEnter(final C ctx, final D data) {
+        execute(getInitialEnterAction(), ctx, data);
+    }
+
+    /**
+     * Execute the enter action, if any.
+     */
+    default void onEnter(final C ctx, final D data) {
+        execute(getEnterAction(), ctx, data);
+    }
+
+    /**
+     * Execute the self enter action, if any.
+     */
+    default void onSelfEnter(final C ctx, final D data) {
+        execute(getSelfEnterAction(), ctx, data);
+    }
+
+    /**
+     * Execute the exit action, if any.
+     */
+    default void onExit(final C ctx, final D data) {
+        execute(getExitAction(), ctx, data);
+    }
+
+    private static <C extends Context, D extends Data> void execute(final Optional<BiConsumer<C, D>> action,
+                                                                    final C ctx,
+                                                                    final D data) {
+        if (action.isPresent()) {
+            action.get().accept(ctx, data);
+        }
+    }
+
 }
@@ -0,0 +1,20 @@
+package io.hektor.fsm;
+
+import java.time.Duration;
+
+/**
+ * A timer that can be armed over and over again, as opposed to the {@link Cancellable}s returned
+ * by {@link Scheduler#schedule(Object, Duration)}, which are good for a single scheduled event
+ * only. Meant for those timers that an {@link FSM} arms and cancels over and over again, such as
+ * re-transmission timers.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public interface Timer extends Cancellable {
+
+    /**
+     * Arm the timer so that the given event is delivered to the {@link FSM} after the given delay.
+     * If the timer already was armed, the previous event is cancelled and will never be delivered.
+     */
+    <T> void schedule(T msg, Duration delay);
+}
@@ -30,6 +30,17 @@ public interface Transition<E, S extends Enum<S>, C extends Context, D extends D
      */
     boolean match(Object event, C ctx, D data);
 
+    /**
+     * Same as {@link #match(Object, Context, Data)} but for an event that already is known to be
+     * of the {@link #getEventType()} of this transition, i.e., only the guard (if any) is checked.
+     *
+     * @param event the event, which must be an instance of {@link #getEventType()}.
+     * @return true if the event is accepted by the guard, false otherwise.
+     */
+    default boolean acceptGuard(final Object event, final C ctx, final D data) {
+        return match(event, ctx, data);
+    }
+
     /**
      * This {@link Transition} represents the transition to
      * this particular state. Assuming the event matches of course.
@@ -60,5 +71,37 @@ public interface Transition<E, S extends Enum<S>, C extends Context, D extends D
 
     Optional<Label> getTransformationLabel();
 
+    /**
+     * Execute the action, or the stateful action, associated with this transition, if any.
+     *
+     * This is what the FSM calls for every transition and an implementation should therefore
+     * make sure that it doesn't allocate anything, which this default implementation,
+     * being based on {@link #getAction()} and {@link #getStatefulAction()}, doesn't.
+     *
+     * @param event the event, which must be an instance of {@link #getEventType()}.
+     */
+    default void execute(final Object event, final C ctx, final D data) {
+        final Optional<Consumer<E>> action = getAction();
+        if (action.isPresent()) {
+            action.get().accept((E) event);
+        }
+
+        final Optional<Action<E, C, D>> statefulAction = getStatefulAction();
+        if (statefulAction.isPresent()) {
+            statefulAction.get().accept((E) event, ctx, data);
+        }
+    }
+
+    /**
+     * Apply the transformation (see {@link #getTransformation()}) to the given event.
+     *
+     * @param event the event, which must be an instance of {@link #getEventType()}.
+     * @return the transformed event or the event itself if there is no transformation.
+     */
+    default Object transform(final Object event) {
+        final Optional<Function<E, ?>> transformation = getTransformation();
+        return transformation.isPresent() ? transformation.get().apply((E) event) : event;
+    }
+
     void acceptVisitor(FsmVisitor<S, C, D> visitor);
 }
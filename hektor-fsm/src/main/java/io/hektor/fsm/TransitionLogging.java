@@ -0,0 +1,30 @@
+package io.hektor.fsm;
+
+/**
+ * Controls how the transitions of all the {@link FSM}s of a given {@link Definition} are logged,
+ * which is configured through {@link io.hektor.fsm.builder.FSMBuilder#withTransitionLogging(TransitionLogging)}.
+ *
+ * Every transition is logged on INFO, so no matter the mode, nothing is logged (nor formatted)
+ * unless INFO is enabled for the FSM logger.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public enum TransitionLogging {
+
+    /**
+     * Transitions are never logged.
+     */
+    OFF,
+
+    /**
+     * On average, one out of every
+     * {@link io.hektor.fsm.builder.FSMBuilder#withTransitionLogSampleRate(int) sample rate}
+     * transitions is logged.
+     */
+    SAMPLED,
+
+    /**
+     * Every single transition is logged.
+     */
+    FULL
+}
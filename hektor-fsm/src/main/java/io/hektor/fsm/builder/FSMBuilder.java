@@ -4,6 +4,7 @@ import io.hektor.fsm.Context;
 import io.hektor.fsm.Data;
 import io.hektor.fsm.Definition;
 import io.hektor.fsm.State;
+import io.hektor.fsm.TransitionLogging;
 import io.hektor.fsm.builder.exceptions.FSMBuilderException;
 import io.hektor.fsm.builder.exceptions.FinalStateAlreadyDefinedException;
 import io.hektor.fsm.builder.exceptions.IllegalTransformationOnTransitionException;
@@ -16,6 +17,10 @@ import io.hektor.fsm.impl.DefinitionImpl;
 import io.hektor.fsm.impl.StateImpl;
 
 import java.util.Arrays;
+import java.util.function.Function;
+
+import static io.snice.preconditions.PreConditions.assertArgument;
+import static io.snice.preconditions.PreConditions.ensureNotNull;
 
 /**
  * @author jonas@jonasborjesson.com
@@ -24,6 +29,10 @@ public class FSMBuilder<S extends Enum<S>, C extends Context, D extends Data> {
 
     private final StateBuilderImpl<S, C, D>[] states;
     private String friendlyName;
+    private TransitionLogging transitionLogging = TransitionLogging.FULL;
+    private int transitionLogSampleRate = 100;
+    private int transitionHistory;
+    private Function<C, Object> uuidFromContext;
 
     public FSMBuilder(final S[] possibleStates) {
         states = new StateBuilderImpl[possibleStates.length];
@@ -34,6 +43,48 @@ public class FSMBuilder<S extends Enum<S>, C extends Context, D extends Data> {
         return this;
     }
 
+    /**
+     * How the transitions of the FSMs created off of this definition are logged. The default
+     * is {@link TransitionLogging#FULL}.
+     */
+    public FSMBuilder<S, C, D> withTransitionLogging(final TransitionLogging logging) {
+        ensureNotNull(logging, "The transition logging cannot be null");
+        transitionLogging = logging;
+        return this;
+    }
+
+    /**
+     * When the transitions are {@link TransitionLogging#SAMPLED}, log, on average, one out of
+     * this many transitions. The default is 100.
+     */
+    public FSMBuilder<S, C, D> withTransitionLogSampleRate(final int rate) {
+        assertArgument(rate > 0, "The sample rate must be greater than zero");
+        transitionLogSampleRate = rate;
+        return this;
+    }
+
+    /**
+     * Keep the last <code>size</code> transitions of every FSM created off of this definition,
+     * which are logged on any unhandled event or if a transition fails. The default is zero,
+     * i.e., no history is kept.
+     */
+    public FSMBuilder<S, C, D> withTransitionHistory(final int size) {
+        assertArgument(size >= 0, "The size of the transition history cannot be negative");
+        transitionHistory = size;
+        return this;
+    }
+
+    /**
+     * Extract the uuid of an FSM from its context, which is used (for logging only) when an FSM
+     * is created without a uuid of its own, see {@link Definition#newInstance(Context, Data)}. This
+     * saves every FSM from having to keep a reference to a uuid that already is part of the context.
+     */
+    public FSMBuilder<S, C, D> withUuidFromContext(final Function<C, Object> uuid) {
+        ensureNotNull(uuid, "The uuid function cannot be null");
+        uuidFromContext = uuid;
+        return this;
+    }
+
     public StateBuilder<S, C, D> withInitialState(final S state) {
         if (hasInitialState()) {
             throw new InitialStateAlreadyDefinedException(state);
@@ -110,7 +161,8 @@ public class FSMBuilder<S extends Enum<S>, C extends Context, D extends Data> {
         }
 
         checkTransitions(states);
-        return new DefinitionImpl(friendlyName, states);
+        return new DefinitionImpl(friendlyName, states, transitionLogging, transitionLogSampleRate, transitionHistory,
+                uuidFromContext);
     }
 
     /**
@@ -0,0 +1,168 @@
+package io.hektor.fsm.impl;
+
+import io.hektor.fsm.Context;
+import io.hektor.fsm.Data;
+import io.hektor.fsm.FSM;
+import io.hektor.fsm.State;
+import io.hektor.fsm.Transition;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Delivers a batch of events to many FSMs of the same definition in one go, which is
+ * what's behind {@link io.hektor.fsm.Definition#onEvents(List, List)} and friends.
+ *
+ * The FSMs are first grouped by their current state, using a (stable) counting sort on the
+ * ordinal of the state, and then every group is processed in one go. Within a group, the
+ * transitions that may accept the event are only looked up when the type of the event changes,
+ * which for a broadcast means once per state, and then only the guards are checked per FSM.
+ *
+ * An FSM that shows up several times in the same batch always ends up in the same group (it is
+ * grouped by the state it was in before the batch was processed) and its events are therefore
+ * delivered in the order they appear in the batch. There is however no ordering between different
+ * FSMs. FSMs that aren't instances of the definition, or that haven't been started, are simply
+ * handed the event through {@link FSM#onEvent(Object)}.
+ *
+ * When a {@link ForkJoinPool} is given, and the batch is large enough to be worth it, the batch
+ * is partitioned based on the identity of the FSMs and every partition is processed as a task of
+ * its own. Since any given FSM always ends up in the same partition it is still only ever
+ * accessed by a single thread.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+final class BulkProcessor<S extends Enum<S>, C extends Context, D extends Data> {
+
+    /**
+     * Any batch smaller than this is not worth splitting across threads.
+     */
+    static final int MIN_PARALLEL_BATCH = 1024;
+
+    private final DefinitionImpl<S, C, D> definition;
+
+    BulkProcessor(final DefinitionImpl<S, C, D> definition) {
+        this.definition = definition;
+    }
+
+    /**
+     * @param fsms the FSMs.
+     * @param events the event for every FSM, at the same index, or null if the same event is
+     *               delivered to all of them.
+     * @param event the event to deliver to all FSMs if there is no list of events.
+     * @param pool the pool to split the batch across, may be null.
+     */
+    void process(final List<? extends FSM> fsms, final List<?> events, final Object event, final ForkJoinPool pool) {
+        final int size = fsms.size();
+        if (pool == null || pool.getParallelism() <= 1 || size < MIN_PARALLEL_BATCH) {
+            process(fsms, events, event, null, size);
+            return;
+        }
+
+        final int partitions = pool.getParallelism();
+        final int[] partitionOf = new int[size];
+        final int[] counts = new int[partitions];
+        for (int i = 0; i < size; ++i) {
+            final int partition = (System.identityHashCode(fsms.get(i)) & Integer.MAX_VALUE) % partitions;
+            partitionOf[i] = partition;
+            ++counts[partition];
+        }
+
+        final int[][] indices = new int[partitions][];
+        for (int p = 0; p < partitions; ++p) {
+            indices[p] = new int[counts[p]];
+            counts[p] = 0;
+        }
+
+        for (int i = 0; i < size; ++i) {
+            final int partition = partitionOf[i];
+            indices[partition][counts[partition]++] = i;
+        }
+
+        final ForkJoinTask<?>[] tasks = new ForkJoinTask[partitions];
+        for (int p = 0; p < partitions; ++p) {
+            final int[] partition = indices[p];
+            tasks[p] = pool.submit(() -> process(fsms, events, event, partition, partition.length));
+        }
+
+        for (final ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Process the given part of the batch on the calling thread.
+     *
+     * @param indices the indices into the batch to process, or null for all of them.
+     * @param count the number of indices.
+     */
+    private void process(final List<? extends FSM> fsms,
+                         final List<?> events,
+                         final Object event,
+                         final int[] indices,
+                         final int count) {
+        final State<S, C, D>[] states = definition.states();
+
+        // the last group is for the FSMs that we can't process in bulk
+        final int other = states.length;
+        final int[] groups = new int[count];
+        final int[] offsets = new int[states.length + 3];
+        for (int k = 0; k < count; ++k) {
+            final int group = group(fsms.get(indices == null ? k : indices[k]), states);
+            groups[k] = group;
+            ++offsets[group + 2];
+        }
+
+        for (int g = 2; g < offsets.length; ++g) {
+            offsets[g] += offsets[g - 1];
+        }
+
+        final int[] sorted = new int[count];
+        for (int k = 0; k < count; ++k) {
+            sorted[offsets[groups[k] + 1]++] = indices == null ? k : indices[k];
+        }
+
+        // after the above, offsets[g] is where group g starts and offsets[g + 1] where it ends
+        for (int g = 0; g < other; ++g) {
+            final int start = offsets[g];
+            final int end = offsets[g + 1];
+            if (start == end) {
+                continue;
+            }
+
+            final StateImpl<S, C, D> state = (StateImpl<S, C, D>) states[g];
+            Class<?> type = null;
+            Transition<?, S, C, D>[] candidates = null;
+            for (int k = start; k < end; ++k) {
+                final int i = sorted[k];
+                final Object e = events != null ? events.get(i) : event;
+                if (e.getClass() != type) {
+                    type = e.getClass();
+                    candidates = state.candidates(type);
+                }
+                ((FsmImpl<S, C, D>) fsms.get(i)).onEvent(e, state, candidates);
+            }
+        }
+
+        for (int k = offsets[other]; k < offsets[other + 1]; ++k) {
+            final int i = sorted[k];
+            fsms.get(i).onEvent(events != null ? events.get(i) : event);
+        }
+    }
+
+    /**
+     * The group of the FSM, which is the ordinal of its current state or, if it can't be processed
+     * in bulk, the very last group.
+     */
+    private int group(final FSM fsm, final State<S, C, D>[] states) {
+        if (fsm instanceof FsmImpl) {
+            final FsmImpl<S, C, D> impl = (FsmImpl<S, C, D>) fsm;
+            final State state = impl.currentState();
+            if (impl.definition() == definition && state instanceof StateImpl) {
+                return state.getState().ordinal();
+            }
+        }
+
+        return states.length;
+    }
+}
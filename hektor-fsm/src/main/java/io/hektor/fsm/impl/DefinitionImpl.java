@@ -2,14 +2,24 @@ package io.hektor.fsm.impl;
 
 import io.hektor.fsm.Context;
 import io.hektor.fsm.Data;
+import io.hektor.fsm.DataCodec;
 import io.hektor.fsm.Definition;
 import io.hektor.fsm.FSM;
+import io.hektor.fsm.FsmCodec;
+import io.hektor.fsm.FsmSnapshot;
 import io.hektor.fsm.State;
 import io.hektor.fsm.TransitionListener;
+import io.hektor.fsm.TransitionLogging;
 import io.hektor.fsm.visitor.FsmVisitor;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static io.snice.preconditions.PreConditions.assertArgument;
+import static io.snice.preconditions.PreConditions.assertNotNull;
 
 /**
  * @author jonas@jonasborjesson.com
@@ -27,15 +37,93 @@ public class DefinitionImpl<S extends Enum<S>, C extends Context, D extends Data
     private final S initialState;
     private final State<S, C, D>[] states;
 
+    private final TransitionLogging transitionLogging;
+    private final int transitionLogSampleRate;
+    private final int transitionHistory;
+
+    /**
+     * Optional function for extracting the uuid of an FSM from its context, which is used
+     * when an FSM is created without a uuid of its own.
+     */
+    private final Function<C, Object> uuidFromContext;
+
+    /**
+     * The log context with the friendly name, which is shared between all FSMs of this definition
+     * and is what all log contexts of those FSMs are created from.
+     */
+    private final FsmLogContext<S> logTemplate;
+
+    private final BulkProcessor<S, C, D> bulkProcessor = new BulkProcessor<>(this);
+
     /**
      *
      * @param friendlyName
      * @param states
      */
     public DefinitionImpl(final String friendlyName, final State<S, C, D>[] states) {
+        this(friendlyName, states, TransitionLogging.FULL, 1, 0, null);
+    }
+
+    /**
+     *
+     * @param friendlyName
+     * @param states
+     * @param transitionLogging how the transitions of every FSM are logged.
+     * @param transitionLogSampleRate log one out of this many transitions when sampled.
+     * @param transitionHistory the number of transitions every FSM keeps in its history.
+     * @param uuidFromContext extracts the uuid from the context of an FSM that doesn't have its own. May be null.
+     */
+    public DefinitionImpl(final String friendlyName,
+                          final State<S, C, D>[] states,
+                          final TransitionLogging transitionLogging,
+                          final int transitionLogSampleRate,
+                          final int transitionHistory,
+                          final Function<C, Object> uuidFromContext) {
         this.friendlyName = friendlyName;
         initialState = Arrays.stream(states).filter(s -> s != null && s.isInital()).findFirst().get().getState();
         this.states = states;
+        this.transitionLogging = transitionLogging;
+        this.transitionLogSampleRate = transitionLogSampleRate;
+        this.transitionHistory = transitionHistory;
+        this.uuidFromContext = uuidFromContext;
+        logTemplate = new FsmLogContext<>(friendlyName, null);
+    }
+
+    State<S, C, D>[] states() {
+        return states;
+    }
+
+    @Override
+    public S initialState() {
+        return initialState;
+    }
+
+    /**
+     * @return the max number of words the entered states of any FSM of this definition may need,
+     * see {@link FsmSnapshot#enteredStates()}.
+     */
+    int maxEnteredStatesWords() {
+        return (states.length + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    TransitionLogging transitionLogging() {
+        return transitionLogging;
+    }
+
+    int transitionLogSampleRate() {
+        return transitionLogSampleRate;
+    }
+
+    int transitionHistory() {
+        return transitionHistory;
+    }
+
+    FsmLogContext<S> logTemplate() {
+        return logTemplate;
+    }
+
+    Object uuid(final C ctx) {
+        return uuidFromContext != null ? uuidFromContext.apply(ctx) : null;
     }
 
     @Override
@@ -45,7 +133,45 @@ public class DefinitionImpl<S extends Enum<S>, C extends Context, D extends Data
 
     @Override
     public FSM newInstance(final Object uuid, final C ctx, final D data, final BiConsumer<S, Object> unhandledEventHandler, final TransitionListener<S> transitionListener) {
-        return new FsmImpl(uuid, friendlyName, states, initialState, ctx, data, unhandledEventHandler, transitionListener);
+        return new FsmImpl<>(this, uuid, ctx, data, unhandledEventHandler, transitionListener);
+    }
+
+    @Override
+    public FSM restore(final FsmSnapshot<S> snapshot, final Object uuid, final C ctx, final D data,
+                       final BiConsumer<S, Object> unhandledEventHandler, final TransitionListener<S> transitionListener)
+            throws IllegalArgumentException {
+        assertNotNull(snapshot, "The snapshot cannot be null");
+        final FsmImpl<S, C, D> fsm = new FsmImpl<>(this, uuid, ctx, data, unhandledEventHandler, transitionListener);
+        fsm.restore(snapshot);
+        return fsm;
+    }
+
+    @Override
+    public FsmCodec<S, C, D> codec(final DataCodec<D> dataCodec) {
+        assertNotNull(dataCodec, "The data codec cannot be null");
+        return new FsmCodecImpl<>(this, dataCodec);
+    }
+
+    @Override
+    public void onEvent(final List<? extends FSM> fsms, final Object event) {
+        bulkProcessor.process(fsms, null, event, null);
+    }
+
+    @Override
+    public void onEvent(final List<? extends FSM> fsms, final Object event, final ForkJoinPool pool) {
+        bulkProcessor.process(fsms, null, event, pool);
+    }
+
+    @Override
+    public void onEvents(final List<? extends FSM> fsms, final List<?> events) throws IllegalArgumentException {
+        onEvents(fsms, events, null);
+    }
+
+    @Override
+    public void onEvents(final List<? extends FSM> fsms, final List<?> events, final ForkJoinPool pool)
+            throws IllegalArgumentException {
+        assertArgument(fsms.size() == events.size(), "The number of events must match the number of FSMs");
+        bulkProcessor.process(fsms, events, null, pool);
     }
 
     @Override
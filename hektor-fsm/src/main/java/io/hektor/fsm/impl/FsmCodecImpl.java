@@ -0,0 +1,159 @@
+package io.hektor.fsm.impl;
+
+import io.hektor.fsm.Context;
+import io.hektor.fsm.Data;
+import io.hektor.fsm.DataCodec;
+import io.hektor.fsm.FSM;
+import io.hektor.fsm.FsmCodec;
+import io.hektor.fsm.State;
+import io.hektor.fsm.TransitionListener;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static io.snice.preconditions.PreConditions.assertArgument;
+
+/**
+ * Reads and writes the entered states straight out of, and into, the {@link FsmImpl} so that
+ * nothing but the FSM itself (and whatever the {@link DataCodec} needs) is allocated, as opposed
+ * to going through {@link FSM#snapshot()}.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class FsmCodecImpl<S extends Enum<S>, C extends Context, D extends Data> implements FsmCodec<S, C, D> {
+
+    /**
+     * int length + short state + short number of words.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Short.BYTES;
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final DefinitionImpl<S, C, D> definition;
+    private final DataCodec<D> dataCodec;
+
+    /**
+     * The buffer used when streaming to a channel, which is direct so that the channel doesn't
+     * have to copy it, and which is only created, and grown, when needed.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * The largest record written to the channel so far. As long as there is room for one of those,
+     * the next FSM will most likely fit too, so the buffer is drained before it runs out
+     * as opposed to paying for a {@link BufferOverflowException} every time it fills up.
+     */
+    private int largestRecord;
+
+    public FsmCodecImpl(final DefinitionImpl<S, C, D> definition, final DataCodec<D> dataCodec) {
+        assertArgument(definition.states().length <= Short.MAX_VALUE, "Too many states to be encoded");
+        this.definition = definition;
+        this.dataCodec = dataCodec;
+    }
+
+    @Override
+    public void write(final FSM<S, C, D> fsm, final ByteBuffer out) throws BufferOverflowException, IllegalArgumentException {
+        assertArgument(fsm instanceof FsmImpl && ((FsmImpl) fsm).definition() == definition,
+                "The FSM is not an instance of the definition of this codec");
+        final FsmImpl<S, C, D> impl = (FsmImpl<S, C, D>) fsm;
+        final int start = out.position();
+        try {
+            // the length isn't known until the data has been written so leave room for it.
+            out.putInt(0);
+            final State state = impl.currentState();
+            out.putShort(state != null ? (short) state.getState().ordinal() : -1);
+
+            final int words = impl.enteredStatesWords();
+            out.putShort((short) words);
+            for (int i = 0; i < words; ++i) {
+                out.putLong(impl.enteredStatesWord(i));
+            }
+
+            final D data = impl.data();
+            if (data != null) {
+                dataCodec.encode(data, out);
+            }
+
+            out.putInt(start, out.position() - start - Integer.BYTES);
+        } catch (final BufferOverflowException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(final List<? extends FSM<S, C, D>> fsms, final WritableByteChannel channel) throws IOException {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+        }
+
+        buffer.clear();
+        for (int i = 0; i < fsms.size(); ++i) {
+            final FSM<S, C, D> fsm = fsms.get(i);
+            if (buffer.remaining() < largestRecord) {
+                flush(channel);
+            }
+
+            while (true) {
+                try {
+                    final int start = buffer.position();
+                    write(fsm, buffer);
+                    largestRecord = Math.max(largestRecord, buffer.position() - start);
+                    break;
+                } catch (final BufferOverflowException e) {
+                    // either make room by draining what we have so far or, if a single
+                    // FSM doesn't even fit in an empty buffer, get a bigger one.
+                    if (buffer.position() > 0) {
+                        flush(channel);
+                    } else {
+                        buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                    }
+                }
+            }
+        }
+
+        flush(channel);
+    }
+
+    private void flush(final WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public FSM<S, C, D> read(final ByteBuffer in, final Object uuid, final C ctx,
+                             final BiConsumer<S, Object> unhandledEventHandler,
+                             final TransitionListener<S> transitionListener) throws IllegalArgumentException {
+        final int start = in.position();
+        assertArgument(in.remaining() >= HEADER_SIZE, "Truncated FSM record");
+        final int end = start + Integer.BYTES + in.getInt(start);
+        assertArgument(end >= start + HEADER_SIZE && end <= in.limit(), "Truncated FSM record");
+
+        final int ordinal = in.getShort(start + Integer.BYTES);
+        final State<S, C, D>[] states = definition.states();
+        assertArgument(ordinal == -1 || (ordinal >= 0 && ordinal < states.length && states[ordinal] != null),
+                "The FSM record does not match the definition");
+
+        final int words = in.getShort(start + Integer.BYTES + Short.BYTES);
+        final int dataStart = start + HEADER_SIZE + words * Long.BYTES;
+        assertArgument(words >= 0 && words <= definition.maxEnteredStatesWords() && dataStart <= end,
+                "The FSM record does not match the definition");
+
+        final D data = dataStart < end ? dataCodec.decode(in.slice(dataStart, end - dataStart)) : null;
+        final FsmImpl<S, C, D> fsm = new FsmImpl<>(definition, uuid, ctx, data, unhandledEventHandler, transitionListener);
+        for (int i = 0; i < words; ++i) {
+            fsm.restoreEnteredStates(i, in.getLong(start + HEADER_SIZE + i * Long.BYTES));
+        }
+
+        fsm.restoreState(ordinal != -1 ? states[ordinal].getState() : null);
+        in.position(end);
+        return fsm;
+    }
+}
@@ -3,6 +3,7 @@ package io.hektor.fsm.impl;
 import io.hektor.fsm.Context;
 import io.hektor.fsm.Data;
 import io.hektor.fsm.FSM;
+import io.hektor.fsm.FsmSnapshot;
 import io.hektor.fsm.State;
 import io.hektor.fsm.Transition;
 import io.hektor.fsm.TransitionListener;
@@ -10,11 +11,12 @@ import io.snice.logging.Logging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiConsumer;
-import java.util.function.Function;
 
+import static io.hektor.fsm.FsmAlertCode.FSM_TRANSITION_HISTORY;
 import static io.hektor.fsm.FsmAlertCode.UNHANDLED_FSM_EVENT;
+import static io.snice.preconditions.PreConditions.assertArgument;
 import static io.snice.preconditions.PreConditions.ensureNotNull;
 
 /**
@@ -24,59 +26,151 @@ public class FsmImpl<S extends Enum<S>, C extends Context, D extends Data> imple
 
     private static final Logger logger = LoggerFactory.getLogger(FsmImpl.class);
 
+    /**
+     * Everything that is the same for all FSMs of a given definition, such as the states, the
+     * logging configuration and the log template, lives in the definition as opposed to being
+     * copied into every single instance. There may be millions of FSMs around, most of them idle,
+     * so this class should only ever hold what truly is specific to a single instance.
+     */
+    private final DefinitionImpl<S, C, D> definition;
+
+    /**
+     * May be null, in which case the uuid, if any, is extracted from the context by the definition.
+     */
     private final Object uuid;
     private final BiConsumer<S, Object> unhandledEventHandler;
     private final TransitionListener<S> transitionListener;
-    private final State[] states;
-    private final boolean[] hasEnteredState;
-    private final S initialState;
     private final C ctx;
     private final D data;
 
     private State currentState;
 
     /**
-     * Our log context where this instance is really just used as the initial template that has the
-     * FSM friendly name and the UUID. Just so we don't have to keep passing these two parameters in
-     * since they won't ever change.
+     * Keep track of whether we have ever entered a given state, which is needed to keep track
+     * of whether or not we should execute the initial enter action, which is only done the
+     * very first time you enter a state. One bit per state, where the states beyond the first 64,
+     * which would be quite unusual, go into the (lazily created) overflow.
      */
-    private final FsmLogContext logCtx;
+    private long enteredStates;
+    private long[] enteredStatesOverflow;
+
+    /**
+     * The last N transitions, which is null unless the definition asked for it.
+     */
+    private final TransitionHistory history;
 
     /**
      *
+     * @param definition the definition this FSM is an instance of.
      * @param uuid unique id to use as a correlator by external users. Not used by the FSM itself, other than
-     *             in logging etc.
-     * @param friendlyName only used for logging.
-     * @param states
-     * @param initialState
+     *             in logging etc. May be null.
      * @param ctx
      * @param data
      * @param unhandledEventHandler
      * @param transitionListener
      */
-    public FsmImpl(final Object uuid,
-                   final String friendlyName,
-                   final State[] states,
-                   final S initialState,
+    public FsmImpl(final DefinitionImpl<S, C, D> definition,
+                   final Object uuid,
                    final C ctx,
                    final D data,
                    final BiConsumer<S, Object> unhandledEventHandler,
                    final TransitionListener<S> transitionListener) {
+        this.definition = definition;
         this.uuid = uuid;
-        this.states = states;
-        this.initialState = initialState;
         this.ctx = ctx;
         this.data = data;
         this.unhandledEventHandler = unhandledEventHandler;
         this.transitionListener = transitionListener;
 
-        // keep track of whether we have ever entered a given
-        // state, which is needed to keep track of whether or not we
-        // should execute the initial enter action, which is only done the
-        // very first time you enter a state.
-        hasEnteredState = new boolean[states.length];
+        final int transitionHistory = definition.transitionHistory();
+        history = transitionHistory > 0 ? new TransitionHistory(transitionHistory) : null;
+    }
 
-        logCtx = new FsmLogContext(friendlyName, uuid);
+    private Object uuid() {
+        return uuid != null ? uuid : definition.uuid(ctx);
+    }
+
+    /**
+     * Mark the state as entered.
+     *
+     * @return true if this is the very first time the state is entered.
+     */
+    private boolean markEntered(final int ordinal) {
+        if (ordinal < Long.SIZE) {
+            final long bit = 1L << ordinal;
+            final boolean first = (enteredStates & bit) == 0;
+            enteredStates |= bit;
+            return first;
+        }
+
+        if (enteredStatesOverflow == null) {
+            enteredStatesOverflow = new long[(definition.states().length - 1) / Long.SIZE];
+        }
+
+        final int index = ordinal / Long.SIZE - 1;
+        final long bit = 1L << ordinal;
+        final boolean first = (enteredStatesOverflow[index] & bit) == 0;
+        enteredStatesOverflow[index] |= bit;
+        return first;
+    }
+
+    @Override
+    public FsmSnapshot<S> snapshot() {
+        final long[] words = new long[enteredStatesWords()];
+        for (int i = 0; i < words.length; ++i) {
+            words[i] = enteredStatesWord(i);
+        }
+
+        return new FsmSnapshot<>(currentState != null ? (S) currentState.getState() : null, words);
+    }
+
+    /**
+     * Put this, brand new, FSM back to where the snapshot was taken without executing any actions.
+     */
+    void restore(final FsmSnapshot<S> snapshot) {
+        final long[] words = snapshot.enteredStates();
+        assertArgument(words != null && words.length <= definition.maxEnteredStatesWords(),
+                "The entered states of the snapshot do not match the definition");
+        for (int i = 0; i < words.length; ++i) {
+            restoreEnteredStates(i, words[i]);
+        }
+
+        restoreState(snapshot.state());
+    }
+
+    /**
+     * @return the number of words needed for the entered states of this FSM right now, which
+     * is one unless any of the states beyond the first 64 has been entered.
+     */
+    int enteredStatesWords() {
+        return 1 + (enteredStatesOverflow != null ? enteredStatesOverflow.length : 0);
+    }
+
+    long enteredStatesWord(final int index) {
+        return index == 0 ? enteredStates : enteredStatesOverflow[index - 1];
+    }
+
+    void restoreEnteredStates(final int index, final long word) {
+        if (index == 0) {
+            enteredStates = word;
+            return;
+        }
+
+        if (enteredStatesOverflow == null) {
+            enteredStatesOverflow = new long[(definition.states().length - 1) / Long.SIZE];
+        }
+        enteredStatesOverflow[index - 1] = word;
+    }
+
+    /**
+     * @param state the state to be in, without entering it. Null means not started.
+     */
+    void restoreState(final S state) {
+        currentState = state != null ? definition.states()[state.ordinal()] : null;
+    }
+
+    final D data() {
+        return data;
     }
 
     @Override
@@ -95,7 +189,7 @@ public class FsmImpl<S extends Enum<S>, C extends Context, D extends Data> imple
             return;
         }
 
-        enterState(initialState);
+        enterState(definition.initialState());
     }
 
     @Override
@@ -105,31 +199,55 @@ public class FsmImpl<S extends Enum<S>, C extends Context, D extends Data> imple
     }
 
     private void enterState(final S state) {
-        currentState = states[state.ordinal()];
+        currentState = definition.states()[state.ordinal()];
         // TODO: catch all if action throws exception
 
         // only execute the initial enter action the very first time you
         // enter the state.
-        if (!hasEnteredState[currentState.getState().ordinal()]) {
-            final Optional<BiConsumer<C, D>> initialAction = currentState.getInitialEnterAction();
-            initialAction.ifPresent(a -> a.accept(ctx, data));
-            hasEnteredState[currentState.getState().ordinal()] = true;
+        if (markEntered(state.ordinal())) {
+            currentState.onInitialEnter(ctx, data);
         }
 
-        final Optional<BiConsumer<C, D>> action = currentState.getEnterAction();
-        action.ifPresent(a -> a.accept(ctx, data));
+        currentState.onEnter(ctx, data);
     }
 
     private void exitCurrentState() {
-        final Optional<BiConsumer<C, D>> action = currentState.getExitAction();
-        action.ifPresent(a -> a.accept(ctx, data));
+        currentState.onExit(ctx, data);
     }
 
     @Override
     public final void onEvent(final Object event) {
-        final Optional<Transition<Object, S, C, D>> optional = currentState.accept(event, ctx, data);
-        if (optional.isPresent()) {
-            final Transition<Object, S, C, D> transition = optional.get();
+        onEvent(currentState.find(event, ctx, data), event);
+    }
+
+    /**
+     * Used by the {@link BulkProcessor}, which already has looked up the transitions of the given
+     * state that may accept this type of event, hence, only the guards have to be checked.
+     * If this FSM no longer is in that state, which happens if the same FSM shows up several
+     * times in the same batch, we simply fall back to the regular {@link #onEvent(Object)}.
+     */
+    final void onEvent(final Object event, final StateImpl<S, C, D> state, final Transition<?, S, C, D>[] candidates) {
+        if (currentState != state) {
+            onEvent(event);
+            return;
+        }
+
+        onEvent(state.find(candidates, event, ctx, data), event);
+    }
+
+    final DefinitionImpl<S, C, D> definition() {
+        return definition;
+    }
+
+    /**
+     * @return the current state, which is null if the FSM hasn't been started.
+     */
+    final State currentState() {
+        return currentState;
+    }
+
+    private void onEvent(final Transition<Object, S, C, D> transition, final Object event) {
+        if (transition != null) {
             transition(transition, event);
 
             // our builders is supposed to guarantee that we don't end up in a loop,
@@ -139,7 +257,8 @@ public class FsmImpl<S extends Enum<S>, C extends Context, D extends Data> imple
             }
 
         } else {
-            logWarn(UNHANDLED_FSM_EVENT, logCtx.unhandledEvent(currentState.getState(), event));
+            logWarn(UNHANDLED_FSM_EVENT, definition.logTemplate().unhandledEvent(uuid(), (S) currentState.getState(), event));
+            logHistory();
             if (unhandledEventHandler != null) {
                 unhandledEventHandler.accept((S) currentState.getState(), event);
             }
@@ -148,9 +267,7 @@ public class FsmImpl<S extends Enum<S>, C extends Context, D extends Data> imple
 
     private void handleTransientTransition(final Transition<Object, S, C, D> transition, final Object event ) {
         try {
-            final Optional<Function<Object, ?>> transform = transition.getTransformation();
-            final Object transformedEvent = transform.isPresent() ? transform.get().apply(event) : event;
-            onEvent(transformedEvent);
+            onEvent(transition.transform(event));
         } catch (final Throwable t) {
             // TODO: what is the strategy for if the transformation throws an exception?
         }
@@ -166,30 +283,61 @@ public class FsmImpl<S extends Enum<S>, C extends Context, D extends Data> imple
         try {
             final S fromState = (S) currentState.getState();
             final S toState = transition.getToState();
-            logInfo(logCtx.transition(fromState, toState, event), "Transitioning");
+
+            if (history != null) {
+                history.record(fromState, toState, event);
+            }
+
+            // the log context is only created if it is actually going to be logged since
+            // this is done for every single transition.
+            if (shouldLogTransition()) {
+                logInfo(definition.logTemplate().transition(uuid(), fromState, toState, event), "Transitioning");
+            }
+
             invokeTransitionListener(fromState, toState, event);
 
             // Note: our builders will ensure that there is only one action
             //       associated with our transition.
-            transition.getAction().ifPresent(action -> action.accept(event));
-            transition.getStatefulAction().ifPresent(action -> action.accept(event, ctx, data));
+            transition.execute(event, ctx, data);
             if (currentState.getState() != toState) {
                 exitCurrentState();
                 enterState(toState);
             } else {
                 // "self" transition. I.e. State B -> State B
-                final Optional<BiConsumer<C, D>> action = currentState.getSelfEnterAction();
-                action.ifPresent(a -> a.accept(ctx, data));
+                currentState.onSelfEnter(ctx, data);
             }
 
         } catch(final Throwable t) {
             // TODO: HEKTOR-9 - and it is quite bad if the current state is a transient
             // state and the "exitCurrentState" is the one throwing the exception
             // then we'll end up in a loop
+            logHistory();
             t.printStackTrace();
         }
     }
 
+    private boolean shouldLogTransition() {
+        switch (definition.transitionLogging()) {
+            case FULL:
+                return logger.isInfoEnabled();
+            case SAMPLED:
+                return logger.isInfoEnabled()
+                        && ThreadLocalRandom.current().nextInt(definition.transitionLogSampleRate()) == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Dump the last transitions, if we keep track of them, which is only done when something
+     * has gone wrong so it is fine that the history is formatted at this point.
+     */
+    private void logHistory() {
+        if (history != null && history.size() > 0) {
+            logWarn(FSM_TRANSITION_HISTORY, definition.logTemplate().withUuid(uuid()), history.size(), history);
+        }
+    }
+
     private void invokeTransitionListener(final S fromState, final S toState, final Object event) {
         if (transitionListener == null) {
             return;
@@ -29,10 +29,26 @@ public record FsmLogContext<S extends Enum<S>>(String friendlyName,
         return new FsmLogContext(friendlyName, uuid, currentState, null, event);
     }
 
+    /**
+     * Same as {@link #transition(Enum, Enum, Object)} but for the FSM with the given uuid, which is
+     * what's used when this context is the template shared by all FSMs of a definition.
+     */
+    public FsmLogContext transition(final Object uuid, final S currentState, final S nextState, final Object event) {
+        return new FsmLogContext(friendlyName, uuid, currentState, nextState, event);
+    }
+
+    public FsmLogContext unhandledEvent(final Object uuid, final S currentState, final Object event) {
+        return new FsmLogContext(friendlyName, uuid, currentState, null, event);
+    }
+
+    public FsmLogContext withUuid(final Object uuid) {
+        return new FsmLogContext(friendlyName, uuid, currentState, nextState, event);
+    }
+
     @Override
     public void copyContext(final BiConsumer<String, String> visitor) {
 
-        visitor.accept(FSM_UUID_LABEL, uuid.toString());
+        visitor.accept(FSM_UUID_LABEL, (uuid == null ? null : uuid.toString()));
         visitor.accept(FSM_LABEL, friendlyName);
         visitor.accept(CURRENT_STATE_LABEL, (currentState == null ? null : currentState.toString()));
         visitor.accept(NEXT_STATE_LABEL, (nextState == null ? null : nextState.toString()));
@@ -27,6 +27,20 @@ public class StateImpl<S extends Enum<S>, C extends Context, D extends Data> imp
     private final List<Transition<?, S, C, D>> transitions;
     private final Optional<Transition<?, S, C, D>> defaultTransition;
 
+    /**
+     * The transitions of this state compiled into a table keyed by the type of event.
+     */
+    private final TransitionTable<S, C, D> transitionTable;
+
+    /**
+     * The raw actions, which may be null, are what's executed by the FSM so that executing
+     * them is just a null check. The {@link Optional}s are only there for the accessors.
+     */
+    private final BiConsumer<C, D> onInitialEnter;
+    private final BiConsumer<C, D> onSelfEnter;
+    private final BiConsumer<C, D> onEnter;
+    private final BiConsumer<C, D> onExit;
+
     private final Optional<BiConsumer<C, D>> initialEnterAction;
     private final Optional<Label> initialEnterActionLabel;
 
@@ -61,6 +75,11 @@ public class StateImpl<S extends Enum<S>, C extends Context, D extends Data> imp
         this.isTransient = isTransient;
         this.transitions = transitions;
         this.defaultTransition = defaultTransition;
+        this.transitionTable = new TransitionTable<>(transitions);
+        this.onInitialEnter = initialEnterAction;
+        this.onSelfEnter = selfEnterAction;
+        this.onEnter = enterAction;
+        this.onExit = exitAction;
         this.initialEnterAction = Optional.ofNullable(initialEnterAction);
         this.selfEnterAction = Optional.ofNullable(selfEnterAction);
         this.enterAction = Optional.ofNullable(enterAction);
@@ -158,6 +177,34 @@ public class StateImpl<S extends Enum<S>, C extends Context, D extends Data> imp
         return exitActionLabel;
     }
 
+    @Override
+    public void onInitialEnter(final C ctx, final D data) {
+        if (onInitialEnter != null) {
+            onInitialEnter.accept(ctx, data);
+        }
+    }
+
+    @Override
+    public void onEnter(final C ctx, final D data) {
+        if (onEnter != null) {
+            onEnter.accept(ctx, data);
+        }
+    }
+
+    @Override
+    public void onSelfEnter(final C ctx, final D data) {
+        if (onSelfEnter != null) {
+            onSelfEnter.accept(ctx, data);
+        }
+    }
+
+    @Override
+    public void onExit(final C ctx, final D data) {
+        if (onExit != null) {
+            onExit.accept(ctx, data);
+        }
+    }
+
     @Override
     public boolean isInital() {
         return isInitial;
@@ -180,11 +227,30 @@ public class StateImpl<S extends Enum<S>, C extends Context, D extends Data> imp
 
     @Override
     public Optional<Transition<? extends Object, S, C, D>> accept(final Object event, final C ctx, final D data) {
-        final Optional<Transition<? extends Object, S, C, D>> optional = transitions.stream().filter(t -> t.match(event, ctx, data)).findFirst();
-        if (optional.isPresent()) {
-            return optional;
-        }
+        final Transition<? extends Object, S, C, D> transition = transitionTable.find(event, ctx, data);
+        return transition != null ? Optional.of(transition) : defaultTransition;
+    }
+
+    @Override
+    public Transition<? extends Object, S, C, D> find(final Object event, final C ctx, final D data) {
+        final Transition<? extends Object, S, C, D> transition = transitionTable.find(event, ctx, data);
+        return transition != null ? transition : defaultTransition.orElse(null);
+    }
+
+    /**
+     * The transitions out of this state that may accept an event of the given type, in the order
+     * they were defined. See {@link #find(Transition[], Object, Context, Data)}.
+     */
+    Transition<?, S, C, D>[] candidates(final Class<?> type) {
+        return transitionTable.candidates(type);
+    }
 
-        return defaultTransition;
+    /**
+     * Same as {@link #find(Object, Context, Data)} but with the candidates already looked up,
+     * which allows for looking them up once for many FSMs that are all in this state.
+     */
+    <T> Transition<T, S, C, D> find(final Transition<?, S, C, D>[] candidates, final Object event, final C ctx, final D data) {
+        final Transition<?, S, C, D> transition = TransitionTable.find(candidates, event, ctx, data);
+        return (Transition<T, S, C, D>) (transition != null ? transition : defaultTransition.orElse(null));
     }
 }
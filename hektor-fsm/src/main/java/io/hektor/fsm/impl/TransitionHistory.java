@@ -0,0 +1,63 @@
+package io.hektor.fsm.impl;
+
+/**
+ * A ring buffer of the last N transitions of a single FSM, which is only ever looked at when
+ * something goes wrong, such as an unhandled event, in order to figure out how the FSM ended up
+ * where it is.
+ *
+ * Recording a transition is just a couple of array stores. Only the type of the event is kept, as
+ * opposed to the event itself, so that the history doesn't keep any events alive nor has to
+ * format them, which is only done once the history actually is logged.
+ *
+ * Just like the FSM itself, this class is not thread safe.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+final class TransitionHistory {
+
+    private final Enum<?>[] from;
+    private final Enum<?>[] to;
+    private final Class<?>[] events;
+
+    /**
+     * The total number of transitions ever recorded.
+     */
+    private long count;
+
+    TransitionHistory(final int size) {
+        from = new Enum[size];
+        to = new Enum[size];
+        events = new Class[size];
+    }
+
+    void record(final Enum<?> fromState, final Enum<?> toState, final Object event) {
+        final int index = (int) (count++ % from.length);
+        from[index] = fromState;
+        to[index] = toState;
+        events[index] = event.getClass();
+    }
+
+    /**
+     * The number of transitions currently in the history.
+     */
+    int size() {
+        return (int) Math.min(count, from.length);
+    }
+
+    /**
+     * The transitions, oldest first, on the form <code>FROM -[EventType]-&gt; TO</code>.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("[");
+        final int size = size();
+        for (int i = 0; i < size; ++i) {
+            final int index = (int) ((count - size + i) % from.length);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(from[index]).append(" -[").append(events[index].getSimpleName()).append("]-> ").append(to[index]);
+        }
+        return sb.append(']').toString();
+    }
+}
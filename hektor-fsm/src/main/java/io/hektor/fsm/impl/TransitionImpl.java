@@ -38,6 +38,14 @@ public class TransitionImpl<E, S extends Enum<S>, C extends Context, D extends D
     private final Guard<E, C, D> richerGuard;
     private final Optional<Label> guardLabel;
 
+    /**
+     * The raw action, stateful action and transformation, which may be null, are what's
+     * executed by the FSM. The {@link Optional}s are only there for the accessors.
+     */
+    private final Consumer<E> rawAction;
+    private final Action<E, C, D> rawStatefulAction;
+    private final Function<E, ?> rawTransformation;
+
     private final Optional<Consumer<E>> action;
     private final Optional<Action<E, C, D>> statefulAction;
     private final Optional<Label> actionLabel;
@@ -62,6 +70,9 @@ public class TransitionImpl<E, S extends Enum<S>, C extends Context, D extends D
         this.guard = guard;
         this.richerGuard = richerGuard;
         this.guardLabel = guardLabel;
+        this.rawAction = action;
+        this.rawStatefulAction = statefulAction;
+        this.rawTransformation = transformation;
         this.action = Optional.ofNullable(action);
         this.statefulAction = Optional.ofNullable(statefulAction);
         this.actionLabel = actionLabel;
@@ -86,6 +97,11 @@ public class TransitionImpl<E, S extends Enum<S>, C extends Context, D extends D
             return false;
         }
 
+        return acceptGuard(event, ctx, data);
+    }
+
+    @Override
+    public boolean acceptGuard(final Object event, final C ctx, final D data) {
         if (guard != null) {
             return guard.test((E)event);
         }
@@ -97,6 +113,22 @@ public class TransitionImpl<E, S extends Enum<S>, C extends Context, D extends D
         return true;
     }
 
+    @Override
+    public void execute(final Object event, final C ctx, final D data) {
+        if (rawAction != null) {
+            rawAction.accept((E) event);
+        }
+
+        if (rawStatefulAction != null) {
+            rawStatefulAction.accept((E) event, ctx, data);
+        }
+    }
+
+    @Override
+    public Object transform(final Object event) {
+        return rawTransformation != null ? rawTransformation.apply((E) event) : event;
+    }
+
     @Override
     public S getToState() {
         return to;
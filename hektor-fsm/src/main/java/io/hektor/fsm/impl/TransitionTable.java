@@ -0,0 +1,89 @@
+package io.hektor.fsm.impl;
+
+import io.hektor.fsm.Context;
+import io.hektor.fsm.Data;
+import io.hektor.fsm.Transition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled form of all the transitions out of a single state, which is keyed by the
+ * class of the event and leads to the ordered list of transitions that may accept an event of
+ * that class. Finding the transition for an event is then a single lookup followed by checking
+ * the guards of the candidates, in the order they were defined, as opposed to having to check
+ * the type of every single transition of the state.
+ *
+ * The table is compiled for all the event types the transitions were defined for when the FSM
+ * is built. Any other class, such as a sub-class of one of those event types, is compiled the
+ * first time an event of that class shows up and is then cached. Since the same definition, and
+ * therefore the same table, is shared between all FSM instances, the table is thread safe.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class TransitionTable<S extends Enum<S>, C extends Context, D extends Data> {
+
+    private static final Transition[] NO_TRANSITIONS = new Transition[0];
+
+    private final Transition<?, S, C, D>[] transitions;
+
+    private final Map<Class<?>, Transition<?, S, C, D>[]> table = new ConcurrentHashMap<>();
+
+    public TransitionTable(final List<Transition<?, S, C, D>> transitions) {
+        this.transitions = transitions.toArray(new Transition[0]);
+        for (final Transition<?, S, C, D> transition : transitions) {
+            table.computeIfAbsent(transition.getEventType(), this::compile);
+        }
+    }
+
+    /**
+     * Find the first transition that accepts the given event.
+     *
+     * @return the transition or null if none of them accepts the event.
+     */
+    public Transition<?, S, C, D> find(final Object event, final C ctx, final D data) {
+        return find(candidates(event.getClass()), event, ctx, data);
+    }
+
+    /**
+     * All the transitions, in the order they were defined, that may accept an event of the given type.
+     */
+    public Transition<?, S, C, D>[] candidates(final Class<?> type) {
+        final Transition<?, S, C, D>[] candidates = table.get(type);
+        return candidates != null ? candidates : table.computeIfAbsent(type, this::compile);
+    }
+
+    /**
+     * Find the first of the candidates whose guard accepts the given event.
+     *
+     * @param candidates the candidates for the type of the event, as returned by {@link #candidates(Class)}.
+     * @return the transition or null if none of them accepts the event.
+     */
+    public static <S extends Enum<S>, C extends Context, D extends Data> Transition<?, S, C, D> find(
+            final Transition<?, S, C, D>[] candidates, final Object event, final C ctx, final D data) {
+        for (int i = 0; i < candidates.length; ++i) {
+            if (candidates[i].acceptGuard(event, ctx, data)) {
+                return candidates[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * All the transitions, in the order they were defined, whose event type
+     * is the same as, or a super type of, the given class.
+     */
+    private Transition<?, S, C, D>[] compile(final Class<?> type) {
+        final List<Transition<?, S, C, D>> candidates = new ArrayList<>();
+        for (final Transition<?, S, C, D> transition : transitions) {
+            if (transition.getEventType().isAssignableFrom(type)) {
+                candidates.add(transition);
+            }
+        }
+
+        return candidates.isEmpty() ? NO_TRANSITIONS : candidates.toArray(new Transition[0]);
+    }
+}
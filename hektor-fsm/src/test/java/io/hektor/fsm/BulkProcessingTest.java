@@ -0,0 +1,169 @@
+package io.hektor.fsm;
+
+import io.hektor.fsm.builder.FSMBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class BulkProcessingTest {
+
+    private Definition<SimpleFsmStates, Context, Trace> definition;
+
+    private final Context ctx = new Context() { };
+
+    /**
+     * INIT -> WORKING -> DONE, where the very same event moves the FSM one step at a time
+     * but only if the guard, which looks at the data of the FSM, allows it.
+     */
+    @Before
+    public void setUp() {
+        final FSMBuilder<SimpleFsmStates, Context, Trace> builder =
+                FSM.of(SimpleFsmStates.class).ofContextType(Context.class).withDataType(Trace.class);
+        builder.withInitialState(SimpleFsmStates.INIT)
+                .transitionTo(SimpleFsmStates.WORKING).onEvent(String.class)
+                .withGuard((e, ctx, data) -> !data.blocked)
+                .withAction((e, ctx, data) -> data.events.add("INIT:" + e));
+        builder.withState(SimpleFsmStates.WORKING)
+                .transitionTo(SimpleFsmStates.DONE).onEvent(String.class)
+                .withAction((e, ctx, data) -> data.events.add("WORKING:" + e));
+        builder.withFinalState(SimpleFsmStates.DONE);
+        definition = builder.build();
+    }
+
+    private FSM<SimpleFsmStates, Context, Trace> newFsm(final Trace trace) {
+        final FSM<SimpleFsmStates, Context, Trace> fsm = definition.newInstance(ctx, trace);
+        fsm.start();
+        return fsm;
+    }
+
+    @Test
+    public void testBroadcast() {
+        final List<Trace> traces = new ArrayList<>();
+        final List<FSM> fsms = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            final Trace trace = new Trace(i == 3);
+            traces.add(trace);
+            fsms.add(newFsm(trace));
+        }
+
+        // move every other FSM one step ahead
+        for (int i = 0; i < fsms.size(); i += 2) {
+            fsms.get(i).onEvent("early");
+        }
+
+        definition.onEvent(fsms, "tick");
+
+        for (int i = 0; i < fsms.size(); ++i) {
+            final FSM fsm = fsms.get(i);
+            if (i % 2 == 0) {
+                assertThat(fsm.getState(), is(SimpleFsmStates.DONE));
+                assertThat(traces.get(i).events, is(List.of("INIT:early", "WORKING:tick")));
+            } else if (i == 3) {
+                // the guard rejected it
+                assertThat(fsm.getState(), is(SimpleFsmStates.INIT));
+                assertThat(traces.get(i).events.isEmpty(), is(true));
+            } else {
+                assertThat(fsm.getState(), is(SimpleFsmStates.WORKING));
+                assertThat(traces.get(i).events, is(List.of("INIT:tick")));
+            }
+        }
+    }
+
+    /**
+     * The same FSM may show up many times in the same batch and its events must then be
+     * processed in the order of the batch.
+     */
+    @Test
+    public void testSameFsmManyTimes() {
+        final Trace a = new Trace(false);
+        final Trace b = new Trace(false);
+        final FSM fsmA = newFsm(a);
+        final FSM fsmB = newFsm(b);
+
+        definition.onEvents(List.of(fsmA, fsmB, fsmA, fsmB), List.of("a1", "b1", "a2", "b2"));
+
+        assertThat(a.events, is(List.of("INIT:a1", "WORKING:a2")));
+        assertThat(b.events, is(List.of("INIT:b1", "WORKING:b2")));
+        assertThat(fsmA.getState(), is(SimpleFsmStates.DONE));
+        assertThat(fsmB.getState(), is(SimpleFsmStates.DONE));
+    }
+
+    /**
+     * An FSM of another definition, or one that hasn't been started, is just handed the event.
+     */
+    @Test
+    public void testFsmOfOtherDefinition() {
+        final FSMBuilder<SimpleFsmStates, Context, Trace> builder =
+                FSM.of(SimpleFsmStates.class).ofContextType(Context.class).withDataType(Trace.class);
+        builder.withInitialState(SimpleFsmStates.INIT)
+                .transitionTo(SimpleFsmStates.DONE).onEvent(String.class)
+                .withAction((e, ctx, data) -> data.events.add("OTHER:" + e));
+        builder.withFinalState(SimpleFsmStates.DONE);
+
+        final Trace trace = new Trace(false);
+        final FSM other = builder.build().newInstance(ctx, trace);
+        other.start();
+        final Trace mine = new Trace(false);
+        final FSM fsm = newFsm(mine);
+
+        definition.onEvent(List.of(other, fsm), "tick");
+
+        assertThat(trace.events, is(List.of("OTHER:tick")));
+        assertThat(mine.events, is(List.of("INIT:tick")));
+    }
+
+    @Test
+    public void testParallel() {
+        final int count = 10 * 1024;
+        final List<Trace> traces = new ArrayList<>();
+        final List<FSM> fsms = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            final Trace trace = new Trace(false);
+            traces.add(trace);
+            fsms.add(newFsm(trace));
+        }
+
+        // every FSM twice, in the order first, second.
+        final List<FSM> batch = new ArrayList<>(fsms);
+        batch.addAll(fsms);
+        final List<String> events = new ArrayList<>(Collections.nCopies(count, "first"));
+        events.addAll(Collections.nCopies(count, "second"));
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            definition.onEvents(batch, events, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < count; ++i) {
+            assertThat(fsms.get(i).getState(), is(SimpleFsmStates.DONE));
+            assertThat(traces.get(i).events, is(List.of("INIT:first", "WORKING:second")));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedBatch() {
+        final FSM fsm = newFsm(new Trace(false));
+        definition.onEvents(List.of(fsm, fsm), List.of("just one"));
+    }
+
+    private static class Trace implements Data {
+        private final boolean blocked;
+        private final List<String> events = new ArrayList<>();
+
+        private Trace(final boolean blocked) {
+            this.blocked = blocked;
+        }
+    }
+}
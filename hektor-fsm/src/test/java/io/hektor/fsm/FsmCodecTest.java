@@ -0,0 +1,238 @@
+package io.hektor.fsm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class FsmCodecTest extends TestBase {
+
+    private final List<String> actions = new ArrayList<>();
+
+    /**
+     * Encodes the counter followed by the given number of padding bytes, just so that
+     * we can force the data to be larger than the buffers being used.
+     */
+    private static DataCodec<Data> codec(final int padding) {
+        return new DataCodec<>() {
+            @Override
+            public void encode(final Data data, final ByteBuffer out) {
+                out.putLong(((CounterData) data).count);
+                out.put(new byte[padding]);
+            }
+
+            @Override
+            public Data decode(final ByteBuffer in) {
+                assertThat(in.remaining(), is(Long.BYTES + padding));
+                return new CounterData(in.getLong());
+            }
+        };
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        a.transitionTo(SuperSimpleStates.B).onEvent(String.class).withAction((s, ctx, data) -> ++((CounterData) data).count);
+
+        final var b = builder.withState(SuperSimpleStates.B);
+        b.withInitialEnterAction((ctx, data) -> actions.add("initial enter B"));
+        b.transitionTo(SuperSimpleStates.A).onEvent(String.class).withAction((s, ctx, data) -> ++((CounterData) data).count);
+    }
+
+    private FSM<SuperSimpleStates, Context, Data> newFsm(final Definition<SuperSimpleStates, Context, Data> definition, final long count) {
+        final FSM<SuperSimpleStates, Context, Data> fsm = definition.newInstance(mock(Context.class), new CounterData(count));
+        fsm.start();
+        fsm.onEvent("b");
+        return fsm;
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        final var definition = builder.build();
+        final var codec = definition.codec(codec(0));
+        final var buffer = ByteBuffer.allocate(128);
+        codec.write(newFsm(definition, 10), buffer);
+
+        // 4 bytes length, 2 bytes state, 2 bytes number of words, 1 word and then the counter.
+        assertThat(buffer.position(), is(4 + 2 + 2 + 8 + 8));
+        buffer.flip();
+
+        actions.clear();
+        final FSM<SuperSimpleStates, Context, Data> fsm = codec.read(buffer, mock(Context.class));
+        assertThat(buffer.hasRemaining(), is(false));
+        assertThat(fsm.getState(), is(SuperSimpleStates.B));
+        assertThat(fsm.snapshot().hasEntered(SuperSimpleStates.B), is(true));
+        assertThat(actions.isEmpty(), is(true));
+
+        // B has already been entered so its initial enter action must not run again.
+        fsm.onEvent("a");
+        fsm.onEvent("b");
+        assertThat(actions.isEmpty(), is(true));
+
+        final var out = ByteBuffer.allocate(128);
+        codec.write(fsm, out);
+        out.flip();
+        assertThat(out.getLong(out.limit() - Long.BYTES), is(13L));
+    }
+
+    /**
+     * Stream a bunch of FSMs whose data is larger than the initial buffer of the
+     * codec and make sure we can read every one of them back.
+     */
+    @Test
+    public void testWriteToChannel() throws Exception {
+        final var definition = builder.build();
+        final var codec = definition.codec(codec(20_000));
+        final List<FSM<SuperSimpleStates, Context, Data>> fsms = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            fsms.add(newFsm(definition, i));
+        }
+
+        final var out = new ByteArrayOutputStream();
+        codec.write(fsms, Channels.newChannel(out));
+        codec.write(fsms.subList(0, 1), Channels.newChannel(out));
+
+        final var in = ByteBuffer.wrap(out.toByteArray());
+        for (int i = 0; i < 50; ++i) {
+            final var fsm = codec.read(in, mock(Context.class));
+            fsm.onEvent("a");
+            final var check = ByteBuffer.allocate(32_000);
+            codec.write(fsm, check);
+            assertThat(check.getLong(4 + 2 + 2 + 8), is(i + 2L));
+        }
+        assertThat(codec.read(in, mock(Context.class)).getState(), is(SuperSimpleStates.B));
+        assertThat(in.hasRemaining(), is(false));
+    }
+
+    @Test
+    public void testNotStartedNoData() {
+        final var definition = builder.build();
+        final var codec = definition.codec(codec(0));
+        final var buffer = ByteBuffer.allocate(128);
+        codec.write(definition.newInstance(mock(Context.class), null), buffer);
+        buffer.flip();
+
+        final var fsm = codec.read(buffer, mock(Context.class));
+        assertThat(fsm.isStarted(), is(false));
+        fsm.start();
+        assertThat(fsm.getState(), is(SuperSimpleStates.A));
+    }
+
+    /**
+     * If the FSM doesn't fit, the buffer must be left as it was so that the caller can make room.
+     */
+    @Test
+    public void testOverflow() {
+        final var definition = builder.build();
+        final var codec = definition.codec(codec(100));
+        final var buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 1);
+        try {
+            codec.write(newFsm(definition, 1), buffer);
+            fail("Expected the buffer to overflow");
+        } catch (final BufferOverflowException e) {
+            assertThat(buffer.position(), is(1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteForeignFsm() {
+        final var codec = builder.build().codec(codec(0));
+        codec.write(newFsm(builder.build(), 1), ByteBuffer.allocate(128));
+    }
+
+    @Test
+    public void testReadCorrupt() {
+        final var definition = builder.build();
+        final var codec = definition.codec(codec(0));
+        final var buffer = ByteBuffer.allocate(128);
+        codec.write(newFsm(definition, 1), buffer);
+        buffer.flip();
+
+        ensureCorrupt(codec, buffer.duplicate().limit(10));
+        ensureCorrupt(codec, corrupt(buffer, 4, (short) 100));
+        ensureCorrupt(codec, corrupt(buffer, 6, (short) 2));
+        ensureCorrupt(codec, corrupt(buffer, 6, (short) -1));
+    }
+
+    private static ByteBuffer corrupt(final ByteBuffer buffer, final int index, final short value) {
+        final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate()).flip();
+        return copy.putShort(index, value);
+    }
+
+    private static void ensureCorrupt(final FsmCodec<SuperSimpleStates, Context, Data> codec, final ByteBuffer buffer) {
+        try {
+            codec.read(buffer, mock(Context.class));
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertThat(buffer.position(), is(0));
+        }
+    }
+
+    /**
+     * Most FSMs have less than 64 states but the ones that don't need more than one
+     * word to keep track of which states they have entered.
+     */
+    @Test
+    public void testManyStates() {
+        final var builder = FSM.of(ManyStates.class).ofContextType(Context.class).withDataType(Data.class);
+        builder.withInitialState(ManyStates.S0).transitionTo(ManyStates.S69).onEvent(String.class);
+        builder.withState(ManyStates.S69).transitionTo(ManyStates.S0).onEvent(String.class);
+        builder.withFinalState(ManyStates.S1);
+        final var definition = builder.build();
+
+        final FSM<ManyStates, Context, Data> fsm = definition.newInstance(mock(Context.class), new CounterData(7));
+        fsm.start();
+        fsm.onEvent("go");
+
+        final var codec = definition.codec(new DataCodec<>() {
+            @Override
+            public void encode(final Data data, final ByteBuffer out) {
+                out.putLong(((CounterData) data).count);
+            }
+
+            @Override
+            public Data decode(final ByteBuffer in) {
+                return new CounterData(in.getLong());
+            }
+        });
+
+        final var buffer = ByteBuffer.allocate(128);
+        codec.write(fsm, buffer);
+        assertThat(buffer.position(), is(4 + 2 + 2 + 16 + 8));
+        buffer.flip();
+
+        final FsmSnapshot<ManyStates> snapshot = codec.read(buffer, mock(Context.class)).snapshot();
+        assertThat(snapshot.state(), is(ManyStates.S69));
+        assertThat(snapshot.hasEntered(ManyStates.S0), is(true));
+        assertThat(snapshot.hasEntered(ManyStates.S69), is(true));
+        assertThat(snapshot.hasEntered(ManyStates.S68), is(false));
+    }
+
+    public enum ManyStates {
+        S0, S1, S2, S3, S4, S5, S6, S7, S8, S9, S10, S11, S12, S13, S14, S15, S16, S17, S18, S19, S20, S21, S22, S23, S24, S25, S26, S27, S28, S29, S30, S31, S32, S33, S34, S35, S36, S37, S38, S39, S40, S41, S42, S43, S44, S45, S46, S47, S48, S49, S50, S51, S52, S53, S54, S55, S56, S57, S58, S59, S60, S61, S62, S63, S64, S65, S66, S67, S68, S69
+    }
+
+    private static class CounterData implements Data {
+        private long count;
+
+        private CounterData(final long count) {
+            this.count = count;
+        }
+    }
+}
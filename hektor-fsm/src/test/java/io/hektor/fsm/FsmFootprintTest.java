@@ -0,0 +1,84 @@
+package io.hektor.fsm;
+
+import io.hektor.fsm.builder.FSMBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Since there may be millions of (mostly idle) FSMs around, the footprint of a single instance
+ * matters. Everything that can be shared, such as the states, is shared through the definition,
+ * so what we measure here is how much an additional FSM of the same definition costs.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public class FsmFootprintTest {
+
+    /**
+     * The FSM itself, with compressed oops, i.e., a header plus nine references and a long.
+     */
+    private static final long MAX_BYTES_PER_FSM = 56;
+
+    private FSMBuilder<SimpleFsmStates, Context, Data> builder;
+    private final Context ctx = new Context() { };
+    private final Data data = new Data() { };
+
+    @Before
+    public void setUp() {
+        builder = FSM.of(SimpleFsmStates.class).ofContextType(Context.class).withDataType(Data.class);
+        builder.withInitialState(SimpleFsmStates.INIT)
+                .withInitialEnterAction((ctx, data) -> { })
+                .transitionTo(SimpleFsmStates.WORKING).onEvent(String.class);
+        builder.withState(SimpleFsmStates.WORKING).transitionTo(SimpleFsmStates.DONE).onEvent(String.class);
+        builder.withFinalState(SimpleFsmStates.DONE);
+    }
+
+    /**
+     * The marginal cost of the second FSM, where the first one also pulls in the
+     * entire definition as well as the context and data, which are shared between them.
+     */
+    private static long footprint(final FSM a, final FSM b) {
+        a.start();
+        b.start();
+        a.onEvent("go");
+        b.onEvent("go");
+
+        // only count what's reachable from the second FSM but not from the first one since walking
+        // the graph may itself lazily create things, such as the reflection data of a class, that
+        // then would be counted as well.
+        return GraphLayout.parseInstance(a, b).subtract(GraphLayout.parseInstance(a)).totalSize();
+    }
+
+    @Test
+    public void testFootprint() {
+        final Definition<SimpleFsmStates, Context, Data> definition = builder.build();
+        final long bytes = footprint(definition.newInstance(ctx, data), definition.newInstance(ctx, data));
+        assertThat("An FSM takes up " + bytes + " bytes", bytes <= MAX_BYTES_PER_FSM, is(true));
+    }
+
+    /**
+     * A uuid, when given, is the only thing the FSM references that isn't shared.
+     */
+    @Test
+    public void testFootprintWithUuid() {
+        final Definition<SimpleFsmStates, Context, Data> definition = builder.build();
+        final String uuid = "uuid-b";
+        final long bytes = footprint(definition.newInstance("uuid-a", ctx, data),
+                definition.newInstance(uuid, ctx, data));
+        final long uuidBytes = GraphLayout.parseInstance(uuid).totalSize();
+        assertThat("An FSM takes up " + bytes + " bytes", bytes <= MAX_BYTES_PER_FSM + uuidBytes, is(true));
+    }
+
+    /**
+     * Keeping a history of the transitions is the one thing that does cost extra per FSM.
+     */
+    @Test
+    public void testFootprintWithHistory() {
+        final Definition<SimpleFsmStates, Context, Data> definition = builder.withTransitionHistory(4).build();
+        final long bytes = footprint(definition.newInstance(ctx, data), definition.newInstance(ctx, data));
+        assertThat("An FSM takes up " + bytes + " bytes", bytes > MAX_BYTES_PER_FSM, is(true));
+    }
+}
@@ -0,0 +1,85 @@
+package io.hektor.fsm;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class FsmSnapshotTest extends TestBase {
+
+    private final List<String> actions = new ArrayList<>();
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        a.withEnterAction((ctx, data) -> actions.add("enter A"));
+        a.transitionTo(SuperSimpleStates.B).onEvent(String.class).withGuard("b"::equals);
+        a.transitionTo(SuperSimpleStates.H).onEvent(String.class).withGuard("h"::equals);
+
+        final var b = builder.withState(SuperSimpleStates.B);
+        b.withInitialEnterAction((ctx, data) -> actions.add("initial enter B"));
+        b.withEnterAction((ctx, data) -> actions.add("enter B"));
+        b.withExitAction((ctx, data) -> actions.add("exit B"));
+        b.transitionTo(SuperSimpleStates.A).onEvent(String.class);
+    }
+
+    @Test
+    public void testSnapshotAndRestore() {
+        final var definition = builder.build();
+        final FSM<SuperSimpleStates, Context, Data> fsm = definition.newInstance("uuid-123", mock(Context.class), mock(Data.class));
+        fsm.start();
+        fsm.onEvent("b");
+
+        final FsmSnapshot<SuperSimpleStates> snapshot = fsm.snapshot();
+        assertThat(snapshot.state(), is(SuperSimpleStates.B));
+        assertThat(snapshot.hasEntered(SuperSimpleStates.A), is(true));
+        assertThat(snapshot.hasEntered(SuperSimpleStates.B), is(true));
+        assertThat(snapshot.hasEntered(SuperSimpleStates.H), is(false));
+
+        // restoring the FSM must not execute any actions whatsoever...
+        actions.clear();
+        final FSM<SuperSimpleStates, Context, Data> restored =
+                definition.restore(snapshot, "uuid-123", mock(Context.class), mock(Data.class), null, null);
+        assertThat(restored.isStarted(), is(true));
+        assertThat(restored.getState(), is(SuperSimpleStates.B));
+        assertThat(actions.isEmpty(), is(true));
+
+        // ... and it must remember that B has already been entered once.
+        restored.onEvent("a");
+        restored.onEvent("b");
+        assertThat(actions, is(List.of("exit B", "enter A", "enter B")));
+
+        restored.onEvent("a");
+        restored.onEvent("h");
+        assertThat(restored.isTerminated(), is(true));
+    }
+
+    @Test
+    public void testSnapshotNotStarted() {
+        final var definition = builder.build();
+        final FSM<SuperSimpleStates, Context, Data> fsm = definition.newInstance(mock(Context.class), mock(Data.class));
+        final FsmSnapshot<SuperSimpleStates> snapshot = fsm.snapshot();
+        assertThat(snapshot.state() == null, is(true));
+
+        final FSM<SuperSimpleStates, Context, Data> restored =
+                definition.restore(snapshot, null, mock(Context.class), mock(Data.class), null, null);
+        assertThat(restored.isStarted(), is(false));
+        restored.start();
+        restored.onEvent("b");
+        assertThat(actions, is(List.of("enter A", "initial enter B", "enter B")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRestoreNoSnapshot() {
+        builder.build().restore(null, null, mock(Context.class), mock(Data.class), null, null);
+    }
+}
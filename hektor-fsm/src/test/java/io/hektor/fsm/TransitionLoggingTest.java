@@ -0,0 +1,163 @@
+package io.hektor.fsm;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author jonas@jonasborjesson.com
+ */
+public class TransitionLoggingTest extends TestBase {
+
+    private ListAppender<ILoggingEvent> appender;
+
+    /**
+     * The level of the root logger before the test, which {@link TestBase} changes.
+     */
+    private Level level;
+
+    @Override
+    @Before
+    public void setUp() {
+        final var ctx = (LoggerContext) LoggerFactory.getILoggerFactory();
+        level = ctx.getLogger(Logger.ROOT_LOGGER_NAME).getLevel();
+        super.setUp();
+        appender = new ListAppender<>();
+        appender.setContext(ctx);
+        appender.start();
+        ctx.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+
+        a.transitionTo(SuperSimpleStates.B).onEvent(String.class);
+        builder.withState(SuperSimpleStates.B).transitionTo(SuperSimpleStates.C).onEvent(String.class);
+        builder.withState(SuperSimpleStates.C).transitionTo(SuperSimpleStates.A).onEvent(String.class);
+    }
+
+    @After
+    public void tearDown() {
+        final var root = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAppender(appender);
+        appender.stop();
+        root.setLevel(level);
+    }
+
+    private FSM<SuperSimpleStates, Context, Data> newFsm() {
+        return builder.build().newInstance("uuid-123", mock(Context.class), mock(Data.class));
+    }
+
+    private List<String> messages() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFullLogging() {
+        final var fsm = newFsm();
+        fsm.start();
+        fsm.onEvent("one");
+        fsm.onEvent("two");
+        assertThat(messages(), is(List.of("Transitioning", "Transitioning")));
+    }
+
+    @Test
+    public void testLoggingOff() {
+        builder.withTransitionLogging(TransitionLogging.OFF);
+        final var fsm = newFsm();
+        fsm.start();
+        fsm.onEvent("one");
+        fsm.onEvent("two");
+        assertThat(fsm.getState(), is(SuperSimpleStates.C));
+        assertThat(messages().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSampledLogging() {
+        builder.withTransitionLogging(TransitionLogging.SAMPLED).withTransitionLogSampleRate(10);
+        final var fsm = newFsm();
+        fsm.start();
+        for (int i = 0; i < 1000; ++i) {
+            fsm.onEvent("event");
+        }
+
+        // one out of ten on average, so this should never fail...
+        final int logged = messages().size();
+        assertThat("Logged " + logged, logged > 10 && logged < 500, is(true));
+    }
+
+    /**
+     * The history is only dumped on an unhandled event, and it only contains the last N transitions,
+     * oldest first.
+     */
+    @Test
+    public void testHistoryDumpedOnUnhandledEvent() {
+        builder.withTransitionLogging(TransitionLogging.OFF).withTransitionHistory(2);
+        final var fsm = newFsm();
+        fsm.start();
+        fsm.onEvent("one");
+        fsm.onEvent("two");
+        fsm.onEvent("three");
+        assertThat(messages().isEmpty(), is(true));
+
+        fsm.onEvent(42);
+        assertThat(messages(), is(List.of("Unhandled event", "Last 2 transitions: [B -[String]-> C, C -[String]-> A]")));
+    }
+
+    @Test
+    public void testNoHistoryByDefault() {
+        builder.withTransitionLogging(TransitionLogging.OFF);
+        final var fsm = newFsm();
+        fsm.start();
+        fsm.onEvent("one");
+        fsm.onEvent(42);
+        assertThat(messages(), is(List.of("Unhandled event")));
+    }
+
+    /**
+     * An FSM without a uuid of its own gets it from its context, but only when it actually logs.
+     */
+    @Test
+    public void testUuidFromContext() {
+        final int[] extracted = new int[1];
+        builder.withUuidFromContext(ctx -> {
+            ++extracted[0];
+            return "uuid-from-ctx";
+        });
+        final var fsm = builder.build().newInstance(mock(Context.class), mock(Data.class));
+        fsm.start();
+        assertThat(extracted[0], is(0));
+
+        fsm.onEvent("one");
+        assertThat(extracted[0], is(1));
+        assertThat(appender.list.get(0).getMDCPropertyMap().get("fsm_uuid"), is("uuid-from-ctx"));
+    }
+
+    @Test
+    public void testNoUuid() {
+        final var fsm = builder.build().newInstance(mock(Context.class), mock(Data.class));
+        fsm.start();
+        fsm.onEvent("one");
+        assertThat(fsm.getState(), is(SuperSimpleStates.B));
+        assertThat(messages(), is(List.of("Transitioning")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadSampleRate() {
+        builder.withTransitionLogSampleRate(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadHistorySize() {
+        builder.withTransitionHistory(-1);
+    }
+}
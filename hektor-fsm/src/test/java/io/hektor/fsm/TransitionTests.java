@@ -3,12 +3,15 @@ package io.hektor.fsm;
 import io.hektor.fsm.builder.TransitionBuilder;
 import io.hektor.fsm.builder.impl.TransitionBuilderImpl;
 import io.hektor.fsm.impl.TransitionImpl;
+import io.hektor.fsm.impl.TransitionTable;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import static io.hektor.fsm.SimpleFsmStates.DONE;
+import static io.hektor.fsm.SimpleFsmStates.WORKING;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -107,4 +110,35 @@ public class TransitionTests {
         assertThat(transition.match("Hello world", null, null), is(false));
     }
 
+    /**
+     * The compiled table must pick the very same transition as checking every
+     * transition in the order they were defined would.
+     */
+    @Test
+    public void testTransitionTable() {
+        final Transition<String, SimpleFsmStates, Context, Data> hello =
+                new TransitionImpl<>("hello", DONE, String.class, s -> s.equals("hello"), null, null, null, null);
+        final Transition<CharSequence, SimpleFsmStates, Context, Data> chars =
+                new TransitionImpl<>("chars", WORKING, CharSequence.class, null, null, null, null, null);
+        final Transition<String, SimpleFsmStates, Context, Data> string =
+                new TransitionImpl<>("string", DONE, String.class, null, null, null, null, null);
+        final Transition<Integer, SimpleFsmStates, Context, Data> number =
+                new TransitionImpl<>("number", DONE, Integer.class, i -> i > 10, null, null, null, null);
+
+        final TransitionTable<SimpleFsmStates, Context, Data> table = new TransitionTable<>(List.of(hello, chars, string, number));
+
+        assertThat(table.find("hello", null, null) == hello, is(true));
+
+        // the guard of "hello" rejects it and "chars", which was defined before "string", accepts it
+        assertThat(table.find("world", null, null) == chars, is(true));
+
+        // a class that none of the transitions were defined for but that is a sub-type of one of them
+        assertThat(table.find(new StringBuilder("hello"), null, null) == chars, is(true));
+        assertThat(table.find(new StringBuilder("again"), null, null) == chars, is(true));
+
+        assertThat(table.find(11, null, null) == number, is(true));
+        assertThat(table.find(10, null, null) == null, is(true));
+        assertThat(table.find(new Object(), null, null) == null, is(true));
+    }
+
 }
@@ -0,0 +1,95 @@
+package io.hektor.benchmark;
+
+import io.hektor.config.DispatcherConfiguration;
+import io.hektor.core.Actor;
+import io.hektor.core.Hektor;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class for all benchmarks that run on top of a full {@link Hektor} instance. Every such
+ * benchmark is parameterised by the type of dispatcher and the number of workers of that
+ * dispatcher so that the numbers of the various dispatchers can easily be compared.
+ *
+ * Sub-classes are expected to call {@link #startHektor()} from their own setup method and
+ * to hold back, through {@link #awaitCapacity(long)}, when there are too many messages
+ * in flight. Otherwise we would just measure how fast we can fill up the heap.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractHektorBenchmark {
+
+    /**
+     * The max number of messages we allow to be in flight before holding back.
+     */
+    protected static final long MAX_OUTSTANDING = 1024;
+
+    protected static final Object MSG = "hello";
+
+    @Param({
+            DispatcherConfiguration.WORKER_THREAD_EXECUTOR,
+            DispatcherConfiguration.MAILBOX_EXECUTOR,
+            DispatcherConfiguration.FORK_JOIN_EXECUTOR})
+    public String executor;
+
+    @Param({"1", "4"})
+    public int workers;
+
+    @Param({DispatcherConfiguration.MPSC_MAILBOX})
+    public String mailBox;
+
+    protected Hektor hektor;
+
+    /**
+     * The number of messages received by all {@link SinkActor}s.
+     */
+    protected final AtomicLong received = new AtomicLong();
+
+    private long sent;
+
+    protected void startHektor() {
+        hektor = BenchmarkHektor.create(executor, mailBox, workers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        hektor.terminate().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Account for the given number of messages about to be sent, but first
+     * wait until there is room for them.
+     *
+     * @param count the number of messages that will be received as a result of the next send.
+     */
+    protected void awaitCapacity(final long count) {
+        while (sent - received.get() > MAX_OUTSTANDING) {
+            Thread.onSpinWait();
+        }
+        sent += count;
+    }
+
+    /**
+     * An actor that does nothing but counting the number of messages it receives.
+     */
+    public static class SinkActor implements Actor {
+        private final AtomicLong received;
+
+        public SinkActor(final AtomicLong received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onReceive(final Object msg) {
+            // the counter may be shared between several sink actors
+            received.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.hektor.benchmark;
+
+import io.hektor.config.DispatcherConfiguration;
+import io.hektor.config.HektorConfiguration;
+import io.hektor.config.WorkerThreadExecutorConfig;
+import io.hektor.core.Hektor;
+
+import java.util.Map;
+
+/**
+ * Helper for creating a {@link Hektor} instance with a single dispatcher, configured
+ * through code, for the JMH benchmarks.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+public final class BenchmarkHektor {
+
+    private BenchmarkHektor() {
+        // left empty intentionally
+    }
+
+    public static Hektor create(final String executor, final String mailBox, final int workers) {
+        final WorkerThreadExecutorConfig workerConfig = new WorkerThreadExecutorConfig.Builder()
+                .withNoOfWorkers(workers)
+                .withQueueCapacity(1024 * 16)
+                .build();
+
+        final DispatcherConfiguration dispatcher = new DispatcherConfiguration.Builder()
+                .withExecutor(executor)
+                .withMailBox(mailBox)
+                .withThroughput(100)
+                .withWorkerThreadExecutor(workerConfig)
+                .build();
+
+        final HektorConfiguration config = new HektorConfiguration();
+        config.dispatchers(Map.of("benchmark", dispatcher));
+        return Hektor.withName("benchmark").withConfiguration(config).build();
+    }
+}
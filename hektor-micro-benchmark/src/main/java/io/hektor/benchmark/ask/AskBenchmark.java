@@ -0,0 +1,56 @@
+package io.hektor.benchmark.ask;
+
+import io.hektor.benchmark.AbstractHektorBenchmark;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorRef;
+import io.hektor.core.Props;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round-trip latency of asking an actor something, i.e., the time from
+ * the question is dispatched until the answer has been received by the asking thread.
+ * Run in sample mode so that you get the percentiles and not just the average.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AskBenchmark extends AbstractHektorBenchmark {
+
+    private ActorRef echo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        startHektor();
+        echo = hektor.actorOf("echo", Props.forActor(EchoActor.class, EchoActor::new));
+    }
+
+    @Benchmark
+    public Object ask() throws Exception {
+        return echo.ask(MSG).toCompletableFuture().get(1, TimeUnit.SECONDS);
+    }
+
+    public static class EchoActor implements Actor {
+
+        @Override
+        public void onReceive(final Object msg) {
+            sender().tell(msg, self());
+        }
+    }
+}
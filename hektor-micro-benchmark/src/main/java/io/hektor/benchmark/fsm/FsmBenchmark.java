@@ -0,0 +1,143 @@
+package io.hektor.benchmark.fsm;
+
+import io.hektor.fsm.Context;
+import io.hektor.fsm.Data;
+import io.hektor.fsm.Definition;
+import io.hektor.fsm.FSM;
+import io.hektor.fsm.builder.FSMBuilder;
+import io.hektor.fsm.builder.StateBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of pushing an event through {@link FSM#onEvent(Object)}, i.e.,
+ * finding the matching transition, executing the exit, transition and enter actions
+ * and moving to the new state.
+ *
+ * <ul>
+ *     <li>{@link #transition()} - every event moves the FSM to a new state
+ *     (IDLE -&gt; RINGING -&gt; CONNECTED -&gt; IDLE).</li>
+ *     <li>{@link #guardedTransition()} - the FSM has a number of guarded transitions for the same
+ *     type of event and only the last one is accepting the event, i.e., it shows the cost of
+ *     evaluating the transitions of a state in order.</li>
+ *     <li>{@link #transitionWithActions()} - same as {@link #transition()} but every state has an
+ *     enter and an exit action and every transition has an action.</li>
+ * </ul>
+ *
+ * The FSM runs on the calling thread and knows nothing about the dispatchers, hence this
+ * benchmark is not parameterised by them. Run it with <code>-prof gc</code> to see the
+ * number of bytes allocated per event, which, once warmed up, should be zero for all of them.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FsmBenchmark {
+
+    private static final Object[] EVENTS = {new Invite(), new Answer(), new Bye()};
+
+    /**
+     * The number of guarded transitions, for the same type of event, on the IDLE state.
+     */
+    @Param({"1", "8"})
+    public int guards;
+
+    private FSM fsm;
+    private FSM fsmWithActions;
+    private Integer acceptedEvent;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fsm = newFsm(false);
+        fsmWithActions = newFsm(true);
+        acceptedEvent = guards - 1;
+    }
+
+    private FSM newFsm(final boolean withActions) {
+        final FSMBuilder<CallState, CallContext, CallData> builder =
+                FSM.of(CallState.class).ofContextType(CallContext.class).withDataType(CallData.class);
+
+        final StateBuilder<CallState, CallContext, CallData> idle = builder.withInitialState(CallState.IDLE);
+        final StateBuilder<CallState, CallContext, CallData> ringing = builder.withState(CallState.RINGING);
+        final StateBuilder<CallState, CallContext, CallData> connected = builder.withState(CallState.CONNECTED);
+        builder.withFinalState(CallState.TERMINATED);
+
+        idle.transitionTo(CallState.TERMINATED).onEvent(Terminate.class);
+        for (int i = 0; i < guards; ++i) {
+            final int value = i;
+            idle.transitionToSelf().onEvent(Integer.class).withGuard(v -> v == value);
+        }
+
+        if (withActions) {
+            for (final StateBuilder<CallState, CallContext, CallData> state : List.of(idle, ringing, connected)) {
+                state.withEnterAction((ctx, data) -> ++data.count);
+                state.withExitAction((ctx, data) -> ++data.count);
+            }
+            idle.transitionTo(CallState.RINGING).onEvent(Invite.class).withAction((e, ctx, data) -> ++data.count);
+            ringing.transitionTo(CallState.CONNECTED).onEvent(Answer.class).withAction((e, ctx, data) -> ++data.count);
+            connected.transitionTo(CallState.IDLE).onEvent(Bye.class).withAction((e, ctx, data) -> ++data.count);
+        } else {
+            idle.transitionTo(CallState.RINGING).onEvent(Invite.class);
+            ringing.transitionTo(CallState.CONNECTED).onEvent(Answer.class);
+            connected.transitionTo(CallState.IDLE).onEvent(Bye.class);
+        }
+
+        final Definition<CallState, CallContext, CallData> definition = builder.build();
+        final FSM fsm = definition.newInstance("benchmark", new CallContext(), new CallData(), (state, event) -> { }, (from, to, event) -> { });
+        fsm.start();
+        return fsm;
+    }
+
+    @Benchmark
+    public void transition() {
+        fsm.onEvent(EVENTS[next]);
+        next = (next + 1) % EVENTS.length;
+    }
+
+    @Benchmark
+    public void transitionWithActions() {
+        fsmWithActions.onEvent(EVENTS[next]);
+        next = (next + 1) % EVENTS.length;
+    }
+
+    @Benchmark
+    public void guardedTransition() {
+        fsm.onEvent(acceptedEvent);
+    }
+
+    public enum CallState {
+        IDLE, RINGING, CONNECTED, TERMINATED;
+    }
+
+    public static class CallContext implements Context { }
+
+    public static class CallData implements Data {
+        private long count;
+    }
+
+    public static class Invite { }
+
+    public static class Answer { }
+
+    public static class Bye { }
+
+    public static class Terminate { }
+}
@@ -0,0 +1,133 @@
+package io.hektor.benchmark.fsm;
+
+import io.hektor.fsm.Context;
+import io.hektor.fsm.Data;
+import io.hektor.fsm.Definition;
+import io.hektor.fsm.FSM;
+import io.hektor.fsm.builder.FSMBuilder;
+import io.hektor.fsm.builder.StateBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of broadcasting the same event to a large number of FSMs of the
+ * same {@link Definition}, which are spread across a number of states.
+ *
+ * <ul>
+ *     <li>{@link #loop()} - the event is handed to every FSM through {@link FSM#onEvent(Object)}.</li>
+ *     <li>{@link #bulk()} - the event is handed to all of them through {@link Definition#onEvent(List, Object)}.</li>
+ *     <li>{@link #parallelBulk()} - same as {@link #bulk()} but the batch is split across a {@link ForkJoinPool}.</li>
+ * </ul>
+ *
+ * Every FSM is shuffled so that neighbouring FSMs in the batch are in different states, which is
+ * what you'd typically see with e.g. a table of sessions.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FsmBulkBenchmark {
+
+    @Param({"100000"})
+    public int fsms;
+
+    private Definition<SessionState, SessionContext, SessionData> definition;
+    private List<FSM> sessions;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final FSMBuilder<SessionState, SessionContext, SessionData> builder =
+                FSM.of(SessionState.class).ofContextType(SessionContext.class).withDataType(SessionData.class);
+        final StateBuilder<SessionState, SessionContext, SessionData> idle = builder.withInitialState(SessionState.IDLE);
+        final StateBuilder<SessionState, SessionContext, SessionData> active = builder.withState(SessionState.ACTIVE);
+        final StateBuilder<SessionState, SessionContext, SessionData> held = builder.withState(SessionState.HELD);
+        builder.withFinalState(SessionState.CLOSED);
+
+        idle.transitionTo(SessionState.ACTIVE).onEvent(Activate.class);
+        active.transitionTo(SessionState.HELD).onEvent(Hold.class);
+        held.transitionTo(SessionState.ACTIVE).onEvent(Activate.class);
+
+        // every state handles the tick, without going anywhere
+        for (final StateBuilder<SessionState, SessionContext, SessionData> state : List.of(idle, active, held)) {
+            state.transitionToSelf().onEvent(Tick.class).withAction((tick, ctx, data) -> ++data.ticks);
+        }
+
+        definition = builder.build();
+        sessions = new ArrayList<>(fsms);
+        for (int i = 0; i < fsms; ++i) {
+            final FSM fsm = definition.newInstance(new SessionContext(), new SessionData());
+            fsm.start();
+            if (i % 3 > 0) {
+                fsm.onEvent(new Activate());
+            }
+            if (i % 3 > 1) {
+                fsm.onEvent(new Hold());
+            }
+            sessions.add(fsm);
+        }
+        Collections.shuffle(sessions);
+
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void loop() {
+        final Tick tick = new Tick();
+        for (int i = 0; i < sessions.size(); ++i) {
+            sessions.get(i).onEvent(tick);
+        }
+    }
+
+    @Benchmark
+    public void bulk() {
+        definition.onEvent(sessions, new Tick());
+    }
+
+    @Benchmark
+    public void parallelBulk() {
+        definition.onEvent(sessions, new Tick(), pool);
+    }
+
+    public enum SessionState {
+        IDLE, ACTIVE, HELD, CLOSED;
+    }
+
+    public static class SessionContext implements Context { }
+
+    public static class SessionData implements Data {
+        private long ticks;
+    }
+
+    public static class Activate { }
+
+    public static class Hold { }
+
+    public static class Tick { }
+}
@@ -0,0 +1,150 @@
+package io.hektor.benchmark.fsm;
+
+import io.hektor.fsm.Context;
+import io.hektor.fsm.Data;
+import io.hektor.fsm.DataCodec;
+import io.hektor.fsm.Definition;
+import io.hektor.fsm.FSM;
+import io.hektor.fsm.FsmCodec;
+import io.hektor.fsm.builder.FSMBuilder;
+import io.hektor.fsm.builder.StateBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of checkpointing a large number of FSMs through the {@link FsmCodec}.
+ *
+ * <ul>
+ *     <li>{@link #write()} - stream every FSM to a channel that throws the bytes away.</li>
+ *     <li>{@link #read(Blackhole)} - bring every FSM back from a buffer holding the checkpoint.</li>
+ * </ul>
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FsmCodecBenchmark {
+
+    @Param({"100000"})
+    public int fsms;
+
+    private FsmCodec<SessionState, SessionContext, SessionData> codec;
+    private List<FSM<SessionState, SessionContext, SessionData>> sessions;
+    private ByteBuffer checkpoint;
+    private SessionContext context;
+
+    private final WritableByteChannel nullChannel = new WritableByteChannel() {
+        @Override
+        public int write(final ByteBuffer src) {
+            final int remaining = src.remaining();
+            src.position(src.limit());
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final FSMBuilder<SessionState, SessionContext, SessionData> builder =
+                FSM.of(SessionState.class).ofContextType(SessionContext.class).withDataType(SessionData.class);
+        final StateBuilder<SessionState, SessionContext, SessionData> idle = builder.withInitialState(SessionState.IDLE);
+        final StateBuilder<SessionState, SessionContext, SessionData> active = builder.withState(SessionState.ACTIVE);
+        builder.withFinalState(SessionState.CLOSED);
+
+        idle.transitionTo(SessionState.ACTIVE).onEvent(String.class).withAction((s, ctx, data) -> ++data.events);
+        active.transitionTo(SessionState.IDLE).onEvent(String.class).withAction((s, ctx, data) -> ++data.events);
+
+        final Definition<SessionState, SessionContext, SessionData> definition = builder.build();
+        codec = definition.codec(new SessionDataCodec());
+        context = new SessionContext();
+
+        sessions = new ArrayList<>(fsms);
+        for (int i = 0; i < fsms; ++i) {
+            final FSM<SessionState, SessionContext, SessionData> fsm = definition.newInstance(context, new SessionData(i));
+            fsm.start();
+            if (i % 2 == 0) {
+                fsm.onEvent("activate");
+            }
+            sessions.add(fsm);
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(sessions, Channels.newChannel(out));
+        checkpoint = ByteBuffer.wrap(out.toByteArray());
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        codec.write(sessions, nullChannel);
+    }
+
+    @Benchmark
+    public void read(final Blackhole blackhole) {
+        final ByteBuffer in = checkpoint.duplicate();
+        while (in.hasRemaining()) {
+            blackhole.consume(codec.read(in, context));
+        }
+    }
+
+    public enum SessionState {
+        IDLE, ACTIVE, CLOSED;
+    }
+
+    public static class SessionContext implements Context { }
+
+    public static class SessionData implements Data {
+        private final long id;
+        private long events;
+
+        private SessionData(final long id) {
+            this.id = id;
+        }
+    }
+
+    private static class SessionDataCodec implements DataCodec<SessionData> {
+        @Override
+        public void encode(final SessionData data, final ByteBuffer out) {
+            out.putLong(data.id);
+            out.putLong(data.events);
+        }
+
+        @Override
+        public SessionData decode(final ByteBuffer in) {
+            final SessionData data = new SessionData(in.getLong());
+            data.events = in.getLong();
+            return data;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.hektor.benchmark.journal;
+
+import io.hektor.actors.fsm.EventCodec;
+import io.hektor.actors.fsm.Journal;
+import io.hektor.core.ActorPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Measures the cost of journaling an event from a number of actors running on different threads.
+ *
+ * <ul>
+ *     <li>{@link #groupCommit(Writer)} - append the event and let the journal commit once every commit window.</li>
+ *     <li>{@link #commitEveryEvent(Writer)} - append the event and commit straight away, i.e., one fsync per event,
+ *     which is what the group commit is there to avoid.</li>
+ * </ul>
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final EventCodec CODEC = new EventCodec() {
+        @Override
+        public void encode(final Object event, final ByteBuffer out) {
+            out.put((byte[]) event);
+        }
+
+        @Override
+        public Object decode(final ByteBuffer in) {
+            final byte[] event = new byte[in.remaining()];
+            in.get(event);
+            return event;
+        }
+    };
+
+    private final byte[] event = new byte[32];
+
+    private final AtomicInteger actors = new AtomicInteger();
+
+    private Path directory;
+
+    private Journal journal;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("hektor-journal");
+        journal = Journal.of(directory).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Every thread is its own actor.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private Journal.Writer writer;
+
+        @Setup(Level.Trial)
+        public void setup(final JournalBenchmark benchmark) {
+            writer = benchmark.journal.writer(ActorPath.of("hektor").createChild("actor-" + benchmark.actors.incrementAndGet()));
+        }
+    }
+
+    @Benchmark
+    public void groupCommit(final Writer writer) {
+        writer.writer.event(CODEC, event);
+    }
+
+    @Benchmark
+    public void commitEveryEvent(final Writer writer) {
+        writer.writer.event(CODEC, event);
+        journal.commit();
+    }
+}
@@ -0,0 +1,75 @@
+package io.hektor.benchmark.lifecycle;
+
+import io.hektor.benchmark.AbstractHektorBenchmark;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorRef;
+import io.hektor.core.Props;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the cost of the full life cycle of an actor. Every operation creates a new
+ * actor, asks it to stop itself and then waits until the actor has been fully
+ * stopped, i.e., until its {@link Actor#postStop()} has been called.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActorChurnBenchmark extends AbstractHektorBenchmark {
+
+    private static final Object STOP = "stop";
+
+    private final AtomicLong stopped = new AtomicLong();
+    private Props props;
+    private long created;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        startHektor();
+        props = Props.forActor(ShortLivedActor.class, () -> new ShortLivedActor(stopped));
+    }
+
+    @Benchmark
+    public void createAndStop() {
+        final ActorRef actor = hektor.actorOf("churn-" + created++, props);
+        actor.tellAnonymously(STOP);
+        while (stopped.get() != created) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public static class ShortLivedActor implements Actor {
+        private final AtomicLong stopped;
+
+        public ShortLivedActor(final AtomicLong stopped) {
+            this.stopped = stopped;
+        }
+
+        @Override
+        public void onReceive(final Object msg) {
+            ctx().stop();
+        }
+
+        @Override
+        public void postStop() {
+            stopped.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.hektor.benchmark.mailbox;
+
+import io.hektor.config.DispatcherConfiguration;
+import io.hektor.core.internal.DefaultMailBox;
+import io.hektor.core.internal.Envelope;
+import io.hektor.core.internal.MailBox;
+import io.hektor.core.internal.MpscMailBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of the various {@link MailBox} implementations when a single
+ * consumer (the actor) is draining the mailbox while one or many producers are
+ * sending messages to it, i.e., the contention an actor receiving messages from a lot
+ * of other actors would experience.
+ *
+ * The producers are held back if they get too far ahead of the consumer so that we
+ * are measuring the mailbox and not the garbage collector. Every producer keeps track of
+ * its own outstanding messages, the message being the producer itself, so that the
+ * producers aren't fighting over a shared counter on top of the mailbox.
+ *
+ * Run through the {@link #main(String...)} or through the regular JMH runner.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailBoxBenchmark {
+
+    /**
+     * The max number of messages the producers are allowed to be ahead of the consumer.
+     */
+    private static final long MAX_OUTSTANDING = 1024 * 16;
+
+    @Param({DispatcherConfiguration.DEFAULT_MAILBOX, DispatcherConfiguration.MPSC_MAILBOX})
+    public String mailBoxType;
+
+    private MailBox mailBox;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        mailBox = DispatcherConfiguration.MPSC_MAILBOX.equals(mailBoxType) ? new MpscMailBox() : new DefaultMailBox();
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        /**
+         * Only ever touched by the producer itself.
+         */
+        private long produced;
+
+        /**
+         * Only ever written to by the consumer.
+         */
+        private final AtomicLong consumed = new AtomicLong();
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            produced = 0;
+            consumed.set(0);
+        }
+    }
+
+    @Benchmark
+    @Group("oneProducer")
+    @GroupThreads(1)
+    public void oneProducerOffer(final Producer producer, final Control control) {
+        offer(producer, control);
+    }
+
+    @Benchmark
+    @Group("oneProducer")
+    @GroupThreads(1)
+    public Envelope oneProducerPoll() {
+        return poll();
+    }
+
+    @Benchmark
+    @Group("fourProducers")
+    @GroupThreads(4)
+    public void fourProducersOffer(final Producer producer, final Control control) {
+        offer(producer, control);
+    }
+
+    @Benchmark
+    @Group("fourProducers")
+    @GroupThreads(1)
+    public Envelope fourProducersPoll() {
+        return poll();
+    }
+
+    private void offer(final Producer producer, final Control control) {
+        while (producer.produced - producer.consumed.get() > MAX_OUTSTANDING) {
+            if (control.stopMeasurement) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+
+        mailBox.offer(new Envelope(null, null, producer));
+        ++producer.produced;
+    }
+
+    private Envelope poll() {
+        final Envelope envelope = mailBox.poll();
+        if (envelope != null) {
+            final AtomicLong consumed = ((Producer) envelope.message()).consumed;
+            consumed.lazySet(consumed.get() + 1);
+        }
+        return envelope;
+    }
+
+    public static void main(final String... args) throws Exception {
+        final Options options = new OptionsBuilder()
+                .include(MailBoxBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,111 @@
+package io.hektor.benchmark.scheduler;
+
+import io.hektor.benchmark.AbstractHektorBenchmark;
+import io.hektor.core.ActorRef;
+import io.hektor.core.Cancellable;
+import io.hektor.core.Props;
+import io.hektor.core.Timer;
+import io.hektor.config.SchedulerConfiguration;
+import io.hektor.core.internal.HashWheelScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of scheduling a timer and then cancelling it again, which is
+ * by far the most common life cycle of a timer (think re-transmission timers and
+ * state timeouts that are cancelled because the expected event did show up).
+ *
+ * The timers are scheduled far enough into the future that they never fire during
+ * the benchmark. The benchmark runs with several threads, each scheduling timers for a
+ * number of different actors, so that the effect of spreading the timers across several
+ * wheels (the <code>shards</code> parameter) shows.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SchedulerBenchmark extends AbstractHektorBenchmark {
+
+    private static final Duration DELAY = Duration.ofHours(1);
+
+    /**
+     * Within one round of the wheel, i.e., the previous timeout of a re-armed timer is
+     * forgotten about rather than removed from the wheel.
+     */
+    private static final Duration DELAY_SHORT = Duration.ofSeconds(2);
+
+    private static final int RECEIVERS = 16;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    private HashWheelScheduler scheduler;
+    private ActorRef[] sinks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        startHektor();
+        final SchedulerConfiguration config = new SchedulerConfiguration.Builder().withShards(shards).build();
+        scheduler = new HashWheelScheduler("benchmark", config);
+        sinks = new ActorRef[RECEIVERS];
+        for (int i = 0; i < RECEIVERS; ++i) {
+            sinks[i] = hektor.actorOf("sink-" + i, Props.forActor(SinkActor.class, () -> new SinkActor(received)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopScheduler() {
+        scheduler.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int next;
+        private Timer timer;
+
+        @Setup(Level.Trial)
+        public void setup(final SchedulerBenchmark benchmark) {
+            timer = benchmark.scheduler.timer(benchmark.sinks[0], ActorRef.None());
+        }
+
+        int next() {
+            next = (next + 1) % RECEIVERS;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel(final ThreadState state) {
+        final Cancellable timer = scheduler.schedule(MSG, sinks[state.next()], ActorRef.None(), DELAY);
+        return timer.cancel();
+    }
+
+    /**
+     * Re-arm a re-usable timer over and over, which is what e.g. a re-transmission
+     * timer would do.
+     */
+    @Benchmark
+    public void rearm(final ThreadState state) {
+        state.timer.schedule(MSG, DELAY_SHORT);
+    }
+}
@@ -0,0 +1,107 @@
+package io.hektor.benchmark.store;
+
+import com.codahale.metrics.MetricRegistry;
+import io.hektor.config.ActorStoreConfiguration;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorPath;
+import io.hektor.core.ActorRef;
+import io.hektor.core.internal.ActorBox;
+import io.hektor.core.internal.ActorStore;
+import io.hektor.core.internal.DefaultActorRef;
+import io.hektor.core.internal.DefaultMailBox;
+import io.hektor.core.internal.ShardedActorStore;
+import io.hektor.core.internal.SimpleActorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of looking up an actor in the {@link ActorStore}, which happens
+ * for every single message being dispatched.
+ *
+ * <ul>
+ *     <li>{@link #find(ThreadState)} - the lookup done on the dispatch path.</li>
+ *     <li>{@link #lookupByPath(ThreadState)} - a lookup through a path that is equal to, but not
+ *     the same instance as, the path the actor was stored under. This is what happens when
+ *     a user looks up an actor by name.</li>
+ * </ul>
+ *
+ * The actor store is independent of the dispatcher so the contention on the store is
+ * controlled through the number of benchmark threads (<code>-t</code>) instead, which defaults
+ * to 4 to mimic 4 workers all dispatching at the same time.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ActorStoreBenchmark {
+
+    @Param({"100", "10000"})
+    public int actors;
+
+    @Param({ActorStoreConfiguration.SIMPLE_ACTOR_STORE, ActorStoreConfiguration.SHARDED_ACTOR_STORE})
+    public String type;
+
+    private ActorStore store;
+    private ActorRef[] refs;
+    private ActorPath[] paths;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (ActorStoreConfiguration.SHARDED_ACTOR_STORE.equals(type)) {
+            final ActorStoreConfiguration config = new ActorStoreConfiguration.Builder().withType(type).build();
+            store = new ShardedActorStore("benchmark", config, new MetricRegistry());
+        } else {
+            store = new SimpleActorStore();
+        }
+        refs = new ActorRef[actors];
+        paths = new ActorPath[actors];
+
+        final ActorPath root = ActorPath.of("benchmark");
+        final Actor actor = msg -> { };
+        for (int i = 0; i < actors; ++i) {
+            refs[i] = new DefaultActorRef(root.createChild("actor-" + i), null);
+            paths[i] = ActorPath.of("benchmark").createChild("actor-" + i);
+            store.store(refs[i], actor, new DefaultMailBox());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private int next;
+
+        int next(final int max) {
+            final int current = next;
+            next = (next + 1) % max;
+            return current;
+        }
+    }
+
+    @Benchmark
+    public ActorBox find(final ThreadState state) {
+        return store.find(refs[state.next(actors)]);
+    }
+
+    @Benchmark
+    public Optional<ActorBox> lookupByPath(final ThreadState state) {
+        return store.lookup(paths[state.next(actors)]);
+    }
+}
@@ -0,0 +1,78 @@
+package io.hektor.benchmark.store;
+
+import io.hektor.core.ActorPath;
+import io.hektor.core.PassivationStore;
+import io.hektor.core.internal.MappedPassivationStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the cost of loading a {@link MappedPassivationStore} holding a large number of snapshots,
+ * which is what has to happen before any passivated actor can be brought back after a restart.
+ *
+ * <ul>
+ *     <li>{@link #load()} - map the segments and rebuild the index.</li>
+ * </ul>
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PassivationStoreBenchmark {
+
+    @Param({"1000000"})
+    public int snapshots;
+
+    @Param({"64"})
+    public int snapshotSize;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("hektor-passivation");
+        final ActorPath root = ActorPath.of("hektor");
+        final byte[] snapshot = new byte[snapshotSize];
+        try (PassivationStore store = PassivationStore.mapped(directory).build()) {
+            for (int i = 0; i < snapshots; ++i) {
+                store.put(root.createChild("session-" + i), snapshot);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int load() throws IOException {
+        try (PassivationStore store = PassivationStore.mapped(directory).build()) {
+            return store.size();
+        }
+    }
+}
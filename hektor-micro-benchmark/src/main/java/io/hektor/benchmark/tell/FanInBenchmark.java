@@ -0,0 +1,59 @@
+package io.hektor.benchmark.tell;
+
+import io.hektor.benchmark.AbstractHektorBenchmark;
+import io.hektor.benchmark.tell.TellBenchmark.ForwardingActor;
+import io.hektor.core.ActorRef;
+import io.hektor.core.Props;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * N:1 - a number of producing actors all sending to the very same actor. Since the producers
+ * are spread across the workers of the dispatcher, this is where the mailbox of the
+ * receiving actor is contended by many threads.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanInBenchmark extends AbstractHektorBenchmark {
+
+    @Param({"4"})
+    public int producers;
+
+    private ActorRef[] forwarders;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        startHektor();
+        final ActorRef sink = hektor.actorOf("sink", Props.forActor(SinkActor.class, () -> new SinkActor(received)));
+        forwarders = new ActorRef[producers];
+        for (int i = 0; i < producers; ++i) {
+            forwarders[i] = hektor.actorOf("producer-" + i, Props.forActor(ForwardingActor.class, () -> new ForwardingActor(sink)));
+        }
+    }
+
+    @Benchmark
+    public void fanIn() {
+        awaitCapacity(1);
+        forwarders[next].tellAnonymously(MSG);
+        next = (next + 1) % producers;
+    }
+}
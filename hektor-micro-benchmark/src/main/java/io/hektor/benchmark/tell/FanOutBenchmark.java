@@ -0,0 +1,71 @@
+package io.hektor.benchmark.tell;
+
+import io.hektor.benchmark.AbstractHektorBenchmark;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorRef;
+import io.hektor.core.Props;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1:N - a single actor broadcasting every message it receives to a number of other actors.
+ * Every operation is one message into the broadcasting actor and N messages out of it.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutBenchmark extends AbstractHektorBenchmark {
+
+    @Param({"4"})
+    public int receivers;
+
+    private ActorRef broadcaster;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        startHektor();
+        final ActorRef[] sinks = new ActorRef[receivers];
+        for (int i = 0; i < receivers; ++i) {
+            sinks[i] = hektor.actorOf("sink-" + i, Props.forActor(SinkActor.class, () -> new SinkActor(received)));
+        }
+        broadcaster = hektor.actorOf("broadcaster", Props.forActor(BroadcastingActor.class, () -> new BroadcastingActor(sinks)));
+    }
+
+    @Benchmark
+    public void fanOut() {
+        awaitCapacity(receivers);
+        broadcaster.tellAnonymously(MSG);
+    }
+
+    public static class BroadcastingActor implements Actor {
+        private final ActorRef[] targets;
+
+        public BroadcastingActor(final ActorRef[] targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public void onReceive(final Object msg) {
+            for (int i = 0; i < targets.length; ++i) {
+                targets[i].tell(msg, self());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.hektor.benchmark.tell;
+
+import io.hektor.benchmark.AbstractHektorBenchmark;
+import io.hektor.core.Actor;
+import io.hektor.core.ActorRef;
+import io.hektor.core.Props;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost, in particular the allocation rate, of sending a message to an actor.
+ * Run it with the GC profiler (which the {@link #main(String...)} does for you, or
+ * pass <code>-prof gc</code> to the JMH runner) and look at <code>gc.alloc.rate.norm</code>,
+ * which is the number of bytes allocated per message.
+ *
+ * <ul>
+ *     <li>{@link #tell()} - a message sent from outside of the actor system straight to an actor.</li>
+ *     <li>{@link #tellThroughActor()} - a message sent to an actor, which forwards it to another
+ *     actor, i.e., it also exercises the path of an actor sending a message.</li>
+ *     <li>{@link #tellAll()} - a batch of {@link #BATCH_SIZE} messages sent from outside of the actor
+ *     system through {@link ActorRef#tellAll(java.util.Collection)}. Note that every operation is
+ *     an entire batch.</li>
+ * </ul>
+ *
+ * See {@link FanInBenchmark} and {@link FanOutBenchmark} for the N:1 and 1:N cases.
+ *
+ * @author jonas@jonasborjesson.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TellBenchmark extends AbstractHektorBenchmark {
+
+    private static final int BATCH_SIZE = 16;
+
+    private static final List<Object> BATCH = Collections.nCopies(BATCH_SIZE, MSG);
+
+    private ActorRef sink;
+    private ActorRef forwarder;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        startHektor();
+        sink = hektor.actorOf("sink", Props.forActor(SinkActor.class, () -> new SinkActor(received)));
+        forwarder = hektor.actorOf("forwarder", Props.forActor(ForwardingActor.class, () -> new ForwardingActor(sink)));
+    }
+
+    @Benchmark
+    public void tell() {
+        awaitCapacity(1);
+        sink.tellAnonymously(MSG);
+    }
+
+    @Benchmark
+    public void tellAll() {
+        awaitCapacity(BATCH_SIZE);
+        sink.tellAll(BATCH);
+    }
+
+    @Benchmark
+    public void tellThroughActor() {
+        awaitCapacity(1);
+        forwarder.tellAnonymously(MSG);
+    }
+
+    public static class ForwardingActor implements Actor {
+        private final ActorRef target;
+
+        public ForwardingActor(final ActorRef target) {
+            this.target = target;
+        }
+
+        @Override
+        public void onReceive(final Object msg) {
+            target.tell(msg, self());
+        }
+    }
+
+    public static void main(final String... args) throws Exception {
+        final Options options = new OptionsBuilder()
+                .include(TellBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}